@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @ConfigurationProperties(prefix = "app")
 @Getter
@@ -17,6 +19,9 @@ public class AppProperties {
     private Swagger swagger = new Swagger();
     private Boolean forceDisableOidc = false;
     private Telemetry telemetry = new Telemetry();
+    private Monitoring monitoring = new Monitoring();
+    private Kepubify kepubify = new Kepubify();
+    private Email email = new Email();
 
     @Getter
     @Setter
@@ -42,4 +47,28 @@ public class AppProperties {
     public static class Telemetry {
         private String baseUrl = "https://telemetry.booklore.org";
     }
+
+    @Getter
+    @Setter
+    public static class Monitoring {
+        private Duration pollInterval = Duration.ofSeconds(60);
+        private Duration pollJitter = Duration.ofSeconds(15);
+        private int pollThreads = 2;
+    }
+
+    @Getter
+    @Setter
+    public static class Kepubify {
+        private int maxConcurrent = 2;
+        private Duration timeout = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Email {
+        private int maxConnectionsPerProvider = 2;
+        private int messagesPerConnection = 10;
+        private int maxAttempts = 5;
+        private Duration retryDelay = Duration.ofSeconds(30);
+    }
 }
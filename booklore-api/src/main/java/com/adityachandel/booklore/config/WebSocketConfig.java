@@ -2,18 +2,31 @@ package com.adityachandel.booklore.config;
 
 import com.adityachandel.booklore.config.security.interceptor.WebSocketAuthInterceptor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
 
 @Slf4j
 @Configuration
-@EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // Per-session outbound buffer. A client that falls this far behind loses its oldest queued messages instead of
+    // holding broker threads or memory; one that cannot send anything for SEND_TIME_LIMIT_MS is disconnected.
+    private static final int SESSION_SEND_BUFFER_BYTES = 512 * 1024;
+    private static final int SEND_TIME_LIMIT_MS = 15_000;
+
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
 
     public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor) {
@@ -33,8 +46,45 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         log.info("WebSocket endpoint registered at /ws");
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(SEND_TIME_LIMIT_MS);
+        registration.setSendBufferSizeLimit(SESSION_SEND_BUFFER_BYTES);
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(webSocketAuthInterceptor);
     }
-}
\ No newline at end of file
+
+    /**
+     * Takes the place of {@code @EnableWebSocketMessageBroker} so the broker's session handler can be replaced.
+     */
+    @Configuration
+    static class MessageBrokerConfiguration extends DelegatingWebSocketMessageBrokerConfiguration {
+
+        @Bean
+        @Override
+        public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                            AbstractSubscribableChannel clientOutboundChannel) {
+            return new DroppingSubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel);
+        }
+    }
+
+    /**
+     * Applies the transport's send limits with the DROP overflow strategy on the one session decorator
+     * Spring creates per connection, so an overflowing buffer sheds its oldest messages instead of closing the session.
+     */
+    static class DroppingSubProtocolWebSocketHandler extends SubProtocolWebSocketHandler {
+
+        DroppingSubProtocolWebSocketHandler(MessageChannel clientInboundChannel, SubscribableChannel clientOutboundChannel) {
+            super(clientInboundChannel, clientOutboundChannel);
+        }
+
+        @Override
+        protected WebSocketSession decorateSession(WebSocketSession session) {
+            return new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit(),
+                    ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        }
+    }
+}
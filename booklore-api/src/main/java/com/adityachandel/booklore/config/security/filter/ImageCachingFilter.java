@@ -10,6 +10,10 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Cache headers for page images and backup covers. Covers and thumbnails set their own headers in {@code BookService}
+ * since they depend on whether the URL carries a cover version.
+ */
 @Component
 public class ImageCachingFilter extends OncePerRequestFilter {
 
@@ -17,8 +21,7 @@ public class ImageCachingFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String uri = request.getRequestURI();
         if (uri.startsWith("/api/v1/media/book/") &&
-            (uri.contains("/cover") || uri.contains("/thumbnail") || uri.contains("/backup-cover") ||
-             uri.contains("/pdf/pages/") || uri.contains("/cbx/pages/"))) {
+            (uri.contains("/backup-cover") || uri.contains("/pdf/pages/") || uri.contains("/cbx/pages/"))) {
             response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=3600");
             response.setHeader(HttpHeaders.EXPIRES, String.valueOf(System.currentTimeMillis() + 3600_000));
         }
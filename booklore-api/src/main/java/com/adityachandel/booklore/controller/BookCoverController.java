@@ -4,13 +4,19 @@ import com.adityachandel.booklore.config.security.annotation.CheckBookAccess;
 import com.adityachandel.booklore.model.dto.CoverImage;
 import com.adityachandel.booklore.model.dto.request.BulkBookIdsRequest;
 import com.adityachandel.booklore.model.dto.request.CoverFetchRequest;
+import com.adityachandel.booklore.model.dto.request.TaskCreateRequest;
+import com.adityachandel.booklore.model.dto.response.TaskCreateResponse;
+import com.adityachandel.booklore.model.enums.TaskType;
 import com.adityachandel.booklore.service.metadata.BookCoverService;
 import com.adityachandel.booklore.service.metadata.DuckDuckGoCoverService;
+import com.adityachandel.booklore.service.task.TaskService;
+import com.adityachandel.booklore.task.options.CoverRegenerationOptions;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -19,6 +25,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/books")
@@ -28,6 +35,7 @@ public class BookCoverController {
 
     private final BookCoverService bookCoverService;
     private final DuckDuckGoCoverService duckDuckGoCoverService;
+    private final TaskService taskService;
 
     @Operation(summary = "Upload cover image from file", description = "Upload a cover image for a book from a file. Requires metadata edit permission or admin.")
     @ApiResponse(responseCode = "200", description = "Cover image uploaded successfully")
@@ -52,11 +60,11 @@ public class BookCoverController {
     }
 
     @Operation(summary = "Regenerate all covers", description = "Regenerate covers for all books. Requires metadata edit permission or admin.")
-    @ApiResponse(responseCode = "204", description = "Covers regenerated successfully")
+    @ApiResponse(responseCode = "202", description = "Cover regeneration task started")
     @PostMapping("/regenerate-covers")
     @PreAuthorize("@securityUtil.canBulkRegenerateCover() or @securityUtil.isAdmin()")
-    public void regenerateCovers() {
-        bookCoverService.regenerateCovers();
+    public ResponseEntity<TaskCreateResponse> regenerateCovers() {
+        return startCoverTask(CoverRegenerationOptions.Mode.REGENERATE, null);
     }
 
     @Operation(summary = "Regenerate cover for a book", description = "Regenerate cover for a specific book. Requires metadata edit permission or admin.")
@@ -78,19 +86,19 @@ public class BookCoverController {
     }
 
     @Operation(summary = "Regenerate covers for selected books", description = "Regenerate covers for a list of books. Requires metadata edit permission or admin.")
-    @ApiResponse(responseCode = "204", description = "Cover regeneration started successfully")
+    @ApiResponse(responseCode = "202", description = "Cover regeneration task started")
     @PostMapping("/bulk-regenerate-covers")
     @PreAuthorize("@securityUtil.canBulkRegenerateCover() or @securityUtil.isAdmin()")
-    public void regenerateCoversForBooks(@Parameter(description = "List of book IDs") @Validated @RequestBody BulkBookIdsRequest request) {
-        bookCoverService.regenerateCoversForBooks(request.getBookIds());
+    public ResponseEntity<TaskCreateResponse> regenerateCoversForBooks(@Parameter(description = "List of book IDs") @Validated @RequestBody BulkBookIdsRequest request) {
+        return startCoverTask(CoverRegenerationOptions.Mode.REGENERATE, request.getBookIds());
     }
 
     @Operation(summary = "Generate custom covers for selected books", description = "Generate custom covers for a list of books. Requires metadata edit permission or admin.")
-    @ApiResponse(responseCode = "204", description = "Custom cover generation started successfully")
+    @ApiResponse(responseCode = "202", description = "Custom cover generation task started")
     @PostMapping("/bulk-generate-custom-covers")
     @PreAuthorize("@securityUtil.canBulkRegenerateCover() or @securityUtil.isAdmin()")
-    public void generateCustomCoversForBooks(@Parameter(description = "List of book IDs") @Validated @RequestBody BulkBookIdsRequest request) {
-        bookCoverService.generateCustomCoversForBooks(request.getBookIds());
+    public ResponseEntity<TaskCreateResponse> generateCustomCoversForBooks(@Parameter(description = "List of book IDs") @Validated @RequestBody BulkBookIdsRequest request) {
+        return startCoverTask(CoverRegenerationOptions.Mode.CUSTOM, request.getBookIds());
     }
 
     @Operation(summary = "Upload cover image for multiple books", description = "Upload a cover image to apply to multiple books. Requires metadata edit permission or admin.")
@@ -109,4 +117,12 @@ public class BookCoverController {
     public ResponseEntity<List<CoverImage>> getImages(@Parameter(description = "Cover fetch request") @RequestBody CoverFetchRequest request) {
         return ResponseEntity.ok(duckDuckGoCoverService.getCovers(request));
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<TaskCreateResponse> startCoverTask(CoverRegenerationOptions.Mode mode, Set<Long> bookIds) {
+        TaskCreateResponse response = taskService.runAsUser(TaskCreateRequest.builder()
+                .taskType(TaskType.REGENERATE_COVERS)
+                .options(CoverRegenerationOptions.builder().mode(mode).bookIds(bookIds).build())
+                .build());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+}
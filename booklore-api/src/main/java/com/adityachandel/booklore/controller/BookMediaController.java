@@ -1,25 +1,33 @@
 package com.adityachandel.booklore.controller;
 
+import com.adityachandel.booklore.model.dto.response.ThumbnailAtlasManifest;
 import com.adityachandel.booklore.service.book.BookService;
+import com.adityachandel.booklore.service.book.ThumbnailAtlasService;
 import com.adityachandel.booklore.service.bookdrop.BookDropService;
 import com.adityachandel.booklore.service.reader.CbxReaderService;
 import com.adityachandel.booklore.service.reader.PdfReaderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.IOException;
+import java.time.Duration;
 
 @Tag(name = "Book Media", description = "Endpoints for retrieving book media such as covers, thumbnails, and pages")
 @AllArgsConstructor
@@ -31,19 +39,63 @@ public class BookMediaController {
     private final PdfReaderService pdfReaderService;
     private final CbxReaderService cbxReaderService;
     private final BookDropService bookDropService;
+    private final ThumbnailAtlasService thumbnailAtlasService;
 
     @Operation(summary = "Get book thumbnail", description = "Retrieve the thumbnail image for a specific book.")
     @ApiResponse(responseCode = "200", description = "Book thumbnail returned successfully")
     @GetMapping("/book/{bookId}/thumbnail")
-    public ResponseEntity<Resource> getBookThumbnail(@Parameter(description = "ID of the book") @PathVariable long bookId) {
-        return ResponseEntity.ok(bookService.getBookThumbnail(bookId));
+    public ResponseEntity<Resource> getBookThumbnail(
+            @Parameter(description = "ID of the book") @PathVariable long bookId,
+            @Parameter(description = "Cover version; versioned URLs are cached as immutable") @RequestParam(name = "v", required = false) String version,
+            @Parameter(description = "Desired width in pixels, rounded up to the nearest stored size") @RequestParam(name = "w", required = false) Integer width) {
+        return bookService.getBookThumbnailResponse(bookId, version, width);
     }
 
     @Operation(summary = "Get book cover", description = "Retrieve the cover image for a specific book.")
     @ApiResponse(responseCode = "200", description = "Book cover returned successfully")
     @GetMapping("/book/{bookId}/cover")
-    public ResponseEntity<Resource> getBookCover(@Parameter(description = "ID of the book") @PathVariable long bookId) {
-        return ResponseEntity.ok(bookService.getBookCover(bookId));
+    public ResponseEntity<Resource> getBookCover(
+            @Parameter(description = "ID of the book") @PathVariable long bookId,
+            @Parameter(description = "Cover version; versioned URLs are cached as immutable") @RequestParam(name = "v", required = false) String version) {
+        return bookService.getBookCoverResponse(bookId, version);
+    }
+
+    @Operation(summary = "Get thumbnail atlas manifest", description = "Retrieve the layout and version of a thumbnail atlas. Atlas n covers book IDs n * " + ThumbnailAtlasService.BOOKS_PER_ATLAS + " up to the next atlas. Supports conditional requests with If-None-Match.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Atlas manifest returned successfully"),
+        @ApiResponse(responseCode = "304", description = "Atlas unchanged since the given ETag")
+    })
+    @GetMapping("/thumbnail-atlas/{atlas}/manifest")
+    public ResponseEntity<ThumbnailAtlasManifest> getThumbnailAtlasManifest(
+            @Parameter(description = "Index of the atlas") @PathVariable long atlas,
+            WebRequest webRequest) {
+        ThumbnailAtlasManifest manifest = thumbnailAtlasService.getManifest(atlas);
+        String eTag = "\"" + manifest.getVersion() + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag)
+                .body(manifest);
+    }
+
+    @Operation(summary = "Get thumbnail atlas", description = "Retrieve the thumbnails of a range of books packed into one image, laid out as described by the atlas manifest.")
+    @ApiResponse(responseCode = "200", description = "Thumbnail atlas returned successfully")
+    @GetMapping("/thumbnail-atlas/{atlas}")
+    public ResponseEntity<byte[]> getThumbnailAtlas(
+            @Parameter(description = "Index of the atlas") @PathVariable long atlas,
+            @Parameter(description = "Atlas version from the manifest") @RequestParam(name = "v", required = false) String version) {
+        ThumbnailAtlasService.ThumbnailAtlas image = thumbnailAtlasService.getAtlas(atlas);
+        // Only a matching version may be cached for good; a stale one gets the current atlas under a revalidated URL.
+        CacheControl cacheControl = image.version().equals(version)
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache();
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag("\"" + image.version() + "\"")
+                .contentType(MediaType.IMAGE_JPEG)
+                .body(image.image());
     }
 
     @Operation(summary = "Get PDF page as image", description = "Retrieve a specific page from a PDF book as an image.")
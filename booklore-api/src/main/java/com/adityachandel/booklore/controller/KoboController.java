@@ -78,7 +78,7 @@ public class KoboController {
             @Parameter(description = "Cover version (timestamp)") @PathVariable String version,
             @Parameter(description = "Width of the thumbnail") @PathVariable int width,
             @Parameter(description = "Height of the thumbnail") @PathVariable int height) {
-        return koboThumbnailService.getThumbnail(imageId);
+        return koboThumbnailService.getThumbnail(imageId, width, height);
     }
 
     @Operation(summary = "Get book thumbnail", description = "Retrieve the thumbnail image for a Kobo store book.")
@@ -89,7 +89,7 @@ public class KoboController {
             @Parameter(description = "Width of the thumbnail") @PathVariable int width,
             @Parameter(description = "Height of the thumbnail") @PathVariable int height) {
         if (imageId.startsWith("BL-")) {
-            return koboThumbnailService.getThumbnail(imageId);
+            return koboThumbnailService.getThumbnail(imageId, width, height);
         } else {
             String cdnUrl = String.format("https://cdn.kobo.com/book-images/%s/%d/%d/false/image.jpg", imageId, width, height);
             return koboServerProxy.proxyExternalUrl(cdnUrl);
@@ -106,7 +106,7 @@ public class KoboController {
             @Parameter(description = "Height of the thumbnail") @PathVariable int height,
             @Parameter(description = "Quality of the thumbnail") @PathVariable int quality,
             @Parameter(description = "Is greyscale") @PathVariable boolean isGreyscale) {
-        return koboThumbnailService.getThumbnail(imageId);
+        return koboThumbnailService.getThumbnail(imageId, width, height, quality, isGreyscale);
     }
 
     @Operation(summary = "Get greyscale book thumbnail", description = "Retrieve a greyscale thumbnail image for a Kobo store book.")
@@ -119,7 +119,7 @@ public class KoboController {
             @Parameter(description = "Quality of the thumbnail") @PathVariable int quality,
             @Parameter(description = "Is greyscale") @PathVariable boolean isGreyscale) {
         if (imageId.startsWith("BL-")) {
-            return koboThumbnailService.getThumbnail(imageId);
+            return koboThumbnailService.getThumbnail(imageId, width, height, quality, isGreyscale);
         } else {
             String cdnUrl = String.format("https://cdn.kobo.com/book-images/%s/%d/%d/%d/%b/image.jpg", imageId, width, height, quality, isGreyscale);
             return koboServerProxy.proxyExternalUrl(cdnUrl);
@@ -183,7 +183,7 @@ public class KoboController {
     @GetMapping("/v1/books/{bookId}/download")
     public void downloadBook(@Parameter(description = "Book ID") @PathVariable String bookId, HttpServletResponse response) {
         if (StringUtils.isNumeric(bookId)) {
-            bookDownloadService.downloadKoboBook(Long.parseLong(bookId), response);
+            bookDownloadService.downloadKoboBook(Long.parseLong(bookId), token, response);
         } else {
             koboServerProxy.proxyCurrentRequest(null, false);
         }
@@ -10,6 +10,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -19,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @Tag(name = "Komga API", description = "Komga-compatible API endpoints. " +
@@ -140,22 +142,20 @@ public class KomgaController {
 
     @Operation(summary = "Get book page image")
     @GetMapping("/v1/books/{bookId}/pages/{pageNumber}")
-    public ResponseEntity<Resource> getBookPage(
+    public void getBookPage(
             @Parameter(description = "Book ID") @PathVariable Long bookId,
             @Parameter(description = "Page number") @PathVariable Integer pageNumber,
-            @Parameter(description = "Convert image format (e.g., 'png')") @RequestParam(required = false) String convert) {
+            @Parameter(description = "Convert image format (e.g., 'png')") @RequestParam(required = false) String convert,
+            HttpServletResponse response) throws IOException {
         try {
             boolean convertToPng = "png".equalsIgnoreCase(convert);
-            Resource pageImage = komgaService.getBookPageImage(bookId, pageNumber, convertToPng);
-            // Note: When not converting, we assume JPEG as most CBZ files contain JPEG images,
-            // but the actual format may vary (PNG, WebP, etc.)
-            String contentType = convertToPng ? "image/png" : "image/jpeg";
-            return ResponseEntity.ok()
-                    .header("Content-Type", contentType)
-                    .body(pageImage);
+            komgaService.streamBookPageImage(bookId, pageNumber, convertToPng, response);
         } catch (Exception e) {
             log.error("Failed to get page {} from book {}", pageNumber, bookId, e);
-            return ResponseEntity.notFound().build();
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
         }
     }
 
@@ -10,6 +10,7 @@ import com.adityachandel.booklore.model.dto.request.*;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.enums.MetadataReplaceMode;
 import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.event.BookEventBroadcaster;
 import com.adityachandel.booklore.service.metadata.BookMetadataService;
 import com.adityachandel.booklore.service.metadata.BookMetadataUpdater;
 import com.adityachandel.booklore.service.metadata.MetadataManagementService;
@@ -27,6 +28,7 @@ import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/books")
@@ -40,6 +42,7 @@ public class MetadataController {
     private final MetadataMatchService metadataMatchService;
     private final BookRepository bookRepository;
     private final MetadataManagementService metadataManagementService;
+    private final BookEventBroadcaster bookEventBroadcaster;
 
     @Operation(summary = "Get prospective metadata for a book", description = "Fetch prospective metadata for a book by its ID. Requires metadata edit permission or admin.")
     @ApiResponse(responseCode = "200", description = "Prospective metadata returned successfully")
@@ -124,7 +127,8 @@ public class MetadataController {
     @PostMapping("/metadata/manage/consolidate")
     @PreAuthorize("@securityUtil.canBulkEditMetadata() or @securityUtil.isAdmin()")
     public ResponseEntity<Void> mergeMetadata(@Parameter(description = "Merge metadata request") @Validated @RequestBody MergeMetadataRequest request) {
-        metadataManagementService.consolidateMetadata(request.getMetadataType(), request.getTargetValues(), request.getValuesToMerge());
+        Set<Long> affectedBookIds = metadataManagementService.consolidateMetadata(request.getMetadataType(), request.getTargetValues(), request.getValuesToMerge());
+        bookEventBroadcaster.broadcastBooksUpdated(affectedBookIds);
         return ResponseEntity.noContent().build();
     }
 
@@ -133,7 +137,8 @@ public class MetadataController {
     @PostMapping("/metadata/manage/delete")
     @PreAuthorize("@securityUtil.canBulkEditMetadata() or @securityUtil.isAdmin()")
     public ResponseEntity<Void> deleteMetadata(@Parameter(description = "Delete metadata request") @Validated @RequestBody DeleteMetadataRequest request) {
-        metadataManagementService.deleteMetadata(request.getMetadataType(), request.getValuesToDelete());
+        Set<Long> affectedBookIds = metadataManagementService.deleteMetadata(request.getMetadataType(), request.getValuesToDelete());
+        bookEventBroadcaster.broadcastBooksUpdated(affectedBookIds);
         return ResponseEntity.noContent().build();
     }
 }
@@ -2,6 +2,7 @@ package com.adityachandel.booklore.controller;
 
 import com.adityachandel.booklore.model.dto.Book;
 import com.adityachandel.booklore.model.dto.Shelf;
+import com.adityachandel.booklore.model.dto.ShelfBook;
 import com.adityachandel.booklore.model.dto.request.ShelfCreateRequest;
 import com.adityachandel.booklore.service.ShelfService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,10 +12,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -81,4 +88,25 @@ public class ShelfController {
             @Parameter(description = "ID of the shelf") @PathVariable Long shelfId) {
         return ResponseEntity.ok(shelfService.getShelfBooks(shelfId));
     }
+
+    @Operation(summary = "Get a page of books on a shelf", description = "Retrieve a page of lightweight entries for the books assigned to a specific shelf. Sortable by title, seriesName, seriesNumber, addedOn and id. Supports conditional requests with If-None-Match.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Books returned successfully"),
+        @ApiResponse(responseCode = "304", description = "Shelf unchanged since the given ETag")
+    })
+    @GetMapping("/{shelfId}/books/page")
+    @PreAuthorize("@securityUtil.canReadShelf(#shelfId)")
+    public ResponseEntity<Page<ShelfBook>> getShelfBooksPage(
+            @Parameter(description = "ID of the shelf") @PathVariable Long shelfId,
+            @Parameter(description = "Page, size and sort") @PageableDefault(size = 100, sort = "addedOn", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest webRequest) {
+        String eTag = shelfService.getShelfBooksETag(shelfId);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(shelfService.getShelfBooksPage(shelfId, pageable));
+    }
 }
@@ -11,6 +11,5 @@ public interface BookEntityToKoboSnapshotBookMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "bookId", expression = "java(book.getId())")
-    @Mapping(target = "synced", constant = "false")
     KoboSnapshotBookEntity toKoboSnapshotBook(BookEntity book);
 }
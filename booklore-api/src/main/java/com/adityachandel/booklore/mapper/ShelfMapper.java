@@ -10,6 +10,6 @@ public interface ShelfMapper {
 
     @Mapping(source = "user.id", target = "userId")
     @Mapping(source = "public", target = "publicShelf")
-    @Mapping(target = "bookCount", expression = "java(shelfEntity.getBookEntities() != null ? shelfEntity.getBookEntities().size() : 0)")
+    @Mapping(target = "bookCount", ignore = true)
     Shelf toShelf(ShelfEntity shelfEntity);
 }
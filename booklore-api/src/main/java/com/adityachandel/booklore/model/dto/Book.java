@@ -26,6 +26,7 @@ public class Book {
     private String title;
     private Instant lastReadTime;
     private Instant addedOn;
+    private String bookCoverHash;
     private BookMetadata metadata;
     private Float metadataMatchScore;
     private PdfProgress pdfProgress;
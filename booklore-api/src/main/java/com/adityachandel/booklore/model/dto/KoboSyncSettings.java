@@ -12,6 +12,7 @@ public class KoboSyncSettings {
     private Float progressMarkAsReadingThreshold;
     private Float progressMarkAsFinishedThreshold;
     private boolean autoAddToShelf;
+    private Integer syncBatchSize;
     private String hardcoverApiKey;
     private boolean hardcoverSyncEnabled;
 }
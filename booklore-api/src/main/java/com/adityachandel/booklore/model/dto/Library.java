@@ -2,6 +2,7 @@ package com.adityachandel.booklore.model.dto;
 
 import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.model.enums.IconType;
+import com.adityachandel.booklore.model.enums.LibraryMonitorMode;
 import com.adityachandel.booklore.model.enums.LibraryScanMode;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
@@ -20,6 +21,7 @@ public class Library {
     private IconType iconType;
     private String fileNamingPattern;
     private boolean watch;
+    private LibraryMonitorMode monitorMode;
     private List<LibraryPath> paths;
     private LibraryScanMode scanMode;
     private BookFileType defaultBookFormat;
@@ -0,0 +1,21 @@
+package com.adityachandel.booklore.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Builder
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ShelfBook {
+    private Long id;
+    private Long libraryId;
+    private String title;
+    private String seriesName;
+    private Float seriesNumber;
+    private Instant addedOn;
+    private String bookCoverHash;
+    private Instant coverUpdatedOn;
+}
@@ -0,0 +1,6 @@
+package com.adityachandel.booklore.model.dto.kobo;
+
+import com.adityachandel.booklore.model.enums.KoboSnapshotChangeType;
+
+public record KoboSnapshotDiff(Long bookId, KoboSnapshotChangeType changeType) {
+}
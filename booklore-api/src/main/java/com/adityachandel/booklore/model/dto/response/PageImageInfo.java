@@ -0,0 +1,19 @@
+package com.adityachandel.booklore.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageImageInfo {
+    private int pageNumber;
+    private String fileName;
+    private String mediaType;
+    private Integer width;
+    private Integer height;
+    private Long fileSize;
+}
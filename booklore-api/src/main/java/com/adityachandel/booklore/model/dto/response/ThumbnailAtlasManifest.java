@@ -0,0 +1,32 @@
+package com.adityachandel.booklore.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThumbnailAtlasManifest {
+    private long atlas;
+    private String version;
+    private int width;
+    private int height;
+    private List<Entry> entries;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private long bookId;
+        private int x;
+        private int y;
+        private int width;
+        private int height;
+    }
+}
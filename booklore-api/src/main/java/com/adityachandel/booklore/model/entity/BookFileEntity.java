@@ -60,6 +60,19 @@ public class BookFileEntity {
     @Column(name = "added_on")
     private Instant addedOn;
 
+    /**
+     * Size, modification time (epoch millis) and {@link #currentHash} of the file when a library rescan last read its
+     * metadata; a rescan skips the file while all three still match.
+     */
+    @Column(name = "rescan_file_size")
+    private Long rescanFileSize;
+
+    @Column(name = "rescan_modified_ms")
+    private Long rescanModifiedMs;
+
+    @Column(name = "rescan_hash", length = 128)
+    private String rescanHash;
+
     public boolean isBook() {
         return isBookFormat;
     }
@@ -24,6 +24,20 @@ public class KoboLibrarySnapshotEntity {
     @Column(name = "created_date", nullable = false)
     private LocalDateTime createdDate;
 
+    /**
+     * Snapshot whose materialized books this snapshot is expressed against.
+     * Null when the snapshot carries its own full book list.
+     */
+    @Column(name = "base_snapshot_id")
+    private String baseSnapshotId;
+
     @OneToMany(mappedBy = "snapshot", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<KoboSnapshotBookEntity> books;
+
+    @OneToMany(mappedBy = "snapshot", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<KoboSnapshotChangeEntity> changes;
+
+    public String getEffectiveBaseId() {
+        return baseSnapshotId != null ? baseSnapshotId : id;
+    }
 }
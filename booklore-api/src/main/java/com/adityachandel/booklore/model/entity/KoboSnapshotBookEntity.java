@@ -31,8 +31,4 @@ public class KoboSnapshotBookEntity {
 
     @Column(name = "metadata_updated_at")
     private Instant metadataUpdatedAt;
-
-    @Column(nullable = false)
-    @Builder.Default
-    private boolean synced = false;
 }
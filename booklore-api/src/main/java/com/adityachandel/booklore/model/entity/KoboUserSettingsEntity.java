@@ -34,6 +34,10 @@ public class KoboUserSettingsEntity {
     @Builder.Default
     private Float progressMarkAsFinishedThreshold = 99f;
 
+    @Column(name = "sync_batch_size")
+    @Builder.Default
+    private Integer syncBatchSize = 100;
+
     @Column(name = "auto_add_to_shelf")
     @Builder.Default
     private boolean autoAddToShelf = false;
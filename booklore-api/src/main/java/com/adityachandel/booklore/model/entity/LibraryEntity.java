@@ -4,6 +4,7 @@ import com.adityachandel.booklore.convertor.SortConverter;
 import com.adityachandel.booklore.model.dto.Sort;
 import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.model.enums.IconType;
+import com.adityachandel.booklore.model.enums.LibraryMonitorMode;
 import com.adityachandel.booklore.model.enums.LibraryScanMode;
 import jakarta.persistence.*;
 import lombok.*;
@@ -39,6 +40,11 @@ public class LibraryEntity {
 
     private boolean watch;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "monitor_mode", nullable = false)
+    @Builder.Default
+    private LibraryMonitorMode monitorMode = LibraryMonitorMode.WATCH;
+
     private String icon;
 
     @Enumerated(EnumType.STRING)
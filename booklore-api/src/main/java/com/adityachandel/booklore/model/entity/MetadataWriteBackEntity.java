@@ -0,0 +1,28 @@
+package com.adityachandel.booklore.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "metadata_write_back_queue")
+public class MetadataWriteBackEntity {
+
+    @Id
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "move_file", nullable = false)
+    private boolean moveFile;
+
+    @Column(name = "requested_at", nullable = false)
+    private Instant requestedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+}
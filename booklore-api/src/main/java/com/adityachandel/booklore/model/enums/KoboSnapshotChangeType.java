@@ -0,0 +1,7 @@
+package com.adityachandel.booklore.model.enums;
+
+public enum KoboSnapshotChangeType {
+    ADDED,
+    CHANGED,
+    REMOVED
+}
@@ -0,0 +1,6 @@
+package com.adityachandel.booklore.model.enums;
+
+public enum LibraryMonitorMode {
+    WATCH,
+    POLL
+}
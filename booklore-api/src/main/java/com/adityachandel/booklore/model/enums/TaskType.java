@@ -50,6 +50,14 @@ public enum TaskType {
             true,
             "Refresh Metadata",
             "Updates metadata information for your selected books."
+    ),
+    REGENERATE_COVERS(
+            true,
+            true,
+            false,
+            false,
+            "Regenerate Covers",
+            "Regenerates cover images for all or selected books."
     );
 
     @Getter
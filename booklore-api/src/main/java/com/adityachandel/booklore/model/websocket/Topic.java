@@ -7,6 +7,7 @@ import lombok.Getter;
 @AllArgsConstructor
 public enum Topic {
     BOOK_ADD("/queue/book-add"),
+    BOOKS_ADD("/queue/books-add"),
     BOOK_UPDATE("/queue/book-update"),
     BOOKS_COVER_UPDATE("/queue/books-cover-update"),
     BOOKS_REMOVE("/queue/books-remove"),
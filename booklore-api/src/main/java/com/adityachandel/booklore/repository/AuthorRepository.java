@@ -1,16 +1,19 @@
 package com.adityachandel.booklore.repository;
 
 import com.adityachandel.booklore.model.entity.AuthorEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AuthorRepository extends JpaRepository<AuthorEntity, Long> {
+public interface AuthorRepository extends JpaRepository<AuthorEntity, Long>, MetadataValueMappingRepository {
 
     Optional<AuthorEntity> findByName(String name);
 
@@ -18,5 +21,32 @@ public interface AuthorRepository extends JpaRepository<AuthorEntity, Long> {
 
     @Query("SELECT a FROM AuthorEntity a JOIN a.bookMetadataEntityList bm WHERE bm.bookId = :bookId")
     List<AuthorEntity> findAuthorsByBookId(@Param("bookId") Long bookId);
-}
 
+    @Override
+    @Query(value = """
+            SELECT DISTINCT book_id FROM book_metadata_author_mapping
+            WHERE author_id IN (:valueIds) AND book_id > :afterBookId
+            ORDER BY book_id
+            """, nativeQuery = true)
+    List<Long> findMappedBookIdsAfter(@Param("valueIds") Collection<Long> valueIds, @Param("afterBookId") long afterBookId, Pageable pageable);
+
+    @Override
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT IGNORE INTO book_metadata_author_mapping (book_id, author_id)
+            SELECT DISTINCT m.book_id, t.id
+            FROM book_metadata_author_mapping m
+            JOIN author t ON t.id IN (:targetIds)
+            WHERE m.author_id IN (:sourceIds) AND m.book_id BETWEEN :fromBookId AND :toBookId
+            """, nativeQuery = true)
+    int copyMappings(@Param("sourceIds") Collection<Long> sourceIds, @Param("targetIds") Collection<Long> targetIds,
+                     @Param("fromBookId") long fromBookId, @Param("toBookId") long toBookId);
+
+    @Override
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            DELETE FROM book_metadata_author_mapping
+            WHERE author_id IN (:valueIds) AND book_id BETWEEN :fromBookId AND :toBookId
+            """, nativeQuery = true)
+    int deleteMappings(@Param("valueIds") Collection<Long> valueIds, @Param("fromBookId") long fromBookId, @Param("toBookId") long toBookId);
+}
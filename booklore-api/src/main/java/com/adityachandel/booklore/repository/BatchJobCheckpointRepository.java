@@ -0,0 +1,7 @@
+package com.adityachandel.booklore.repository;
+
+import com.adityachandel.booklore.model.entity.BatchJobCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BatchJobCheckpointRepository extends JpaRepository<BatchJobCheckpointEntity, String> {
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,6 +38,14 @@ public interface BookAdditionalFileRepository extends JpaRepository<BookFileEnti
                                                                                       @Param("fileSubPath") String fileSubPath,
                                                                                       @Param("fileName") String fileName);
 
+    /**
+     * {@code fileSubPath/fileName} of every file stored in the given sub-paths of a library path, for checking a whole
+     * batch of scanned files against the database at once.
+     */
+    @Query("SELECT CONCAT(bf.fileSubPath, '/', bf.fileName) FROM BookFileEntity bf WHERE bf.book.libraryPath.id = :libraryPathId AND bf.fileSubPath IN :fileSubPaths")
+    List<String> findFilePathsByLibraryPathIdAndFileSubPathIn(@Param("libraryPathId") Long libraryPathId,
+                                                              @Param("fileSubPaths") Collection<String> fileSubPaths);
+
     List<BookFileEntity> findByIsBookFormat(boolean isBookFormat);
 
     List<BookFileEntity> findByBookType(BookFileType bookType);
@@ -4,7 +4,10 @@ import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.LibraryPathEntity;
 import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.repository.projection.BookCoverUpdateProjection;
+import com.adityachandel.booklore.repository.projection.ShelfBookProjection;
+import com.adityachandel.booklore.repository.projection.ShelfBooksVersionProjection;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
@@ -35,6 +38,10 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
     @Query("SELECT DISTINCT b FROM BookEntity b JOIN b.bookFiles bf WHERE b.libraryPath.id = :libraryPathId AND bf.fileSubPath LIKE CONCAT(:fileSubPathPrefix, '%') AND bf.isBookFormat = true AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findAllByLibraryPathIdAndFileSubPathStartingWith(@Param("libraryPathId") Long libraryPathId, @Param("fileSubPathPrefix") String fileSubPathPrefix);
 
+    @EntityGraph(attributePaths = {"libraryPath", "bookFiles"})
+    @Query("SELECT DISTINCT b FROM BookEntity b JOIN b.bookFiles bf WHERE b.libraryPath.id = :libraryPathId AND bf.fileSubPath IN :fileSubPaths AND bf.isBookFormat = true AND (b.deleted IS NULL OR b.deleted = false)")
+    List<BookEntity> findAllByLibraryPathIdAndFileSubPathIn(@Param("libraryPathId") Long libraryPathId, @Param("fileSubPaths") Collection<String> fileSubPaths);
+
     @Query("SELECT b FROM BookEntity b JOIN b.bookFiles bf WHERE b.libraryPath.id = :libraryPathId AND bf.fileSubPath = :fileSubPath AND bf.fileName = :fileName AND bf.isBookFormat = true AND (b.deleted IS NULL OR b.deleted = false)")
     Optional<BookEntity> findByLibraryPath_IdAndFileSubPathAndFileName(@Param("libraryPathId") Long libraryPathId,
                                                                        @Param("fileSubPath") String fileSubPath,
@@ -67,9 +74,35 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
     @Query("SELECT DISTINCT b FROM BookEntity b JOIN b.shelves s WHERE s.id = :shelfId AND (b.deleted IS NULL OR b.deleted = false)")
     List<BookEntity> findAllWithMetadataByShelfId(@Param("shelfId") Long shelfId);
 
-    @EntityGraph(attributePaths = { "metadata", "shelves", "libraryPath", "bookFiles" })
-    @Query("SELECT DISTINCT b FROM BookEntity b JOIN b.bookFiles bf WHERE bf.isBookFormat = true AND bf.fileSizeKb IS NULL AND (b.deleted IS NULL OR b.deleted = false)")
-    List<BookEntity> findAllWithMetadataByFileSizeKbIsNull();
+    @Query(value = """
+            SELECT b.id AS id, b.library.id AS libraryId, m.title AS title, m.seriesName AS seriesName,
+                   m.seriesNumber AS seriesNumber, b.addedOn AS addedOn, b.bookCoverHash AS bookCoverHash,
+                   m.coverUpdatedOn AS coverUpdatedOn
+            FROM BookEntity b JOIN b.shelves s LEFT JOIN b.metadata m
+            WHERE s.id = :shelfId AND (b.deleted IS NULL OR b.deleted = false)
+            """,
+            countQuery = """
+            SELECT COUNT(b.id) FROM BookEntity b JOIN b.shelves s
+            WHERE s.id = :shelfId AND (b.deleted IS NULL OR b.deleted = false)
+            """)
+    Page<ShelfBookProjection> findShelfBooksByShelfId(@Param("shelfId") Long shelfId, Pageable pageable);
+
+    @Query("""
+            SELECT COUNT(b.id) AS bookCount, MAX(b.metadataUpdatedAt) AS metadataUpdatedAt, MAX(m.coverUpdatedOn) AS coverUpdatedOn
+            FROM BookEntity b JOIN b.shelves s LEFT JOIN b.metadata m
+            WHERE s.id = :shelfId AND (b.deleted IS NULL OR b.deleted = false)
+            """)
+    ShelfBooksVersionProjection findShelfBooksVersionByShelfId(@Param("shelfId") Long shelfId);
+
+    @Query("""
+            SELECT DISTINCT b.id FROM BookEntity b
+            JOIN b.bookFiles bf
+            WHERE b.id > :afterId
+            AND bf.isBookFormat = true AND bf.fileSizeKb IS NULL
+            AND (b.deleted IS NULL OR b.deleted = false)
+            ORDER BY b.id
+            """)
+    List<Long> findBookIdsWithMissingFileSizeAfter(@Param("afterId") long afterId, Pageable pageable);
 
     @Query("""
                 SELECT DISTINCT b FROM BookEntity b
@@ -81,14 +114,24 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
             """)
     List<BookEntity> findAllFullBooks();
 
-    @Query(value = """
-                SELECT DISTINCT b.* FROM book b
-                LEFT JOIN book_metadata m ON b.id = m.book_id
-                WHERE (b.deleted IS NULL OR b.deleted = false)
-                ORDER BY b.id
-                LIMIT :limit OFFSET :offset
-            """, nativeQuery = true)
-    List<BookEntity> findBooksForMigrationBatch(@Param("offset") int offset, @Param("limit") int limit);
+    /**
+     * Keyset page of live book ids; unlike OFFSET paging every page costs the same, however far into the library it is.
+     */
+    @Query("""
+            SELECT b.id FROM BookEntity b
+            WHERE b.id > :afterId
+            AND (b.deleted IS NULL OR b.deleted = false)
+            ORDER BY b.id
+            """)
+    List<Long> findBookIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"libraryPath", "bookFiles"})
+    @Query("SELECT DISTINCT b FROM BookEntity b WHERE b.id IN :bookIds")
+    List<BookEntity> findAllWithFilesByIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @EntityGraph(attributePaths = {"metadata", "metadata.authors", "metadata.categories"})
+    @Query("SELECT DISTINCT b FROM BookEntity b WHERE b.id IN :bookIds")
+    List<BookEntity> findAllForMatchScoreByIds(@Param("bookIds") Collection<Long> bookIds);
 
     @Query("""
                 SELECT DISTINCT b FROM BookEntity b
@@ -143,9 +186,47 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
     @Query("SELECT COUNT(b) FROM BookEntity b WHERE b.library.id = :libraryId AND (b.deleted IS NULL OR b.deleted = false)")
     long countByLibraryId(@Param("libraryId") Long libraryId);
 
-    @Query("SELECT b.id as id, m.coverUpdatedOn as coverUpdatedOn FROM BookEntity b LEFT JOIN b.metadata m WHERE b.id IN :bookIds")
+    @Query("""
+            SELECT b.id FROM BookEntity b
+            WHERE b.library.id = :libraryId
+            AND b.id > :afterId
+            AND (b.deleted IS NULL OR b.deleted = false)
+            ORDER BY b.id
+            """)
+    List<Long> findBookIdsByLibraryIdAfter(@Param("libraryId") long libraryId, @Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT b.id as id, m.coverUpdatedOn as coverUpdatedOn, b.bookCoverHash as bookCoverHash FROM BookEntity b LEFT JOIN b.metadata m WHERE b.id IN :bookIds")
     List<BookCoverUpdateProjection> findCoverUpdateInfoByIds(@Param("bookIds") Collection<Long> bookIds);
 
+    @Query("""
+            SELECT b.id as id, m.coverUpdatedOn as coverUpdatedOn, b.bookCoverHash as bookCoverHash
+            FROM BookEntity b LEFT JOIN b.metadata m
+            WHERE b.id BETWEEN :fromId AND :toId AND (b.deleted IS NULL OR b.deleted = false)
+            """)
+    List<BookCoverUpdateProjection> findCoverUpdateInfoByIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("""
+            SELECT b.id FROM BookEntity b
+            LEFT JOIN b.metadata m
+            WHERE b.id > :afterId
+            AND (m.coverLocked IS NULL OR m.coverLocked = false)
+            AND (b.deleted IS NULL OR b.deleted = false)
+            ORDER BY b.id
+            """)
+    List<Long> findCoverUnlockedBookIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("""
+            SELECT COUNT(b) FROM BookEntity b
+            LEFT JOIN b.metadata m
+            WHERE (m.coverLocked IS NULL OR m.coverLocked = false)
+            AND (b.deleted IS NULL OR b.deleted = false)
+            """)
+    long countCoverUnlockedBooks();
+
+    @EntityGraph(attributePaths = {"metadata", "metadata.authors", "libraryPath", "bookFiles"})
+    @Query("SELECT DISTINCT b FROM BookEntity b WHERE b.id IN :bookIds AND (b.deleted IS NULL OR b.deleted = false)")
+    List<BookEntity> findAllForCoverUpdateByIds(@Param("bookIds") Collection<Long> bookIds);
+
     @Modifying
     @Query("""
             UPDATE BookEntity b SET
@@ -249,62 +330,56 @@ public interface BookRepository extends JpaRepository<BookEntity, Long>, JpaSpec
     List<String> findDistinctSeriesNamesUngrouped();
 
     /**
-     * Find books by series name for a library when groupUnknown=true.
-     * Uses the first bookFile.fileName as fallback when metadata.seriesName is null.
+     * Find the books of several series at once when groupUnknown=true.
+     * Books without series name belong to the unknown series, which is included when requested.
      */
     @EntityGraph(attributePaths = {"metadata", "shelves", "libraryPath"})
     @Query("""
             SELECT DISTINCT b FROM BookEntity b
             LEFT JOIN b.metadata m
-            LEFT JOIN b.bookFiles bf
-            WHERE b.library.id = :libraryId
+            WHERE (:libraryId IS NULL OR b.library.id = :libraryId)
             AND (
-                (m.seriesName = :seriesName)
-                OR (
-                    m.seriesName IS NULL
-                    AND bf.isBookFormat = true
-                    AND bf.id = (
-                        SELECT MIN(bf2.id) FROM BookFileEntity bf2
-                        WHERE bf2.book = b AND bf2.isBookFormat = true
-                    )
-                    AND bf.fileName = :seriesName
-                )
+                m.seriesName IN :seriesNames
+                OR (:includeUnknown = true AND m.seriesName IS NULL)
             )
             AND (b.deleted IS NULL OR b.deleted = false)
             ORDER BY COALESCE(m.seriesNumber, 0)
             """)
-    List<BookEntity> findBooksBySeriesNameGroupedByLibraryId(
-            @Param("seriesName") String seriesName,
-            @Param("libraryId") Long libraryId,
-            @Param("unknownSeriesName") String unknownSeriesName);
+    List<BookEntity> findBooksBySeriesNamesGrouped(
+            @Param("seriesNames") Collection<String> seriesNames,
+            @Param("includeUnknown") boolean includeUnknown,
+            @Param("libraryId") Long libraryId);
 
     /**
-     * Find books by series name for a library when groupUnknown=false.
+     * Find the books of several series at once when groupUnknown=false.
      * Matches by series name, or by title/filename for books without series.
      */
     @EntityGraph(attributePaths = {"metadata", "shelves", "libraryPath"})
     @Query("""
-            SELECT b FROM BookEntity b
+            SELECT DISTINCT b FROM BookEntity b
             LEFT JOIN b.metadata m
-            LEFT JOIN b.bookFiles bf
-            WHERE b.library.id = :libraryId
+            WHERE (:libraryId IS NULL OR b.library.id = :libraryId)
             AND (
-                (m.seriesName = :seriesName)
-                OR (m.seriesName IS NULL AND m.title = :seriesName)
+                m.seriesName IN :seriesNames
+                OR (m.seriesName IS NULL AND m.title IN :seriesNames)
                 OR (
                     m.seriesName IS NULL AND m.title IS NULL
-                    AND bf.isBookFormat = true
-                    AND bf.id = (
-                        SELECT MIN(bf2.id) FROM BookFileEntity bf2
-                        WHERE bf2.book = b AND bf2.isBookFormat = true
+                    AND EXISTS (
+                        SELECT 1 FROM BookFileEntity bf
+                        WHERE bf.book = b
+                          AND bf.isBookFormat = true
+                          AND bf.fileName IN :seriesNames
+                          AND bf.id = (
+                              SELECT MIN(bf2.id) FROM BookFileEntity bf2
+                              WHERE bf2.book = b AND bf2.isBookFormat = true
+                          )
                     )
-                    AND bf.fileName = :seriesName
                 )
             )
             AND (b.deleted IS NULL OR b.deleted = false)
             ORDER BY COALESCE(m.seriesNumber, 0)
             """)
-    List<BookEntity> findBooksBySeriesNameUngroupedByLibraryId(
-            @Param("seriesName") String seriesName,
+    List<BookEntity> findBooksBySeriesNamesUngrouped(
+            @Param("seriesNames") Collection<String> seriesNames,
             @Param("libraryId") Long libraryId);
 }
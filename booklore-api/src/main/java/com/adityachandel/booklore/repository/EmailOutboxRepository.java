@@ -0,0 +1,25 @@
+package com.adityachandel.booklore.repository;
+
+import com.adityachandel.booklore.model.entity.EmailOutboxEntity;
+import com.adityachandel.booklore.model.enums.EmailOutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, Long> {
+
+    /**
+     * Keyset page of jobs with the given status that are due at {@code now}, in the order they were queued.
+     */
+    @Query("""
+            SELECT e FROM EmailOutboxEntity e
+            WHERE e.status = :status AND e.nextAttemptAt <= :now AND e.id > :afterId
+            ORDER BY e.id
+            """)
+    List<EmailOutboxEntity> findDueAfter(@Param("status") EmailOutboxStatus status, @Param("now") Instant now,
+                                         @Param("afterId") long afterId, Pageable pageable);
+}
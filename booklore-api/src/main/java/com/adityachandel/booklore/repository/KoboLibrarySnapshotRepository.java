@@ -13,4 +13,6 @@ public interface KoboLibrarySnapshotRepository extends JpaRepository<KoboLibrary
 
     Optional<KoboLibrarySnapshotEntity> findTopByUserIdOrderByCreatedDateDesc(Long userId);
 
+    boolean existsByBaseSnapshotId(String baseSnapshotId);
+
 }
@@ -4,9 +4,13 @@ import com.adityachandel.booklore.model.entity.KoboReadingStateEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface KoboReadingStateRepository extends JpaRepository<KoboReadingStateEntity, Long> {
     Optional<KoboReadingStateEntity> findByEntitlementId(String entitlementId);
+
+    List<KoboReadingStateEntity> findByEntitlementIdIn(Collection<String> entitlementIds);
 }
\ No newline at end of file
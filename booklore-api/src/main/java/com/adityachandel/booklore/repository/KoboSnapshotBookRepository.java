@@ -2,112 +2,80 @@ package com.adityachandel.booklore.repository;
 
 
 import com.adityachandel.booklore.model.entity.KoboSnapshotBookEntity;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.adityachandel.booklore.repository.projection.KoboSnapshotDiffProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface KoboSnapshotBookRepository extends JpaRepository<KoboSnapshotBookEntity, Long> {
 
-    Page<KoboSnapshotBookEntity> findBySnapshot_IdAndSyncedFalse(String snapshotId, Pageable pageable);
+    List<KoboSnapshotBookEntity> findBySnapshot_Id(String snapshotId);
 
-    @Modifying
-    @Query("UPDATE KoboSnapshotBookEntity b SET b.synced = true WHERE b.snapshot.id = :snapshotId AND b.bookId IN :bookIds")
-    void markBooksSynced(@Param("snapshotId") String snapshotId, @Param("bookIds") List<Long> bookIds);
+    List<KoboSnapshotBookEntity> findBySnapshot_IdAndBookIdIn(String snapshotId, Collection<Long> bookIds);
 
-    @Query("""
-                SELECT curr
-                FROM KoboSnapshotBookEntity curr
-                WHERE curr.snapshot.id = :currSnapshotId
-                  AND curr.bookId IN (
-                      SELECT prev.bookId
-                      FROM KoboSnapshotBookEntity prev
-                      WHERE prev.snapshot.id = :prevSnapshotId
-                  )
-            """)
-    List<KoboSnapshotBookEntity> findExistingBooksBetweenSnapshots(
-            @Param("prevSnapshotId") String prevSnapshotId,
-            @Param("currSnapshotId") String currSnapshotId
-    );
-
-    @Query("""
-            SELECT curr
-            FROM KoboSnapshotBookEntity curr
-            WHERE curr.snapshot.id = :currSnapshotId
-              AND (:unsyncedOnly = false OR curr.synced = false)
-              AND curr.bookId NOT IN (
-                    SELECT prev.bookId
-                    FROM KoboSnapshotBookEntity prev
-                    WHERE prev.snapshot.id = :prevSnapshotId
-              )
-            """)
-    Page<KoboSnapshotBookEntity> findNewlyAddedBooks(
-            @Param("prevSnapshotId") String prevSnapshotId,
-            @Param("currSnapshotId") String currSnapshotId,
-            @Param("unsyncedOnly") boolean unsyncedOnly,
-            Pageable pageable
+    @Query(value = """
+            SELECT ksb.book_id
+            FROM kobo_library_snapshot_book ksb
+            WHERE ksb.snapshot_id = :snapshotId
+              AND ksb.book_id > :afterBookId
+            ORDER BY ksb.book_id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findBookIdsAfter(
+            @Param("snapshotId") String snapshotId,
+            @Param("afterBookId") long afterBookId,
+            @Param("limit") int limit
     );
 
-    @Query("""
-                SELECT prev
-                FROM KoboSnapshotBookEntity prev
-                WHERE prev.snapshot.id = :prevSnapshotId
-                  AND prev.bookId NOT IN (
-                      SELECT curr.bookId
-                      FROM KoboSnapshotBookEntity curr
-                      WHERE curr.snapshot.id = :currSnapshotId
+    @Query(value = """
+            SELECT d.book_id AS bookId, d.change_type AS changeType
+            FROM (
+                SELECT curr.book_id, 'ADDED' AS change_type
+                FROM kobo_library_snapshot_book curr
+                WHERE curr.snapshot_id = :currSnapshotId
+                  AND curr.book_id > :afterBookId
+                  AND NOT EXISTS (
+                      SELECT 1 FROM kobo_library_snapshot_book prev
+                      WHERE prev.snapshot_id = :prevSnapshotId
+                        AND prev.book_id = curr.book_id
                   )
-                  AND prev.bookId NOT IN (
-                      SELECT p.bookIdSynced
-                      FROM KoboDeletedBookProgressEntity p
-                      WHERE p.snapshotId = :currSnapshotId
-                  )
-            """)
-    Page<KoboSnapshotBookEntity> findRemovedBooks(
-            @Param("prevSnapshotId") String prevSnapshotId,
-            @Param("currSnapshotId") String currSnapshotId,
-            Pageable pageable
-    );
-
-    @Query("""
-                SELECT curr
-                FROM KoboSnapshotBookEntity curr
-                JOIN KoboSnapshotBookEntity prev
-                    ON curr.bookId = prev.bookId
-                WHERE curr.snapshot.id = :currSnapshotId
-                  AND prev.snapshot.id = :prevSnapshotId
-                  AND curr.fileHash = prev.fileHash
-                  AND (curr.metadataUpdatedAt = prev.metadataUpdatedAt OR (curr.metadataUpdatedAt IS NULL AND prev.metadataUpdatedAt IS NULL))
-            """)
-    List<KoboSnapshotBookEntity> findUnchangedBooksBetweenSnapshots(
-            @Param("prevSnapshotId") String prevSnapshotId,
-            @Param("currSnapshotId") String currSnapshotId
-    );
-
-    @Query("""
-                SELECT curr
-                FROM KoboSnapshotBookEntity curr
-                JOIN KoboSnapshotBookEntity prev
-                    ON curr.bookId = prev.bookId
-                WHERE curr.snapshot.id = :currSnapshotId
-                  AND prev.snapshot.id = :prevSnapshotId
-                  AND curr.synced = false
+                UNION ALL
+                SELECT curr.book_id, 'CHANGED' AS change_type
+                FROM kobo_library_snapshot_book curr
+                JOIN kobo_library_snapshot_book prev
+                    ON prev.book_id = curr.book_id
+                   AND prev.snapshot_id = :prevSnapshotId
+                WHERE curr.snapshot_id = :currSnapshotId
+                  AND curr.book_id > :afterBookId
                   AND (
-                      curr.fileHash <> prev.fileHash
-                      OR (curr.metadataUpdatedAt <> prev.metadataUpdatedAt AND curr.metadataUpdatedAt IS NOT NULL AND prev.metadataUpdatedAt IS NOT NULL)
-                      OR (curr.metadataUpdatedAt IS NOT NULL AND prev.metadataUpdatedAt IS NULL)
+                      curr.file_hash <> prev.file_hash
+                      OR curr.metadata_updated_at <> prev.metadata_updated_at
+                      OR (curr.metadata_updated_at IS NOT NULL AND prev.metadata_updated_at IS NULL)
+                  )
+                UNION ALL
+                SELECT prev.book_id, 'REMOVED' AS change_type
+                FROM kobo_library_snapshot_book prev
+                WHERE prev.snapshot_id = :prevSnapshotId
+                  AND prev.book_id > :afterBookId
+                  AND NOT EXISTS (
+                      SELECT 1 FROM kobo_library_snapshot_book curr
+                      WHERE curr.snapshot_id = :currSnapshotId
+                        AND curr.book_id = prev.book_id
                   )
-            """)
-    Page<KoboSnapshotBookEntity> findChangedBooks(
+            ) d
+            ORDER BY d.book_id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<KoboSnapshotDiffProjection> findSnapshotDiffAfter(
             @Param("prevSnapshotId") String prevSnapshotId,
             @Param("currSnapshotId") String currSnapshotId,
-            Pageable pageable
+            @Param("afterBookId") long afterBookId,
+            @Param("limit") int limit
     );
 
 }
@@ -0,0 +1,13 @@
+package com.adityachandel.booklore.repository;
+
+import com.adityachandel.booklore.model.entity.KoboSnapshotChangeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface KoboSnapshotChangeRepository extends JpaRepository<KoboSnapshotChangeEntity, Long> {
+
+    List<KoboSnapshotChangeEntity> findBySnapshot_Id(String snapshotId);
+}
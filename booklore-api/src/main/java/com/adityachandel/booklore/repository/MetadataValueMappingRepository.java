@@ -0,0 +1,27 @@
+package com.adityachandel.booklore.repository;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based operations on the join table between book metadata and a multi-valued field (authors, categories, moods,
+ * tags). Each repository supplies the SQL for its own table; callers walk the affected books in ranges of book id
+ * using {@link #findMappedBookIdsAfter} and apply the changes range by range, so no metadata entity is loaded.
+ */
+public interface MetadataValueMappingRepository {
+
+    /**
+     * Next page of distinct book ids mapped to any of {@code valueIds}, in ascending order.
+     */
+    List<Long> findMappedBookIdsAfter(Collection<Long> valueIds, long afterBookId, Pageable pageable);
+
+    /**
+     * Maps every book in the id range that has one of {@code sourceIds} to all of {@code targetIds}, skipping
+     * mappings that already exist.
+     */
+    int copyMappings(Collection<Long> sourceIds, Collection<Long> targetIds, long fromBookId, long toBookId);
+
+    int deleteMappings(Collection<Long> valueIds, long fromBookId, long toBookId);
+}
@@ -0,0 +1,60 @@
+package com.adityachandel.booklore.repository;
+
+import com.adityachandel.booklore.model.entity.MetadataWriteBackEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface MetadataWriteBackRepository extends JpaRepository<MetadataWriteBackEntity, Long> {
+
+    /**
+     * Queues the books, or refreshes their pending entry: a queued move stays a move and failed attempts start over.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO metadata_write_back_queue (book_id, move_file, requested_at, attempts)
+            SELECT b.id, :moveFile, :requestedAt, 0 FROM book b WHERE b.id IN (:bookIds)
+            ON DUPLICATE KEY UPDATE move_file = move_file OR VALUES(move_file),
+                                    requested_at = VALUES(requested_at),
+                                    attempts = 0
+            """, nativeQuery = true)
+    int enqueue(@Param("bookIds") Collection<Long> bookIds, @Param("moveFile") boolean moveFile, @Param("requestedAt") Instant requestedAt);
+
+    /**
+     * Keyset page of pending entries in request order; an entry re-requested meanwhile moves behind the cursor.
+     */
+    @Query("""
+            SELECT e FROM MetadataWriteBackEntity e
+            WHERE e.attempts < :maxAttempts
+              AND (e.requestedAt > :afterRequestedAt OR (e.requestedAt = :afterRequestedAt AND e.bookId > :afterBookId))
+            ORDER BY e.requestedAt, e.bookId
+            """)
+    List<MetadataWriteBackEntity> findPendingAfter(@Param("maxAttempts") int maxAttempts, @Param("afterRequestedAt") Instant afterRequestedAt,
+                                                   @Param("afterBookId") long afterBookId, Pageable pageable);
+
+    long countByAttemptsLessThan(int maxAttempts);
+
+    /**
+     * Removes an entry only if it was not re-requested while its file was being written.
+     */
+    @Modifying
+    @Query("DELETE FROM MetadataWriteBackEntity e WHERE e.bookId = :bookId AND e.requestedAt = :requestedAt")
+    int deleteIfUnchanged(@Param("bookId") Long bookId, @Param("requestedAt") Instant requestedAt);
+
+    @Query("SELECT e.bookId FROM MetadataWriteBackEntity e WHERE e.attempts >= :maxAttempts")
+    List<Long> findBookIdsByAttemptsAtLeast(@Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("DELETE FROM MetadataWriteBackEntity e WHERE e.attempts >= :maxAttempts")
+    int deleteByAttemptsAtLeast(@Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("UPDATE MetadataWriteBackEntity e SET e.attempts = e.attempts + 1 WHERE e.bookId = :bookId AND e.requestedAt = :requestedAt")
+    int recordFailedAttempt(@Param("bookId") Long bookId, @Param("requestedAt") Instant requestedAt);
+}
@@ -1,9 +1,15 @@
 package com.adityachandel.booklore.repository;
 
 import com.adityachandel.booklore.model.entity.ShelfEntity;
+import com.adityachandel.booklore.repository.projection.ShelfBookCountProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,8 +22,24 @@ public interface ShelfRepository extends JpaRepository<ShelfEntity, Long> {
 
     Optional<ShelfEntity> findByUserIdAndName(Long id, String name);
 
-    @org.springframework.data.jpa.repository.Query("SELECT s FROM ShelfEntity s WHERE s.user.id = :userId OR s.isPublic = true")
-    List<ShelfEntity> findByUserIdOrPublicShelfTrue(@org.springframework.data.repository.query.Param("userId") Long userId);
+    @Query("SELECT s FROM ShelfEntity s WHERE s.user.id = :userId OR s.isPublic = true")
+    List<ShelfEntity> findByUserIdOrPublicShelfTrue(@Param("userId") Long userId);
 
     List<ShelfEntity> findByUserIdInAndName(List<Long> userIds, String name);
+
+    @Query("""
+            SELECT s.id AS shelfId, COUNT(b.id) AS bookCount
+            FROM ShelfEntity s JOIN s.bookEntities b
+            WHERE s.id IN :shelfIds AND (b.deleted IS NULL OR b.deleted = false)
+            GROUP BY s.id
+            """)
+    List<ShelfBookCountProjection> countBooksByShelfIds(@Param("shelfIds") Collection<Long> shelfIds);
+
+    @Modifying
+    @Query("UPDATE ShelfEntity s SET s.updatedAt = :updatedAt WHERE s.id IN :shelfIds")
+    int touchShelves(@Param("shelfIds") Collection<Long> shelfIds, @Param("updatedAt") Instant updatedAt);
+
+    @Modifying
+    @Query("UPDATE ShelfEntity s SET s.updatedAt = :updatedAt WHERE s.id IN (SELECT m.shelfId FROM BookShelfMapping m WHERE m.bookId IN :bookIds)")
+    int touchShelvesOfBooks(@Param("bookIds") Collection<Long> bookIds, @Param("updatedAt") Instant updatedAt);
 }
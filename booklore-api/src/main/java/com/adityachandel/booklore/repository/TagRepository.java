@@ -1,15 +1,49 @@
 package com.adityachandel.booklore.repository;
 
 import com.adityachandel.booklore.model.entity.TagEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TagRepository extends JpaRepository<TagEntity, Long> {
+public interface TagRepository extends JpaRepository<TagEntity, Long>, MetadataValueMappingRepository {
 
     Optional<TagEntity> findByName(String tagName);
 
     Optional<TagEntity> findByNameIgnoreCase(String tagName);
+
+    @Override
+    @Query(value = """
+            SELECT DISTINCT book_id FROM book_metadata_tag_mapping
+            WHERE tag_id IN (:valueIds) AND book_id > :afterBookId
+            ORDER BY book_id
+            """, nativeQuery = true)
+    List<Long> findMappedBookIdsAfter(@Param("valueIds") Collection<Long> valueIds, @Param("afterBookId") long afterBookId, Pageable pageable);
+
+    @Override
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT IGNORE INTO book_metadata_tag_mapping (book_id, tag_id)
+            SELECT DISTINCT m.book_id, t.id
+            FROM book_metadata_tag_mapping m
+            JOIN tag t ON t.id IN (:targetIds)
+            WHERE m.tag_id IN (:sourceIds) AND m.book_id BETWEEN :fromBookId AND :toBookId
+            """, nativeQuery = true)
+    int copyMappings(@Param("sourceIds") Collection<Long> sourceIds, @Param("targetIds") Collection<Long> targetIds,
+                     @Param("fromBookId") long fromBookId, @Param("toBookId") long toBookId);
+
+    @Override
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            DELETE FROM book_metadata_tag_mapping
+            WHERE tag_id IN (:valueIds) AND book_id BETWEEN :fromBookId AND :toBookId
+            """, nativeQuery = true)
+    int deleteMappings(@Param("valueIds") Collection<Long> valueIds, @Param("fromBookId") long fromBookId, @Param("toBookId") long toBookId);
 }
@@ -22,9 +22,19 @@ public interface UserBookProgressRepository extends JpaRepository<UserBookProgre
     @Query("""
         SELECT ubp FROM UserBookProgressEntity ubp
         WHERE ubp.user.id = :userId
-          AND ubp.book.id IN (
-              SELECT ksb.bookId FROM KoboSnapshotBookEntity ksb
-              WHERE ksb.snapshot.id = :snapshotId
+          AND (
+              (ubp.book.id IN (
+                  SELECT ksb.bookId FROM KoboSnapshotBookEntity ksb
+                  WHERE ksb.snapshot.id = :baseSnapshotId
+              )
+              AND ubp.book.id NOT IN (
+                  SELECT ksc.bookId FROM KoboSnapshotChangeEntity ksc
+                  WHERE ksc.snapshot.id = :snapshotId AND ksc.removed = true
+              ))
+              OR ubp.book.id IN (
+                  SELECT ksc.bookId FROM KoboSnapshotChangeEntity ksc
+                  WHERE ksc.snapshot.id = :snapshotId AND ksc.removed = false
+              )
           )
           AND (
               (ubp.readStatusModifiedTime IS NOT NULL AND (
@@ -40,7 +50,8 @@ public interface UserBookProgressRepository extends JpaRepository<UserBookProgre
     """)
     List<UserBookProgressEntity> findAllBooksNeedingKoboSync(
             @Param("userId") Long userId,
-            @Param("snapshotId") String snapshotId
+            @Param("snapshotId") String snapshotId,
+            @Param("baseSnapshotId") String baseSnapshotId
     );
 
     @Query("""
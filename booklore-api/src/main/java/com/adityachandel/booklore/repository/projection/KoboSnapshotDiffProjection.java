@@ -0,0 +1,6 @@
+package com.adityachandel.booklore.repository.projection;
+
+public interface KoboSnapshotDiffProjection {
+    Long getBookId();
+    String getChangeType();
+}
@@ -0,0 +1,6 @@
+package com.adityachandel.booklore.repository.projection;
+
+public interface ShelfBookCountProjection {
+    Long getShelfId();
+    long getBookCount();
+}
@@ -0,0 +1,14 @@
+package com.adityachandel.booklore.repository.projection;
+
+import java.time.Instant;
+
+public interface ShelfBookProjection {
+    Long getId();
+    Long getLibraryId();
+    String getTitle();
+    String getSeriesName();
+    Float getSeriesNumber();
+    Instant getAddedOn();
+    String getBookCoverHash();
+    Instant getCoverUpdatedOn();
+}
@@ -0,0 +1,9 @@
+package com.adityachandel.booklore.repository.projection;
+
+import java.time.Instant;
+
+public interface ShelfBooksVersionProjection {
+    long getBookCount();
+    Instant getMetadataUpdatedAt();
+    Instant getCoverUpdatedOn();
+}
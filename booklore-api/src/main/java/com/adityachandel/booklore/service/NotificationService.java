@@ -1,22 +1,17 @@
 package com.adityachandel.booklore.service;
 
 import com.adityachandel.booklore.config.security.service.AuthenticationService;
-import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
-import com.adityachandel.booklore.model.entity.UserPermissionsEntity;
 import com.adityachandel.booklore.model.enums.PermissionType;
 import com.adityachandel.booklore.model.websocket.Topic;
-import com.adityachandel.booklore.repository.UserRepository;
+import com.adityachandel.booklore.service.user.UserAccessIndex;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.EnumSet;
-import java.util.List;
 import java.util.Set;
 
-import static com.adityachandel.booklore.util.UserPermissionUtils.hasPermission;
-
 @Slf4j
 @Service
 @AllArgsConstructor
@@ -24,7 +19,7 @@ public class NotificationService {
 
     private final SimpMessagingTemplate messagingTemplate;
     private final AuthenticationService authenticationService;
-    private final UserRepository userRepository;
+    private final UserAccessIndex userAccessIndex;
 
     public void sendMessage(Topic topic, Object message) {
         try {
@@ -40,6 +35,14 @@ public class NotificationService {
         }
     }
 
+    public void sendMessageToUser(String username, Topic topic, Object message) {
+        try {
+            messagingTemplate.convertAndSendToUser(username, topic.getPath(), message);
+        } catch (Exception e) {
+            log.error("Error sending message to user {} on topic {}: {}", username, topic, e.getMessage(), e);
+        }
+    }
+
     public void sendMessageToPermissions(Topic topic, Object message, Set<PermissionType> permissionTypes) {
         if (permissionTypes == null || permissionTypes.isEmpty()) return;
 
@@ -47,20 +50,11 @@ public class NotificationService {
         permissionSet.addAll(permissionTypes);
 
         try {
-            List<BookLoreUserEntity> users = userRepository.findAll();
-            for (BookLoreUserEntity user : users) {
-                UserPermissionsEntity perms = user.getPermissions();
-                if (perms != null) {
-                    for (PermissionType p : permissionSet) {
-                        if (hasPermission(perms, p)) {
-                            messagingTemplate.convertAndSendToUser(user.getUsername(), topic.getPath(), message);
-                            break;
-                        }
-                    }
-                }
+            for (UserAccessIndex.UserAccess user : userAccessIndex.getUsersWithAnyPermission(permissionSet)) {
+                messagingTemplate.convertAndSendToUser(user.username(), topic.getPath(), message);
             }
         } catch (Exception e) {
             log.error("Error sending message to users with permissions {}: {}", permissionSet, e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -7,6 +7,7 @@ import com.adityachandel.booklore.mapper.ShelfMapper;
 import com.adityachandel.booklore.model.dto.Book;
 import com.adityachandel.booklore.model.dto.BookLoreUser;
 import com.adityachandel.booklore.model.dto.Shelf;
+import com.adityachandel.booklore.model.dto.ShelfBook;
 import com.adityachandel.booklore.model.dto.request.ShelfCreateRequest;
 import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
 import com.adityachandel.booklore.model.entity.ShelfEntity;
@@ -14,17 +15,40 @@ import com.adityachandel.booklore.model.enums.ShelfType;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.ShelfRepository;
 import com.adityachandel.booklore.repository.UserRepository;
+import com.adityachandel.booklore.repository.projection.ShelfBookCountProjection;
+import com.adityachandel.booklore.repository.projection.ShelfBookProjection;
+import com.adityachandel.booklore.repository.projection.ShelfBooksVersionProjection;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Service
 public class ShelfService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Sort keys accepted for shelf book listings, mapped to the columns of the projection query.
+     */
+    private static final Map<String, String> SHELF_BOOK_SORTS = Map.of(
+            "id", "b.id",
+            "title", "m.title",
+            "seriesName", "m.seriesName",
+            "seriesNumber", "m.seriesNumber",
+            "addedOn", "b.addedOn");
+
     private final ShelfRepository shelfRepository;
     private final BookRepository bookRepository;
     private final ShelfMapper shelfMapper;
@@ -47,7 +71,7 @@ public class ShelfService {
                 .isPublic(request.isPublicShelf())
                 .user(fetchUserEntityById(userId))
                 .build();
-        return shelfMapper.toShelf(shelfRepository.save(shelfEntity));
+        return toShelfWithCount(shelfRepository.save(shelfEntity));
     }
 
     public Shelf updateShelf(Long id, ShelfCreateRequest request) {
@@ -59,18 +83,16 @@ public class ShelfService {
         shelfEntity.setIcon(request.getIcon());
         shelfEntity.setIconType(request.getIconType());
         shelfEntity.setPublic(request.isPublicShelf());
-        return shelfMapper.toShelf(shelfRepository.save(shelfEntity));
+        return toShelfWithCount(shelfRepository.save(shelfEntity));
     }
 
     public List<Shelf> getShelves() {
         Long userId = getAuthenticatedUserId();
-        return shelfRepository.findByUserIdOrPublicShelfTrue(userId).stream()
-                .map(shelfMapper::toShelf)
-                .toList();
+        return toShelvesWithCounts(shelfRepository.findByUserIdOrPublicShelfTrue(userId));
     }
 
     public Shelf getShelf(Long shelfId) {
-        return shelfMapper.toShelf(findShelfByIdOrThrow(shelfId));
+        return toShelfWithCount(findShelfByIdOrThrow(shelfId));
     }
 
     public void deleteShelf(Long shelfId) {
@@ -80,7 +102,25 @@ public class ShelfService {
     public Shelf getUserKoboShelf() {
         Long userId = getAuthenticatedUserId();
         Optional<ShelfEntity> koboShelf = shelfRepository.findByUserIdAndName(userId, ShelfType.KOBO.getName());
-        return koboShelf.map(shelfMapper::toShelf).orElse(null);
+        return koboShelf.map(this::toShelfWithCount).orElse(null);
+    }
+
+    /**
+     * Version tag of a shelf's book listing. Assigning or removing books touches the shelf; edits to the listed books,
+     * new covers and soft deletes are picked up from one aggregate over the shelf's books (their count and latest
+     * metadata and cover timestamps), so an unchanged tag means the listing can be answered with 304 without paging.
+     */
+    public String getShelfBooksETag(Long shelfId) {
+        ShelfEntity shelf = findShelfByIdOrThrow(shelfId);
+        ShelfBooksVersionProjection books = bookRepository.findShelfBooksVersionByShelfId(shelfId);
+        return shelfId + "-" + shelf.getUpdatedAt().toEpochMilli()
+                + "-" + books.getBookCount()
+                + "-" + toEpochMilli(books.getMetadataUpdatedAt())
+                + "-" + toEpochMilli(books.getCoverUpdatedOn());
+    }
+
+    private static long toEpochMilli(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : 0;
     }
 
     public List<Book> getShelfBooks(Long shelfId) {
@@ -90,6 +130,55 @@ public class ShelfService {
                 .toList();
     }
 
+    public Page<ShelfBook> getShelfBooksPage(Long shelfId, Pageable pageable) {
+        Pageable page = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_PAGE_SIZE), toShelfBookSort(pageable.getSort()));
+        return bookRepository.findShelfBooksByShelfId(shelfId, page).map(this::toShelfBook);
+    }
+
+    private Sort toShelfBookSort(Sort requested) {
+        JpaSort sort = null;
+        for (Sort.Order order : requested) {
+            String column = SHELF_BOOK_SORTS.get(order.getProperty());
+            if (column == null) {
+                throw ApiError.INVALID_INPUT.createException("Unsupported sort property: " + order.getProperty());
+            }
+            sort = sort == null ? JpaSort.unsafe(order.getDirection(), column) : sort.andUnsafe(order.getDirection(), column);
+        }
+        return sort == null ? JpaSort.unsafe(Sort.Direction.ASC, "b.id") : sort.andUnsafe(Sort.Direction.ASC, "b.id");
+    }
+
+    private ShelfBook toShelfBook(ShelfBookProjection projection) {
+        return ShelfBook.builder()
+                .id(projection.getId())
+                .libraryId(projection.getLibraryId())
+                .title(projection.getTitle())
+                .seriesName(projection.getSeriesName())
+                .seriesNumber(projection.getSeriesNumber())
+                .addedOn(projection.getAddedOn())
+                .bookCoverHash(projection.getBookCoverHash())
+                .coverUpdatedOn(projection.getCoverUpdatedOn())
+                .build();
+    }
+
+    private Shelf toShelfWithCount(ShelfEntity shelfEntity) {
+        return toShelvesWithCounts(List.of(shelfEntity)).getFirst();
+    }
+
+    private List<Shelf> toShelvesWithCounts(List<ShelfEntity> shelfEntities) {
+        if (shelfEntities.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Long> counts = shelfRepository.countBooksByShelfIds(shelfEntities.stream().map(ShelfEntity::getId).toList()).stream()
+                .collect(Collectors.toMap(ShelfBookCountProjection::getShelfId, ShelfBookCountProjection::getBookCount));
+        return shelfEntities.stream()
+                .map(shelfEntity -> {
+                    Shelf shelf = shelfMapper.toShelf(shelfEntity);
+                    shelf.setBookCount(counts.getOrDefault(shelfEntity.getId(), 0L).intValue());
+                    return shelf;
+                })
+                .toList();
+    }
+
     private Long getAuthenticatedUserId() {
         BookLoreUser user = authenticationService.getAuthenticatedUser();
         return user.getId();
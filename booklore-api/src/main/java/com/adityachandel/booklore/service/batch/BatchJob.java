@@ -0,0 +1,60 @@
+package com.adityachandel.booklore.service.batch;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A maintenance job over a set of rows identified by ascending ids, run by {@link BatchJobRunner}.
+ */
+@Getter
+@Builder
+public class BatchJob {
+
+    /**
+     * Names the job in logs, worker threads and its checkpoint row.
+     */
+    private final String name;
+
+    private final IdSource idSource;
+
+    private final ChunkProcessor processor;
+
+    @Builder.Default
+    private final int chunkSize = 500;
+
+    /**
+     * Chunks processed concurrently; keep at or below a few so workers do not exhaust the connection pool.
+     */
+    @Builder.Default
+    private final int workers = 1;
+
+    /**
+     * Runs every chunk in its own transaction. Turn off for jobs that do not touch the database.
+     */
+    @Builder.Default
+    private final boolean transactional = true;
+
+    /**
+     * Records the last finished id so an interrupted run continues where it stopped instead of starting over.
+     */
+    @Builder.Default
+    private final boolean resumable = false;
+
+    @FunctionalInterface
+    public interface IdSource {
+        /**
+         * Returns up to {@code limit} ids greater than {@code afterId}, in ascending order.
+         */
+        List<Long> nextIds(long afterId, int limit);
+    }
+
+    @FunctionalInterface
+    public interface ChunkProcessor {
+        /**
+         * Processes one chunk and returns how many items it changed.
+         */
+        int process(List<Long> ids);
+    }
+}
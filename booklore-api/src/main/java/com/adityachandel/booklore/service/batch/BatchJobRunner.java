@@ -0,0 +1,143 @@
+package com.adityachandel.booklore.service.batch;
+
+import com.adityachandel.booklore.model.entity.BatchJobCheckpointEntity;
+import com.adityachandel.booklore.repository.BatchJobCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs {@link BatchJob}s in bounded memory: ids are paged with a keyset cursor, each chunk is loaded, processed and
+ * committed in its own transaction so its persistence context is discarded before the next one, and up to
+ * {@link BatchJob#getWorkers()} chunks run side by side.
+ * <p>
+ * Chunks are handed out in waves of one per worker. The checkpoint of a resumable job only moves past a wave once every
+ * chunk in it has committed, so a restart may redo part of a wave but never skips an id.
+ */
+@Slf4j
+@Component
+public class BatchJobRunner {
+
+    private final BatchJobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BatchJobRunner(BatchJobCheckpointRepository checkpointRepository, PlatformTransactionManager transactionManager) {
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Chunks and checkpoints commit on their own, even when the caller (e.g. a migration) holds a transaction.
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Runs the job to completion and returns the number of items the processor reported as changed.
+     */
+    public int run(BatchJob job) {
+        int chunkSize = Math.max(1, job.getChunkSize());
+        int workers = Math.max(1, job.getWorkers());
+        long afterId = job.isResumable() ? loadCheckpoint(job.getName()) : 0L;
+        if (afterId > 0) {
+            log.info("Resuming batch job '{}' after id {}", job.getName(), afterId);
+        }
+
+        long start = System.nanoTime();
+        int changed = 0;
+        int scanned = 0;
+        ExecutorService executor = workers > 1
+                ? Executors.newFixedThreadPool(workers, Thread.ofPlatform().name(job.getName() + "-worker-", 0).factory())
+                : null;
+        try {
+            boolean exhausted = false;
+            while (!exhausted) {
+                List<List<Long>> wave = new ArrayList<>(workers);
+                while (wave.size() < workers) {
+                    List<Long> ids = job.getIdSource().nextIds(afterId, chunkSize);
+                    if (!ids.isEmpty()) {
+                        wave.add(ids);
+                        afterId = ids.getLast();
+                    }
+                    if (ids.size() < chunkSize) {
+                        exhausted = true;
+                        break;
+                    }
+                }
+                if (wave.isEmpty()) {
+                    break;
+                }
+                changed += processWave(job, wave, executor);
+                scanned += wave.stream().mapToInt(List::size).sum();
+                if (job.isResumable()) {
+                    saveCheckpoint(job.getName(), afterId);
+                }
+                log.info("Batch job '{}': {} item(s) scanned, {} changed", job.getName(), scanned, changed);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        if (job.isResumable()) {
+            transactionTemplate.executeWithoutResult(status -> checkpointRepository.deleteById(job.getName()));
+        }
+        log.info("Batch job '{}' finished: {} item(s) scanned, {} changed in {} ms",
+                job.getName(), scanned, changed, (System.nanoTime() - start) / 1_000_000);
+        return changed;
+    }
+
+    private int processWave(BatchJob job, List<List<Long>> wave, ExecutorService executor) {
+        if (executor == null || wave.size() == 1) {
+            int changed = 0;
+            for (List<Long> ids : wave) {
+                changed += processChunk(job, ids);
+            }
+            return changed;
+        }
+        List<Future<Integer>> futures = wave.stream()
+                .map(ids -> executor.submit(() -> processChunk(job, ids)))
+                .toList();
+        int changed = 0;
+        for (Future<Integer> future : futures) {
+            try {
+                changed += future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Batch job '" + job.getName() + "' was interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Batch job '" + job.getName() + "' failed", e.getCause());
+            }
+        }
+        return changed;
+    }
+
+    private int processChunk(BatchJob job, List<Long> ids) {
+        if (!job.isTransactional()) {
+            return job.getProcessor().process(ids);
+        }
+        Integer changed = transactionTemplate.execute(status -> job.getProcessor().process(ids));
+        return changed != null ? changed : 0;
+    }
+
+    private long loadCheckpoint(String jobName) {
+        return checkpointRepository.findById(jobName)
+                .map(BatchJobCheckpointEntity::getLastId)
+                .orElse(0L);
+    }
+
+    private void saveCheckpoint(String jobName, long lastId) {
+        transactionTemplate.executeWithoutResult(status ->
+                checkpointRepository.save(new BatchJobCheckpointEntity(jobName, lastId, Instant.now())));
+    }
+}
@@ -77,7 +77,7 @@ public class BookDownloadService {
         }
     }
 
-    public void downloadKoboBook(Long bookId, HttpServletResponse response) {
+    public void downloadKoboBook(Long bookId, String deviceToken, HttpServletResponse response) {
         BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
         
         var primaryFile = bookEntity.getPrimaryBookFile();
@@ -112,7 +112,7 @@ public class BookDownloadService {
 
             if (convertEpubToKepub) {
                 fileToSend = kepubConversionService.convertEpubToKepub(inputFile, tempDir.toFile(),
-                    koboSettings.isForceEnableHyphenation());
+                    koboSettings.isForceEnableHyphenation(), deviceToken);
             }
 
             setResponseHeaders(response, fileToSend);
@@ -14,6 +14,7 @@ import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.repository.*;
 import com.adityachandel.booklore.service.monitoring.MonitoringRegistrationService;
 import com.adityachandel.booklore.service.user.UserProgressService;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer;
 import com.adityachandel.booklore.util.BookProgressUtil;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.FileUtils;
@@ -34,6 +35,8 @@ import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -43,6 +46,11 @@ import java.util.stream.Collectors;
 @Service
 public class BookService {
 
+    private static final String MISSING_COVER_PATH = "static/images/missing-cover.jpg";
+    private static final String MISSING_COVER_ETAG = "\"missing-cover\"";
+    private static final CacheControl VERSIONED_IMAGE_CACHE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl UNVERSIONED_IMAGE_CACHE = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
     private final BookRepository bookRepository;
     private final PdfViewerPreferencesRepository pdfViewerPreferencesRepository;
     private final CbxViewerPreferencesRepository cbxViewerPreferencesRepository;
@@ -57,6 +65,8 @@ public class BookService {
     private final MonitoringRegistrationService monitoringRegistrationService;
     private final BookUpdateService bookUpdateService;
     private final EbookViewerPreferenceRepository ebookViewerPreferencesRepository;
+    private final UserBookProgressWriteBuffer progressWriteBuffer;
+    private final ShelfRepository shelfRepository;
 
 
     public List<Book> getBookDTOs(boolean includeDescription) {
@@ -108,6 +118,7 @@ public class BookService {
         BookLoreUser user = authenticationService.getAuthenticatedUser();
         BookEntity bookEntity = bookRepository.findByIdWithBookFiles(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
 
+        progressWriteBuffer.flush(user.getId(), bookId);
         UserBookProgressEntity userProgress = userBookProgressRepository.findByUserIdAndBookId(user.getId(), bookId).orElse(new UserBookProgressEntity());
 
         Book book = bookMapper.toBook(bookEntity);
@@ -222,7 +233,7 @@ public class BookService {
             if (Files.exists(coverPath)) {
                 return new UrlResource(coverPath.toUri());
             } else {
-                return new ClassPathResource("static/images/missing-cover.jpg");
+                return new ClassPathResource(MISSING_COVER_PATH);
             }
         } catch (MalformedURLException e) {
             throw new RuntimeException("Failed to load book cover for bookId=" + bookId, e);
@@ -234,6 +245,47 @@ public class BookService {
         return getBookCover(bookEntity.getId());
     }
 
+    /**
+     * Thumbnail response for the web UI. With a cover version ({@code v}) in the URL the bytes behind that URL never
+     * change, so the browser may keep them for a year without revalidating; a new cover gets a new version.
+     */
+    public ResponseEntity<Resource> getBookThumbnailResponse(long bookId, String version) {
+        return getBookThumbnailResponse(bookId, version, null);
+    }
+
+    /**
+     * Same as {@link #getBookThumbnailResponse(long, String)} at a requested width, snapped to one of
+     * {@link FileService#THUMBNAIL_WIDTHS}; small grids and lists can ask for far fewer bytes than the default size.
+     */
+    public ResponseEntity<Resource> getBookThumbnailResponse(long bookId, String version, Integer width) {
+        Path thumbnailPath = width == null
+                ? Paths.get(fileService.getThumbnailFile(bookId))
+                : fileService.getOrCreateThumbnail(bookId, FileService.snapThumbnailWidth(width));
+        return coverImageResponse(thumbnailPath, version);
+    }
+
+    public ResponseEntity<Resource> getBookCoverResponse(long bookId, String version) {
+        return coverImageResponse(Paths.get(fileService.getCoverFile(bookId)), version);
+    }
+
+    private ResponseEntity<Resource> coverImageResponse(Path imagePath, String version) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(imagePath, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // No cover yet; one may be generated under the same version, so only allow revalidation.
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(MISSING_COVER_ETAG)
+                    .body(new ClassPathResource(MISSING_COVER_PATH));
+        }
+        String etag = "\"" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "-" + Long.toHexString(attributes.size()) + "\"";
+        return ResponseEntity.ok()
+                .cacheControl(version == null || version.isBlank() ? UNVERSIONED_IMAGE_CACHE : VERSIONED_IMAGE_CACHE)
+                .eTag(etag)
+                .body(new FileSystemResource(imagePath));
+    }
+
     public ResponseEntity<Resource> downloadBook(Long bookId) {
         return bookDownloadService.downloadBook(bookId);
     }
@@ -288,6 +340,7 @@ public class BookService {
             }
         }
 
+        shelfRepository.touchShelvesOfBooks(ids, Instant.now());
         bookRepository.deleteAll(books);
         BookDeletionResponse response = new BookDeletionResponse(ids, failedFileDeletions);
         return failedFileDeletions.isEmpty()
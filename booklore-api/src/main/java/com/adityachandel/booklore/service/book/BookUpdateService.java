@@ -17,6 +17,8 @@ import com.adityachandel.booklore.model.enums.ResetProgressType;
 import com.adityachandel.booklore.model.enums.UserPermission;
 import com.adityachandel.booklore.repository.*;
 import com.adityachandel.booklore.service.kobo.KoboReadingStateService;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer.ProgressPatch;
 import com.adityachandel.booklore.service.user.UserProgressService;
 import com.adityachandel.booklore.util.BookProgressUtil;
 import com.adityachandel.booklore.util.FileUtils;
@@ -52,6 +54,7 @@ public class BookUpdateService {
     private final UserProgressService userProgressService;
     private final KoboReadingStateService koboReadingStateService;
     private final EbookViewerPreferenceRepository ebookViewerPreferenceRepository;
+    private final UserBookProgressWriteBuffer progressWriteBuffer;
 
     public void updateBookViewerSetting(long bookId, BookViewerSettings bookViewerSettings) {
         BookEntity book = bookRepository.findByIdWithBookFiles(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
@@ -67,30 +70,22 @@ public class BookUpdateService {
         }
     }
 
-    @Transactional
     public void updateReadProgress(ReadProgressRequest request) {
         BookEntity book = bookRepository.findByIdWithBookFiles(request.getBookId()).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(request.getBookId()));
         BookLoreUser user = authenticationService.getAuthenticatedUser();
-
-        UserBookProgressEntity progress = userBookProgressRepository
-                .findByUserIdAndBookId(user.getId(), book.getId())
-                .orElseGet(UserBookProgressEntity::new);
-
-        BookLoreUserEntity userEntity = findUserOrThrow(user.getId());
-        progress.setUser(userEntity);
-        progress.setBook(book);
-        progress.setLastReadTime(Instant.now());
-
-        Float percentage = updateProgressByBookType(progress, book.getPrimaryBookFile().getBookType(), request);
-        if (percentage != null) {
-            progress.setReadStatus(calculateReadStatus(percentage));
-            setProgressPercent(progress, book.getPrimaryBookFile().getBookType(), percentage);
-        }
-        if (request.getDateFinished() != null) {
-            progress.setDateFinished(request.getDateFinished());
-        }
-
-        userBookProgressRepository.save(progress);
+        BookFileType bookType = book.getPrimaryBookFile().getBookType();
+
+        progressWriteBuffer.update(user.getId(), book.getId(), patch -> {
+            patch.set("lastReadTime", UserBookProgressEntity::setLastReadTime, Instant.now());
+            Float percentage = updateProgressByBookType(patch, bookType, request);
+            if (percentage != null) {
+                patch.set("readStatus", UserBookProgressEntity::setReadStatus, calculateReadStatus(percentage));
+                setProgressPercent(patch, bookType, percentage);
+            }
+            if (request.getDateFinished() != null) {
+                patch.set("dateFinished", UserBookProgressEntity::setDateFinished, request.getDateFinished());
+            }
+        });
     }
 
     @Transactional
@@ -99,6 +94,7 @@ public class BookUpdateService {
         validateBulkOperationPermission(bookIds, user, UserPermission.CAN_BULK_RESET_BOOK_READ_STATUS);
 
         ReadStatus readStatus = EnumUtils.getEnumIgnoreCase(ReadStatus.class, status);
+        progressWriteBuffer.flush(user.getId(), bookIds);
         Set<Long> existingProgressBookIds = validateBooksAndGetExistingProgress(user.getId(), bookIds);
 
         Instant now = Instant.now();
@@ -114,6 +110,7 @@ public class BookUpdateService {
     public List<BookStatusUpdateResponse> resetProgress(List<Long> bookIds, ResetProgressType type) {
         BookLoreUser user = authenticationService.getAuthenticatedUser();
         validateResetPermission(bookIds, user, type);
+        progressWriteBuffer.flush(user.getId(), bookIds);
 
         Set<Long> existingProgressBookIds = validateBooksAndGetExistingProgress(user.getId(), bookIds);
         Instant now = Instant.now();
@@ -163,6 +160,7 @@ public class BookUpdateService {
 
         updateBookShelves(bookEntities, shelvesToAssign, shelfIdsToUnassign);
         bookRepository.saveAll(bookEntities);
+        touchShelves(shelfIdsToAssign, shelfIdsToUnassign);
 
         return buildBooksWithProgress(bookEntities, user.getId());
     }
@@ -267,7 +265,7 @@ public class BookUpdateService {
                 ));
     }
 
-    private Float updateProgressByBookType(UserBookProgressEntity progress, BookFileType bookType, ReadProgressRequest request) {
+    private Float updateProgressByBookType(ProgressPatch progress, BookFileType bookType, ReadProgressRequest request) {
         return switch (bookType) {
             case EPUB, FB2, MOBI, AZW3 -> updateEbookProgress(progress, request.getEpubProgress());
             case PDF -> updatePdfProgress(progress, request.getPdfProgress());
@@ -275,28 +273,28 @@ public class BookUpdateService {
         };
     }
 
-    private Float updateEbookProgress(UserBookProgressEntity progress, EpubProgress epubProgress) {
+    private Float updateEbookProgress(ProgressPatch progress, EpubProgress epubProgress) {
         if (epubProgress == null) return null;
 
-        progress.setEpubProgress(epubProgress.getCfi());
-        progress.setEpubProgressHref(epubProgress.getHref());
+        progress.set("epubProgress", UserBookProgressEntity::setEpubProgress, epubProgress.getCfi());
+        progress.set("epubProgressHref", UserBookProgressEntity::setEpubProgressHref, epubProgress.getHref());
 
         float percentage = epubProgress.getPercentage();
         return Math.round(percentage * 10f) / 10f;
     }
 
-    private Float updatePdfProgress(UserBookProgressEntity progress, PdfProgress pdfProgress) {
+    private Float updatePdfProgress(ProgressPatch progress, PdfProgress pdfProgress) {
         if (pdfProgress == null) return null;
 
-        progress.setPdfProgress(pdfProgress.getPage());
+        progress.set("pdfProgress", UserBookProgressEntity::setPdfProgress, pdfProgress.getPage());
         float percentage = pdfProgress.getPercentage();
         return Math.round(percentage * 10f) / 10f;
     }
 
-    private Float updateCbxProgress(UserBookProgressEntity progress, CbxProgress cbxProgress) {
+    private Float updateCbxProgress(ProgressPatch progress, CbxProgress cbxProgress) {
         if (cbxProgress == null) return null;
 
-        progress.setCbxProgress(cbxProgress.getPage());
+        progress.set("cbxProgress", UserBookProgressEntity::setCbxProgress, cbxProgress.getPage());
         float percentage = cbxProgress.getPercentage();
         return Math.round(percentage * 10f) / 10f;
     }
@@ -396,6 +394,14 @@ public class BookUpdateService {
         }
     }
 
+    private void touchShelves(Set<Long> shelfIdsToAssign, Set<Long> shelfIdsToUnassign) {
+        Set<Long> touched = new HashSet<>(shelfIdsToAssign);
+        touched.addAll(shelfIdsToUnassign);
+        if (!touched.isEmpty()) {
+            shelfRepository.touchShelves(touched, Instant.now());
+        }
+    }
+
     private List<Book> buildBooksWithProgress(List<BookEntity> bookEntities, Long userId) {
         Set<Long> bookIds = bookEntities.stream().map(BookEntity::getId).collect(Collectors.toSet());
         Map<Long, UserBookProgressEntity> progressMap = userProgressService.fetchUserProgress(userId, bookIds);
@@ -445,11 +451,11 @@ public class BookUpdateService {
         return userBookProgressRepository.findExistingProgressBookIds(userId, new HashSet<>(bookIds));
     }
 
-    private void setProgressPercent(UserBookProgressEntity progress, BookFileType type, Float percentage) {
+    private void setProgressPercent(ProgressPatch progress, BookFileType type, Float percentage) {
         switch (type) {
-            case EPUB, FB2, MOBI, AZW3 -> progress.setEpubProgressPercent(percentage);
-            case PDF -> progress.setPdfProgressPercent(percentage);
-            case CBX -> progress.setCbxProgressPercent(percentage);
+            case EPUB, FB2, MOBI, AZW3 -> progress.set("epubProgressPercent", UserBookProgressEntity::setEpubProgressPercent, percentage);
+            case PDF -> progress.set("pdfProgressPercent", UserBookProgressEntity::setPdfProgressPercent, percentage);
+            case CBX -> progress.set("cbxProgressPercent", UserBookProgressEntity::setCbxProgressPercent, percentage);
         }
     }
 
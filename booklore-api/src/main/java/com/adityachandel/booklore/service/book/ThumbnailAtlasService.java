@@ -0,0 +1,239 @@
+package com.adityachandel.booklore.service.book;
+
+import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.model.dto.response.ThumbnailAtlasManifest;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.projection.BookCoverUpdateProjection;
+import com.adityachandel.booklore.util.FileService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Packs the thumbnails of a fixed range of {@link #BOOKS_PER_ATLAS} book IDs into one JPEG so a grid can load its
+ * covers with a couple of requests instead of one per book. Atlas {@code n} holds books {@code n * BOOKS_PER_ATLAS}
+ * up to the next atlas, each in the cell of its ID, so the same atlas and manifest serve every view and scroll position
+ * and only change when a cover in the range does. Thumbnails are letterboxed into their cell and the manifest gives the
+ * rectangle each one covers, together with a version derived from the covers so an atlas URL carrying that version
+ * never changes content. Books without a readable thumbnail get no entry.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ThumbnailAtlasService {
+
+    public static final int BOOKS_PER_ATLAS = 60;
+    static final int COLUMNS = 10;
+    // Matches the size FileService renders thumbnails at, so cells are normally copied without scaling.
+    static final int CELL_WIDTH = 250;
+    static final int CELL_HEIGHT = 350;
+    private static final long ATLAS_CACHE_BYTES = 64L * 1024 * 1024;
+
+    private final BookRepository bookRepository;
+    private final FileService fileService;
+
+    private final Cache<String, byte[]> atlasCache = Caffeine.newBuilder()
+            .maximumWeight(ATLAS_CACHE_BYTES)
+            .weigher((String key, byte[] value) -> value.length)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    // Pixel size of each thumbnail file, keyed by book and file modification time, so manifests read image headers
+    // once per cover rather than on every revalidation.
+    private final Cache<String, Dimension> thumbnailSizes = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .build();
+
+    // Thumbnails that exist but failed to decode, keyed the same way, so later manifests leave them out and the
+    // client falls back to the single-thumbnail URL until the file is rewritten.
+    private final Cache<String, Boolean> unreadableThumbnails = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    public record ThumbnailAtlas(String version, byte[] image) {
+    }
+
+    public ThumbnailAtlasManifest getManifest(long atlas) {
+        return layout(atlas);
+    }
+
+    public ThumbnailAtlas getAtlas(long atlas) {
+        ThumbnailAtlasManifest manifest = layout(atlas);
+        if (manifest.getEntries().isEmpty()) {
+            throw ApiError.INVALID_INPUT.createException("None of the books in this atlas have a thumbnail");
+        }
+        byte[] image = atlasCache.get(manifest.getVersion(), version -> render(manifest));
+        return new ThumbnailAtlas(manifest.getVersion(), image);
+    }
+
+    private ThumbnailAtlasManifest layout(long atlas) {
+        if (atlas < 0 || atlas > Long.MAX_VALUE / BOOKS_PER_ATLAS - 1) {
+            throw ApiError.INVALID_INPUT.createException("Invalid thumbnail atlas: " + atlas);
+        }
+        long firstId = atlas * BOOKS_PER_ATLAS;
+
+        List<BookCoverUpdateProjection> covers = new ArrayList<>(bookRepository.findCoverUpdateInfoByIdRange(firstId, firstId + BOOKS_PER_ATLAS - 1));
+        covers.sort(Comparator.comparing(BookCoverUpdateProjection::getId));
+
+        List<ThumbnailAtlasManifest.Entry> entries = new ArrayList<>();
+        StringBuilder versionSource = new StringBuilder().append(atlas).append(';');
+        int rows = 0;
+        for (BookCoverUpdateProjection cover : covers) {
+            long id = cover.getId();
+            Dimension size = readableThumbnailSize(id);
+            if (size == null) {
+                continue;
+            }
+            int slot = (int) (id - firstId);
+            int column = slot % COLUMNS;
+            int row = slot / COLUMNS;
+            double scale = Math.min((double) CELL_WIDTH / size.width, (double) CELL_HEIGHT / size.height);
+            int width = Math.clamp(Math.round(size.width * scale), 1, CELL_WIDTH);
+            int height = Math.clamp(Math.round(size.height * scale), 1, CELL_HEIGHT);
+            entries.add(new ThumbnailAtlasManifest.Entry(id,
+                    column * CELL_WIDTH + (CELL_WIDTH - width) / 2,
+                    row * CELL_HEIGHT + (CELL_HEIGHT - height) / 2,
+                    width, height));
+            rows = Math.max(rows, row + 1);
+            String coverVersion = cover.getBookCoverHash() != null ? cover.getBookCoverHash() : String.valueOf(cover.getCoverUpdatedOn());
+            versionSource.append(id).append(':').append(coverVersion).append(':').append(width).append('x').append(height).append(';');
+        }
+
+        return ThumbnailAtlasManifest.builder()
+                .atlas(atlas)
+                .version(digest(versionSource.toString()))
+                .width(COLUMNS * CELL_WIDTH)
+                .height(rows * CELL_HEIGHT)
+                .entries(entries)
+                .build();
+    }
+
+    private byte[] render(ThumbnailAtlasManifest manifest) {
+        BufferedImage atlas = new BufferedImage(manifest.getWidth(), manifest.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = atlas.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, atlas.getWidth(), atlas.getHeight());
+            for (ThumbnailAtlasManifest.Entry entry : manifest.getEntries()) {
+                BufferedImage thumbnail = readThumbnail(entry.getBookId());
+                if (thumbnail != null) {
+                    g.drawImage(thumbnail, entry.getX(), entry.getY(), entry.getWidth(), entry.getHeight(), null);
+                    thumbnail.flush();
+                } else {
+                    markUnreadable(entry.getBookId());
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ImageIO.write(atlas, "JPEG", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode thumbnail atlas", e);
+        } finally {
+            atlas.flush();
+        }
+    }
+
+    /**
+     * Books only get an entry when their thumbnail file is there, its header can be read and it has not failed to
+     * decode before; anything else is left out of the manifest so the client loads the single thumbnail (or its
+     * placeholder) instead of a blank cell.
+     */
+    private Dimension readableThumbnailSize(long bookId) {
+        String key = thumbnailKey(bookId);
+        if (key == null || unreadableThumbnails.getIfPresent(key) != null) {
+            return null;
+        }
+        Dimension size = thumbnailSizes.get(key, ignored -> readThumbnailSize(bookId));
+        if (size == null) {
+            unreadableThumbnails.put(key, Boolean.TRUE);
+        }
+        return size;
+    }
+
+    private Dimension readThumbnailSize(long bookId) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(Path.of(fileService.getThumbnailFile(bookId)).toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                return width > 0 && height > 0 ? new Dimension(width, height) : null;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.warn("Could not read thumbnail size for book {}: {}", bookId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void markUnreadable(long bookId) {
+        String key = thumbnailKey(bookId);
+        if (key != null) {
+            unreadableThumbnails.put(key, Boolean.TRUE);
+        }
+    }
+
+    private String thumbnailKey(long bookId) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(Path.of(fileService.getThumbnailFile(bookId)), BasicFileAttributes.class);
+            return attributes.isRegularFile() ? bookId + ":" + attributes.lastModifiedTime().toMillis() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private BufferedImage readThumbnail(long bookId) {
+        try (InputStream in = Files.newInputStream(Path.of(fileService.getThumbnailFile(bookId)))) {
+            return FileService.readImage(in);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read thumbnail for book {} into atlas: {}", bookId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String digest(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
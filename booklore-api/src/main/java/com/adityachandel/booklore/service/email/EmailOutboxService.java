@@ -0,0 +1,407 @@
+package com.adityachandel.booklore.service.email;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.model.dto.BookLoreUser;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.EmailOutboxEntity;
+import com.adityachandel.booklore.model.entity.EmailProviderV2Entity;
+import com.adityachandel.booklore.model.enums.EmailOutboxStatus;
+import com.adityachandel.booklore.model.websocket.LogNotification;
+import com.adityachandel.booklore.model.websocket.Topic;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.EmailOutboxRepository;
+import com.adityachandel.booklore.repository.EmailProviderV2Repository;
+import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.util.FileUtils;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persistent outbox of book emails. Requests only record a job in {@code email_outbox} and return; delivery happens
+ * in the background, so a large burst neither holds request threads nor opens one SMTP session per book.
+ * <p>
+ * Each provider gets its own lane of at most {@code app.email.max-connections-per-provider} senders. Jobs are sent in
+ * chunks of up to {@code app.email.messages-per-connection} messages, and each chunk opens one SMTP connection with the
+ * provider's current settings and closes it once the chunk is sent. A failed message is retried with
+ * exponential backoff, starting at {@code app.email.retry-delay}, until {@code app.email.max-attempts} is reached.
+ * The requesting user is notified of every delivery, retry and final failure.
+ */
+@Slf4j
+@Service
+public class EmailOutboxService {
+
+    static final int BATCH_SIZE = 200;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailProviderV2Repository emailProviderRepository;
+    private final BookRepository bookRepository;
+    private final NotificationService notificationService;
+    private final AppProperties.Email settings;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ExecutorService drainExecutor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("email-outbox").daemon().factory());
+    private final Map<Long, ExecutorService> providerLanes = new ConcurrentHashMap<>();
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository, EmailProviderV2Repository emailProviderRepository,
+                              BookRepository bookRepository, NotificationService notificationService,
+                              AppProperties appProperties, PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.emailProviderRepository = emailProviderRepository;
+        this.bookRepository = bookRepository;
+        this.notificationService = notificationService;
+        this.settings = appProperties.getEmail();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    private record PreparedMessage(EmailOutboxEntity job, String bookTitle, MimeMessage message) {
+    }
+
+    /**
+     * Queues a book for delivery. Joins the caller's transaction if there is one; delivery starts once it commits.
+     */
+    public void enqueue(BookLoreUser user, EmailProviderV2Entity provider, String recipientEmail, BookEntity book) {
+        Instant now = Instant.now();
+        outboxRepository.save(EmailOutboxEntity.builder()
+                .userId(user.getId())
+                .username(user.getUsername())
+                .providerId(provider.getId())
+                .bookId(book.getId())
+                .recipientEmail(recipientEmail)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestDrain();
+                }
+            });
+        } else {
+            requestDrain();
+        }
+    }
+
+    /**
+     * Also runs at startup, to pick up jobs left by a previous run, and periodically, to start retries that are due.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 30, initialDelay = 30, timeUnit = TimeUnit.SECONDS)
+    public void requestDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                drainExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        drainExecutor.shutdownNow();
+        providerLanes.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    void drain() {
+        drainScheduled.set(false);
+        Instant now = Instant.now();
+        long afterId = 0L;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<EmailOutboxEntity> page = outboxRepository.findDueAfter(EmailOutboxStatus.PENDING, now, afterId, PageRequest.of(0, BATCH_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            afterId = page.getLast().getId();
+            Map<Long, List<EmailOutboxEntity>> byProvider = new LinkedHashMap<>();
+            for (EmailOutboxEntity job : page) {
+                if (inFlight.add(job.getId())) {
+                    byProvider.computeIfAbsent(job.getProviderId(), id -> new ArrayList<>()).add(job);
+                }
+            }
+            byProvider.forEach(this::dispatch);
+        }
+    }
+
+    private void dispatch(Long providerId, List<EmailOutboxEntity> jobs) {
+        int perConnection = Math.max(1, settings.getMessagesPerConnection());
+        ExecutorService lane = providerLanes.computeIfAbsent(providerId, this::createLane);
+        for (int from = 0; from < jobs.size(); from += perConnection) {
+            List<EmailOutboxEntity> chunk = List.copyOf(jobs.subList(from, Math.min(from + perConnection, jobs.size())));
+            try {
+                lane.execute(() -> {
+                    try {
+                        sendChunk(providerId, chunk);
+                    } finally {
+                        chunk.forEach(job -> inFlight.remove(job.getId()));
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                chunk.forEach(job -> inFlight.remove(job.getId()));
+            }
+        }
+    }
+
+    private ExecutorService createLane(Long providerId) {
+        int connections = Math.max(1, settings.getMaxConnectionsPerProvider());
+        ThreadPoolExecutor lane = new ThreadPoolExecutor(connections, connections, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("email-sender-" + providerId + "-", 0).daemon().factory());
+        lane.allowCoreThreadTimeOut(true);
+        return lane;
+    }
+
+    /**
+     * Delivers the jobs of one provider over a single SMTP connection and records the outcome of each. Jobs are re-read
+     * first and skipped unless they are still pending and due: the drain may have read a job just before another lane
+     * delivered or rescheduled it.
+     */
+    void sendChunk(Long providerId, List<EmailOutboxEntity> chunk) {
+        List<EmailOutboxEntity> jobs = reloadDue(chunk);
+        if (jobs.isEmpty()) {
+            return;
+        }
+        EmailProviderV2Entity provider = emailProviderRepository.findById(providerId).orElse(null);
+        if (provider == null) {
+            jobs.forEach(job -> recordFailure(job, null, "Email provider no longer exists", false));
+            return;
+        }
+
+        List<PreparedMessage> prepared = new ArrayList<>(jobs.size());
+        JavaMailSenderImpl sender = createMailSender(provider);
+        for (EmailOutboxEntity job : jobs) {
+            try {
+                PreparedMessage message = readOnlyTransactionTemplate.execute(status -> prepare(sender, provider, job));
+                if (message == null) {
+                    recordFailure(job, null, "Book no longer exists", false);
+                } else {
+                    prepared.add(message);
+                }
+            } catch (Exception e) {
+                recordFailure(job, null, e.getMessage(), true);
+            }
+        }
+        if (prepared.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failedMessages = Map.of();
+        Exception connectionError = null;
+        try {
+            sender.send(prepared.stream().map(PreparedMessage::message).toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            failedMessages = e.getFailedMessages();
+            if (failedMessages.isEmpty()) {
+                connectionError = e;
+            }
+        } catch (MailException e) {
+            connectionError = e;
+        }
+
+        for (PreparedMessage message : prepared) {
+            Exception error = connectionError != null ? connectionError : failedMessages.get(message.message());
+            if (error == null) {
+                recordSuccess(message);
+            } else {
+                recordFailure(message.job(), message.bookTitle(), error.getMessage(), true);
+            }
+        }
+    }
+
+    private List<EmailOutboxEntity> reloadDue(List<EmailOutboxEntity> chunk) {
+        Instant now = Instant.now();
+        return readOnlyTransactionTemplate.execute(status -> chunk.stream()
+                .flatMap(job -> outboxRepository.findById(job.getId()).stream())
+                .filter(job -> job.getStatus() == EmailOutboxStatus.PENDING && !job.getNextAttemptAt().isAfter(now))
+                .toList());
+    }
+
+    private PreparedMessage prepare(JavaMailSenderImpl sender, EmailProviderV2Entity provider, EmailOutboxEntity job) {
+        BookEntity book = bookRepository.findByIdWithBookFiles(job.getBookId()).orElse(null);
+        if (book == null) {
+            return null;
+        }
+        String bookTitle = book.getMetadata().getTitle();
+        try {
+            MimeMessage message = sender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true);
+            helper.setFrom(StringUtils.firstNonEmpty(provider.getFromAddress(), provider.getUsername()));
+            helper.setTo(job.getRecipientEmail());
+            helper.setSubject("Your Book from Booklore: " + bookTitle);
+            helper.setText(generateEmailBody(bookTitle));
+            File bookFile = new File(FileUtils.getBookFullPath(book));
+            helper.addAttachment(bookFile.getName(), bookFile);
+            return new PreparedMessage(job, bookTitle, message);
+        } catch (MessagingException e) {
+            throw new IllegalStateException("Could not build email for book " + bookTitle + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void recordSuccess(PreparedMessage message) {
+        EmailOutboxEntity job = message.job();
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteById(job.getId()));
+        String successMessage = "The book: " + message.bookTitle() + " has been successfully sent to " + job.getRecipientEmail();
+        notificationService.sendMessageToUser(job.getUsername(), Topic.LOG, LogNotification.info(successMessage));
+        log.info(successMessage);
+    }
+
+    /**
+     * Counts the attempt on the current row rather than on the copy that was sent, and says nothing if the row is gone.
+     */
+    private void recordFailure(EmailOutboxEntity job, String bookTitle, String error, boolean retryable) {
+        String reason = StringUtils.abbreviate(Objects.toString(error, "Unknown error"), MAX_ERROR_LENGTH);
+        Integer recordedAttempts = transactionTemplate.execute(status -> outboxRepository.findById(job.getId()).map(entity -> {
+            int attempts = entity.getAttempts() + 1;
+            entity.setAttempts(attempts);
+            entity.setLastError(reason);
+            if (shouldRetry(retryable, attempts)) {
+                entity.setNextAttemptAt(Instant.now().plus(retryDelay(attempts)));
+            } else {
+                entity.setStatus(EmailOutboxStatus.FAILED);
+            }
+            outboxRepository.save(entity);
+            return attempts;
+        }).orElse(null));
+        if (recordedAttempts == null) {
+            return;
+        }
+        boolean retry = shouldRetry(retryable, recordedAttempts);
+        Duration delay = retryDelay(recordedAttempts);
+
+        String book = bookTitle != null ? "the book: " + bookTitle : "book " + job.getBookId();
+        if (retry) {
+            String retryMessage = "Sending " + book + " to " + job.getRecipientEmail() + " failed, retrying in " + delay.toSeconds() + "s. Error: " + reason;
+            notificationService.sendMessageToUser(job.getUsername(), Topic.LOG, LogNotification.warn(retryMessage));
+            log.warn(retryMessage);
+        } else {
+            String errorMessage = "An error occurred while sending " + book + " to " + job.getRecipientEmail() + ". Error: " + reason;
+            notificationService.sendMessageToUser(job.getUsername(), Topic.LOG, LogNotification.error(errorMessage));
+            log.error(errorMessage);
+        }
+    }
+
+    private boolean shouldRetry(boolean retryable, int attempts) {
+        return retryable && attempts < settings.getMaxAttempts();
+    }
+
+    Duration retryDelay(int attempts) {
+        return settings.getRetryDelay().multipliedBy(1L << Math.min(attempts - 1, 16));
+    }
+
+    JavaMailSenderImpl createMailSender(EmailProviderV2Entity emailProvider) {
+        JavaMailSenderImpl dynamicMailSender = new JavaMailSenderImpl();
+        dynamicMailSender.setHost(emailProvider.getHost());
+        dynamicMailSender.setPort(emailProvider.getPort());
+        dynamicMailSender.setUsername(emailProvider.getUsername());
+        dynamicMailSender.setPassword(emailProvider.getPassword());
+
+        Properties mailProps = dynamicMailSender.getJavaMailProperties();
+        mailProps.put("mail.smtp.auth", emailProvider.isAuth());
+
+        ConnectionType connectionType = determineConnectionType(emailProvider);
+        configureConnectionType(mailProps, connectionType, emailProvider);
+        configureTimeouts(mailProps);
+
+        String debugMode = System.getProperty("mail.debug", "false");
+        mailProps.put("mail.debug", debugMode);
+
+        log.info("Email configuration: Host={}, Port={}, Type={}, Timeouts=60s", emailProvider.getHost(), emailProvider.getPort(), connectionType);
+
+        return dynamicMailSender;
+    }
+
+    private ConnectionType determineConnectionType(EmailProviderV2Entity emailProvider) {
+        if (emailProvider.getPort() == 465) {
+            return ConnectionType.SSL;
+        } else if (emailProvider.getPort() == 587 && emailProvider.isStartTls()) {
+            return ConnectionType.STARTTLS;
+        } else if (emailProvider.isStartTls()) {
+            return ConnectionType.STARTTLS;
+        } else {
+            return ConnectionType.PLAIN;
+        }
+    }
+
+    private void configureConnectionType(Properties mailProps, ConnectionType connectionType, EmailProviderV2Entity emailProvider) {
+        switch (connectionType) {
+            case SSL -> {
+                mailProps.put("mail.transport.protocol", "smtps");
+                mailProps.put("mail.smtp.ssl.enable", "true");
+                mailProps.put("mail.smtp.ssl.trust", emailProvider.getHost());
+                mailProps.put("mail.smtp.starttls.enable", "false");
+                mailProps.put("mail.smtp.ssl.protocols", "TLSv1.2,TLSv1.3");
+                mailProps.put("mail.smtp.ssl.checkserveridentity", "false");
+                mailProps.put("mail.smtp.ssl.socketFactory.class", "javax.net.ssl.SSLSocketFactory");
+                mailProps.put("mail.smtp.ssl.socketFactory.fallback", "false");
+            }
+            case STARTTLS -> {
+                mailProps.put("mail.transport.protocol", "smtp");
+                mailProps.put("mail.smtp.starttls.enable", "true");
+                mailProps.put("mail.smtp.starttls.required", "true");
+                mailProps.put("mail.smtp.ssl.enable", "false");
+            }
+            case PLAIN -> {
+                mailProps.put("mail.transport.protocol", "smtp");
+                mailProps.put("mail.smtp.starttls.enable", "false");
+                mailProps.put("mail.smtp.ssl.enable", "false");
+            }
+        }
+    }
+
+    private void configureTimeouts(Properties mailProps) {
+        String connectionTimeout = System.getProperty("mail.smtp.connectiontimeout", "60000");
+        String socketTimeout = System.getProperty("mail.smtp.timeout", "60000");
+        String writeTimeout = System.getProperty("mail.smtp.writetimeout", "60000");
+
+        mailProps.put("mail.smtp.connectiontimeout", connectionTimeout);
+        mailProps.put("mail.smtp.timeout", socketTimeout);
+        mailProps.put("mail.smtp.writetimeout", writeTimeout);
+    }
+
+    private String generateEmailBody(String bookTitle) {
+        return String.format("""
+                Hello,
+
+                You have received a book from Booklore. Please find the attached file titled '%s' for your reading pleasure.
+
+                Thank you for using Booklore! Hope you enjoy your book.
+                """, bookTitle);
+    }
+
+    private enum ConnectionType {
+        SSL,
+        STARTTLS,
+        PLAIN
+    }
+}
@@ -1,31 +1,128 @@
 package com.adityachandel.booklore.service.event;
 
+import com.adityachandel.booklore.mapper.BookMapper;
 import com.adityachandel.booklore.model.dto.Book;
 import com.adityachandel.booklore.model.websocket.LogNotification;
 import com.adityachandel.booklore.model.websocket.Topic;
-import com.adityachandel.booklore.service.user.UserService;
-import lombok.AllArgsConstructor;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.user.UserAccessIndex;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects added books and sends them once per {@link #FLUSH_INTERVAL_MS} as one list per user, so a large import
+ * produces a handful of messages per user instead of two per book. Bulk changes to existing books are pushed the same
+ * way, one list per user and chunk.
+ */
 @Slf4j
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Service
 public class BookEventBroadcaster {
 
+    static final long FLUSH_INTERVAL_MS = 1000;
+    static final int MAX_BOOKS_PER_MESSAGE = 200;
+
     private final SimpMessagingTemplate messagingTemplate;
-    private final UserService userService;
+    private final UserAccessIndex userAccessIndex;
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final EntityManager entityManager;
+
+    private final ConcurrentLinkedQueue<Book> pendingAdds = new ConcurrentLinkedQueue<>();
 
     public void broadcastBookAddEvent(Book book) {
-        Long libraryId = book.getLibraryId();
-        userService.getBookLoreUsers().stream()
-                .filter(u -> u.getPermissions().isAdmin() || u.getAssignedLibraries().stream()
-                        .anyMatch(lib -> lib.getId().equals(libraryId)))
-                .forEach(u -> {
-                    String username = u.getUsername();
-                    messagingTemplate.convertAndSendToUser(username, Topic.BOOK_ADD.getPath(), book);
-                    messagingTemplate.convertAndSendToUser(username, Topic.LOG.getPath(), LogNotification.info("Book added: " + book.getFileName()));
-                });
+        pendingAdds.add(book);
+    }
+
+    /**
+     * Sends the current state of the given books to every user who can see them, loading and sending
+     * {@link #MAX_BOOKS_PER_MESSAGE} books at a time so open clients replace their copies after a bulk change.
+     */
+    @Transactional(readOnly = true)
+    public void broadcastBooksUpdated(Collection<Long> bookIds) {
+        if (bookIds == null || bookIds.isEmpty()) {
+            return;
+        }
+        List<UserAccessIndex.UserAccess> users = userAccessIndex.getUsers();
+        List<Long> ids = bookIds.stream().sorted().toList();
+        for (int from = 0; from < ids.size(); from += MAX_BOOKS_PER_MESSAGE) {
+            List<Book> books = bookRepository.findAllWithMetadataByIds(new HashSet<>(ids.subList(from, Math.min(ids.size(), from + MAX_BOOKS_PER_MESSAGE))))
+                    .stream()
+                    .map(bookMapper::toBook)
+                    .toList();
+            entityManager.clear();
+            for (UserAccessIndex.UserAccess user : users) {
+                List<Book> visible = user.admin()
+                        ? books
+                        : books.stream().filter(b -> user.canAccessLibrary(b.getLibraryId())).toList();
+                if (visible.isEmpty()) {
+                    continue;
+                }
+                try {
+                    messagingTemplate.convertAndSendToUser(user.username(), Topic.BOOK_METADATA_BATCH_UPDATE.getPath(), visible);
+                } catch (Exception e) {
+                    log.error("Error sending {} book update(s) to user {}: {}", visible.size(), user.username(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS, timeUnit = TimeUnit.MILLISECONDS)
+    public void flush() {
+        if (pendingAdds.isEmpty()) {
+            return;
+        }
+        List<Book> books = new ArrayList<>();
+        Book book;
+        while ((book = pendingAdds.poll()) != null) {
+            books.add(book);
+        }
+
+        for (UserAccessIndex.UserAccess user : userAccessIndex.getUsers()) {
+            List<Book> visible = user.admin()
+                    ? books
+                    : books.stream().filter(b -> user.canAccessLibrary(b.getLibraryId())).toList();
+            if (visible.isEmpty()) {
+                continue;
+            }
+            try {
+                sendBooksAdded(user.username(), visible);
+            } catch (Exception e) {
+                log.error("Error sending {} book add event(s) to user {}: {}", visible.size(), user.username(), e.getMessage());
+            }
+        }
+    }
+
+    private void sendBooksAdded(String username, List<Book> books) {
+        for (int from = 0; from < books.size(); from += MAX_BOOKS_PER_MESSAGE) {
+            List<Book> chunk = books.subList(from, Math.min(books.size(), from + MAX_BOOKS_PER_MESSAGE));
+            messagingTemplate.convertAndSendToUser(username, Topic.BOOKS_ADD.getPath(), new ArrayList<>(chunk));
+        }
+        String message = books.size() == 1
+                ? "Book added: " + books.getFirst().getFileName()
+                : books.size() + " books added";
+        messagingTemplate.convertAndSendToUser(username, Topic.LOG.getPath(), LogNotification.info(message));
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.debug("Could not deliver {} pending book add event(s) on shutdown: {}", pendingAdds.size(), e.getMessage());
+        }
     }
 }
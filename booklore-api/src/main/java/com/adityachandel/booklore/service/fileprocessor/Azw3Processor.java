@@ -129,7 +129,7 @@ public class Azw3Processor extends AbstractFileProcessor implements BookFileProc
     }
 
     private boolean saveCoverImage(byte[] coverData, long bookId) throws Exception {
-        BufferedImage originalImage = FileService.readImage(coverData);
+        BufferedImage originalImage = FileService.readCoverImage(coverData);
         if (originalImage == null) {
             log.warn("Failed to decode cover image for AZW3");
             return false;
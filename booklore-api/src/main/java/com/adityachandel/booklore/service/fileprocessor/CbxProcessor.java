@@ -26,7 +26,6 @@ import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.InputStream;
@@ -142,7 +141,7 @@ public class CbxProcessor extends AbstractFileProcessor implements BookFileProce
                 .min(Comparator.comparing(ZipArchiveEntry::getName))
                 .map(entry -> {
                     try (InputStream is = zipFile.getInputStream(entry)) {
-                        return FileService.readImage(is);
+                        return FileService.readCoverImage(is.readAllBytes());
                     } catch (Exception e) {
                         log.warn("Failed to read image from ZIP entry {}: {}", entry.getName(), e.getMessage());
                         return null;
@@ -173,7 +172,7 @@ public class CbxProcessor extends AbstractFileProcessor implements BookFileProce
                                 if (bytesRead < 0) break;
                                 offset += bytesRead;
                             }
-                            return Optional.ofNullable(FileService.readImage(new ByteArrayInputStream(content)));
+                            return Optional.ofNullable(FileService.readCoverImage(content));
                         }
                     }
                 }
@@ -194,7 +193,7 @@ public class CbxProcessor extends AbstractFileProcessor implements BookFileProce
             for (FileHeader header : imageHeaders) {
                 try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
                     archive.extractFile(header, baos);
-                    return Optional.ofNullable(FileService.readImage(new ByteArrayInputStream(baos.toByteArray())));
+                    return Optional.ofNullable(FileService.readCoverImage(baos.toByteArray()));
                 } catch (Exception e) {
                     log.warn("Error reading RAR entry {}: {}", header.getFileName(), e.getMessage());
                 }
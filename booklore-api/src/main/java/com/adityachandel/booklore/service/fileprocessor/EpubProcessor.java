@@ -19,7 +19,6 @@ import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.util.List;
 import java.util.Set;
@@ -66,17 +65,13 @@ public class EpubProcessor extends AbstractFileProcessor implements BookFileProc
                 return false;
             }
 
-            boolean saved;
-            try (ByteArrayInputStream bais = new ByteArrayInputStream(coverData)) {
-                BufferedImage originalImage = FileService.readImage(bais);
-                if (originalImage == null) {
-                    log.warn("Failed to decode cover image for EPUB '{}'", bookEntity.getPrimaryBookFile().getFileName());
-                    return false;
-                }
-                saved = fileService.saveCoverImages(originalImage, bookEntity.getId());
-                originalImage.flush();
+            BufferedImage originalImage = FileService.readCoverImage(coverData);
+            if (originalImage == null) {
+                log.warn("Failed to decode cover image for EPUB '{}'", bookEntity.getPrimaryBookFile().getFileName());
+                return false;
             }
-
+            boolean saved = fileService.saveCoverImages(originalImage, bookEntity.getId());
+            originalImage.flush();
             return saved;
 
         } catch (Exception e) {
@@ -127,7 +127,7 @@ public class Fb2Processor extends AbstractFileProcessor implements BookFileProce
     }
 
     private boolean saveCoverImage(byte[] coverData, long bookId) throws Exception {
-        BufferedImage originalImage = FileService.readImage(coverData);
+        BufferedImage originalImage = FileService.readCoverImage(coverData);
         if (originalImage == null) {
             log.warn("Failed to decode cover image for FB2");
             return false;
@@ -130,7 +130,7 @@ public class MobiProcessor extends AbstractFileProcessor implements BookFileProc
     }
 
     private boolean saveCoverImage(byte[] coverData, long bookId) throws Exception {
-        BufferedImage originalImage = FileService.readImage(coverData);
+        BufferedImage originalImage = FileService.readCoverImage(coverData);
         if (originalImage == null) {
             log.warn("Failed to decode cover image for MOBI");
             return false;
@@ -4,26 +4,49 @@ import com.adityachandel.booklore.model.dto.HardcoverSyncSettings;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
 import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.metadata.fetch.MetadataProviderRateLimiters;
+import com.adityachandel.booklore.service.metadata.fetch.ProviderRateLimiter;
 import com.adityachandel.booklore.service.metadata.parser.hardcover.GraphQLRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Service to sync reading progress to Hardcover.
  * Uses per-user Hardcover API tokens for reading progress sync.
  * Each user can configure their own Hardcover API key in their sync settings.
+ * <p>
+ * Progress pushes are debounced per (user, book): only the latest value is sent, once the book has been quiet for
+ * {@link #QUIET_PERIOD} (or at the latest {@link #MAX_DELAY} after the first unsent push). Each user's due books are
+ * sent together under that user's token, with Hardcover book/edition lookups and the user's read ids cached so a
+ * steady-state sync is a single batched mutation.
  */
 @Slf4j
 @Service
@@ -33,128 +56,381 @@ public class HardcoverSyncService {
     private static final int STATUS_CURRENTLY_READING = 2;
     private static final int STATUS_READ = 3;
 
+    static final Duration QUIET_PERIOD = Duration.ofSeconds(20);
+    static final Duration MAX_DELAY = Duration.ofMinutes(2);
+    private static final long DISPATCH_INTERVAL_MS = 2000;
+
+    // Hardcover allows 60 requests per minute per token.
+    private static final Duration REQUEST_INTERVAL = Duration.ofSeconds(1);
+    private static final int REQUEST_BURST = 5;
+    private static final int MAX_THROTTLE_RETRIES = 2;
+
     private final RestClient restClient;
     private final HardcoverSyncSettingsService hardcoverSyncSettingsService;
     private final BookRepository bookRepository;
-
-    // Thread-local to hold the current API token for GraphQL requests
-    private final ThreadLocal<String> currentApiToken = new ThreadLocal<>();
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<SyncKey, PendingSync> pending = new ConcurrentHashMap<>();
+    private final Set<Long> usersInFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Cache<String, ProviderRateLimiter> tokenLimiters = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+    private final Cache<Integer, HardcoverBookInfo> booksById = Caffeine.newBuilder()
+            .maximumSize(5_000)
+            .expireAfterWrite(Duration.ofHours(12))
+            .build();
+    private final Cache<String, HardcoverBookInfo> booksByIsbn = Caffeine.newBuilder()
+            .maximumSize(5_000)
+            .expireAfterWrite(Duration.ofHours(12))
+            .build();
+    private final Cache<UserBookKey, UserBookRef> userBookRefs = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofHours(12))
+            .build();
+
+    private final Timer syncLatency;
+    private final Counter coalescedUpdates;
+    private final Counter batchedUpdates;
 
     @Autowired
-    public HardcoverSyncService(HardcoverSyncSettingsService hardcoverSyncSettingsService, BookRepository bookRepository) {
+    public HardcoverSyncService(HardcoverSyncSettingsService hardcoverSyncSettingsService, BookRepository bookRepository,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
         this.hardcoverSyncSettingsService = hardcoverSyncSettingsService;
         this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
         this.restClient = RestClient.builder()
                 .baseUrl(HARDCOVER_API_URL)
                 .build();
+
+        Gauge.builder("booklore.hardcover.sync.queue.depth", pending, Map::size)
+                .description("Progress updates waiting to be sent to Hardcover")
+                .register(meterRegistry);
+        this.syncLatency = Timer.builder("booklore.hardcover.sync.latency")
+                .description("Time from the first unsent progress push to the Hardcover sync")
+                .register(meterRegistry);
+        this.coalescedUpdates = Counter.builder("booklore.hardcover.sync.coalesced")
+                .description("Progress pushes replaced by a newer one before being sent")
+                .register(meterRegistry);
+        this.batchedUpdates = Counter.builder("booklore.hardcover.sync.batched")
+                .description("Progress updates sent as part of a batched mutation")
+                .register(meterRegistry);
+    }
+
+    private record SyncKey(Long userId, Long bookId) {
+    }
+
+    private record PendingSync(SyncKey key, Float progressPercent, Instant firstQueuedAt, Instant dueAt) {
+    }
+
+    private record UserBookKey(Long userId, Integer hardcoverBookId) {
+    }
+
+    private record UserBookRef(Integer userBookId, Integer readId) {
+    }
+
+    private record ResolvedSync(PendingSync sync, HardcoverBookInfo book, int progressPages, boolean finished) {
+        UserBookKey userBookKey() {
+            return new UserBookKey(sync.key().userId(), book.bookId);
+        }
     }
 
     /**
-     * Asynchronously sync Kobo reading progress to Hardcover.
-     * This method is non-blocking and will not fail the calling process if sync fails.
+     * Queue reading progress for syncing to Hardcover.
+     * This method is non-blocking and will not fail the calling process if sync fails. Repeated pushes for the same
+     * book replace each other until the book goes quiet, so only the latest progress is sent.
      * Uses the user's personal Hardcover API key if configured.
      *
      * @param bookId The book ID to sync progress for
      * @param progressPercent The reading progress as a percentage (0-100)
      * @param userId The user ID whose reading progress is being synced
      */
-    @Async
-    @Transactional(readOnly = true)
     public void syncProgressToHardcover(Long bookId, Float progressPercent, Long userId) {
+        if (progressPercent == null) {
+            log.debug("Hardcover sync skipped: no progress to sync");
+            return;
+        }
+        Instant now = Instant.now();
+        pending.compute(new SyncKey(userId, bookId), (key, existing) -> {
+            Instant firstQueuedAt = now;
+            if (existing != null) {
+                coalescedUpdates.increment();
+                firstQueuedAt = existing.firstQueuedAt();
+            }
+            Instant quietAt = now.plus(QUIET_PERIOD);
+            Instant deadline = firstQueuedAt.plus(MAX_DELAY);
+            return new PendingSync(key, progressPercent, firstQueuedAt, quietAt.isBefore(deadline) ? quietAt : deadline);
+        });
+    }
+
+    /**
+     * Hands every user with due updates to a worker. A user whose previous batch is still running is picked up on a
+     * later tick, so one token never has two batches in flight.
+     */
+    @Scheduled(fixedDelay = DISPATCH_INTERVAL_MS, timeUnit = TimeUnit.MILLISECONDS)
+    public void dispatchDueSyncs() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Map<Long, List<PendingSync>> dueByUser = pending.values().stream()
+                .filter(sync -> !sync.dueAt().isAfter(now))
+                .collect(Collectors.groupingBy(sync -> sync.key().userId()));
+
+        dueByUser.forEach((userId, syncs) -> {
+            if (!usersInFlight.add(userId)) {
+                return;
+            }
+            List<PendingSync> claimed = claim(syncs);
+            if (claimed.isEmpty()) {
+                usersInFlight.remove(userId);
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        syncUserBatch(userId, claimed);
+                    } finally {
+                        usersInFlight.remove(userId);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                usersInFlight.remove(userId);
+                claimed.forEach(sync -> pending.putIfAbsent(sync.key(), sync));
+            }
+        });
+    }
+
+    /**
+     * Sends everything still queued on the calling thread, regardless of debounce.
+     */
+    public void flushPendingSyncs() {
+        Map<Long, List<PendingSync>> byUser = pending.values().stream()
+                .collect(Collectors.groupingBy(sync -> sync.key().userId()));
+        byUser.forEach((userId, syncs) -> {
+            List<PendingSync> claimed = claim(syncs);
+            if (!claimed.isEmpty()) {
+                syncUserBatch(userId, claimed);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        if (!pending.isEmpty()) {
+            log.info("Sending {} queued Hardcover progress update(s) before shutdown", pending.size());
+            flushPendingSyncs();
+        }
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<PendingSync> claim(List<PendingSync> syncs) {
+        List<PendingSync> claimed = new ArrayList<>(syncs.size());
+        for (PendingSync sync : syncs) {
+            // Only take the exact entry we saw; a newer push in the meantime stays queued with its own debounce.
+            if (pending.remove(sync.key(), sync)) {
+                claimed.add(sync);
+            }
+        }
+        return claimed;
+    }
+
+    private void syncUserBatch(Long userId, List<PendingSync> syncs) {
         try {
             // Get user's Hardcover settings
             HardcoverSyncSettings userSettings = hardcoverSyncSettingsService.getSettingsForUserId(userId);
-            
+
             if (!isHardcoverSyncEnabledForUser(userSettings)) {
                 log.trace("Hardcover sync skipped for user {}: not enabled or no API token configured", userId);
                 return;
             }
+            String apiToken = userSettings.getHardcoverApiKey();
 
-            // Set the user's API token for this sync operation
-            currentApiToken.set(userSettings.getHardcoverApiKey());
-
-            try {
-                if (progressPercent == null) {
-                    log.debug("Hardcover sync skipped: no progress to sync");
-                    return;
+            List<ResolvedSync> resolved = new ArrayList<>(syncs.size());
+            for (PendingSync sync : syncs) {
+                ResolvedSync resolvedSync = resolve(apiToken, sync);
+                if (resolvedSync != null) {
+                    resolved.add(resolvedSync);
                 }
+            }
 
-                // Fetch book fresh within the async context to avoid lazy loading issues
-                BookEntity book = bookRepository.findById(bookId).orElse(null);
-                if (book == null) {
-                    log.debug("Hardcover sync skipped: book {} not found", bookId);
-                    return;
-                }
+            // Books whose read is already known only need their progress updated, and those go out as one mutation.
+            List<ResolvedSync> known = new ArrayList<>();
+            List<ResolvedSync> unknown = new ArrayList<>();
+            for (ResolvedSync sync : resolved) {
+                UserBookRef ref = userBookRefs.getIfPresent(sync.userBookKey());
+                (ref != null && ref.readId() != null ? known : unknown).add(sync);
+            }
+            unknown.addAll(updateKnownReads(apiToken, known));
 
-                BookMetadataEntity metadata = book.getMetadata();
-                if (metadata == null) {
-                    log.debug("Hardcover sync skipped: book {} has no metadata", bookId);
-                    return;
-                }
+            for (ResolvedSync sync : unknown) {
+                syncBook(apiToken, sync);
+            }
+        } catch (Exception e) {
+            log.error("Failed to sync progress to Hardcover for user {}: {}", userId, e.getMessage());
+        } finally {
+            Instant now = Instant.now();
+            syncs.forEach(sync -> syncLatency.record(Duration.between(sync.firstQueuedAt(), now)));
+        }
+    }
 
-                // Find the book on Hardcover - use stored ID if available
-                HardcoverBookInfo hardcoverBook;
-                if (metadata.getHardcoverBookId() != null) {
-                    // Use the stored numeric book ID and fetch edition/page info from Hardcover
-                    hardcoverBook = new HardcoverBookInfo();
-                    hardcoverBook.bookId = metadata.getHardcoverBookId();
-                    log.debug("Using stored Hardcover book ID: {}", hardcoverBook.bookId);
-
-                    // Always fetch the default edition and page count from Hardcover
-                    HardcoverBookInfo fetched = findHardcoverBookById(hardcoverBook.bookId);
-                    if (fetched != null) {
-                        hardcoverBook.editionId = fetched.editionId;
-                        hardcoverBook.pages = fetched.pages;
-                        log.debug("Fetched from Hardcover: editionId={}, pages={}", hardcoverBook.editionId, hardcoverBook.pages);
-                    } else {
-                        log.warn("Could not fetch edition info from Hardcover for book ID: {}", hardcoverBook.bookId);
-                    }
-                } else {
-                    // Search by ISBN
-                    hardcoverBook = findHardcoverBook(metadata);
-                    if (hardcoverBook == null) {
-                        log.debug("Hardcover sync skipped: book {} not found on Hardcover", bookId);
-                        return;
-                    }
+    /**
+     * Loads the book and finds it on Hardcover. Returns {@code null} when the book cannot be synced.
+     */
+    private ResolvedSync resolve(String apiToken, PendingSync sync) {
+        Long bookId = sync.key().bookId();
+        try {
+            BookMetadataEntity metadata = readOnlyTransaction.execute(status -> bookRepository.findById(bookId)
+                    .map(BookEntity::getMetadata)
+                    .orElse(null));
+            if (metadata == null) {
+                log.debug("Hardcover sync skipped: book {} not found or has no metadata", bookId);
+                return null;
+            }
+
+            // Find the book on Hardcover - use stored ID if available
+            HardcoverBookInfo hardcoverBook;
+            if (metadata.getHardcoverBookId() != null) {
+                hardcoverBook = findHardcoverBookByIdCached(apiToken, metadata.getHardcoverBookId());
+            } else {
+                hardcoverBook = findHardcoverBookCached(apiToken, metadata);
+                if (hardcoverBook == null) {
+                    log.debug("Hardcover sync skipped: book {} not found on Hardcover", bookId);
+                    return null;
                 }
+            }
 
-                // Determine the status based on progress
-                int statusId = progressPercent >= 99.0f ? STATUS_READ : STATUS_CURRENTLY_READING;
+            float progressPercent = sync.progressPercent();
+            int progressPages = 0;
+            if (hardcoverBook.pages != null && hardcoverBook.pages > 0) {
+                progressPages = Math.round((progressPercent / 100.0f) * hardcoverBook.pages);
+                progressPages = Math.max(0, Math.min(hardcoverBook.pages, progressPages));
+            }
+            log.info("Progress calculation: userId={}, progressPercent={}%, totalPages={}, progressPages={}",
+                    sync.key().userId(), progressPercent, hardcoverBook.pages, progressPages);
 
-                // Calculate progress in pages
-                int progressPages = 0;
-                if (hardcoverBook.pages != null && hardcoverBook.pages > 0) {
-                    progressPages = Math.round((progressPercent / 100.0f) * hardcoverBook.pages);
-                    progressPages = Math.max(0, Math.min(hardcoverBook.pages, progressPages));
-                }
-                log.info("Progress calculation: userId={}, progressPercent={}%, totalPages={}, progressPages={}", 
-                        userId, progressPercent, hardcoverBook.pages, progressPages);
-
-                // Step 1: Add/update the book in user's library
-                Integer userBookId = insertOrGetUserBook(hardcoverBook.bookId, hardcoverBook.editionId, statusId);
-                if (userBookId == null) {
-                    log.warn("Hardcover sync failed: could not get user_book_id for book {}", bookId);
-                    return;
-                }
+            return new ResolvedSync(sync, hardcoverBook, progressPages, progressPercent >= 99.0f);
+        } catch (Exception e) {
+            log.error("Failed to sync progress to Hardcover for book {} (user {}): {}",
+                    bookId, sync.key().userId(), e.getMessage());
+            return null;
+        }
+    }
 
-                // Step 2: Create or update the reading progress
-                boolean isFinished = progressPercent >= 99.0f;
-                boolean success = upsertReadingProgress(userBookId, hardcoverBook.editionId, progressPages, isFinished);
-                
-                if (success) {
-                    log.info("Synced progress to Hardcover: userId={}, book={}, hardcoverBookId={}, progress={}% ({}pages)", 
-                            userId, bookId, hardcoverBook.bookId, Math.round(progressPercent), progressPages);
-                }
+    private HardcoverBookInfo findHardcoverBookByIdCached(String apiToken, Integer hardcoverBookId) {
+        HardcoverBookInfo cached = booksById.getIfPresent(hardcoverBookId);
+        if (cached != null) {
+            return cached;
+        }
+        log.debug("Using stored Hardcover book ID: {}", hardcoverBookId);
+        HardcoverBookInfo fetched = findHardcoverBookById(apiToken, hardcoverBookId);
+        if (fetched != null) {
+            log.debug("Fetched from Hardcover: editionId={}, pages={}", fetched.editionId, fetched.pages);
+            booksById.put(hardcoverBookId, fetched);
+            return fetched;
+        }
+        log.warn("Could not fetch edition info from Hardcover for book ID: {}", hardcoverBookId);
+        HardcoverBookInfo info = new HardcoverBookInfo();
+        info.bookId = hardcoverBookId;
+        return info;
+    }
+
+    private HardcoverBookInfo findHardcoverBookCached(String apiToken, BookMetadataEntity metadata) {
+        String isbn = preferredIsbn(metadata);
+        if (isbn == null) {
+            log.debug("No ISBN available for Hardcover lookup");
+            return null;
+        }
+        HardcoverBookInfo cached = booksByIsbn.getIfPresent(isbn);
+        if (cached != null) {
+            return cached;
+        }
+        HardcoverBookInfo found = findHardcoverBook(apiToken, metadata);
+        if (found != null) {
+            booksByIsbn.put(isbn, found);
+        }
+        return found;
+    }
 
-            } finally {
-                // Clean up thread-local
-                currentApiToken.remove();
+    private void syncBook(String apiToken, ResolvedSync sync) {
+        Long bookId = sync.sync().key().bookId();
+        HardcoverBookInfo hardcoverBook = sync.book();
+        try {
+            int statusId = sync.finished() ? STATUS_READ : STATUS_CURRENTLY_READING;
+
+            // Step 1: Add/update the book in user's library
+            Integer userBookId = insertOrGetUserBook(apiToken, hardcoverBook.bookId, hardcoverBook.editionId, statusId);
+            if (userBookId == null) {
+                log.warn("Hardcover sync failed: could not get user_book_id for book {}", bookId);
+                return;
             }
 
+            // Step 2: Create or update the reading progress
+            Integer readId = upsertReadingProgress(apiToken, userBookId, hardcoverBook.editionId, sync.progressPages(), sync.finished());
+
+            if (readId != null) {
+                userBookRefs.put(sync.userBookKey(), new UserBookRef(userBookId, readId));
+                log.info("Synced progress to Hardcover: userId={}, book={}, hardcoverBookId={}, progress={}% ({}pages)",
+                        sync.sync().key().userId(), bookId, hardcoverBook.bookId,
+                        Math.round(sync.sync().progressPercent()), sync.progressPages());
+            }
         } catch (Exception e) {
-            log.error("Failed to sync progress to Hardcover for book {} (user {}): {}", 
-                    bookId, userId, e.getMessage());
+            log.error("Failed to sync progress to Hardcover for book {} (user {}): {}",
+                    bookId, sync.sync().key().userId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Updates every read whose id is cached in a single aliased mutation. Returns the syncs that could not be
+     * applied (the read was deleted on Hardcover, or the request failed) so they can take the full path.
+     */
+    private List<ResolvedSync> updateKnownReads(String apiToken, List<ResolvedSync> syncs) {
+        if (syncs.isEmpty()) {
+            return List.of();
         }
+        StringBuilder declarations = new StringBuilder();
+        StringBuilder selections = new StringBuilder();
+        Map<String, Object> variables = new HashMap<>();
+        for (int i = 0; i < syncs.size(); i++) {
+            ResolvedSync sync = syncs.get(i);
+            UserBookRef ref = userBookRefs.getIfPresent(sync.userBookKey());
+            int readId = ref != null && ref.readId() != null ? ref.readId() : -1;
+            declarations.append(i == 0 ? "" : ", ").append("$o").append(i).append(": DatesReadInput!");
+            selections.append("  u").append(i).append(": update_user_book_read(id: ").append(readId)
+                    .append(", object: $o").append(i).append(") { user_book_read { id } error }\n");
+            variables.put("o" + i, buildReadInput(sync.book().editionId, sync.progressPages(), sync.finished()));
+        }
+
+        GraphQLRequest request = new GraphQLRequest();
+        request.setQuery("mutation BatchUpdateUserBookReads(" + declarations + ") {\n" + selections + "}");
+        request.setVariables(variables);
+
+        Map<String, Object> response = executeGraphQL(apiToken, request);
+        Map<String, Object> data = response != null ? (Map<String, Object>) response.get("data") : null;
+
+        List<ResolvedSync> failed = new ArrayList<>();
+        for (int i = 0; i < syncs.size(); i++) {
+            ResolvedSync sync = syncs.get(i);
+            Map<String, Object> result = data != null ? (Map<String, Object>) data.get("u" + i) : null;
+            String error = result != null ? (String) result.get("error") : null;
+            if (result == null || result.get("user_book_read") == null || (error != null && !error.isBlank())) {
+                userBookRefs.invalidate(sync.userBookKey());
+                failed.add(sync);
+            } else {
+                batchedUpdates.increment();
+                log.info("Synced progress to Hardcover: userId={}, book={}, hardcoverBookId={}, progress={}% ({}pages)",
+                        sync.sync().key().userId(), sync.sync().key().bookId(), sync.book().bookId,
+                        Math.round(sync.sync().progressPercent()), sync.progressPages());
+            }
+        }
+        return failed;
     }
 
     /**
@@ -170,22 +446,22 @@ public class HardcoverSyncService {
                 && !userSettings.getHardcoverApiKey().isBlank();
     }
 
-    private String getApiToken() {
-        return currentApiToken.get();
+    private String preferredIsbn(BookMetadataEntity metadata) {
+        String isbn = metadata.getIsbn13();
+        if (isbn == null || isbn.isBlank()) {
+            isbn = metadata.getIsbn10();
+        }
+        return isbn == null || isbn.isBlank() ? null : isbn;
     }
 
     /**
      * Find a book on Hardcover by ISBN or hardcoverId.
      * Returns the numeric book_id, edition_id, and page count.
      */
-    private HardcoverBookInfo findHardcoverBook(BookMetadataEntity metadata) {
+    private HardcoverBookInfo findHardcoverBook(String apiToken, BookMetadataEntity metadata) {
         // Try ISBN first
-        String isbn = metadata.getIsbn13();
-        if (isbn == null || isbn.isBlank()) {
-            isbn = metadata.getIsbn10();
-        }
-        
-        if (isbn == null || isbn.isBlank()) {
+        String isbn = preferredIsbn(metadata);
+        if (isbn == null) {
             log.debug("No ISBN available for Hardcover lookup");
             return null;
         }
@@ -203,7 +479,7 @@ public class HardcoverSyncService {
             request.setQuery(searchQuery);
             request.setVariables(Map.of("query", isbn));
 
-            Map<String, Object> response = executeGraphQL(request);
+            Map<String, Object> response = executeGraphQL(apiToken, request);
             log.debug("Hardcover search response for ISBN {}: {}", isbn, response);
             if (response == null) {
                 return null;
@@ -256,7 +532,7 @@ public class HardcoverSyncService {
 
             // If no default physical edition found, try to look up edition by ISBN as fallback
             if (info.bookId != null && info.editionId == null) {
-                EditionInfo edition = findEditionByIsbn(info.bookId, isbn);
+                EditionInfo edition = findEditionByIsbn(apiToken, info.bookId, isbn);
                 if (edition != null) {
                     info.editionId = edition.id;
                 }
@@ -264,7 +540,7 @@ public class HardcoverSyncService {
 
             // Fetch page count from the edition (prioritizing edition page count over book-level page count)
             if (info.editionId != null) {
-                EditionInfo edition = findEditionById(info.editionId);
+                EditionInfo edition = findEditionById(apiToken, info.editionId);
                 if (edition != null && edition.pages != null && edition.pages > 0) {
                     info.pages = edition.pages;
                     log.debug("Using page count from edition {}: {} pages", info.editionId, info.pages);
@@ -286,7 +562,7 @@ public class HardcoverSyncService {
      * Find an edition by ISBN for a given book.
      * This queries Hardcover's editions table to match by ISBN.
      */
-    private EditionInfo findEditionByIsbn(Integer bookId, String isbn) {
+    private EditionInfo findEditionByIsbn(String apiToken, Integer bookId, String isbn) {
         String query = """
             query FindEditionByIsbn($bookId: Int!, $isbn: String!) {
               editions(where: {
@@ -307,7 +583,7 @@ public class HardcoverSyncService {
         request.setVariables(Map.of("bookId", bookId, "isbn", isbn));
 
         try {
-            Map<String, Object> response = executeGraphQL(request);
+            Map<String, Object> response = executeGraphQL(apiToken, request);
             log.debug("Edition lookup response: {}", response);
             if (response == null) return null;
 
@@ -338,7 +614,7 @@ public class HardcoverSyncService {
         }
     }
 
-    private EditionInfo findEditionById(Integer editionId) {
+    private EditionInfo findEditionById(String apiToken, Integer editionId) {
         String query = """
             query FindEditionById($editionId: Int!) {
               editions(where: {id: {_eq: $editionId}}, limit: 1) {
@@ -353,7 +629,7 @@ public class HardcoverSyncService {
         request.setVariables(Map.of("editionId", editionId));
 
         try {
-            Map<String, Object> response = executeGraphQL(request);
+            Map<String, Object> response = executeGraphQL(apiToken, request);
             if (response == null) return null;
 
             Map<String, Object> data = (Map<String, Object>) response.get("data");
@@ -383,7 +659,7 @@ public class HardcoverSyncService {
         }
     }
 
-    private HardcoverBookInfo findHardcoverBookById(Integer bookId) {
+    private HardcoverBookInfo findHardcoverBookById(String apiToken, Integer bookId) {
         String query = """
             query FindBookById($bookId: Int!) {
               books(where: {id: {_eq: $bookId}}, limit: 1) {
@@ -399,7 +675,7 @@ public class HardcoverSyncService {
         request.setVariables(Map.of("bookId", bookId));
 
         try {
-            Map<String, Object> response = executeGraphQL(request);
+            Map<String, Object> response = executeGraphQL(apiToken, request);
             if (response == null) return null;
 
             Map<String, Object> data = (Map<String, Object>) response.get("data");
@@ -431,7 +707,7 @@ public class HardcoverSyncService {
 
             // If we have an edition ID, fetch the page count from that edition
             if (info.editionId != null) {
-                EditionInfo edition = findEditionById(info.editionId);
+                EditionInfo edition = findEditionById(apiToken, info.editionId);
                 if (edition != null && edition.pages != null && edition.pages > 0) {
                     info.pages = edition.pages;
                     log.debug("Using page count from default physical edition {}: {} pages", info.editionId, info.pages);
@@ -449,7 +725,7 @@ public class HardcoverSyncService {
     /**
      * Insert a book into the user's library or get existing user_book_id.
      */
-    private Integer insertOrGetUserBook(Integer bookId, Integer editionId, int statusId) {
+    private Integer insertOrGetUserBook(String apiToken, Integer bookId, Integer editionId, int statusId) {
         String mutation = """
             mutation InsertUserBook($object: UserBookCreateInput!) {
               insert_user_book(object: $object) {
@@ -474,7 +750,7 @@ public class HardcoverSyncService {
         request.setVariables(Map.of("object", bookInput));
 
         try {
-            Map<String, Object> response = executeGraphQL(request);
+            Map<String, Object> response = executeGraphQL(apiToken, request);
             log.debug("insert_user_book response: {}", response);
             if (response == null) return null;
 
@@ -488,7 +764,7 @@ public class HardcoverSyncService {
             String error = (String) insertResult.get("error");
             if (error != null && !error.isBlank()) {
                 log.debug("insert_user_book returned error: {} - book may already exist, trying to find it", error);
-                return findExistingUserBook(bookId);
+                return findExistingUserBook(apiToken, bookId);
             }
 
             Map<String, Object> userBook = (Map<String, Object>) insertResult.get("user_book");
@@ -504,14 +780,14 @@ public class HardcoverSyncService {
         } catch (RestClientException e) {
             log.warn("Failed to insert user_book: {}", e.getMessage());
             // Try to find existing
-            return findExistingUserBook(bookId);
+            return findExistingUserBook(apiToken, bookId);
         }
     }
 
     /**
      * Find an existing user_book entry for a book.
      */
-    private Integer findExistingUserBook(Integer bookId) {
+    private Integer findExistingUserBook(String apiToken, Integer bookId) {
         String query = """
             query FindUserBook($bookId: Int!) {
               me {
@@ -527,7 +803,7 @@ public class HardcoverSyncService {
         request.setVariables(Map.of("bookId", bookId));
 
         try {
-            Map<String, Object> response = executeGraphQL(request);
+            Map<String, Object> response = executeGraphQL(apiToken, request);
             if (response == null) return null;
 
             Map<String, Object> data = (Map<String, Object>) response.get("data");
@@ -553,27 +829,27 @@ public class HardcoverSyncService {
     }
 
     /**
-     * Create or update reading progress for a user_book.
+     * Create or update reading progress for a user_book. Returns the read's id, or {@code null} on failure.
      */
-    private boolean upsertReadingProgress(Integer userBookId, Integer editionId, int progressPages, boolean isFinished) {
+    private Integer upsertReadingProgress(String apiToken, Integer userBookId, Integer editionId, int progressPages, boolean isFinished) {
         log.info("upsertReadingProgress: userBookId={}, editionId={}, progressPages={}, isFinished={}",
                 userBookId, editionId, progressPages, isFinished);
 
         // First, try to find existing user_book_read
-        Integer existingReadId = findExistingUserBookRead(userBookId);
+        Integer existingReadId = findExistingUserBookRead(apiToken, userBookId);
 
         if (existingReadId != null) {
             // Update existing
             log.info("Updating existing user_book_read: id={}", existingReadId);
-            return updateUserBookRead(existingReadId, editionId, progressPages, isFinished);
+            return updateUserBookRead(apiToken, existingReadId, editionId, progressPages, isFinished) ? existingReadId : null;
         } else {
             // Create new
             log.info("Creating new user_book_read for userBookId={}", userBookId);
-            return insertUserBookRead(userBookId, editionId, progressPages, isFinished);
+            return insertUserBookRead(apiToken, userBookId, editionId, progressPages, isFinished);
         }
     }
 
-    private Integer findExistingUserBookRead(Integer userBookId) {
+    private Integer findExistingUserBookRead(String apiToken, Integer userBookId) {
         String query = """
             query FindUserBookRead($userBookId: Int!) {
               user_book_reads(where: {user_book_id: {_eq: $userBookId}}, limit: 1) {
@@ -587,7 +863,7 @@ public class HardcoverSyncService {
         request.setVariables(Map.of("userBookId", userBookId));
 
         try {
-            Map<String, Object> response = executeGraphQL(request);
+            Map<String, Object> response = executeGraphQL(apiToken, request);
             if (response == null) return null;
 
             Map<String, Object> data = (Map<String, Object>) response.get("data");
@@ -609,7 +885,7 @@ public class HardcoverSyncService {
         }
     }
 
-    private boolean insertUserBookRead(Integer userBookId, Integer editionId, int progressPages, boolean isFinished) {
+    private Integer insertUserBookRead(String apiToken, Integer userBookId, Integer editionId, int progressPages, boolean isFinished) {
         String mutation = """
             mutation InsertUserBookRead($userBookId: Int!, $object: DatesReadInput!) {
               insert_user_book_read(user_book_id: $userBookId, user_book_read: $object) {
@@ -621,15 +897,8 @@ public class HardcoverSyncService {
             }
             """;
 
-        Map<String, Object> readInput = new java.util.HashMap<>();
+        Map<String, Object> readInput = buildReadInput(editionId, progressPages, isFinished);
         readInput.put("started_at", LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
-        readInput.put("progress_pages", progressPages);
-        if (isFinished) {
-            readInput.put("finished_at", LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
-        }
-        if (editionId != null) {
-            readInput.put("edition_id", editionId);
-        }
 
         GraphQLRequest request = new GraphQLRequest();
         request.setQuery(mutation);
@@ -639,24 +908,30 @@ public class HardcoverSyncService {
         ));
 
         try {
-            Map<String, Object> response = executeGraphQL(request);
+            Map<String, Object> response = executeGraphQL(apiToken, request);
             log.info("insert_user_book_read response: {}", response);
-            if (response == null) return false;
+            if (response == null) return null;
 
             if (response.containsKey("errors")) {
                 log.warn("insert_user_book_read returned errors: {}", response.get("errors"));
-                return false;
+                return null;
             }
 
-            return true;
+            Map<String, Object> data = (Map<String, Object>) response.get("data");
+            Map<String, Object> insertResult = data != null ? (Map<String, Object>) data.get("insert_user_book_read") : null;
+            Map<String, Object> userBookRead = insertResult != null ? (Map<String, Object>) insertResult.get("user_book_read") : null;
+            if (userBookRead != null && userBookRead.get("id") instanceof Number id) {
+                return id.intValue();
+            }
+            return null;
 
         } catch (RestClientException e) {
             log.error("Failed to insert user_book_read: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
 
-    private boolean updateUserBookRead(Integer readId, Integer editionId, int progressPages, boolean isFinished) {
+    private boolean updateUserBookRead(String apiToken, Integer readId, Integer editionId, int progressPages, boolean isFinished) {
         String mutation = """
             mutation UpdateUserBookRead($id: Int!, $object: DatesReadInput!) {
               update_user_book_read(id: $id, object: $object) {
@@ -669,14 +944,7 @@ public class HardcoverSyncService {
             }
             """;
 
-        Map<String, Object> readInput = new java.util.HashMap<>();
-        readInput.put("progress_pages", progressPages);
-        if (isFinished) {
-            readInput.put("finished_at", LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
-        }
-        if (editionId != null) {
-            readInput.put("edition_id", editionId);
-        }
+        Map<String, Object> readInput = buildReadInput(editionId, progressPages, isFinished);
 
         GraphQLRequest request = new GraphQLRequest();
         request.setQuery(mutation);
@@ -686,7 +954,7 @@ public class HardcoverSyncService {
         ));
 
         try {
-            Map<String, Object> response = executeGraphQL(request);
+            Map<String, Object> response = executeGraphQL(apiToken, request);
             log.debug("update_user_book_read response: {}", response);
             if (response == null) return false;
 
@@ -703,18 +971,46 @@ public class HardcoverSyncService {
         }
     }
 
-    private Map<String, Object> executeGraphQL(GraphQLRequest request) {
-        try {
-            return restClient.post()
-                    .uri("")
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + getApiToken())
-                    .body(request)
-                    .retrieve()
-                    .body(Map.class);
-        } catch (RestClientException e) {
-            log.error("GraphQL request failed: {}", e.getMessage());
-            return null;
+    private Map<String, Object> buildReadInput(Integer editionId, int progressPages, boolean isFinished) {
+        Map<String, Object> readInput = new HashMap<>();
+        readInput.put("progress_pages", progressPages);
+        if (isFinished) {
+            readInput.put("finished_at", LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
+        }
+        if (editionId != null) {
+            readInput.put("edition_id", editionId);
+        }
+        return readInput;
+    }
+
+    private Map<String, Object> executeGraphQL(String apiToken, GraphQLRequest request) {
+        ProviderRateLimiter limiter = tokenLimiters.get(apiToken, token ->
+                new ProviderRateLimiter("Hardcover sync", REQUEST_INTERVAL, REQUEST_BURST, Duration.ofSeconds(2), Duration.ofMinutes(1)));
+        for (int attempt = 0; ; attempt++) {
+            if (!limiter.acquire()) {
+                return null;
+            }
+            try {
+                Map<String, Object> response = restClient.post()
+                        .uri("")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiToken)
+                        .body(request)
+                        .retrieve()
+                        .body(Map.class);
+                limiter.onSuccess();
+                return response;
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                HttpHeaders headers = e.getResponseHeaders();
+                limiter.onThrottled(MetadataProviderRateLimiters.parseRetryAfter(headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null));
+                if (attempt >= MAX_THROTTLE_RETRIES) {
+                    log.warn("GraphQL request still throttled after {} retries", MAX_THROTTLE_RETRIES);
+                    return null;
+                }
+            } catch (RestClientException e) {
+                log.error("GraphQL request failed: {}", e.getMessage());
+                return null;
+            }
         }
     }
 
@@ -1,24 +1,33 @@
 package com.adityachandel.booklore.service.kobo;
 
+import com.adityachandel.booklore.config.AppProperties;
 import com.adityachandel.booklore.util.FileService;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
 
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
 
+/**
+ * Converts EPUBs to KEPUB with the kepubify binary for Kobo downloads. At most {@code app.kepubify.max-concurrent}
+ * processes run at once; waiting conversions are served round-robin per device, so one device syncing a large library
+ * does not hold up the others, and concurrent requests for the same file share one conversion. The binary is resolved,
+ * and downloaded if missing, once at startup instead of on every call.
+ */
 @Slf4j
 @Service
 public class KepubConversionService {
 
-    @Autowired
-    private FileService fileService;
-
     private static final String KEPUBIFY_GITHUB_BASE_URL = "https://github.com/booklore-app/booklore-tools/raw/main/kepubify/";
 
     private static final String BIN_DARWIN_ARM64 = "kepubify-darwin-arm64";
@@ -28,14 +37,74 @@ public class KepubConversionService {
     private static final String BIN_LINUX_ARM = "kepubify-linux-arm";
     private static final String BIN_LINUX_ARM64 = "kepubify-linux-arm64";
 
-    public File convertEpubToKepub(File epubFile, File tempDir, boolean forceEnableHyphenation) throws IOException, InterruptedException {
+    private static final String DEFAULT_DEVICE = "default";
+    private static final String OUTPUT_LOG = "kepubify.log";
+    private static final int OUTPUT_TAIL_LINES = 20;
+
+    private final FileService fileService;
+    private final AppProperties.Kepubify settings;
+    private final DeviceQueue<Conversion> queue = new DeviceQueue<>();
+    private final Map<ConversionKey, Conversion> conversions = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final Object binaryLock = new Object();
+    private volatile Path kepubifyBinary;
+
+    public KepubConversionService(FileService fileService, AppProperties appProperties) {
+        this.fileService = fileService;
+        this.settings = appProperties.getKepubify();
+        int workerCount = Math.max(1, settings.getMaxConcurrent());
+        this.workers = Executors.newFixedThreadPool(workerCount, Thread.ofPlatform().name("kepubify-", 0).daemon().factory());
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runConversions);
+        }
+    }
+
+    record ConversionKey(Path epub, long lastModified, long size, boolean hyphenate) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareBinary() {
+        try {
+            resolveBinary();
+        } catch (Exception e) {
+            log.warn("kepubify binary is not available yet, retrying on first conversion: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public File convertEpubToKepub(File epubFile, File tempDir, boolean forceEnableHyphenation, String deviceKey) throws IOException, InterruptedException {
         validateInputs(epubFile);
 
-        Path kepubifyBinary = setupKepubifyBinary();
-        File outputFile = executeKepubifyConversion(epubFile, tempDir, kepubifyBinary, forceEnableHyphenation);
+        ConversionKey key = new ConversionKey(epubFile.getAbsoluteFile().toPath(), epubFile.lastModified(), epubFile.length(), forceEnableHyphenation);
+        String device = deviceKey != null ? deviceKey : DEFAULT_DEVICE;
+        Conversion conversion = conversions.compute(key, (k, running) -> {
+            if (running != null) {
+                running.retain();
+                return running;
+            }
+            Conversion created = new Conversion(k);
+            queue.add(device, created);
+            return created;
+        });
 
-        log.info("Successfully converted {} to {} (size: {} bytes)", epubFile.getName(), outputFile.getName(), outputFile.length());
-        return outputFile;
+        try {
+            Path converted = conversion.result.get();
+            Path outputFile = tempDir.toPath().resolve(converted.getFileName());
+            Files.copy(converted, outputFile, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Successfully converted {} to {} (size: {} bytes)", epubFile.getName(), outputFile.getFileName(), Files.size(outputFile));
+            return outputFile.toFile();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Kepubify conversion failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            conversion.release();
+        }
     }
 
     private void validateInputs(File epubFile) {
@@ -44,6 +113,67 @@ public class KepubConversionService {
         }
     }
 
+    private void runConversions() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Conversion conversion;
+            try {
+                conversion = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            execute(conversion);
+        }
+    }
+
+    private void execute(Conversion conversion) {
+        try {
+            if (discardIfAbandoned(conversion)) {
+                conversion.result.cancel(false);
+                return;
+            }
+            conversion.workDir = Files.createTempDirectory("kepubify");
+            Path output = runKepubify(conversion.key, conversion.workDir);
+            conversions.remove(conversion.key, conversion);
+            conversion.result.complete(output);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            conversions.remove(conversion.key, conversion);
+            conversion.result.completeExceptionally(e);
+        } finally {
+            conversion.release();
+        }
+    }
+
+    /**
+     * Checked under the map entry's lock, so a request cannot join a conversion in the same instant it is dropped.
+     */
+    private boolean discardIfAbandoned(Conversion conversion) {
+        boolean[] abandoned = {false};
+        conversions.compute(conversion.key, (k, current) -> {
+            if (current == conversion && conversion.isAbandoned()) {
+                abandoned[0] = true;
+                return null;
+            }
+            return current;
+        });
+        return abandoned[0];
+    }
+
+    private Path resolveBinary() throws IOException {
+        Path binary = kepubifyBinary;
+        if (binary != null && Files.isRegularFile(binary)) {
+            return binary;
+        }
+        synchronized (binaryLock) {
+            if (kepubifyBinary == null || !Files.isRegularFile(kepubifyBinary)) {
+                kepubifyBinary = setupKepubifyBinary();
+            }
+            return kepubifyBinary;
+        }
+    }
+
     private Path setupKepubifyBinary() throws IOException {
         String binaryName = getKepubifyBinaryName();
         String toolsDirPath = fileService.getToolsKepubifyPath();
@@ -67,12 +197,12 @@ public class KepubConversionService {
             if (!binaryPath.toFile().setExecutable(true)) {
                 log.warn("Failed to set executable permission for '{}'", binaryPath.toAbsolutePath());
             }
-            log.debug("Using existing kepubify binary at {}", binaryPath.toAbsolutePath());
+            log.info("Using existing kepubify binary at {}", binaryPath.toAbsolutePath());
         }
         return binaryPath;
     }
 
-    private String getKepubifyBinaryName() {
+    String getKepubifyBinaryName() {
         String osName = System.getProperty("os.name").toLowerCase();
         String osArch = System.getProperty("os.arch").toLowerCase();
 
@@ -98,57 +228,140 @@ public class KepubConversionService {
         throw new IllegalStateException("Unsupported operating system or architecture: " + osName + " / " + osArch);
     }
 
-    private File executeKepubifyConversion(File epubFile, File tempDir, Path kepubifyBinary, boolean forceEnableHyphenation) throws IOException, InterruptedException {
-        ProcessBuilder pb;
-
-        if (forceEnableHyphenation)
-            pb = new ProcessBuilder(kepubifyBinary.toAbsolutePath().toString(), "--hyphenate", "-o", tempDir.getAbsolutePath(), epubFile.getAbsolutePath());
-        else
-            pb = new ProcessBuilder(kepubifyBinary.toAbsolutePath().toString(), "-o", tempDir.getAbsolutePath(), epubFile.getAbsolutePath());
+    /**
+     * Output goes straight to a log file in the work directory, so the process can never block on a full pipe and the
+     * timeout applies however much it prints; only the last lines are read back for the log and error message.
+     */
+    private Path runKepubify(ConversionKey key, Path workDir) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(resolveBinary().toAbsolutePath().toString());
+        if (key.hyphenate()) {
+            command.add("--hyphenate");
+        }
+        command.addAll(List.of("-o", workDir.toString(), key.epub().toString()));
 
-        pb.directory(tempDir);
+        Path logFile = workDir.resolve(OUTPUT_LOG);
+        ProcessBuilder pb = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile());
 
-        log.info("Starting kepubify conversion for {} -> output dir: {}", epubFile.getAbsolutePath(), tempDir.getAbsolutePath());
+        log.info("Starting kepubify conversion for {} -> output dir: {}", key.epub(), workDir);
 
         Process process = pb.start();
+        try {
+            if (!process.waitFor(settings.getTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Kepubify conversion timed out after " + settings.getTimeout() + " for " + key.epub().getFileName());
+            }
+        } finally {
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
 
-        String output = readProcessOutput(process.getInputStream());
-        String error = readProcessOutput(process.getErrorStream());
-
-        int exitCode = process.waitFor();
-        logProcessResults(exitCode, output, error);
+        int exitCode = process.exitValue();
+        String output = readOutputTail(logFile);
+        log.debug("Kepubify process exited with code {}", exitCode);
+        if (!output.isEmpty()) {
+            log.debug("Kepubify output: {}", output);
+        }
 
         if (exitCode != 0) {
-            throw new IOException(String.format("Kepubify conversion failed with exit code: %d. Error: %s", exitCode, error));
+            throw new IOException(String.format("Kepubify conversion failed with exit code: %d. Error: %s", exitCode, output));
         }
 
-        return findOutputFile(tempDir);
+        return findOutputFile(workDir);
     }
 
-    private String readProcessOutput(InputStream inputStream) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            return reader.lines().collect(Collectors.joining("\n"));
+    private String readOutputTail(Path logFile) {
+        Deque<String> tail = new ArrayDeque<>(OUTPUT_TAIL_LINES);
+        try (Stream<String> lines = Files.lines(logFile)) {
+            lines.forEach(line -> {
+                if (tail.size() == OUTPUT_TAIL_LINES) {
+                    tail.removeFirst();
+                }
+                tail.addLast(line);
+            });
         } catch (Exception e) {
-            log.warn("Error reading process output: {}", e.getMessage());
-            return "";
+            log.warn("Error reading kepubify output: {}", e.getMessage());
         }
+        return String.join("\n", tail);
     }
 
-    private void logProcessResults(int exitCode, String output, String error) {
-        log.debug("Kepubify process exited with code {}", exitCode);
-        if (!output.isEmpty()) {
-            log.debug("Kepubify stdout: {}", output);
+    private Path findOutputFile(Path workDir) throws IOException {
+        try (Stream<Path> files = Files.list(workDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".kepub.epub"))
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("Kepubify conversion completed but no .kepub.epub file was created in: " + workDir));
         }
-        if (!error.isEmpty()) {
-            log.error("Kepubify stderr: {}", error);
+    }
+
+    /**
+     * One conversion of a file, shared by every request that asks for it while it is queued or running. The worker
+     * and each waiting request hold a reference; the last one to let go deletes the work directory.
+     */
+    private static final class Conversion {
+        private final ConversionKey key;
+        private final CompletableFuture<Path> result = new CompletableFuture<>();
+        private volatile Path workDir;
+        private int references = 2;
+
+        Conversion(ConversionKey key) {
+            this.key = key;
+        }
+
+        synchronized void retain() {
+            references++;
+        }
+
+        synchronized boolean isAbandoned() {
+            return references == 1;
+        }
+
+        void release() {
+            synchronized (this) {
+                if (--references > 0) {
+                    return;
+                }
+            }
+            if (workDir != null) {
+                try {
+                    FileSystemUtils.deleteRecursively(workDir);
+                } catch (IOException e) {
+                    log.warn("Failed to delete kepubify work directory {}: {}", workDir, e.getMessage());
+                }
+            }
         }
     }
 
-    private File findOutputFile(File tempDir) throws IOException {
-        File[] kepubFiles = tempDir.listFiles((dir, name) -> name.endsWith(".kepub.epub"));
-        if (kepubFiles == null || kepubFiles.length == 0) {
-            throw new IOException("Kepubify conversion completed but no .kepub.epub file was created in: " + tempDir.getAbsolutePath());
+    /**
+     * Items queued per device and handed out one device at a time in turn.
+     */
+    static final class DeviceQueue<T> {
+        private final Map<String, Deque<T>> pending = new HashMap<>();
+        private final Deque<String> devices = new ArrayDeque<>();
+
+        synchronized void add(String device, T item) {
+            pending.computeIfAbsent(device, key -> {
+                devices.addLast(key);
+                return new ArrayDeque<>();
+            }).addLast(item);
+            notifyAll();
+        }
+
+        synchronized T take() throws InterruptedException {
+            while (devices.isEmpty()) {
+                wait();
+            }
+            String device = devices.removeFirst();
+            Deque<T> items = pending.get(device);
+            T item = items.removeFirst();
+            if (items.isEmpty()) {
+                pending.remove(device);
+            } else {
+                devices.addLast(device);
+            }
+            return item;
         }
-        return kepubFiles[0];
     }
 }
@@ -13,6 +13,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashSet;
@@ -57,7 +59,7 @@ public class KoboAutoShelfService {
                 .stream()
                 .collect(Collectors.toMap(s -> s.getUser().getId(), s -> s));
 
-        boolean modified = false;
+        List<Long> modifiedShelfIds = new ArrayList<>();
 
         for (KoboUserSettingsEntity setting : eligibleUsers) {
             ShelfEntity shelf = shelfByUser.get(setting.getUserId());
@@ -77,12 +79,13 @@ public class KoboAutoShelfService {
             }
 
             book.getShelves().add(shelf);
-            modified = true;
+            modifiedShelfIds.add(shelf.getId());
             log.info("Auto-added book {} to Kobo shelf for user {}", book.getId(), setting.getUserId());
         }
 
-        if (modified) {
+        if (!modifiedShelfIds.isEmpty()) {
             bookRepository.save(book);
+            shelfRepository.touchShelves(modifiedShelfIds, Instant.now());
         }
     }
 
@@ -22,8 +22,10 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -44,21 +46,39 @@ public class KoboEntitlementService {
     private final KoboReadingStateBuilder readingStateBuilder;
 
     public List<NewEntitlement> generateNewEntitlements(Set<Long> bookIds, String token) {
+        if (bookIds.isEmpty()) {
+            return Collections.emptyList();
+        }
         List<BookEntity> books = bookQueryService.findAllWithMetadataByIds(bookIds);
 
+        Long userId = authenticationService.getAuthenticatedUser().getId();
+        Map<String, KoboReadingStateEntity> readingStatesByEntitlementId = readingStateRepository
+                .findByEntitlementIdIn(bookIds.stream().map(String::valueOf).toList())
+                .stream()
+                .collect(Collectors.toMap(KoboReadingStateEntity::getEntitlementId, Function.identity(), (a, b) -> a));
+        Map<Long, UserBookProgressEntity> progressByBookId = progressRepository
+                .findByUserIdAndBookIdIn(userId, bookIds)
+                .stream()
+                .collect(Collectors.toMap(progress -> progress.getBook().getId(), Function.identity(), (a, b) -> a));
+
         return books.stream()
                 .filter(koboCompatibilityService::isBookSupportedForKobo)
                 .map(book -> NewEntitlement.builder()
                         .newEntitlement(BookEntitlementContainer.builder()
                                 .bookEntitlement(buildBookEntitlement(book, false))
                                 .bookMetadata(mapToKoboMetadata(book, token))
-                                .readingState(getReadingStateForBook(book))
+                                .readingState(getReadingStateForBook(book,
+                                        Optional.ofNullable(readingStatesByEntitlementId.get(String.valueOf(book.getId()))),
+                                        Optional.ofNullable(progressByBookId.get(book.getId()))))
                                 .build())
                         .build())
                 .collect(Collectors.toList());
     }
 
     public List<? extends Entitlement> generateChangedEntitlements(Set<Long> bookIds, String token, boolean removed) {
+        if (bookIds.isEmpty()) {
+            return Collections.emptyList();
+        }
 
         List<BookEntity> books = bookQueryService.findAllWithMetadataByIds(bookIds);
 
@@ -129,17 +149,14 @@ public class KoboEntitlementService {
                 .build();
     }
 
-    private KoboReadingState getReadingStateForBook(BookEntity book) {
+    private KoboReadingState getReadingStateForBook(BookEntity book, Optional<KoboReadingStateEntity> readingState, Optional<UserBookProgressEntity> userProgress) {
         OffsetDateTime now = getCurrentUtc();
         String entitlementId = String.valueOf(book.getId());
 
-        KoboReadingState existingState = readingStateRepository.findByEntitlementId(entitlementId)
+        KoboReadingState existingState = readingState
                 .map(readingStateMapper::toDto)
                 .orElse(null);
 
-        Optional<UserBookProgressEntity> userProgress = progressRepository
-                .findByUserIdAndBookId(authenticationService.getAuthenticatedUser().getId(), book.getId());
-
         KoboReadingState.CurrentBookmark bookmark = existingState != null && existingState.getCurrentBookmark() != null
                 ? existingState.getCurrentBookmark()
                 : userProgress
@@ -2,34 +2,64 @@ package com.adityachandel.booklore.service.kobo;
 
 import com.adityachandel.booklore.config.security.service.AuthenticationService;
 import com.adityachandel.booklore.mapper.BookEntityToKoboSnapshotBookMapper;
-import com.adityachandel.booklore.model.dto.BookLoreUser;
+import com.adityachandel.booklore.model.dto.kobo.KoboSnapshotDiff;
 import com.adityachandel.booklore.model.entity.*;
+import com.adityachandel.booklore.model.enums.KoboSnapshotChangeType;
 import com.adityachandel.booklore.model.enums.ShelfType;
-import com.adityachandel.booklore.repository.KoboDeletedBookProgressRepository;
 import com.adityachandel.booklore.repository.KoboLibrarySnapshotRepository;
 import com.adityachandel.booklore.repository.KoboSnapshotBookRepository;
+import com.adityachandel.booklore.repository.KoboSnapshotChangeRepository;
 import com.adityachandel.booklore.repository.ShelfRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Kobo snapshots are stored as a materialized base (one row per shelf book) plus, for later
+ * sync points, an append-only change log against that base. Only the books whose version
+ * (file hash / metadataUpdatedAt) differs from the base are written for a new sync point; a
+ * fresh base is materialized once the log grows past a fraction of the base size.
+ * <p>
+ * Snapshots never change once created, so when a diff or book list has to be rebuilt from full
+ * snapshots it is computed on the first page of a sync and served from a short-lived cache for
+ * the remaining pages.
+ */
 @AllArgsConstructor
 @Service
 public class KoboLibrarySnapshotService {
 
+    private static final int MIN_REBASE_THRESHOLD = 500;
+    private static final int REBASE_RATIO = 4;
+
     private final KoboLibrarySnapshotRepository koboLibrarySnapshotRepository;
     private final KoboSnapshotBookRepository koboSnapshotBookRepository;
+    private final KoboSnapshotChangeRepository koboSnapshotChangeRepository;
     private final ShelfRepository shelfRepository;
     private final BookEntityToKoboSnapshotBookMapper mapper;
-    private final KoboDeletedBookProgressRepository koboDeletedBookProgressRepository;
     private final KoboCompatibilityService koboCompatibilityService;
     private final AuthenticationService authenticationService;
 
+    private final Cache<SnapshotPair, List<KoboSnapshotDiff>> fullDiffs = Caffeine.newBuilder()
+            .maximumSize(16)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    private final Cache<String, List<Long>> effectiveBookIds = Caffeine.newBuilder()
+            .maximumSize(16)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    private record SnapshotPair(String previousId, String currentId) {
+    }
+
     @Transactional(readOnly = true)
     public Optional<KoboLibrarySnapshotEntity> findByIdAndUserId(String id, Long userId) {
         return koboLibrarySnapshotRepository.findByIdAndUserId(id, userId);
@@ -37,89 +67,95 @@ public class KoboLibrarySnapshotService {
 
     @Transactional
     public KoboLibrarySnapshotEntity create(Long userId) {
+        return create(userId, null);
+    }
+
+    @Transactional
+    public KoboLibrarySnapshotEntity create(Long userId, KoboLibrarySnapshotEntity previous) {
         KoboLibrarySnapshotEntity snapshot = KoboLibrarySnapshotEntity.builder()
                 .id(UUID.randomUUID().toString())
                 .userId(userId)
                 .build();
 
         List<KoboSnapshotBookEntity> books = mapBooksToKoboSnapshotBook(getKoboShelf(userId), snapshot);
-        snapshot.setBooks(books);
 
+        if (previous != null) {
+            String baseId = previous.getEffectiveBaseId();
+            Map<Long, BookVersion> baseVersions = loadBaseVersions(baseId, null);
+            List<KoboSnapshotChangeEntity> changes = computeChanges(baseVersions, books, snapshot);
+            if (changes.size() <= Math.max(MIN_REBASE_THRESHOLD, baseVersions.size() / REBASE_RATIO)) {
+                snapshot.setBaseSnapshotId(baseId);
+                snapshot.setBooks(new ArrayList<>());
+                snapshot.setChanges(changes);
+                return koboLibrarySnapshotRepository.save(snapshot);
+            }
+        }
+
+        snapshot.setBooks(books);
         return koboLibrarySnapshotRepository.save(snapshot);
     }
 
-    @Transactional
-    public Page<KoboSnapshotBookEntity> getUnsyncedBooks(String snapshotId, Pageable pageable) {
-        Page<KoboSnapshotBookEntity> page = koboSnapshotBookRepository.findBySnapshot_IdAndSyncedFalse(snapshotId, pageable);
-        List<Long> bookIds = page.getContent().stream()
-                .map(KoboSnapshotBookEntity::getBookId)
-                .toList();
-        if (!bookIds.isEmpty()) {
-            koboSnapshotBookRepository.markBooksSynced(snapshotId, bookIds);
+    @Transactional(readOnly = true)
+    public List<Long> getSnapshotBookIds(KoboLibrarySnapshotEntity snapshot, Long afterBookId, int limit) {
+        long after = afterBookId != null ? afterBookId : 0L;
+        if (snapshot.getBaseSnapshotId() == null) {
+            return koboSnapshotBookRepository.findBookIdsAfter(snapshot.getId(), after, limit);
         }
-        return page;
-    }
-
-    @Transactional
-    public void updateSyncedStatusForExistingBooks(String previousSnapshotId, String currentSnapshotId) {
-        List<KoboSnapshotBookEntity> list = koboSnapshotBookRepository.findUnchangedBooksBetweenSnapshots(previousSnapshotId, currentSnapshotId);
-        List<Long> unchangedBooks = list.stream()
-                .map(KoboSnapshotBookEntity::getBookId)
+        List<Long> bookIds = effectiveBookIds.get(snapshot.getId(), id -> loadEffectiveVersions(snapshot).keySet().stream().sorted().toList());
+        return bookIds.stream()
+                .filter(bookId -> bookId > after)
+                .limit(limit)
                 .toList();
-
-        if (!unchangedBooks.isEmpty()) {
-            koboSnapshotBookRepository.markBooksSynced(currentSnapshotId, unchangedBooks);
-        }
     }
 
-    @Transactional
-    public Page<KoboSnapshotBookEntity> getNewlyAddedBooks(String previousSnapshotId, String currentSnapshotId, Pageable pageable, Long userId) {
-        Page<KoboSnapshotBookEntity> page = koboSnapshotBookRepository.findNewlyAddedBooks(previousSnapshotId, currentSnapshotId, true, pageable);
-        List<Long> newlyAddedBookIds = page.getContent().stream()
-                .map(KoboSnapshotBookEntity::getBookId)
-                .toList();
+    @Transactional(readOnly = true)
+    public List<KoboSnapshotDiff> getSnapshotDiff(KoboLibrarySnapshotEntity previous, KoboLibrarySnapshotEntity current, Long afterBookId, int limit) {
+        long after = afterBookId != null ? afterBookId : 0L;
 
-        if (!newlyAddedBookIds.isEmpty()) {
-            koboSnapshotBookRepository.markBooksSynced(currentSnapshotId, newlyAddedBookIds);
+        if (previous.getBaseSnapshotId() == null && current.getBaseSnapshotId() == null) {
+            return koboSnapshotBookRepository.findSnapshotDiffAfter(previous.getId(), current.getId(), after, limit).stream()
+                    .map(d -> new KoboSnapshotDiff(d.getBookId(), KoboSnapshotChangeType.valueOf(d.getChangeType())))
+                    .toList();
         }
 
-        return page;
-    }
-
-    @Transactional
-    public Page<KoboSnapshotBookEntity> getRemovedBooks(String previousSnapshotId, String currentSnapshotId, Long userId, Pageable pageable) {
-        Page<KoboSnapshotBookEntity> page = koboSnapshotBookRepository.findRemovedBooks(previousSnapshotId, currentSnapshotId, pageable);
-
-        List<Long> bookIds = page.getContent().stream()
-                .map(KoboSnapshotBookEntity::getBookId)
-                .toList();
-
-        if (!bookIds.isEmpty()) {
-            List<KoboDeletedBookProgressEntity> progressEntities = bookIds.stream()
-                    .map(bookId -> KoboDeletedBookProgressEntity.builder()
-                            .bookIdSynced(bookId)
-                            .snapshotId(currentSnapshotId)
-                            .userId(userId)
-                            .build())
+        if (!previous.getEffectiveBaseId().equals(current.getEffectiveBaseId())) {
+            List<KoboSnapshotDiff> diffs = fullDiffs.get(new SnapshotPair(previous.getId(), current.getId()),
+                    pair -> diff(loadEffectiveVersions(previous), loadEffectiveVersions(current), 0L));
+            return diffs.stream()
+                    .filter(d -> d.bookId() > after)
+                    .limit(limit)
                     .toList();
+        }
 
-            koboDeletedBookProgressRepository.saveAll(progressEntities);
+        Map<Long, KoboSnapshotChangeEntity> previousLog = loadChangeLog(previous);
+        Map<Long, KoboSnapshotChangeEntity> currentLog = loadChangeLog(current);
+        Set<Long> touched = new HashSet<>(previousLog.keySet());
+        touched.addAll(currentLog.keySet());
+        touched.removeIf(bookId -> bookId <= after);
+        if (touched.isEmpty()) {
+            return Collections.emptyList();
         }
-        return page;
+        Map<Long, BookVersion> baseVersions = loadBaseVersions(current.getEffectiveBaseId(), touched);
+        return diff(applyChangeLog(baseVersions, previousLog), applyChangeLog(baseVersions, currentLog), after).stream()
+                .limit(limit)
+                .toList();
     }
 
+    /**
+     * Deletes the snapshot unless other snapshots still use it as their base, and drops its base
+     * once no snapshot refers to it anymore.
+     */
     @Transactional
-    public Page<KoboSnapshotBookEntity> getChangedBooks(String previousSnapshotId, String currentSnapshotId, Pageable pageable) {
-        Page<KoboSnapshotBookEntity> page = koboSnapshotBookRepository.findChangedBooks(previousSnapshotId, currentSnapshotId, pageable);
-        List<Long> changedBookIds = page.getContent().stream()
-                .map(KoboSnapshotBookEntity::getBookId)
-                .toList();
-
-        if (!changedBookIds.isEmpty()) {
-            koboSnapshotBookRepository.markBooksSynced(currentSnapshotId, changedBookIds);
-        }
-
-        return page;
+    public void deleteById(String id) {
+        koboLibrarySnapshotRepository.findById(id).ifPresent(snapshot -> {
+            if (!koboLibrarySnapshotRepository.existsByBaseSnapshotId(snapshot.getId())) {
+                koboLibrarySnapshotRepository.delete(snapshot);
+            }
+            String baseId = snapshot.getBaseSnapshotId();
+            if (baseId != null && !koboLibrarySnapshotRepository.existsByBaseSnapshotId(baseId)) {
+                koboLibrarySnapshotRepository.deleteById(baseId);
+            }
+        });
     }
 
     private ShelfEntity getKoboShelf(Long userId) {
@@ -132,9 +168,11 @@ public class KoboLibrarySnapshotService {
 
     private List<KoboSnapshotBookEntity> mapBooksToKoboSnapshotBook(ShelfEntity shelf, KoboLibrarySnapshotEntity snapshot) {
         Long userId = snapshot.getUserId();
+        boolean isAdmin = authenticationService.getAuthenticatedUser().getPermissions().isAdmin();
+        Map<LibraryEntity, Boolean> ownershipByLibrary = new IdentityHashMap<>();
 
         return shelf.getBookEntities().stream()
-                .filter(book -> isBookOwnedByUser(book, userId))
+                .filter(book -> isAdmin || ownershipByLibrary.computeIfAbsent(book.getLibrary(), library -> isLibraryOwnedByUser(library, userId)))
                 .filter(koboCompatibilityService::isBookSupportedForKobo)
                 .map(book -> {
                     KoboSnapshotBookEntity snapshotBook = mapper.toKoboSnapshotBook(book);
@@ -146,20 +184,104 @@ public class KoboLibrarySnapshotService {
                 .collect(Collectors.toList());
     }
 
-    private boolean isBookOwnedByUser(BookEntity book, Long userId) {
-        BookLoreUser user = authenticationService.getAuthenticatedUser();
-        if (user.getPermissions().isAdmin()) {
-            return true;
-        }
-        return book.getLibrary()
-                .getUsers()
+    private boolean isLibraryOwnedByUser(LibraryEntity library, Long userId) {
+        return library.getUsers()
                 .stream()
                 .map(BookLoreUserEntity::getId)
                 .anyMatch(id -> Objects.equals(id, userId));
     }
 
-    public void deleteById(String id) {
-        koboLibrarySnapshotRepository.deleteById(id);
+    private List<KoboSnapshotChangeEntity> computeChanges(Map<Long, BookVersion> baseVersions, List<KoboSnapshotBookEntity> books, KoboLibrarySnapshotEntity snapshot) {
+        List<KoboSnapshotChangeEntity> changes = new ArrayList<>();
+        Set<Long> currentBookIds = new HashSet<>();
+
+        for (KoboSnapshotBookEntity book : books) {
+            currentBookIds.add(book.getBookId());
+            BookVersion version = new BookVersion(book.getFileHash(), book.getMetadataUpdatedAt());
+            if (!version.equals(baseVersions.get(book.getBookId()))) {
+                changes.add(KoboSnapshotChangeEntity.builder()
+                        .snapshot(snapshot)
+                        .bookId(book.getBookId())
+                        .fileHash(book.getFileHash())
+                        .metadataUpdatedAt(book.getMetadataUpdatedAt())
+                        .build());
+            }
+        }
+
+        baseVersions.keySet().stream()
+                .filter(bookId -> !currentBookIds.contains(bookId))
+                .forEach(bookId -> changes.add(KoboSnapshotChangeEntity.builder()
+                        .snapshot(snapshot)
+                        .bookId(bookId)
+                        .removed(true)
+                        .build()));
+
+        return changes;
+    }
+
+    private Map<Long, BookVersion> loadBaseVersions(String baseSnapshotId, Collection<Long> bookIds) {
+        List<KoboSnapshotBookEntity> books = bookIds == null
+                ? koboSnapshotBookRepository.findBySnapshot_Id(baseSnapshotId)
+                : koboSnapshotBookRepository.findBySnapshot_IdAndBookIdIn(baseSnapshotId, bookIds);
+        return books.stream()
+                .collect(Collectors.toMap(KoboSnapshotBookEntity::getBookId,
+                        book -> new BookVersion(book.getFileHash(), book.getMetadataUpdatedAt()),
+                        (a, b) -> a));
+    }
+
+    private Map<Long, KoboSnapshotChangeEntity> loadChangeLog(KoboLibrarySnapshotEntity snapshot) {
+        if (snapshot.getBaseSnapshotId() == null) {
+            return Collections.emptyMap();
+        }
+        return koboSnapshotChangeRepository.findBySnapshot_Id(snapshot.getId()).stream()
+                .collect(Collectors.toMap(KoboSnapshotChangeEntity::getBookId, Function.identity(), (a, b) -> b));
     }
 
-}
\ No newline at end of file
+    private Map<Long, BookVersion> loadEffectiveVersions(KoboLibrarySnapshotEntity snapshot) {
+        return applyChangeLog(loadBaseVersions(snapshot.getEffectiveBaseId(), null), loadChangeLog(snapshot));
+    }
+
+    private Map<Long, BookVersion> applyChangeLog(Map<Long, BookVersion> baseVersions, Map<Long, KoboSnapshotChangeEntity> changeLog) {
+        Map<Long, BookVersion> versions = new HashMap<>(baseVersions);
+        changeLog.values().forEach(change -> {
+            if (change.isRemoved()) {
+                versions.remove(change.getBookId());
+            } else {
+                versions.put(change.getBookId(), new BookVersion(change.getFileHash(), change.getMetadataUpdatedAt()));
+            }
+        });
+        return versions;
+    }
+
+    private List<KoboSnapshotDiff> diff(Map<Long, BookVersion> previousVersions, Map<Long, BookVersion> currentVersions, long after) {
+        Set<Long> bookIds = new TreeSet<>(previousVersions.keySet());
+        bookIds.addAll(currentVersions.keySet());
+        return bookIds.stream()
+                .filter(bookId -> bookId > after)
+                .map(bookId -> diff(bookId, previousVersions.get(bookId), currentVersions.get(bookId)))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private KoboSnapshotDiff diff(Long bookId, BookVersion previous, BookVersion current) {
+        if (previous == null && current == null) {
+            return null;
+        }
+        if (previous == null) {
+            return new KoboSnapshotDiff(bookId, KoboSnapshotChangeType.ADDED);
+        }
+        if (current == null) {
+            return new KoboSnapshotDiff(bookId, KoboSnapshotChangeType.REMOVED);
+        }
+        return current.isChangedSince(previous) ? new KoboSnapshotDiff(bookId, KoboSnapshotChangeType.CHANGED) : null;
+    }
+
+    private record BookVersion(String fileHash, Instant metadataUpdatedAt) {
+
+        boolean isChangedSince(BookVersion previous) {
+            boolean fileChanged = fileHash != null && previous.fileHash != null && !fileHash.equals(previous.fileHash);
+            boolean metadataChanged = metadataUpdatedAt != null && !metadataUpdatedAt.equals(previous.metadataUpdatedAt);
+            return fileChanged || metadataChanged;
+        }
+    }
+}
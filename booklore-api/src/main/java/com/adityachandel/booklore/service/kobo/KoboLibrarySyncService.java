@@ -3,10 +3,9 @@ package com.adityachandel.booklore.service.kobo;
 import com.adityachandel.booklore.model.dto.BookLoreUser;
 import com.adityachandel.booklore.model.dto.BookloreSyncToken;
 import com.adityachandel.booklore.model.dto.kobo.*;
-import com.adityachandel.booklore.model.entity.KoboSnapshotBookEntity;
 import com.adityachandel.booklore.model.entity.KoboLibrarySnapshotEntity;
 import com.adityachandel.booklore.model.entity.UserBookProgressEntity;
-import com.adityachandel.booklore.repository.KoboDeletedBookProgressRepository;
+import com.adityachandel.booklore.model.enums.KoboSnapshotChangeType;
 import com.adityachandel.booklore.repository.UserBookProgressRepository;
 import com.adityachandel.booklore.util.RequestUtils;
 import com.adityachandel.booklore.util.kobo.BookloreSyncTokenGenerator;
@@ -14,8 +13,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,9 +31,9 @@ public class KoboLibrarySyncService {
     private final BookloreSyncTokenGenerator tokenGenerator;
     private final KoboLibrarySnapshotService koboLibrarySnapshotService;
     private final KoboEntitlementService entitlementService;
-    private final KoboDeletedBookProgressRepository koboDeletedBookProgressRepository;
     private final UserBookProgressRepository userBookProgressRepository;
     private final KoboServerProxy koboServerProxy;
+    private final KoboSettingsService koboSettingsService;
     private final ObjectMapper objectMapper;
 
     @Transactional
@@ -44,70 +41,49 @@ public class KoboLibrarySyncService {
         HttpServletRequest request = RequestUtils.getCurrentRequest();
         BookloreSyncToken syncToken = Optional.ofNullable(tokenGenerator.fromRequestHeaders(request)).orElse(new BookloreSyncToken());
 
-        KoboLibrarySnapshotEntity currSnapshot = koboLibrarySnapshotService.findByIdAndUserId(syncToken.getOngoingSyncPointId(), user.getId()).orElseGet(() -> koboLibrarySnapshotService.create(user.getId()));
         Optional<KoboLibrarySnapshotEntity> prevSnapshot = koboLibrarySnapshotService.findByIdAndUserId(syncToken.getLastSuccessfulSyncPointId(), user.getId());
+        Optional<KoboLibrarySnapshotEntity> ongoingSnapshot = koboLibrarySnapshotService.findByIdAndUserId(syncToken.getOngoingSyncPointId(), user.getId());
+        KoboLibrarySnapshotEntity currSnapshot = ongoingSnapshot.orElseGet(() -> koboLibrarySnapshotService.create(user.getId(), prevSnapshot.orElse(null)));
+
+        int batchSize = koboSettingsService.getSyncBatchSize(user.getId());
+        Long cursor = ongoingSnapshot.isPresent() ? syncToken.getSyncCursorBookId() : null;
 
         List<Entitlement> entitlements = new ArrayList<>();
-        boolean shouldContinueSync = false;
+        boolean shouldContinueSync;
 
         if (prevSnapshot.isPresent()) {
-            int maxRemaining = 5;
-            List<KoboSnapshotBookEntity> removedAll = new ArrayList<>();
-            List<KoboSnapshotBookEntity> changedAll = new ArrayList<>();
-
-            koboLibrarySnapshotService.updateSyncedStatusForExistingBooks(prevSnapshot.get().getId(), currSnapshot.getId());
-
-            Page<KoboSnapshotBookEntity> addedPage = koboLibrarySnapshotService.getNewlyAddedBooks(prevSnapshot.get().getId(), currSnapshot.getId(), PageRequest.of(0, maxRemaining), user.getId());
-            List<KoboSnapshotBookEntity> addedAll = new ArrayList<>(addedPage.getContent());
-            maxRemaining -= addedPage.getNumberOfElements();
-            shouldContinueSync = addedPage.hasNext();
-
-            Page<KoboSnapshotBookEntity> changedPage = Page.empty();
-            if (addedPage.isLast() && maxRemaining > 0) {
-                changedPage = koboLibrarySnapshotService.getChangedBooks(prevSnapshot.get().getId(), currSnapshot.getId(), PageRequest.of(0, maxRemaining));
-                changedAll.addAll(changedPage.getContent());
-                maxRemaining -= changedPage.getNumberOfElements();
-                shouldContinueSync = shouldContinueSync || changedPage.hasNext();
-            }
-
-            Page<KoboSnapshotBookEntity> removedPage = Page.empty();
-            if (changedPage.isLast() && maxRemaining > 0) {
-                removedPage = koboLibrarySnapshotService.getRemovedBooks(prevSnapshot.get().getId(), currSnapshot.getId(), user.getId(), PageRequest.of(0, maxRemaining));
-                removedAll.addAll(removedPage.getContent());
-                shouldContinueSync = shouldContinueSync || removedPage.hasNext();
+            List<KoboSnapshotDiff> diff = koboLibrarySnapshotService.getSnapshotDiff(prevSnapshot.get(), currSnapshot, cursor, batchSize + 1);
+            shouldContinueSync = diff.size() > batchSize;
+            if (shouldContinueSync) {
+                diff = diff.subList(0, batchSize);
             }
 
-            Set<Long> addedIds = addedAll.stream().map(KoboSnapshotBookEntity::getBookId).collect(Collectors.toSet());
-            Set<Long> changedIds = changedAll.stream().map(KoboSnapshotBookEntity::getBookId).collect(Collectors.toSet());
-            Set<Long> removedIds = removedAll.stream().map(KoboSnapshotBookEntity::getBookId).collect(Collectors.toSet());
-
-            entitlements.addAll(entitlementService.generateNewEntitlements(addedIds, token));
-            entitlements.addAll(entitlementService.generateChangedEntitlements(changedIds, token, false));
-            entitlements.addAll(entitlementService.generateChangedEntitlements(removedIds, token, true));
+            Map<KoboSnapshotChangeType, Set<Long>> idsByChangeType = diff.stream()
+                    .collect(Collectors.groupingBy(
+                            KoboSnapshotDiff::changeType,
+                            () -> new EnumMap<>(KoboSnapshotChangeType.class),
+                            Collectors.mapping(KoboSnapshotDiff::bookId, Collectors.toSet())));
 
+            entitlements.addAll(entitlementService.generateNewEntitlements(idsByChangeType.getOrDefault(KoboSnapshotChangeType.ADDED, Set.of()), token));
+            entitlements.addAll(entitlementService.generateChangedEntitlements(idsByChangeType.getOrDefault(KoboSnapshotChangeType.CHANGED, Set.of()), token, false));
+            entitlements.addAll(entitlementService.generateChangedEntitlements(idsByChangeType.getOrDefault(KoboSnapshotChangeType.REMOVED, Set.of()), token, true));
 
-            if (!shouldContinueSync) {
-                entitlements.addAll(syncReadingStatesToKobo(user.getId(), currSnapshot.getId()));
-            }
+            cursor = diff.isEmpty() ? cursor : diff.getLast().bookId();
         } else {
-            int maxRemaining = 5;
-            List<KoboSnapshotBookEntity> snapshotBookEntities = new ArrayList<>();
-            while (maxRemaining > 0) {
-                Page<KoboSnapshotBookEntity> page = koboLibrarySnapshotService.getUnsyncedBooks(currSnapshot.getId(), PageRequest.of(0, maxRemaining));
-                snapshotBookEntities.addAll(page.getContent());
-                maxRemaining -= page.getNumberOfElements();
-                shouldContinueSync = page.hasNext();
-                if (!shouldContinueSync || page.getNumberOfElements() == 0) break;
+            List<Long> bookIds = koboLibrarySnapshotService.getSnapshotBookIds(currSnapshot, cursor, batchSize + 1);
+            shouldContinueSync = bookIds.size() > batchSize;
+            if (shouldContinueSync) {
+                bookIds = bookIds.subList(0, batchSize);
             }
-            Set<Long> ids = snapshotBookEntities.stream().map(KoboSnapshotBookEntity::getBookId).collect(Collectors.toSet());
-            entitlements.addAll(entitlementService.generateNewEntitlements(ids, token));
 
-            if (!shouldContinueSync) {
-                entitlements.addAll(syncReadingStatesToKobo(user.getId(), currSnapshot.getId()));
-            }
+            entitlements.addAll(entitlementService.generateNewEntitlements(new HashSet<>(bookIds), token));
+
+            cursor = bookIds.isEmpty() ? cursor : bookIds.getLast();
         }
 
         if (!shouldContinueSync) {
+            entitlements.addAll(syncReadingStatesToKobo(user.getId(), currSnapshot));
+
             ResponseEntity<JsonNode> koboStoreResponse = koboServerProxy.proxyCurrentRequest(null, true);
             Collection<Entitlement> syncResultsKobo = Optional.ofNullable(koboStoreResponse.getBody())
                     .map(body -> {
@@ -144,10 +120,11 @@ public class KoboLibrarySyncService {
 
         if (shouldContinueSync) {
             syncToken.setOngoingSyncPointId(currSnapshot.getId());
+            syncToken.setSyncCursorBookId(cursor);
         } else {
             prevSnapshot.ifPresent(sp -> koboLibrarySnapshotService.deleteById(sp.getId()));
-            koboDeletedBookProgressRepository.deleteBySnapshotIdAndUserId(syncToken.getOngoingSyncPointId(), user.getId());
             syncToken.setOngoingSyncPointId(null);
+            syncToken.setSyncCursorBookId(null);
             syncToken.setLastSuccessfulSyncPointId(currSnapshot.getId());
         }
 
@@ -157,9 +134,9 @@ public class KoboLibrarySyncService {
                 .body(entitlements);
     }
 
-    private List<ChangedReadingState> syncReadingStatesToKobo(Long userId, String snapshotId) {
+    private List<ChangedReadingState> syncReadingStatesToKobo(Long userId, KoboLibrarySnapshotEntity snapshot) {
         List<UserBookProgressEntity> booksNeedingSync =
-                userBookProgressRepository.findAllBooksNeedingKoboSync(userId, snapshotId);
+                userBookProgressRepository.findAllBooksNeedingKoboSync(userId, snapshot.getId(), snapshot.getEffectiveBaseId());
 
         if (booksNeedingSync.isEmpty()) {
             return Collections.emptyList();
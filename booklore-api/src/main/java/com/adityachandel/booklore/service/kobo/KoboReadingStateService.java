@@ -17,6 +17,7 @@ import com.adityachandel.booklore.repository.KoboReadingStateRepository;
 import com.adityachandel.booklore.repository.UserBookProgressRepository;
 import com.adityachandel.booklore.repository.UserRepository;
 import com.adityachandel.booklore.service.hardcover.HardcoverSyncService;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -43,6 +44,7 @@ public class KoboReadingStateService {
     private final KoboSettingsService koboSettingsService;
     private final KoboReadingStateBuilder readingStateBuilder;
     private final HardcoverSyncService hardcoverSyncService;
+    private final UserBookProgressWriteBuffer progressWriteBuffer;
 
     @Transactional
     public KoboReadingStateResponse saveReadingState(List<KoboReadingState> readingStates) {
@@ -111,7 +113,8 @@ public class KoboReadingStateService {
         try {
             Long bookId = Long.parseLong(entitlementId);
             BookLoreUser user = authenticationService.getAuthenticatedUser();
-            
+
+            progressWriteBuffer.flush(user.getId(), bookId);
             return progressRepository.findByUserIdAndBookId(user.getId(), bookId)
                     .filter(progress -> progress.getKoboProgressPercent() != null || progress.getKoboLocation() != null)
                     .map(progress -> readingStateBuilder.buildReadingStateFromProgress(entitlementId, progress));
@@ -137,7 +140,9 @@ public class KoboReadingStateService {
                 log.warn("User not found: {}", userId);
                 return;
             }
-            
+
+            // Kobo writes through, so anything the web reader or KOReader still has buffered must land first.
+            progressWriteBuffer.flush(userId, bookId);
             UserBookProgressEntity progress = progressRepository.findByUserIdAndBookId(userId, bookId)
                     .orElseGet(() -> {
                         UserBookProgressEntity newProgress = new UserBookProgressEntity();
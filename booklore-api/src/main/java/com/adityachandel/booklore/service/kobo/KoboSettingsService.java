@@ -24,6 +24,9 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class KoboSettingsService {
 
+    public static final int DEFAULT_SYNC_BATCH_SIZE = 100;
+    public static final int MAX_SYNC_BATCH_SIZE = 100;
+
     private final KoboUserSettingsRepository repository;
     private final AuthenticationService authenticationService;
     private final ShelfService shelfService;
@@ -83,6 +86,10 @@ public class KoboSettingsService {
             entity.setProgressMarkAsFinishedThreshold(settings.getProgressMarkAsFinishedThreshold());
         }
 
+        if (settings.getSyncBatchSize() != null) {
+            entity.setSyncBatchSize(Math.clamp(settings.getSyncBatchSize(), 1, MAX_SYNC_BATCH_SIZE));
+        }
+
         entity.setAutoAddToShelf(settings.isAutoAddToShelf());
 
         repository.save(entity);
@@ -130,6 +137,7 @@ public class KoboSettingsService {
         dto.setProgressMarkAsReadingThreshold(entity.getProgressMarkAsReadingThreshold());
         dto.setProgressMarkAsFinishedThreshold(entity.getProgressMarkAsFinishedThreshold());
         dto.setAutoAddToShelf(entity.isAutoAddToShelf());
+        dto.setSyncBatchSize(entity.getSyncBatchSize());
         if (hardcoverSettings != null) {
             dto.setHardcoverApiKey(hardcoverSettings.getHardcoverApiKey());
             dto.setHardcoverSyncEnabled(hardcoverSettings.isHardcoverSyncEnabled());
@@ -149,4 +157,12 @@ public class KoboSettingsService {
                 .orElse(null);
     }
 
+    @Transactional(readOnly = true)
+    public int getSyncBatchSize(Long userId) {
+        return repository.findByUserId(userId)
+                .map(KoboUserSettingsEntity::getSyncBatchSize)
+                .map(size -> Math.clamp(size, 1, MAX_SYNC_BATCH_SIZE))
+                .orElse(DEFAULT_SYNC_BATCH_SIZE);
+    }
+
 }
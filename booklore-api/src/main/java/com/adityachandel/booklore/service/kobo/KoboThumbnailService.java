@@ -1,36 +1,91 @@
 package com.adityachandel.booklore.service.kobo;
 
+import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.book.BookService;
+import com.adityachandel.booklore.util.FileService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Serves covers to Kobo readers at the size the device asks for. A sync of a large library requests thousands of
+ * covers over the reader's Wi-Fi, so each one is scaled to the requested box (and optionally to greyscale) once,
+ * cached on disk, and marked immutable: the URL carries the cover hash, which changes whenever the cover does. The
+ * on-disk variants are bounded per book and dropped with the cover they were rendered from (see {@link FileService}).
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class KoboThumbnailService {
 
+    /**
+     * E-ink panels show 16 grey levels, so compression artefacts that would be visible on an LCD are not.
+     */
+    static final int DEFAULT_QUALITY = 70;
+    static final int MIN_QUALITY = 30;
+    static final int MAX_QUALITY = 95;
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
     private final BookService bookService;
+    private final BookRepository bookRepository;
+    private final FileService fileService;
 
-    public ResponseEntity<Resource> getThumbnail(String coverHash) {
-        return getThumbnailInternal(coverHash);
+    public ResponseEntity<Resource> getThumbnail(String coverHash, int width, int height) {
+        return getThumbnailInternal(coverHash, width, height, DEFAULT_QUALITY, false);
+    }
+
+    public ResponseEntity<Resource> getThumbnail(String coverHash, int width, int height, int quality, boolean greyscale) {
+        return getThumbnailInternal(coverHash, width, height, Math.clamp(quality, MIN_QUALITY, MAX_QUALITY), greyscale);
+    }
+
+    private ResponseEntity<Resource> getThumbnailInternal(String coverHash, int width, int height, int quality, boolean greyscale) {
+        BookEntity book = bookRepository.findByBookCoverHash(coverHash).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(coverHash));
+        Path thumbnail = fileService.getOrCreateKoboThumbnail(book.getId(), coverHash, width, height, quality, greyscale);
+        if (thumbnail == null) {
+            return fullCover(book.getId(), coverHash);
+        }
+        if (!Files.isRegularFile(thumbnail)) {
+            log.warn("Kobo thumbnail {} vanished before it could be served", thumbnail);
+            return fullCover(book.getId(), coverHash);
+        }
+        // The file name already identifies the cover version and rendering; its mtime tracks last use.
+        String fileName = thumbnail.getFileName().toString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, "image/jpeg")
+                .cacheControl(IMMUTABLE)
+                .eTag("\"" + fileName.substring(0, fileName.length() - ".jpg".length()) + "\"")
+                .body(new FileSystemResource(thumbnail));
     }
 
-    private ResponseEntity<Resource> getThumbnailInternal(String coverHash) {
-        Resource image = bookService.getBookCover(coverHash);
+    /**
+     * Without a renderable cover the placeholder is served; a real cover may still appear under the same hash, so
+     * the response is not cached.
+     */
+    private ResponseEntity<Resource> fullCover(long bookId, String coverHash) {
+        Resource image = bookService.getBookCover(bookId);
         if (!isValidImage(image)) {
             log.warn("Thumbnail not found for bookId={}", coverHash);
             return ResponseEntity.notFound().build();
         }
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_TYPE, "image/jpeg")
+                .cacheControl(CacheControl.noCache())
                 .body(image);
     }
 
     private boolean isValidImage(Resource image) {
         return image != null && image.exists();
     }
-}
\ No newline at end of file
+}
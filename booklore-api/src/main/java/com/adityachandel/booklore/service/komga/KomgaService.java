@@ -3,7 +3,9 @@ package com.adityachandel.booklore.service.komga;
 import com.adityachandel.booklore.mapper.komga.KomgaMapper;
 import com.adityachandel.booklore.model.dto.MagicShelf;
 import com.adityachandel.booklore.model.dto.komga.*;
+import com.adityachandel.booklore.model.dto.response.PageImageInfo;
 import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookFileEntity;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
 import com.adityachandel.booklore.model.enums.BookFileType;
@@ -13,10 +15,11 @@ import com.adityachandel.booklore.service.MagicShelfService;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
 import com.adityachandel.booklore.service.reader.CbxReaderService;
 import com.adityachandel.booklore.service.reader.PdfReaderService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
@@ -24,6 +27,8 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -34,6 +39,9 @@ import java.util.stream.Collectors;
 public class KomgaService {
 
     private static final Pattern NON_ALPHANUMERIC_PATTERN = Pattern.compile("[^a-z0-9]+");
+    private static final String DEFAULT_PAGE_MEDIA_TYPE = "image/jpeg";
+    private static final String PNG_MEDIA_TYPE = "image/png";
+    private static final long CONVERTED_PAGE_CACHE_BYTES = 64L * 1024 * 1024;
     private final BookRepository bookRepository;
     private final LibraryRepository libraryRepository;
     private final KomgaMapper komgaMapper;
@@ -42,6 +50,20 @@ public class KomgaService {
     private final PdfReaderService pdfReaderService;
     private final AppSettingService appSettingService;
 
+    private final Cache<SeriesIndexKey, List<String>> seriesNameCache = Caffeine.newBuilder()
+            .maximumSize(100)
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .build();
+
+    private final Cache<String, byte[]> convertedPageCache = Caffeine.newBuilder()
+            .maximumWeight(CONVERTED_PAGE_CACHE_BYTES)
+            .weigher((String key, byte[] value) -> value.length)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    private record SeriesIndexKey(Long libraryId, boolean groupUnknown) {
+    }
+
     public List<KomgaLibraryDto> getAllLibraries() {
         return libraryRepository.findAll().stream()
                 .map(komgaMapper::toKomgaLibraryDto)
@@ -60,25 +82,9 @@ public class KomgaService {
         // Check if we should group unknown series
         boolean groupUnknown = appSettingService.getAppSettings().isKomgaGroupUnknown();
         
-        // Get distinct series names directly from database (MUCH faster than loading all books)
-        List<String> sortedSeriesNames;
-        if (groupUnknown) {
-            // Use optimized query that groups books without series as "Unknown Series"
-            if (libraryId != null) {
-                sortedSeriesNames = bookRepository.findDistinctSeriesNamesGroupedByLibraryId(
-                    libraryId, komgaMapper.getUnknownSeriesName());
-            } else {
-                sortedSeriesNames = bookRepository.findDistinctSeriesNamesGrouped(
-                    komgaMapper.getUnknownSeriesName());
-            }
-        } else {
-            // Use query that gives each book without series its own entry
-            if (libraryId != null) {
-                sortedSeriesNames = bookRepository.findDistinctSeriesNamesUngroupedByLibraryId(libraryId);
-            } else {
-                sortedSeriesNames = bookRepository.findDistinctSeriesNamesUngrouped();
-            }
-        }
+        // Distinct series names are cached briefly since Komga clients poll the series list constantly
+        List<String> sortedSeriesNames = seriesNameCache.get(new SeriesIndexKey(libraryId, groupUnknown),
+                key -> loadSortedSeriesNames(key.libraryId(), key.groupUnknown()));
         
         log.debug("Found {} distinct series names from database (optimized)", sortedSeriesNames.size());
         
@@ -104,28 +110,13 @@ public class KomgaService {
             actualSize = size;
         }
         
-        // Now load books only for the series on this page (optimized - only loads what's needed)
+        // Load the books of every series on this page with a single query
+        Map<String, List<BookEntity>> booksBySeries = loadBooksForSeries(pageSeriesNames, libraryId, groupUnknown);
+        
         List<KomgaSeriesDto> content = new ArrayList<>();
         for (String seriesName : pageSeriesNames) {
             try {
-                // Load only the books for this specific series
-                List<BookEntity> seriesBooks;
-                if (libraryId != null) {
-                    if (groupUnknown) {
-                        seriesBooks = bookRepository.findBooksBySeriesNameGroupedByLibraryId(
-                            seriesName, libraryId, komgaMapper.getUnknownSeriesName());
-                    } else {
-                        seriesBooks = bookRepository.findBooksBySeriesNameUngroupedByLibraryId(
-                            seriesName, libraryId);
-                    }
-                } else {
-                    // For all libraries, need to load all books and filter (less common case)
-                    List<BookEntity> allBooks = bookRepository.findAllWithMetadata();
-                    seriesBooks = allBooks.stream()
-                            .filter(book -> komgaMapper.getBookSeriesName(book).equals(seriesName))
-                            .collect(Collectors.toList());
-                }
-                
+                List<BookEntity> seriesBooks = booksBySeries.getOrDefault(seriesName, Collections.emptyList());
                 if (!seriesBooks.isEmpty()) {
                     Long libId = seriesBooks.get(0).getLibrary().getId();
                     KomgaSeriesDto seriesDto = komgaMapper.toKomgaSeriesDto(seriesName, libId, seriesBooks);
@@ -153,6 +144,33 @@ public class KomgaService {
                 .build();
     }
 
+    private List<String> loadSortedSeriesNames(Long libraryId, boolean groupUnknown) {
+        if (groupUnknown) {
+            // Use optimized query that groups books without series as "Unknown Series"
+            return libraryId != null
+                    ? bookRepository.findDistinctSeriesNamesGroupedByLibraryId(libraryId, komgaMapper.getUnknownSeriesName())
+                    : bookRepository.findDistinctSeriesNamesGrouped(komgaMapper.getUnknownSeriesName());
+        }
+        // Use query that gives each book without series its own entry
+        return libraryId != null
+                ? bookRepository.findDistinctSeriesNamesUngroupedByLibraryId(libraryId)
+                : bookRepository.findDistinctSeriesNamesUngrouped();
+    }
+
+    private Map<String, List<BookEntity>> loadBooksForSeries(List<String> seriesNames, Long libraryId, boolean groupUnknown) {
+        if (seriesNames.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<BookEntity> books;
+        if (groupUnknown) {
+            String unknownSeriesName = komgaMapper.getUnknownSeriesName();
+            books = bookRepository.findBooksBySeriesNamesGrouped(seriesNames, seriesNames.contains(unknownSeriesName), libraryId);
+        } else {
+            books = bookRepository.findBooksBySeriesNamesUngrouped(seriesNames, libraryId);
+        }
+        return groupBooksBySeries(books);
+    }
+
     public KomgaSeriesDto getSeriesById(String seriesId) {
         // Parse seriesId to extract library and series name
         String[] parts = seriesId.split("-", 2);
@@ -294,6 +312,20 @@ public class KomgaService {
     public List<KomgaPageDto> getBookPages(Long bookId) {
         BookEntity book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
+
+        List<PageImageInfo> pageImageInfo = loadPageImageInfo(book);
+        if (!pageImageInfo.isEmpty()) {
+            return pageImageInfo.stream()
+                    .map(info -> KomgaPageDto.builder()
+                            .number(info.getPageNumber())
+                            .fileName(info.getFileName() != null ? info.getFileName() : "page-" + info.getPageNumber())
+                            .mediaType(info.getMediaType())
+                            .width(info.getWidth())
+                            .height(info.getHeight())
+                            .fileSize(info.getFileSize())
+                            .build())
+                    .collect(Collectors.toList());
+        }
         
         BookMetadataEntity metadata = book.getMetadata();
         Integer pageCount = metadata != null && metadata.getPageCount() != null ? metadata.getPageCount() : 0;
@@ -304,7 +336,7 @@ public class KomgaService {
                 pages.add(KomgaPageDto.builder()
                         .number(i)
                         .fileName("page-" + i)
-                        .mediaType("image/jpeg")
+                        .mediaType(DEFAULT_PAGE_MEDIA_TYPE)
                         .build());
             }
         }
@@ -313,7 +345,7 @@ public class KomgaService {
     }
 
     private Map<String, List<BookEntity>> groupBooksBySeries(List<BookEntity> books) {
-        Map<String, List<BookEntity>> seriesMap = new HashMap<>();
+        Map<String, List<BookEntity>> seriesMap = new LinkedHashMap<>();
         
         for (BookEntity book : books) {
             String seriesName = komgaMapper.getBookSeriesName(book);
@@ -374,37 +406,74 @@ public class KomgaService {
                 .build();
     }
     
-    public Resource getBookPageImage(Long bookId, Integer pageNumber, boolean convertToPng) throws IOException {
-        log.debug("Getting page {} from book {} (convert to PNG: {})", pageNumber, bookId, convertToPng);
-        
-        BookEntity book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found: " + bookId));
+    /**
+     * Sets the content type and writes the requested page. The book is resolved once, and only the
+     * requested page is inspected for its media type; the full page index is left to {@link #getBookPages}.
+     */
+    public void streamBookPageImage(Long bookId, int pageNumber, boolean convertToPng, HttpServletResponse response) throws IOException {
+        log.debug("Streaming page {} from book {} (convert to PNG: {})", pageNumber, bookId, convertToPng);
 
-        boolean isPDF = book.getPrimaryBookFile().getBookType() == BookFileType.PDF;
-     
-        // Stream the page to a ByteArrayOutputStream
-        // streamPageImage will throw if page does not exist
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BookEntity book = findBook(bookId);
+        BookFileEntity bookFile = book.getPrimaryBookFile();
+        String sourceMediaType = getSourcePageMediaType(book, pageNumber);
 
-        // Make sure pages are cached
-        if (isPDF) {
-            cbxReaderService.getAvailablePages(bookId);
-            cbxReaderService.streamPageImage(bookId, pageNumber, outputStream);
+        if (!convertToPng || PNG_MEDIA_TYPE.equals(sourceMediaType)) {
+            response.setContentType(sourceMediaType);
+            streamSourcePage(book, pageNumber, response.getOutputStream());
+            return;
+        }
+
+        String cacheKey = bookId + ":" + pageNumber + ":" + bookFile.getCurrentHash();
+        byte[] pngData = convertedPageCache.getIfPresent(cacheKey);
+        if (pngData == null) {
+            ByteArrayOutputStream sourceData = new ByteArrayOutputStream();
+            streamSourcePage(book, pageNumber, sourceData);
+            pngData = convertImageToPng(sourceData.toByteArray());
+            if (bookFile.getCurrentHash() != null) {
+                convertedPageCache.put(cacheKey, pngData);
+            }
+        }
+        response.setContentType(PNG_MEDIA_TYPE);
+        response.getOutputStream().write(pngData);
+    }
+
+    private String getSourcePageMediaType(BookEntity book, int pageNumber) throws IOException {
+        return switch (book.getPrimaryBookFile().getBookType()) {
+            case CBX -> cbxReaderService.getPageMediaType(book, pageNumber);
+            case PDF -> pdfReaderService.getPageMediaType();
+            default -> DEFAULT_PAGE_MEDIA_TYPE;
+        };
+    }
+
+    private void streamSourcePage(BookEntity book, int pageNumber, OutputStream outputStream) throws IOException {
+        if (book.getPrimaryBookFile().getBookType() == BookFileType.PDF) {
+            pdfReaderService.streamPageImage(book, pageNumber, outputStream);
         } else {
-            pdfReaderService.getAvailablePages(bookId);
-            pdfReaderService.streamPageImage(bookId, pageNumber, outputStream);
+            cbxReaderService.streamPageImage(book, pageNumber, outputStream);
         }
-        
-        byte[] imageData = outputStream.toByteArray();
-        
-        // If conversion to PNG is requested, convert the image
-        if (convertToPng) {
-            imageData = convertImageToPng(imageData);
+    }
+
+    private List<PageImageInfo> loadPageImageInfo(BookEntity book) {
+        if (book.getBookFiles() == null || book.getBookFiles().isEmpty()) {
+            return List.of();
+        }
+        try {
+            return switch (book.getPrimaryBookFile().getBookType()) {
+                case CBX -> cbxReaderService.getPageImageInfo(book.getId());
+                case PDF -> pdfReaderService.getPageImageInfo(book.getId());
+                default -> List.of();
+            };
+        } catch (Exception e) {
+            log.warn("Failed to read page information for book {}: {}", book.getId(), e.getMessage());
+            return List.of();
         }
-        
-        return new ByteArrayResource(imageData);
     }
-    
+
+    private BookEntity findBook(Long bookId) {
+        return bookRepository.findById(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found: " + bookId));
+    }
+
     private byte[] convertImageToPng(byte[] imageData) throws IOException {
         try (ByteArrayInputStream inputStream = new ByteArrayInputStream(imageData);
              ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
@@ -412,9 +481,12 @@ public class KomgaService {
             if (image == null) {
                 throw new IOException("Failed to read image data");
             }
-            
-            ImageIO.write(image, "png", outputStream);
+            try {
+                ImageIO.write(image, "png", outputStream);
+            } finally {
+                image.flush();
+            }
             return outputStream.toByteArray();
         }
     }
-}
\ No newline at end of file
+}
@@ -4,15 +4,15 @@ import com.adityachandel.booklore.config.security.userdetails.KoreaderUserDetail
 import com.adityachandel.booklore.exception.ApiError;
 import com.adityachandel.booklore.model.dto.progress.KoreaderProgress;
 import com.adityachandel.booklore.model.entity.BookEntity;
-import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
 import com.adityachandel.booklore.model.entity.KoreaderUserEntity;
 import com.adityachandel.booklore.model.entity.UserBookProgressEntity;
 import com.adityachandel.booklore.model.enums.ReadStatus;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.KoreaderUserRepository;
 import com.adityachandel.booklore.repository.UserBookProgressRepository;
-import com.adityachandel.booklore.repository.UserRepository;
 import com.adityachandel.booklore.service.hardcover.HardcoverSyncService;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer.ProgressPatch;
 import com.adityachandel.booklore.util.koreader.EpubCfiService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,10 +32,10 @@ public class KoreaderService {
 
     private final UserBookProgressRepository progressRepository;
     private final BookRepository bookRepository;
-    private final UserRepository userRepository;
     private final KoreaderUserRepository koreaderUserRepository;
     private final HardcoverSyncService hardcoverSyncService;
     private final EpubCfiService epubCfiService;
+    private final UserBookProgressWriteBuffer progressWriteBuffer;
 
     public ResponseEntity<Map<String, String>> authorizeUser() {
         KoreaderUserDetails authDetails = getAuthDetails();
@@ -49,6 +49,7 @@ public class KoreaderService {
     public KoreaderProgress getProgress(String bookHash) {
         KoreaderUserDetails authDetails = getAuthDetailsWithSyncCheck();
         BookEntity book = findBookByHash(bookHash);
+        progressWriteBuffer.flush(authDetails.getBookLoreUserId(), book.getId());
         UserBookProgressEntity progress = findUserProgress(authDetails.getBookLoreUserId(), book.getId());
 
         log.info("getProgress: fetched progress='{}' percentage={} for userId={} bookHash={}",
@@ -72,12 +73,9 @@ public class KoreaderService {
     public void saveProgress(String bookHash, KoreaderProgress koProgress) {
         KoreaderUserDetails authDetails = getAuthDetailsWithSyncCheck();
         BookEntity book = findBookByHash(bookHash);
-        BookLoreUserEntity user = findBookLoreUser(authDetails.getBookLoreUserId());
 
-        UserBookProgressEntity userProgress = getOrCreateUserProgress(user, book);
-        updateProgressData(userProgress, koProgress, authDetails.isSyncWithBookloreReader(), book);
-
-        progressRepository.save(userProgress);
+        progressWriteBuffer.update(authDetails.getBookLoreUserId(), book.getId(),
+                patch -> updateProgressData(patch, koProgress, authDetails.isSyncWithBookloreReader(), book));
 
         log.info("saveProgress: saved progress='{}' percentage={} for userId={} bookHash={}", koProgress.getProgress(), koProgress.getPercentage(), authDetails.getBookLoreUserId(), bookHash);
 
@@ -85,13 +83,14 @@ public class KoreaderService {
         hardcoverSyncService.syncProgressToHardcover(book.getId(), progressPercent, authDetails.getBookLoreUserId());
     }
 
-    private void updateProgressData(UserBookProgressEntity userProgress, KoreaderProgress koProgress, boolean syncWithBookloreReader, BookEntity book) {
-        userProgress.setKoreaderProgress(koProgress.getProgress());
-        userProgress.setKoreaderProgressPercent(koProgress.getPercentage());
-        userProgress.setKoreaderDevice(koProgress.getDevice());
-        userProgress.setKoreaderDeviceId(koProgress.getDevice_id());
-        userProgress.setKoreaderLastSyncTime(Instant.now());
-        userProgress.setLastReadTime(Instant.now());
+    private void updateProgressData(ProgressPatch userProgress, KoreaderProgress koProgress, boolean syncWithBookloreReader, BookEntity book) {
+        Instant now = Instant.now();
+        userProgress.set("koreaderProgress", UserBookProgressEntity::setKoreaderProgress, koProgress.getProgress());
+        userProgress.set("koreaderProgressPercent", UserBookProgressEntity::setKoreaderProgressPercent, koProgress.getPercentage());
+        userProgress.set("koreaderDevice", UserBookProgressEntity::setKoreaderDevice, koProgress.getDevice());
+        userProgress.set("koreaderDeviceId", UserBookProgressEntity::setKoreaderDeviceId, koProgress.getDevice_id());
+        userProgress.set("koreaderLastSyncTime", UserBookProgressEntity::setKoreaderLastSyncTime, now);
+        userProgress.set("lastReadTime", UserBookProgressEntity::setLastReadTime, now);
         if (syncWithBookloreReader && koProgress.getProgress() != null) {
             try {
                 String cfi = epubCfiService.convertXPointerToCfi(book.getFullFilePath(), koProgress.getProgress());
@@ -102,8 +101,8 @@ public class KoreaderService {
                         .setScale(1, RoundingMode.HALF_UP)
                         .floatValue();
 
-                userProgress.setEpubProgress(cfi);
-                userProgress.setEpubProgressPercent(rounded);
+                userProgress.set("epubProgress", UserBookProgressEntity::setEpubProgress, cfi);
+                userProgress.set("epubProgressPercent", UserBookProgressEntity::setEpubProgressPercent, rounded);
 
                 log.info("Converted xpointer to CFI for BookLore reader sync: {}", cfi);
             } catch (Exception e) {
@@ -114,15 +113,15 @@ public class KoreaderService {
         updateReadStatus(userProgress, koProgress.getPercentage());
     }
 
-    private void updateReadStatus(UserBookProgressEntity userProgress, double progressFraction) {
+    private void updateReadStatus(ProgressPatch userProgress, double progressFraction) {
         double progressPercent = progressFraction * 100.0;
         if (progressPercent >= 99.5) {
-            userProgress.setReadStatus(ReadStatus.READ);
-            userProgress.setDateFinished(Instant.now());
+            userProgress.set("readStatus", UserBookProgressEntity::setReadStatus, ReadStatus.READ);
+            userProgress.set("dateFinished", UserBookProgressEntity::setDateFinished, Instant.now());
         } else if (progressPercent >= 0.25) {
-            userProgress.setReadStatus(ReadStatus.READING);
+            userProgress.set("readStatus", UserBookProgressEntity::setReadStatus, ReadStatus.READING);
         } else {
-            userProgress.setReadStatus(ReadStatus.UNREAD);
+            userProgress.set("readStatus", UserBookProgressEntity::setReadStatus, ReadStatus.UNREAD);
         }
     }
 
@@ -172,26 +171,11 @@ public class KoreaderService {
                 .orElseThrow(() -> ApiError.GENERIC_NOT_FOUND.createException("Book not found for hash " + bookHash));
     }
 
-    private BookLoreUserEntity findBookLoreUser(long userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> ApiError.GENERIC_NOT_FOUND.createException("User not found with id " + userId));
-    }
-
     private UserBookProgressEntity findUserProgress(long userId, Long bookId) {
         return progressRepository.findByUserIdAndBookId(userId, bookId)
                 .orElseThrow(() -> ApiError.GENERIC_NOT_FOUND.createException("No progress found for user and book"));
     }
 
-    private UserBookProgressEntity getOrCreateUserProgress(BookLoreUserEntity user, BookEntity book) {
-        return progressRepository.findByUserIdAndBookId(user.getId(), book.getId())
-                .orElseGet(() -> {
-                    UserBookProgressEntity newProgress = new UserBookProgressEntity();
-                    newProgress.setUser(user);
-                    newProgress.setBook(book);
-                    return newProgress;
-                });
-    }
-
     private void ensureSyncEnabled(KoreaderUserDetails details) {
         if (!details.isSyncEnabled()) {
             log.warn("Sync is disabled for user '{}'", details.getUsername());
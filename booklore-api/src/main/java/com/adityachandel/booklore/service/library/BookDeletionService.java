@@ -3,39 +3,110 @@ package com.adityachandel.booklore.service.library;
 import com.adityachandel.booklore.model.dto.settings.LibraryFile;
 import com.adityachandel.booklore.model.entity.BookFileEntity;
 import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.websocket.LogNotification;
 import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookAdditionalFileRepository;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.NotificationService;
 import com.adityachandel.booklore.util.FileService;
+import jakarta.annotation.PreDestroy;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Removes books whose files have disappeared from a library. Rows are deleted with set-based statements,
+ * {@link #CHUNK_SIZE} books per transaction, children before parents so no cascade has to be resolved row by row
+ * and no lock is held for longer than one chunk. Cover and metadata backup folders are deleted on a background
+ * thread once the chunk that owned them has committed.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class BookDeletionService {
 
+    static final int CHUNK_SIZE = 500;
+    private static final long PROGRESS_INTERVAL_MS = 2000;
+
+    /**
+     * Every table holding rows of a book, in an order that satisfies the foreign keys. Tables without a foreign key
+     * to {@code book} (the older viewer preferences) are included so deleted books do not leave orphans behind.
+     */
+    static final List<String> DEPENDENT_TABLES = List.of(
+            "book_metadata_author_mapping",
+            "book_metadata_category_mapping",
+            "book_metadata_mood_mapping",
+            "book_metadata_tag_mapping",
+            "public_book_review",
+            "book_metadata",
+            "book_award",
+            "book_shelf_mapping",
+            "user_book_progress",
+            "book_notes",
+            "book_notes_v2",
+            "book_marks",
+            "annotations",
+            "reading_sessions",
+            "ebook_viewer_preference",
+            "epub_viewer_preference",
+            "pdf_viewer_preference",
+            "new_pdf_viewer_preference",
+            "cbx_viewer_preference",
+            "metadata_write_back_queue",
+            "email_outbox",
+            "book_file");
+
     private final BookRepository bookRepository;
     private final BookAdditionalFileRepository bookAdditionalFileRepository;
     private final FileService fileService;
     private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
 
     @PersistenceContext
     private final EntityManager entityManager;
 
+    private final ExecutorService cleanupExecutor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("book-file-cleanup").factory());
+
+    public BookDeletionService(BookRepository bookRepository, BookAdditionalFileRepository bookAdditionalFileRepository,
+                               FileService fileService, NotificationService notificationService,
+                               EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.bookAdditionalFileRepository = bookAdditionalFileRepository;
+        this.fileService = fileService;
+        this.notificationService = notificationService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cleanupExecutor.shutdown();
+        try {
+            if (!cleanupExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Book folder cleanup did not finish before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void deleteRemovedAdditionalFiles(List<Long> additionalFileIds) {
         if (additionalFileIds.isEmpty()) {
@@ -50,74 +121,124 @@ public class BookDeletionService {
         log.info("Deleted {} additional files from database", additionalFileIds.size());
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    /**
+     * Keeps books that still have another book format on disk, promoting it, and deletes the rest. Promotion commits
+     * before the deletion starts, so the two never wait on each other's locks.
+     */
     public void processDeletedLibraryFiles(List<Long> deletedBookIds, List<LibraryFile> libraryFiles) {
         if (deletedBookIds.isEmpty()) {
             return;
         }
 
-        List<BookEntity> books = bookRepository.findAllById(deletedBookIds);
-        List<Long> booksToDelete = new ArrayList<>();
+        Set<String> existingFileNames = libraryFiles.stream()
+                .map(LibraryFile::getFileName)
+                .collect(Collectors.toSet());
 
-        for (BookEntity book : books) {
-            if (!tryPromoteAlternativeFormatToBook(book, libraryFiles)) {
-                booksToDelete.add(book.getId());
+        List<Long> booksToDelete = new ArrayList<>();
+        for (int from = 0; from < deletedBookIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = deletedBookIds.subList(from, Math.min(from + CHUNK_SIZE, deletedBookIds.size()));
+            List<Long> unpromoted = transactionTemplate.execute(status -> {
+                List<Long> ids = new ArrayList<>();
+                for (BookEntity book : bookRepository.findAllWithFilesByIds(chunk)) {
+                    if (!tryPromoteAlternativeFormatToBook(book, existingFileNames)) {
+                        ids.add(book.getId());
+                    }
+                }
+                return ids;
+            });
+            if (unpromoted != null) {
+                booksToDelete.addAll(unpromoted);
             }
         }
 
-        entityManager.flush();
-        entityManager.clear();
-
         if (!booksToDelete.isEmpty()) {
             deleteRemovedBooks(booksToDelete);
         }
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void deleteRemovedBooks(List<Long> bookIds) {
-        List<BookEntity> books = bookRepository.findAllById(bookIds);
-        for (BookEntity book : books) {
-            try {
-                deleteDirectoryRecursively(Path.of(fileService.getImagesFolder(book.getId())));
-                Path backupDir = Path.of(fileService.getBookMetadataBackupPath(book.getId()));
-                if (Files.exists(backupDir)) {
-                    deleteDirectoryRecursively(backupDir);
-                }
-            } catch (Exception e) {
-                log.warn("Failed to clean up files for book ID {}: {}", book.getId(), e.getMessage());
+        List<Long> ids = bookIds.stream().distinct().sorted().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        boolean reportProgress = ids.size() > CHUNK_SIZE;
+        if (reportProgress) {
+            notificationService.sendMessage(Topic.LOG, LogNotification.info("Removing " + ids.size() + " books"));
+        }
+
+        long lastProgress = System.currentTimeMillis();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            transactionTemplate.executeWithoutResult(status -> deleteRows(chunk));
+            scheduleCleanup(chunk);
+            notificationService.sendMessage(Topic.BOOKS_REMOVE, chunk);
+
+            int removed = from + chunk.size();
+            if (reportProgress && removed < ids.size() && System.currentTimeMillis() - lastProgress >= PROGRESS_INTERVAL_MS) {
+                notificationService.sendMessage(Topic.LOG, LogNotification.info("Removing books: " + removed + " of " + ids.size()));
+                lastProgress = System.currentTimeMillis();
             }
         }
-        bookRepository.deleteAll(books);
-        entityManager.flush();
-        entityManager.clear();
-        notificationService.sendMessage(Topic.BOOKS_REMOVE, bookIds);
-        if (bookIds.size() > 1) log.info("Books removed: {}", bookIds);
+
+        if (reportProgress) {
+            notificationService.sendMessage(Topic.LOG, LogNotification.info("Removed " + ids.size() + " books"));
+        }
+        if (ids.size() > 1) log.info("Books removed: {}", ids.size());
     }
 
-    private boolean tryPromoteAlternativeFormatToBook(BookEntity book, List<LibraryFile> libraryFiles) {
-        Set<String> existingFileNames = libraryFiles.stream()
-                .map(LibraryFile::getFileName)
-                .collect(Collectors.toSet());
+    private void deleteRows(List<Long> bookIds) {
+        entityManager.createNativeQuery("UPDATE shelf SET updated_at = CURRENT_TIMESTAMP(3) WHERE id IN (SELECT shelf_id FROM book_shelf_mapping WHERE book_id IN (:bookIds))")
+                .setParameter("bookIds", bookIds)
+                .executeUpdate();
+        for (String table : DEPENDENT_TABLES) {
+            entityManager.createNativeQuery("DELETE FROM " + table + " WHERE book_id IN (:bookIds)")
+                    .setParameter("bookIds", bookIds)
+                    .executeUpdate();
+        }
+        entityManager.createNativeQuery("DELETE FROM book WHERE id IN (:bookIds)")
+                .setParameter("bookIds", bookIds)
+                .executeUpdate();
+    }
+
+    private void scheduleCleanup(List<Long> bookIds) {
+        List<Long> ids = List.copyOf(bookIds);
+        try {
+            cleanupExecutor.execute(() -> ids.forEach(this::deleteBookDirectories));
+        } catch (RejectedExecutionException e) {
+            ids.forEach(this::deleteBookDirectories);
+        }
+    }
 
+    private void deleteBookDirectories(long bookId) {
+        try {
+            deleteDirectoryRecursively(Path.of(fileService.getImagesFolder(bookId)));
+            deleteDirectoryRecursively(Path.of(fileService.getBookMetadataBackupPath(bookId)));
+        } catch (Exception e) {
+            log.warn("Failed to clean up files for book ID {}: {}", bookId, e.getMessage());
+        }
+    }
+
+    private boolean tryPromoteAlternativeFormatToBook(BookEntity book, Set<String> existingFileNames) {
         List<BookFileEntity> deletedBookFiles = book.getBookFiles().stream()
                 .filter(BookFileEntity::isBook)
                 .filter(bf -> !existingFileNames.contains(bf.getFileName()))
                 .toList();
 
+        boolean hasRemainingBookFiles = book.getBookFiles().stream()
+                .filter(BookFileEntity::isBook)
+                .anyMatch(bf -> !deletedBookFiles.contains(bf));
+
+        if (!hasRemainingBookFiles) {
+            return false;
+        }
+
         deletedBookFiles.forEach(bf -> {
             book.getBookFiles().remove(bf);
             bookAdditionalFileRepository.delete(bf);
         });
-
-        boolean hasRemainingBookFiles = book.getBookFiles().stream()
-                .anyMatch(BookFileEntity::isBook);
-
-        if (hasRemainingBookFiles) {
-            bookRepository.save(book);
-            log.info("Removed {} deleted book file(s) for book ID {}", deletedBookFiles.size(), book.getId());
-            return true;
-        }
-        return false;
+        bookRepository.save(book);
+        log.info("Removed {} deleted book file(s) for book ID {}", deletedBookFiles.size(), book.getId());
+        return true;
     }
 
 
@@ -1,6 +1,7 @@
 package com.adityachandel.booklore.service.library;
 
 import com.adityachandel.booklore.model.FileProcessResult;
+import com.adityachandel.booklore.model.dto.Book;
 import com.adityachandel.booklore.model.dto.settings.LibraryFile;
 import com.adityachandel.booklore.model.entity.BookFileEntity;
 import com.adityachandel.booklore.model.entity.BookEntity;
@@ -19,13 +20,15 @@ import com.adityachandel.booklore.service.fileprocessor.BookFileProcessorRegistr
 import com.adityachandel.booklore.util.FileUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.nio.file.Path;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +36,13 @@ import java.util.stream.Collectors;
 @Slf4j
 public class FolderAsBookFileProcessor implements LibraryFileProcessor {
 
+    static final int CHUNK_SIZE = 100;
+    static final int WORKERS = Math.clamp(Runtime.getRuntime().availableProcessors(), 1, 4);
+
+    private static final Comparator<LibraryFile> DIRECTORY_ORDER = Comparator
+            .comparing((LibraryFile file) -> file.getLibraryPathEntity().getPath())
+            .thenComparing(LibraryFile::getFileSubPath, Comparator.nullsFirst(Comparator.naturalOrder()));
+
     private final BookRepository bookRepository;
     private final BookAdditionalFileRepository bookAdditionalFileRepository;
     private final BookEventBroadcaster bookEventBroadcaster;
@@ -49,144 +59,186 @@ public class FolderAsBookFileProcessor implements LibraryFileProcessor {
         return true;
     }
 
+    /**
+     * Walks the files in path order, so a directory always comes before its subdirectories, and cuts them into one
+     * unit per directory without building a map of the whole library. Units are handled {@link #CHUNK_SIZE} at a time:
+     * the books already in those directories and their parents, and the files already recorded there, are looked up
+     * with one query per library path, and the books of new directories are created on {@link #WORKERS} threads, one
+     * depth level at a time so that a subdirectory sees the book created for its parent. Sibling books can race to
+     * insert the same new author or category; the losers are rolled back and created again one by one once the level
+     * has finished, when the winning rows are committed and simply looked up.
+     */
     @Override
     public void processLibraryFiles(List<LibraryFile> libraryFiles, LibraryEntity libraryEntity) {
-        Map<Path, List<LibraryFile>> filesByDirectory = libraryFiles.stream()
-                .collect(Collectors.groupingBy(libraryFile -> libraryFile.getFullPath().getParent()));
-
-        log.info("Processing {} directories with {} total files for library: {}",
-                filesByDirectory.size(), libraryFiles.size(), libraryEntity.getName());
+        List<LibraryFile> sortedFiles = new ArrayList<>(libraryFiles);
+        sortedFiles.sort(DIRECTORY_ORDER);
 
-        var sortedDirectories = filesByDirectory.entrySet()
-                .stream()
-                .sorted(Map.Entry.comparingByKey())
-                .toList();
-        for (Map.Entry<Path, List<LibraryFile>> entry : sortedDirectories) {
-            Path directoryPath = entry.getKey();
-            List<LibraryFile> filesInDirectory = entry.getValue();
-
-            log.debug("Processing directory: {} with {} files", directoryPath, filesInDirectory.size());
-            processDirectory(directoryPath, filesInDirectory, libraryEntity);
-        }
-    }
+        log.info("Processing {} files for library: {}", libraryFiles.size(), libraryEntity.getName());
 
-    private void processDirectory(Path directoryPath, List<LibraryFile> filesInDirectory, LibraryEntity libraryEntity) {
-        var bookCreationResult = getOrCreateBookInDirectory(directoryPath, filesInDirectory, libraryEntity);
-        if (bookCreationResult.bookEntity.isEmpty()) {
-            log.warn("No book created for directory: {}", directoryPath);
-            return;
+        Map<Path, Long> createdBooks = new HashMap<>();
+        int directories = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS, Thread.ofPlatform().name("folder-scan-worker-", 0).factory());
+        try {
+            List<DirectoryUnit> chunk = new ArrayList<>(CHUNK_SIZE);
+            int start = 0;
+            for (int i = 1; i <= sortedFiles.size(); i++) {
+                if (i < sortedFiles.size() && DIRECTORY_ORDER.compare(sortedFiles.get(start), sortedFiles.get(i)) == 0) {
+                    continue;
+                }
+                chunk.add(DirectoryUnit.of(sortedFiles.subList(start, i)));
+                start = i;
+                if (chunk.size() == CHUNK_SIZE || i == sortedFiles.size()) {
+                    directories += chunk.size();
+                    processChunk(chunk, libraryEntity, createdBooks, executor);
+                    if (Thread.currentThread().isInterrupted()) {
+                        log.warn("Processing of library {} was interrupted", libraryEntity.getName());
+                        return;
+                    }
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
         }
 
-        processAdditionalFiles(bookCreationResult.bookEntity.get(), bookCreationResult.remainingFiles);
+        log.info("Processed {} directories for library: {}", directories, libraryEntity.getName());
     }
 
-    private GetOrCreateBookResult getOrCreateBookInDirectory(Path directoryPath, List<LibraryFile> filesInDirectory, LibraryEntity libraryEntity) {
-        var existingBook = findExistingBookInDirectory(directoryPath, libraryEntity);
-        if (existingBook.isPresent()) {
-            log.debug("Found existing book in directory {}: {}", directoryPath, existingBook.get().getPrimaryBookFile().getFileName());
-            return new GetOrCreateBookResult(existingBook, filesInDirectory);
-        }
-
-        Optional<BookEntity> parentBook = findBookInParentDirectories(directoryPath, libraryEntity);
-        if (parentBook.isPresent()) {
-            log.debug("Found parent book for directory {}: {}", directoryPath, parentBook.get().getPrimaryBookFile().getFileName());
-            return new GetOrCreateBookResult(parentBook, filesInDirectory);
-        }
+    private void processChunk(List<DirectoryUnit> units, LibraryEntity libraryEntity, Map<Path, Long> createdBooks, ExecutorService executor) {
+        Map<Path, BookEntity> existingBooks = findBooksInDirectoriesAndParents(units);
+        Set<String> existingFiles = findExistingFiles(units);
+
+        Map<Integer, List<DirectoryUnit>> unitsByDepth = units.stream()
+                .collect(Collectors.groupingBy(unit -> unit.directory().getNameCount(), TreeMap::new, Collectors.toList()));
+        for (List<DirectoryUnit> level : unitsByDepth.values()) {
+            List<Future<CreateOutcome>> creations = new ArrayList<>();
+            for (DirectoryUnit unit : level) {
+                Optional<BookEntity> book = findBookForDirectory(unit, existingBooks, createdBooks);
+                if (book.isPresent()) {
+                    log.debug("Found book for directory {}: {}", unit.directory(), book.get().getId());
+                    processAdditionalFiles(book.get(), unit.files(), existingFiles);
+                    continue;
+                }
+                Optional<LibraryFile> mainBookFile = findBestMainBookFile(unit.files(), libraryEntity);
+                if (mainBookFile.isEmpty()) {
+                    log.warn("No book file found in directory: {}", unit.directory());
+                    continue;
+                }
+                creations.add(executor.submit(() -> createBook(unit, mainBookFile.get())));
+            }
 
-        log.debug("No existing book found, creating new book from directory: {}", directoryPath);
-        Optional<CreateBookResult> newBook = createNewBookFromDirectory(directoryPath, filesInDirectory, libraryEntity);
-        if (newBook.isPresent()) {
-            log.info("Created new book: {}", newBook.get().bookEntity.getPrimaryBookFile().getFileName());
-            var remainingFiles = filesInDirectory.stream()
-                    .filter(file -> !file.equals(newBook.get().libraryFile))
-                    .toList();
-            return new GetOrCreateBookResult(Optional.of(newBook.get().bookEntity), remainingFiles);
-        } else {
-            log.warn("Failed to create book from directory: {}", directoryPath);
-            return new GetOrCreateBookResult(Optional.empty(), filesInDirectory);
+            List<CreateOutcome> conflicts = new ArrayList<>();
+            for (Future<CreateOutcome> creation : creations) {
+                try {
+                    CreateOutcome outcome = creation.get();
+                    if (outcome.error() instanceof DataIntegrityViolationException) {
+                        conflicts.add(outcome);
+                        continue;
+                    }
+                    applyCreatedBook(outcome, createdBooks, existingFiles);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    log.error("Book creation failed: {}", e.getCause().getMessage(), e.getCause());
+                }
+            }
+            for (CreateOutcome conflict : conflicts) {
+                log.debug("Retrying book creation for {} after a concurrent insert: {}", conflict.libraryFile().getFileName(), conflict.error().getMessage());
+                applyCreatedBook(createBook(conflict.unit(), conflict.libraryFile()), createdBooks, existingFiles);
+            }
         }
     }
 
-    private Optional<BookEntity> findExistingBookInDirectory(Path directoryPath, LibraryEntity libraryEntity) {
-        return libraryEntity.getLibraryPaths().stream()
-                .flatMap(libPath -> {
-                    String filesSearchPath = Path.of(libPath.getPath())
-                            .relativize(directoryPath)
-                            .toString()
-                            .replace("\\", "/");
-                    return bookRepository
-                            .findAllByLibraryPathIdAndFileSubPathStartingWith(libPath.getId(), filesSearchPath)
-                            .stream();
-                })
-                .filter(book -> book.getFullFilePath().getParent().equals(directoryPath))
-                .findFirst();
+    /**
+     * The book whose primary file is in the directory itself or, failing that, in its nearest parent directory.
+     */
+    private Optional<BookEntity> findBookForDirectory(DirectoryUnit unit, Map<Path, BookEntity> existingBooks, Map<Path, Long> createdBooks) {
+        Path libraryRoot = Path.of(unit.libraryPath().getPath());
+        for (Path directory = unit.directory(); directory != null && directory.startsWith(libraryRoot); directory = directory.getParent()) {
+            BookEntity existing = existingBooks.get(directory);
+            if (existing != null) {
+                return Optional.of(existing);
+            }
+            Long createdId = createdBooks.get(directory);
+            if (createdId != null) {
+                return Optional.of(bookRepository.getReferenceById(createdId));
+            }
+        }
+        return Optional.empty();
     }
 
-    private Optional<BookEntity> findBookInParentDirectories(Path directoryPath, LibraryEntity libraryEntity) {
-        Path parent = directoryPath.getParent();
-        LibraryPathEntity directoryLibraryPathEntity = libraryEntity.getLibraryPaths().stream()
-                .filter(libPath -> directoryPath.startsWith(libPath.getPath()))
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No library path found for directory: " + directoryPath));
-        Path directoryLibraryPath = Path.of(directoryLibraryPathEntity.getPath());
-
-        while (parent != null) {
-            final String parentPath = directoryLibraryPath
-                    .relativize(parent)
-                    .toString()
-                    .replace("\\", "/");
-
-            Optional<BookEntity> parentBook =
-                    bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(
-                                    directoryLibraryPathEntity.getId(), parentPath).stream()
-                            .filter(book -> book.getPrimaryBookFile().getFileSubPath().equals(parentPath))
-                            .findFirst();
-            if (parentBook.isPresent()) {
-                return parentBook;
+    private Map<Path, BookEntity> findBooksInDirectoriesAndParents(List<DirectoryUnit> units) {
+        Map<Long, Set<String>> subPathsByLibraryPath = new HashMap<>();
+        for (DirectoryUnit unit : units) {
+            Path libraryRoot = Path.of(unit.libraryPath().getPath());
+            Set<String> subPaths = subPathsByLibraryPath.computeIfAbsent(unit.libraryPath().getId(), ignored -> new HashSet<>());
+            for (Path directory = unit.directory(); directory != null && directory.startsWith(libraryRoot); directory = directory.getParent()) {
+                subPaths.add(libraryRoot.relativize(directory).toString().replace("\\", "/"));
             }
-            parent = parent.getParent();
         }
 
-        return Optional.empty();
+        Map<Path, BookEntity> books = new HashMap<>();
+        subPathsByLibraryPath.forEach((libraryPathId, subPaths) ->
+                bookRepository.findAllByLibraryPathIdAndFileSubPathIn(libraryPathId, subPaths)
+                        .forEach(book -> books.putIfAbsent(book.getFullFilePath().getParent(), book)));
+        return books;
     }
 
-    private Optional<CreateBookResult> createNewBookFromDirectory(Path directoryPath, List<LibraryFile> filesInDirectory, LibraryEntity libraryEntity) {
-        Optional<LibraryFile> mainBookFile = findBestMainBookFile(filesInDirectory, libraryEntity);
-
-        if (mainBookFile.isEmpty()) {
-            log.debug("No suitable book file found in directory: {}", directoryPath);
-            return Optional.empty();
+    private Set<String> findExistingFiles(List<DirectoryUnit> units) {
+        Map<Long, Set<String>> subPathsByLibraryPath = new HashMap<>();
+        for (DirectoryUnit unit : units) {
+            for (LibraryFile file : unit.files()) {
+                subPathsByLibraryPath.computeIfAbsent(unit.libraryPath().getId(), ignored -> new HashSet<>()).add(file.getFileSubPath());
+            }
         }
 
-        LibraryFile bookFile = mainBookFile.get();
+        Set<String> existingFiles = new HashSet<>();
+        subPathsByLibraryPath.forEach((libraryPathId, subPaths) ->
+                bookAdditionalFileRepository.findFilePathsByLibraryPathIdAndFileSubPathIn(libraryPathId, subPaths)
+                        .forEach(filePath -> existingFiles.add(libraryPathId + ":" + filePath)));
+        return existingFiles;
+    }
 
+    private CreateOutcome createBook(DirectoryUnit unit, LibraryFile bookFile) {
         try {
             log.info("Creating new book from file: {}", bookFile.getFileName());
-
             BookFileProcessor processor = bookFileProcessorRegistry.getProcessorOrThrow(bookFile.getBookFileType());
             FileProcessResult result = processor.processFile(bookFile);
+            return new CreateOutcome(unit, bookFile, result != null ? result.getBook() : null, null);
+        } catch (Exception e) {
+            return new CreateOutcome(unit, bookFile, null, e);
+        }
+    }
 
-            if (result.getBook() != null) {
-                bookEventBroadcaster.broadcastBookAddEvent(result.getBook());
-
-                BookEntity bookEntity = bookRepository.getReferenceById(result.getBook().getId());
-                if (bookEntity.getFullFilePath().equals(bookFile.getFullPath())) {
-                    log.info("Successfully created new book: {}", bookEntity.getPrimaryBookFile().getFileName());
-                } else {
-                    log.warn("Found duplicate book with different path: {} vs {}", bookEntity.getFullFilePath(), bookFile.getFullPath());
-                }
+    private void applyCreatedBook(CreateOutcome outcome, Map<Path, Long> createdBooks, Set<String> existingFiles) {
+        LibraryFile bookFile = outcome.libraryFile();
+        if (outcome.error() != null) {
+            log.error("Error processing book file {}: {}", bookFile.getFileName(), outcome.error().getMessage(), outcome.error());
+            adminEventBroadcaster.broadcastAdminEvent("Error processing book file: " + bookFile.getFileName() + " - " + outcome.error().getMessage());
+            log.warn("No book created for directory: {}", outcome.unit().directory());
+            return;
+        }
+        if (outcome.book() == null) {
+            log.warn("Book processor returned null for file: {}", bookFile.getFileName());
+            adminEventBroadcaster.broadcastAdminEvent("Failed to create book from file: " + bookFile.getFileName());
+            log.warn("No book created for directory: {}", outcome.unit().directory());
+            return;
+        }
 
-                return Optional.of(new CreateBookResult(bookEntity, bookFile));
-            } else {
-                log.warn("Book processor returned null for file: {}", bookFile.getFileName());
-                adminEventBroadcaster.broadcastAdminEvent("Failed to create book from file: " + bookFile.getFileName());
-                return Optional.empty();
-            }
-        } catch (Exception e) {
-            log.error("Error processing book file {}: {}", bookFile.getFileName(), e.getMessage(), e);
-            adminEventBroadcaster.broadcastAdminEvent("Error processing book file: " + bookFile.getFileName() + " - " + e.getMessage());
-            return Optional.empty();
+        bookEventBroadcaster.broadcastBookAddEvent(outcome.book());
+        BookEntity bookEntity = bookRepository.getReferenceById(outcome.book().getId());
+        if (bookEntity.getFullFilePath().equals(bookFile.getFullPath())) {
+            log.info("Created new book: {}", bookEntity.getPrimaryBookFile().getFileName());
+        } else {
+            log.warn("Found duplicate book with different path: {} vs {}", bookEntity.getFullFilePath(), bookFile.getFullPath());
         }
+        createdBooks.put(outcome.unit().directory(), bookEntity.getId());
+
+        List<LibraryFile> remainingFiles = outcome.unit().files().stream()
+                .filter(file -> !file.equals(bookFile))
+                .toList();
+        processAdditionalFiles(bookEntity, remainingFiles, existingFiles);
     }
 
     private Optional<LibraryFile> findBestMainBookFile(List<LibraryFile> filesInDirectory, LibraryEntity libraryEntity) {
@@ -201,22 +253,19 @@ public class FolderAsBookFileProcessor implements LibraryFileProcessor {
                 }));
     }
 
-    private void processAdditionalFiles(BookEntity existingBook, List<LibraryFile> filesInDirectory) {
+    private void processAdditionalFiles(BookEntity existingBook, List<LibraryFile> filesInDirectory, Set<String> existingFiles) {
         for (LibraryFile file : filesInDirectory) {
             Optional<BookFileExtension> extension = BookFileExtension.fromFileName(file.getFileName());
             boolean isBook = extension.isPresent();
             BookFileType bookType = extension.map(BookFileExtension::getType).orElse(null);
 
-            createAdditionalFileIfNotExists(existingBook, file, isBook, bookType);
+            createAdditionalFileIfNotExists(existingBook, file, isBook, bookType, existingFiles);
         }
     }
 
-    private void createAdditionalFileIfNotExists(BookEntity bookEntity, LibraryFile file, boolean isBook, BookFileType bookType) {
-        Optional<BookFileEntity> existingFile = bookAdditionalFileRepository
-                .findByLibraryPath_IdAndFileSubPathAndFileName(
-                        file.getLibraryPathEntity().getId(), file.getFileSubPath(), file.getFileName());
-
-        if (existingFile.isPresent()) {
+    private void createAdditionalFileIfNotExists(BookEntity bookEntity, LibraryFile file, boolean isBook, BookFileType bookType, Set<String> existingFiles) {
+        String fileKey = file.getLibraryPathEntity().getId() + ":" + file.getFileSubPath() + "/" + file.getFileName();
+        if (!existingFiles.add(fileKey)) {
             log.debug("Additional file already exists: {}", file.getFileName());
             return;
         }
@@ -246,10 +295,15 @@ public class FolderAsBookFileProcessor implements LibraryFileProcessor {
         }
     }
 
-    public record GetOrCreateBookResult(Optional<BookEntity> bookEntity, List<LibraryFile> remainingFiles) {
+    private record DirectoryUnit(Path directory, LibraryPathEntity libraryPath, List<LibraryFile> files) {
+
+        static DirectoryUnit of(List<LibraryFile> files) {
+            LibraryFile first = files.getFirst();
+            return new DirectoryUnit(first.getFullPath().getParent(), first.getLibraryPathEntity(), files);
+        }
     }
 
-    public record CreateBookResult(BookEntity bookEntity, LibraryFile libraryFile) {
+    private record CreateOutcome(DirectoryUnit unit, LibraryFile libraryFile, Book book, Exception error) {
     }
 
 }
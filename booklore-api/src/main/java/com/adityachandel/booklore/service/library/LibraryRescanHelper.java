@@ -5,7 +5,9 @@ import com.adityachandel.booklore.model.MetadataUpdateContext;
 import com.adityachandel.booklore.model.MetadataUpdateWrapper;
 import com.adityachandel.booklore.model.dto.BookMetadata;
 import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookFileEntity;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.model.websocket.TaskProgressPayload;
 import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.LibraryRepository;
@@ -19,77 +21,246 @@ import com.adityachandel.booklore.task.TaskStatus;
 import com.adityachandel.booklore.model.enums.TaskType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * Re-reads embedded metadata from the files of a library. Books are walked in chunks of {@link #CHUNK_SIZE} ids; a
+ * file whose size, modification time and hash still match what the previous rescan recorded is skipped without being
+ * opened, unless the rescan is forced. The remaining files are parsed on {@link #WORKERS} threads outside any
+ * transaction, and each chunk's updates commit together, so a rescan never holds one transaction for the whole library.
+ */
 @Slf4j
 @Service
 public class LibraryRescanHelper {
 
+    static final int CHUNK_SIZE = 200;
+    static final int WORKERS = Math.clamp(Runtime.getRuntime().availableProcessors(), 1, 4);
+    static final long PROGRESS_INTERVAL_MS = 1000;
+
     private final LibraryRepository libraryRepository;
     private final MetadataExtractorFactory metadataExtractorFactory;
     private final BookMetadataUpdater bookMetadataUpdater;
     private final NotificationService notificationService;
     private final TaskCancellationManager cancellationManager;
     private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
-    public LibraryRescanHelper(LibraryRepository libraryRepository, MetadataExtractorFactory metadataExtractorFactory, @Lazy BookMetadataUpdater bookMetadataUpdater, NotificationService notificationService, TaskCancellationManager cancellationManager, BookRepository bookRepository) {
+    public LibraryRescanHelper(LibraryRepository libraryRepository, MetadataExtractorFactory metadataExtractorFactory, @Lazy BookMetadataUpdater bookMetadataUpdater, NotificationService notificationService, TaskCancellationManager cancellationManager, BookRepository bookRepository, PlatformTransactionManager transactionManager) {
         this.libraryRepository = libraryRepository;
         this.metadataExtractorFactory = metadataExtractorFactory;
         this.bookMetadataUpdater = bookMetadataUpdater;
         this.notificationService = notificationService;
         this.cancellationManager = cancellationManager;
         this.bookRepository = bookRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    record FileStamp(long size, long modifiedMs) {
+    }
+
+    record RescanItem(long bookId, BookFileType bookType, Path path, FileStamp stamp) {
+    }
+
+    record Extracted(RescanItem item, BookMetadata metadata) {
     }
 
-    @Transactional
     public void handleRescanOptions(RescanLibraryContext context, String taskId) {
 
         LibraryEntity library = libraryRepository.findById(context.getLibraryId()).orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(context.getLibraryId()));
+        boolean force = context.getOptions().isForceRescan();
 
-        List<BookEntity> bookEntities = bookRepository.findAllWithMetadataByLibraryId(library.getId());
+        long totalBooks = bookRepository.countByLibraryId(library.getId());
+        log.info("Found {} book(s) to process in library id={}{}", totalBooks, library.getId(), force ? " (forced)" : "");
 
-        log.info("Found {} book(s) to process in library id={}", bookEntities.size(), library.getId());
+        sendTaskProgressNotification(taskId, 0, String.format("Starting rescan for library: %s", library.getName()), TaskStatus.IN_PROGRESS);
 
-        int totalBooks = bookEntities.size();
         int processedBooks = 0;
+        int skippedBooks = 0;
+        int updatedBooks = 0;
+        long lastProgress = System.currentTimeMillis();
+        long afterId = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS, Thread.ofPlatform().name("library-rescan-worker-", 0).factory());
+        try {
+            while (true) {
+                if (isCancelled(taskId)) {
+                    log.info("Library rescan for library {} was cancelled", library.getId());
+                    sendTaskProgressNotification(taskId, progress(processedBooks, totalBooks),
+                            String.format("Rescan cancelled for library: %s (%d/%d books processed)", library.getName(), processedBooks, totalBooks),
+                            TaskStatus.CANCELLED);
+                    return;
+                }
 
-        sendTaskProgressNotification(taskId, 0, String.format("Starting rescan for library: %s", library.getName()), TaskStatus.IN_PROGRESS);
+                List<Long> bookIds = bookRepository.findBookIdsByLibraryIdAfter(library.getId(), afterId, PageRequest.of(0, CHUNK_SIZE));
+                if (bookIds.isEmpty()) {
+                    break;
+                }
+                afterId = bookIds.getLast();
+
+                List<RescanItem> changed = readOnlyTransactionTemplate.execute(status -> findChangedFiles(bookIds, force));
+                List<Extracted> extracted = extract(changed != null ? changed : List.of(), executor, taskId);
+                if (!extracted.isEmpty()) {
+                    updatedBooks += applyChunk(extracted, context);
+                }
+                skippedBooks += bookIds.size() - (changed != null ? changed.size() : 0);
+                processedBooks += bookIds.size();
+
+                if (System.currentTimeMillis() - lastProgress >= PROGRESS_INTERVAL_MS) {
+                    sendTaskProgressNotification(taskId, progress(processedBooks, totalBooks),
+                            String.format("Rescanning library: %s (%d/%d books, %d unchanged)", library.getName(), processedBooks, totalBooks, skippedBooks),
+                            TaskStatus.IN_PROGRESS);
+                    lastProgress = System.currentTimeMillis();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("Rescan of library id={} finished: {} book(s) processed, {} updated, {} unchanged", library.getId(), processedBooks, updatedBooks, skippedBooks);
+        sendTaskProgressNotification(taskId, 100,
+                String.format("Rescan completed for library: %s (%d books processed, %d unchanged)", library.getName(), processedBooks, skippedBooks),
+                TaskStatus.COMPLETED);
+    }
 
-        for (BookEntity bookEntity : bookEntities) {
-            if (bookEntity == null || (bookEntity.getDeleted() != null && bookEntity.getDeleted())) {
+    private List<RescanItem> findChangedFiles(List<Long> bookIds, boolean force) {
+        List<RescanItem> changed = new ArrayList<>();
+        for (BookEntity book : bookRepository.findAllWithFilesByIds(bookIds)) {
+            if (Boolean.TRUE.equals(book.getDeleted()) || book.getBookFiles() == null || book.getBookFiles().isEmpty()) {
+                continue;
+            }
+            Path path;
+            try {
+                path = book.getFullFilePath();
+            } catch (IllegalStateException e) {
+                log.warn("Skipping book id={}: {}", book.getId(), e.getMessage());
+                continue;
+            }
+            BookFileEntity primaryFile = book.getPrimaryBookFile();
+            FileStamp stamp = stat(path);
+            if (!force && isUnchanged(primaryFile, stamp)) {
                 continue;
             }
+            changed.add(new RescanItem(book.getId(), primaryFile.getBookType(), path, stamp));
+        }
+        return changed;
+    }
+
+    static boolean isUnchanged(BookFileEntity file, FileStamp stamp) {
+        return stamp != null
+                && file.getRescanFileSize() != null
+                && file.getRescanFileSize() == stamp.size()
+                && file.getRescanModifiedMs() != null
+                && file.getRescanModifiedMs() == stamp.modifiedMs()
+                && Objects.equals(file.getRescanHash(), file.getCurrentHash());
+    }
+
+    private static FileStamp stat(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileStamp(attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            return null;
+        }
+    }
 
-            if (taskId != null && cancellationManager.isTaskCancelled(taskId)) {
-                log.info("Library rescan for library {} was cancelled", library.getId());
-                sendTaskProgressNotification(taskId, (processedBooks * 100) / totalBooks,
-                        String.format("Rescan cancelled for library: %s (%d/%d books processed)", library.getName(), processedBooks, totalBooks),
-                        TaskStatus.CANCELLED);
+    private List<Extracted> extract(List<RescanItem> items, ExecutorService executor, String taskId) {
+        List<Future<Extracted>> futures = items.stream()
+                .map(item -> executor.submit(() -> extract(item, taskId)))
+                .toList();
+        List<Extracted> extracted = new ArrayList<>(items.size());
+        for (Future<Extracted> future : futures) {
+            try {
+                Extracted result = future.get();
+                if (result != null) {
+                    extracted.add(result);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 break;
+            } catch (ExecutionException e) {
+                log.error("Metadata extraction failed: {}", e.getCause().getMessage(), e.getCause());
             }
+        }
+        return extracted;
+    }
 
-            log.info("Processing book: library={}, bookId={}, fileName={}", library.getName(), bookEntity.getId(), bookEntity.getPrimaryBookFile().getFileName());
+    private Extracted extract(RescanItem item, String taskId) {
+        if (isCancelled(taskId)) {
+            return null;
+        }
+        try {
+            BookMetadata metadata = metadataExtractorFactory.extractMetadata(item.bookType(), item.path().toFile());
+            if (metadata == null) {
+                log.warn("No metadata extracted for book id={} path={}", item.bookId(), item.path());
+            }
+            return new Extracted(item, metadata);
+        } catch (Exception e) {
+            log.error("Failed to extract metadata for book id={} path={}: {}", item.bookId(), item.path(), e.getMessage(), e);
+            return null;
+        }
+    }
 
-            int progressPercentage = totalBooks > 0 ? (processedBooks * 100) / totalBooks : 0;
+    /**
+     * Applies a chunk in one transaction. If any book in it fails, the chunk is rolled back and retried one book per
+     * transaction so a single bad file does not discard its neighbours' updates.
+     */
+    private int applyChunk(List<Extracted> extracted, RescanLibraryContext context) {
+        try {
+            Integer updated = transactionTemplate.execute(status -> apply(extracted, context, true));
+            return updated != null ? updated : 0;
+        } catch (Exception e) {
+            log.warn("Rescan chunk failed, retrying {} book(s) one at a time: {}", extracted.size(), e.getMessage());
+        }
+        int updated = 0;
+        for (Extracted single : extracted) {
+            try {
+                Integer result = transactionTemplate.execute(status -> apply(List.of(single), context, false));
+                updated += result != null ? result : 0;
+            } catch (Exception e) {
+                log.error("Failed to update metadata for book id={} path={}: {}", single.item().bookId(), single.item().path(), e.getMessage(), e);
+            }
+        }
+        return updated;
+    }
 
-            sendTaskProgressNotification(taskId, progressPercentage,
-                    String.format("Processing: %s (Library: %s)", bookEntity.getPrimaryBookFile().getFileName(), library.getName()),
-                    TaskStatus.IN_PROGRESS);
+    private int apply(List<Extracted> extracted, RescanLibraryContext context, boolean rethrow) {
+        Set<Long> bookIds = new HashSet<>();
+        extracted.forEach(e -> bookIds.add(e.item().bookId()));
+        Map<Long, BookEntity> books = new HashMap<>();
+        bookRepository.findAllWithMetadataByIds(bookIds).forEach(book -> books.put(book.getId(), book));
 
-            try {
-                BookMetadata bookMetadata = metadataExtractorFactory.extractMetadata(bookEntity.getPrimaryBookFile().getBookType(), bookEntity.getFullFilePath().toFile());
-                if (bookMetadata == null) {
-                    log.warn("No metadata extracted for book id={} path={}", bookEntity.getId(), bookEntity.getFullFilePath());
-                    continue;
-                }
+        int updated = 0;
+        for (Extracted result : extracted) {
+            BookEntity bookEntity = books.get(result.item().bookId());
+            if (bookEntity == null) {
+                continue;
+            }
+            BookFileEntity primaryFile = bookEntity.getPrimaryBookFile();
+            String hashBefore = primaryFile.getCurrentHash();
+            if (result.metadata() != null) {
                 MetadataUpdateContext metadataUpdateContext = MetadataUpdateContext.builder()
                         .bookEntity(bookEntity)
                         .metadataUpdateWrapper(
                                 MetadataUpdateWrapper.builder()
-                                        .metadata(bookMetadata)
+                                        .metadata(result.metadata())
                                         .build()
                         )
                         .replaceMode(context.getOptions().getMetadataReplaceMode())
@@ -98,19 +269,42 @@ public class LibraryRescanHelper {
                         .mergeMoods(true)
                         .mergeTags(true)
                         .build();
-                bookMetadataUpdater.setBookMetadata(metadataUpdateContext);
-            } catch (Exception e) {
-                log.error("Failed to update metadata for book id={} path={}: {}", bookEntity.getId(), bookEntity.getFullFilePath(), e.getMessage(), e);
-            } finally {
-                processedBooks++;
+                try {
+                    bookMetadataUpdater.setBookMetadata(metadataUpdateContext);
+                    updated++;
+                } catch (RuntimeException e) {
+                    if (rethrow) {
+                        throw e;
+                    }
+                    log.error("Failed to update metadata for book id={} path={}: {}", bookEntity.getId(), result.item().path(), e.getMessage(), e);
+                    continue;
+                }
             }
+            recordRescan(primaryFile, result.item(), hashBefore);
         }
+        return updated;
+    }
 
-        if (taskId == null || !cancellationManager.isTaskCancelled(taskId)) {
-            sendTaskProgressNotification(taskId, 100,
-                    String.format("Rescan completed for library: %s (%d books processed)", library.getName(), processedBooks),
-                    TaskStatus.COMPLETED);
+    /**
+     * If the update rewrote the file (its hash changed), the stamp taken before extraction is stale, so the file is
+     * stat-ed again; otherwise the earlier stamp is kept, so an edit made while the file was parsed is still noticed.
+     */
+    private static void recordRescan(BookFileEntity primaryFile, RescanItem item, String hashBefore) {
+        FileStamp stamp = Objects.equals(hashBefore, primaryFile.getCurrentHash()) ? item.stamp() : stat(item.path());
+        if (stamp == null) {
+            return;
         }
+        primaryFile.setRescanFileSize(stamp.size());
+        primaryFile.setRescanModifiedMs(stamp.modifiedMs());
+        primaryFile.setRescanHash(primaryFile.getCurrentHash());
+    }
+
+    private boolean isCancelled(String taskId) {
+        return taskId != null && cancellationManager.isTaskCancelled(taskId);
+    }
+
+    private static int progress(long processed, long total) {
+        return total > 0 ? (int) Math.min(100, (processed * 100) / total) : 0;
     }
 
     private void sendTaskProgressNotification(String taskId, int progress, String message, TaskStatus taskStatus) {
@@ -128,4 +322,4 @@ public class LibraryRescanHelper {
             log.error("Failed to send task progress notification for taskId={}: {}", taskId, e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
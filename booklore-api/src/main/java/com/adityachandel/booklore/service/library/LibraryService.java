@@ -14,6 +14,7 @@ import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
 import com.adityachandel.booklore.model.entity.LibraryPathEntity;
 import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.model.enums.LibraryMonitorMode;
 import com.adityachandel.booklore.model.enums.LibraryScanMode;
 import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookRepository;
@@ -22,6 +23,7 @@ import com.adityachandel.booklore.repository.LibraryRepository;
 import com.adityachandel.booklore.repository.UserRepository;
 import com.adityachandel.booklore.service.NotificationService;
 import com.adityachandel.booklore.service.monitoring.MonitoringService;
+import com.adityachandel.booklore.service.user.UserAccessIndex;
 import com.adityachandel.booklore.task.options.RescanLibraryContext;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.SecurityContextVirtualThread;
@@ -60,6 +62,7 @@ public class LibraryService {
     private final MonitoringService monitoringService;
     private final AuthenticationService authenticationService;
     private final UserRepository userRepository;
+    private final UserAccessIndex userAccessIndex;
 
     @Transactional
     @PostConstruct
@@ -77,6 +80,9 @@ public class LibraryService {
         library.setIcon(request.getIcon());
         library.setIconType(request.getIconType());
         library.setWatch(request.isWatch());
+        if (request.getMonitorMode() != null) {
+            library.setMonitorMode(request.getMonitorMode());
+        }
         if (request.getScanMode() != null) {
             library.setScanMode(request.getScanMode());
         }
@@ -159,15 +165,19 @@ public class LibraryService {
                 .icon(request.getIcon())
                 .iconType(request.getIconType())
                 .watch(request.isWatch())
+                .monitorMode(request.getMonitorMode() != null ? request.getMonitorMode() : LibraryMonitorMode.WATCH)
                 .scanMode(request.getScanMode() != null ? request.getScanMode() : LibraryScanMode.FILE_AS_BOOK)
                 .defaultBookFormat(request.getDefaultBookFormat())
                 .users(List.of(user.get()))
                 .build();
 
         libraryEntity = libraryRepository.save(libraryEntity);
+        userAccessIndex.invalidate();
         Long libraryId = libraryEntity.getId();
 
-        if (request.isWatch()) {
+        if (request.isWatch() && libraryEntity.getMonitorMode() == LibraryMonitorMode.POLL) {
+            monitoringService.registerLibrary(libraryMapper.toLibrary(libraryEntity));
+        } else if (request.isWatch()) {
             for (LibraryPathEntity pathEntity : libraryEntity.getLibraryPaths()) {
                 Path path = Paths.get(pathEntity.getPath());
                 monitoringService.registerPath(path, libraryId);
@@ -236,6 +246,7 @@ public class LibraryService {
         Set<Long> bookIds = library.getBookEntities().stream().map(BookEntity::getId).collect(Collectors.toSet());
         fileService.deleteBookCovers(bookIds);
         libraryRepository.deleteById(id);
+        userAccessIndex.invalidate();
         log.info("Library deleted successfully: {}", id);
     }
 
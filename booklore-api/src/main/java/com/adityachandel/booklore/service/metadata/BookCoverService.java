@@ -5,23 +5,27 @@ import com.adityachandel.booklore.model.dto.settings.MetadataPersistenceSettings
 import com.adityachandel.booklore.model.entity.AuthorEntity;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.model.enums.TaskType;
 import com.adityachandel.booklore.model.websocket.LogNotification;
+import com.adityachandel.booklore.model.websocket.TaskProgressPayload;
 import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.projection.BookCoverUpdateProjection;
 import com.adityachandel.booklore.service.NotificationService;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
-import com.adityachandel.booklore.service.book.BookQueryService;
 import com.adityachandel.booklore.service.file.FileFingerprint;
 import com.adityachandel.booklore.service.fileprocessor.BookFileProcessor;
 import com.adityachandel.booklore.service.fileprocessor.BookFileProcessorRegistry;
 import com.adityachandel.booklore.service.metadata.writer.MetadataWriter;
 import com.adityachandel.booklore.service.metadata.writer.MetadataWriterFactory;
+import com.adityachandel.booklore.task.TaskCancellationManager;
+import com.adityachandel.booklore.task.TaskStatus;
 import com.adityachandel.booklore.util.BookCoverUtils;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.SecurityContextVirtualThread;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -31,6 +35,13 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
@@ -39,23 +50,24 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class BookCoverService {
 
-    private static final int BATCH_SIZE = 100;
+    private static final int CHUNK_SIZE = 25;
+    private static final int MAX_WORKERS = 4;
+    private static final long WORKER_HEAP_BYTES = 256L * 1024 * 1024;
+    private static final long PROGRESS_INTERVAL_MS = 1000;
 
     private final BookRepository bookRepository;
     private final NotificationService notificationService;
     private final AppSettingService appSettingService;
     private final FileService fileService;
     private final BookFileProcessorRegistry processorRegistry;
-    private final BookQueryService bookQueryService;
     private final CoverImageGenerator coverImageGenerator;
     private final MetadataWriterFactory metadataWriterFactory;
     private final TransactionTemplate transactionTemplate;
+    private final TaskCancellationManager cancellationManager;
 
-    private record BookCoverInfo(Long id, String title) {
-    }
-
-    private record BookRegenerationInfo(Long id, String title, BookFileType bookType, boolean coverLocked) {
-    }
+    // Shared by every bulk job so concurrent selections queue for the same MAX_WORKERS image slots and pooled
+    // connections instead of each job adding its own.
+    private final Semaphore workerPermits = new Semaphore(MAX_WORKERS, true);
 
     // =========================
     // SECTION: COVER UPDATES
@@ -124,8 +136,12 @@ public class BookCoverService {
     public void updateCoverFromFileForBooks(Set<Long> bookIds, MultipartFile file) {
         validateCoverFile(file);
         byte[] coverImageBytes = extractBytesFromMultipartFile(file);
-        List<BookCoverInfo> unlockedBooks = getUnlockedBookCoverInfos(bookIds);
-        SecurityContextVirtualThread.runWithSecurityContext(() -> processBulkCoverUpdate(unlockedBooks, coverImageBytes));
+        BulkCoverJob job = new BulkCoverJob("updating covers", selectedBooks(bookIds), bookIds.size(), book -> {
+            fileService.createThumbnailFromBytes(book.getId(), coverImageBytes);
+            writeCoverToBookFile(book, (writer, b) -> writer.replaceCoverImageFromBytes(b, coverImageBytes));
+            return true;
+        });
+        SecurityContextVirtualThread.runWithSecurityContext(() -> runBulkCoverJob(job, null));
     }
 
     // =========================
@@ -150,198 +166,259 @@ public class BookCoverService {
     }
 
     /**
-     * Regenerate covers for a set of books.
+     * Regenerate covers from the book files, for the given books or for every unlocked book when {@code bookIds} is null.
+     * Runs on the calling thread until done or until {@code taskId} is cancelled.
      */
-    public void regenerateCoversForBooks(Set<Long> bookIds) {
-        List<BookRegenerationInfo> unlockedBooks = getUnlockedBookRegenerationInfos(bookIds);
-        SecurityContextVirtualThread.runWithSecurityContext(() -> processBulkCoverRegeneration(unlockedBooks));
+    public void regenerateCovers(Set<Long> bookIds, String taskId) {
+        BulkCoverJob job = new BulkCoverJob("regenerating covers", cursorFor(bookIds), totalFor(bookIds), book ->
+                processorRegistry.getProcessorOrThrow(book.getPrimaryBookFile().getBookType()).generateCover(book));
+        runBulkCoverJob(job, taskId);
     }
 
     /**
-     * Generate custom covers for a set of books.
+     * Generate custom covers, for the given books or for every unlocked book when {@code bookIds} is null.
+     * Runs on the calling thread until done or until {@code taskId} is cancelled.
      */
-    public void generateCustomCoversForBooks(Set<Long> bookIds) {
-        List<BookCoverInfo> unlockedBooks = getUnlockedBookCoverInfos(bookIds);
-        SecurityContextVirtualThread.runWithSecurityContext(() -> processBulkCustomCoverGeneration(unlockedBooks));
-    }
-
-    /**
-     * Regenerate covers for all books.
-     */
-    public void regenerateCovers() {
-        SecurityContextVirtualThread.runWithSecurityContext(() -> {
-            try {
-                List<BookRegenerationInfo> books = bookQueryService.getAllFullBookEntities().stream()
-                        .filter(book -> !isCoverLocked(book))
-                        .map(book -> new BookRegenerationInfo(book.getId(), book.getMetadata().getTitle(), book.getPrimaryBookFile().getBookType(), false))
-                        .toList();
-                int total = books.size();
-                notificationService.sendMessage(Topic.LOG, LogNotification.info("Started regenerating covers for " + total + " books"));
-
-                int current = 1;
-                List<Long> refreshedIds = new ArrayList<>();
-
-                for (BookRegenerationInfo bookInfo : books) {
-                    try {
-                        String progress = "(" + current + "/" + total + ") ";
-                        notificationService.sendMessage(Topic.LOG, LogNotification.info(progress + "Regenerating cover for: " + bookInfo.title()));
-
-                        transactionTemplate.execute(status -> {
-                            bookRepository.findById(bookInfo.id()).ifPresent(book -> {
-                                BookFileProcessor processor = processorRegistry.getProcessorOrThrow(book.getPrimaryBookFile().getBookType());
-                                boolean success = processor.generateCover(book);
-
-                                if (success) {
-                                    updateBookCoverMetadata(book);
-                                    bookRepository.save(book);
-                                    refreshedIds.add(book.getId());
-                                    log.info("{}Successfully regenerated cover for book ID {} ({})", progress, book.getId(), bookInfo.title());
-                                } else {
-                                    log.warn("{}Failed to regenerate cover for book ID {} ({})", progress, book.getId(), bookInfo.title());
-                                }
-                            });
-                            return null;
-                        });
-                    } catch (Exception e) {
-                        log.error("Failed to regenerate cover for book ID {}: {}", bookInfo.id(), e.getMessage(), e);
-                    }
-                    current++;
-                }
-
-                notifyBulkCoverUpdate(refreshedIds);
-                notificationService.sendMessage(Topic.LOG, LogNotification.info("Finished regenerating covers"));
-            } catch (Exception e) {
-                log.error("Error during cover regeneration: {}", e.getMessage(), e);
-                notificationService.sendMessage(Topic.LOG, LogNotification.error("Error occurred during cover regeneration"));
-            }
+    public void generateCustomCovers(Set<Long> bookIds, String taskId) {
+        BulkCoverJob job = new BulkCoverJob("generating custom covers", cursorFor(bookIds), totalFor(bookIds), book -> {
+            byte[] coverBytes = coverImageGenerator.generateCover(book.getMetadata().getTitle(), getAuthorNames(book));
+            fileService.createThumbnailFromBytes(book.getId(), coverBytes);
+            writeCoverToBookFile(book, (writer, b) -> writer.replaceCoverImageFromBytes(b, coverBytes));
+            return true;
         });
+        runBulkCoverJob(job, taskId);
     }
 
     // =========================
     // SECTION: BULK OPERATIONS
     // =========================
 
-    private void processBulkCoverUpdate(List<BookCoverInfo> books, byte[] coverImageBytes) {
-        try {
-            int total = books.size();
-            notificationService.sendMessage(Topic.LOG, LogNotification.info("Started updating covers for " + total + " selected book(s)"));
+    /**
+     * Replaces the cover of one book; returns whether a new cover was written.
+     */
+    @FunctionalInterface
+    private interface CoverAction {
+        boolean apply(BookEntity book);
+    }
 
-            int current = 1;
-            List<Long> refreshedIds = new ArrayList<>();
+    /**
+     * Yields book IDs in ascending pages of at most {@link #CHUNK_SIZE}; an empty page means done.
+     */
+    @FunctionalInterface
+    private interface BookIdCursor {
+        List<Long> next();
+    }
 
-            for (BookCoverInfo bookInfo : books) {
-                try {
-                    String progress = "(" + current + "/" + total + ") ";
-                    notificationService.sendMessage(Topic.LOG, LogNotification.info(progress + "Updating cover for: " + bookInfo.title()));
+    private record BulkCoverJob(String description, BookIdCursor cursor, long total, CoverAction action) {
+    }
 
-                    transactionTemplate.execute(status -> {
-                        bookRepository.findById(bookInfo.id()).ifPresent(book -> {
-                            fileService.createThumbnailFromBytes(bookInfo.id(), coverImageBytes);
-                            writeCoverToBookFile(book, (writer, b) -> writer.replaceCoverImageFromBytes(b, coverImageBytes));
-                            updateBookCoverMetadata(book);
-                            bookRepository.save(book);
-                            refreshedIds.add(book.getId());
-                        });
-                        return null;
-                    });
+    /**
+     * Pages book IDs to a small pool of image workers. Each worker handles one page in a single transaction and saves
+     * its changed books together, while the caller keeps at most two pages per worker queued so memory stays flat no
+     * matter how large the library is. Pages of concurrent jobs take turns on the shared {@link #workerPermits}.
+     */
+    private void runBulkCoverJob(BulkCoverJob job, String taskId) {
+        BulkCoverProgress progress = new BulkCoverProgress(job, taskId);
+        try {
+            int workers = workerCount(job.total());
+            log.info("Started {} for {} book(s) using {} worker(s)", job.description(), job.total(), workers);
+            notificationService.sendMessage(Topic.LOG, LogNotification.info("Started " + job.description() + " for " + job.total() + " book(s)"));
 
-                    log.info("{}Successfully updated cover for book ID {} ({})", progress, bookInfo.id(), bookInfo.title());
-                } catch (Exception e) {
-                    log.error("Failed to update cover for book ID {}: {}", bookInfo.id(), e.getMessage(), e);
+            if (workers == 1) {
+                for (List<Long> ids = job.cursor().next(); !ids.isEmpty() && !progress.isCancelled(); ids = job.cursor().next()) {
+                    processChunk(ids, job, progress);
+                }
+            } else {
+                Semaphore queuedChunks = new Semaphore(workers * 2);
+                try (ExecutorService executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("cover-worker-", 0).daemon().factory())) {
+                    for (List<Long> ids = job.cursor().next(); !ids.isEmpty() && !progress.isCancelled(); ids = job.cursor().next()) {
+                        queuedChunks.acquire();
+                        List<Long> chunk = ids;
+                        executor.execute(() -> {
+                            try {
+                                processChunk(chunk, job, progress);
+                            } finally {
+                                queuedChunks.release();
+                            }
+                        });
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Interrupted while {}", job.description());
                 }
-                current++;
             }
-
-            notifyBulkCoverUpdate(refreshedIds);
-            notificationService.sendMessage(Topic.LOG, LogNotification.info("Finished updating covers for selected books"));
+            progress.finish();
         } catch (Exception e) {
-            log.error("Error during cover update: {}", e.getMessage(), e);
-            notificationService.sendMessage(Topic.LOG, LogNotification.error("Error occurred during cover update"));
+            log.error("Error during {}: {}", job.description(), e.getMessage(), e);
+            notificationService.sendMessage(Topic.LOG, LogNotification.error("Error occurred during " + job.description()));
         }
     }
 
-    private void processBulkCoverRegeneration(List<BookRegenerationInfo> books) {
+    private void processChunk(List<Long> bookIds, BulkCoverJob job, BulkCoverProgress progress) {
+        workerPermits.acquireUninterruptibly();
         try {
-            int total = books.size();
-            notificationService.sendMessage(Topic.LOG, LogNotification.info("Started regenerating covers for " + total + " selected book(s)"));
-
-            int current = 1;
-            List<Long> refreshedIds = new ArrayList<>();
-
-            for (BookRegenerationInfo bookInfo : books) {
-                try {
-                    String progress = "(" + current + "/" + total + ") ";
-                    notificationService.sendMessage(Topic.LOG, LogNotification.info(progress + "Regenerating cover for: " + bookInfo.title()));
-
-                    transactionTemplate.execute(status -> {
-                        bookRepository.findById(bookInfo.id()).ifPresent(book -> {
-                            BookFileProcessor processor = processorRegistry.getProcessorOrThrow(bookInfo.bookType());
-                            boolean success = processor.generateCover(book);
-
-                            if (success) {
-                                updateBookCoverMetadata(book);
-                                bookRepository.save(book);
-                                refreshedIds.add(book.getId());
-                            }
-                        });
-                        return null;
-                    });
+            updateChunk(bookIds, job, progress);
+        } finally {
+            workerPermits.release();
+        }
+    }
 
-                    log.info("{}Successfully regenerated cover for book ID {} ({})", progress, bookInfo.id(), bookInfo.title());
-                } catch (Exception e) {
-                    log.error("Failed to regenerate cover for book ID {}: {}", bookInfo.id(), e.getMessage(), e);
+    private void updateChunk(List<Long> bookIds, BulkCoverJob job, BulkCoverProgress progress) {
+        List<Long> updatedIds = new ArrayList<>();
+        int failed;
+        try {
+            Integer chunkFailed = transactionTemplate.execute(status -> {
+                List<BookEntity> updated = new ArrayList<>();
+                int chunkFailures = 0;
+                for (BookEntity book : bookRepository.findAllForCoverUpdateByIds(bookIds)) {
+                    if (progress.isCancelled()) {
+                        break;
+                    }
+                    if (isCoverLocked(book)) {
+                        continue;
+                    }
+                    try {
+                        if (job.action().apply(book)) {
+                            updateBookCoverMetadata(book);
+                            updated.add(book);
+                        } else {
+                            chunkFailures++;
+                            log.warn("Failed {} for book ID {}", job.description(), book.getId());
+                        }
+                    } catch (Exception e) {
+                        chunkFailures++;
+                        log.error("Failed {} for book ID {}: {}", job.description(), book.getId(), e.getMessage(), e);
+                    }
                 }
-                current++;
-            }
-
-            notifyBulkCoverUpdate(refreshedIds);
-            notificationService.sendMessage(Topic.LOG, LogNotification.info("Finished regenerating covers for selected books"));
+                bookRepository.saveAll(updated);
+                updated.forEach(book -> updatedIds.add(book.getId()));
+                return chunkFailures;
+            });
+            failed = chunkFailed != null ? chunkFailed : 0;
         } catch (Exception e) {
-            log.error("Error during cover regeneration: {}", e.getMessage(), e);
-            notificationService.sendMessage(Topic.LOG, LogNotification.error("Error occurred during cover regeneration"));
+            log.error("Failed to save covers for book IDs {}: {}", bookIds, e.getMessage(), e);
+            updatedIds.clear();
+            failed = bookIds.size();
         }
+        progress.chunkDone(bookIds.size(), updatedIds, failed);
     }
 
-    private void processBulkCustomCoverGeneration(List<BookCoverInfo> books) {
-        try {
-            int total = books.size();
-            notificationService.sendMessage(Topic.LOG, LogNotification.info("Started generating custom covers for " + total + " selected book(s)"));
+    private BookIdCursor cursorFor(Set<Long> bookIds) {
+        return bookIds == null ? allUnlockedBooks() : selectedBooks(bookIds);
+    }
 
-            int current = 1;
-            List<Long> refreshedIds = new ArrayList<>();
+    private long totalFor(Set<Long> bookIds) {
+        return bookIds == null ? bookRepository.countCoverUnlockedBooks() : bookIds.size();
+    }
 
-            for (BookCoverInfo bookInfo : books) {
-                try {
-                    String progress = "(" + current + "/" + total + ") ";
-                    notificationService.sendMessage(Topic.LOG, LogNotification.info(progress + "Generating custom cover for: " + bookInfo.title()));
+    private BookIdCursor allUnlockedBooks() {
+        AtomicLong lastId = new AtomicLong();
+        return () -> {
+            List<Long> ids = bookRepository.findCoverUnlockedBookIdsAfter(lastId.get(), PageRequest.of(0, CHUNK_SIZE));
+            if (!ids.isEmpty()) {
+                lastId.set(ids.getLast());
+            }
+            return ids;
+        };
+    }
 
-                    transactionTemplate.execute(status -> {
-                        bookRepository.findById(bookInfo.id()).ifPresent(book -> {
-                            String title = book.getMetadata().getTitle();
-                            String author = getAuthorNames(book);
-                            byte[] coverBytes = coverImageGenerator.generateCover(title, author);
+    private BookIdCursor selectedBooks(Set<Long> bookIds) {
+        List<Long> sorted = bookIds.stream().sorted().toList();
+        AtomicInteger offset = new AtomicInteger();
+        return () -> {
+            int from = offset.get();
+            int to = Math.min(sorted.size(), from + CHUNK_SIZE);
+            offset.set(to);
+            return sorted.subList(from, to);
+        };
+    }
 
-                            fileService.createThumbnailFromBytes(book.getId(), coverBytes);
-                            writeCoverToBookFile(book, (writer, b) -> writer.replaceCoverImageFromBytes(b, coverBytes));
-                            updateBookCoverMetadata(book);
-                            bookRepository.save(book);
-                            refreshedIds.add(book.getId());
-                        });
-                        return null;
-                    });
+    /**
+     * One worker per core, fewer when the heap cannot hold a decoded full-size cover per worker, and never more than
+     * {@link #MAX_WORKERS} since each worker holds a pooled connection while it works through its page.
+     */
+    static int workerCount(long totalBooks) {
+        int byCores = Runtime.getRuntime().availableProcessors();
+        long byHeap = Runtime.getRuntime().maxMemory() / WORKER_HEAP_BYTES;
+        long byWork = Math.ceilDiv(totalBooks, CHUNK_SIZE);
+        return (int) Math.max(1, Math.min(Math.min(byCores, MAX_WORKERS), Math.min(byHeap, byWork)));
+    }
 
-                    log.info("{}Successfully generated custom cover for book ID {} ({})", progress, bookInfo.id(), bookInfo.title());
-                } catch (Exception e) {
-                    log.error("Failed to generate custom cover for book ID {}: {}", bookInfo.id(), e.getMessage(), e);
-                }
-                current++;
+    /**
+     * Counts finished pages and reports at most once per {@link #PROGRESS_INTERVAL_MS}: one task progress message and
+     * one cover update message carrying every cover changed since the previous report.
+     */
+    private final class BulkCoverProgress {
+        private final BulkCoverJob job;
+        private final String taskId;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger updated = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final ConcurrentLinkedQueue<Long> unannouncedIds = new ConcurrentLinkedQueue<>();
+        private final AtomicLong lastReportNanos = new AtomicLong(System.nanoTime());
+
+        private BulkCoverProgress(BulkCoverJob job, String taskId) {
+            this.job = job;
+            this.taskId = taskId;
+        }
+
+        boolean isCancelled() {
+            return taskId != null && cancellationManager.isTaskCancelled(taskId);
+        }
+
+        void chunkDone(int chunkSize, List<Long> updatedIds, int failedCount) {
+            processed.addAndGet(chunkSize);
+            updated.addAndGet(updatedIds.size());
+            failed.addAndGet(failedCount);
+            unannouncedIds.addAll(updatedIds);
+
+            long last = lastReportNanos.get();
+            long now = System.nanoTime();
+            if (now - last >= TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MS) && lastReportNanos.compareAndSet(last, now)) {
+                announceUpdatedCovers();
+                sendTaskProgress(String.format("%s: %d of %d books processed", capitalize(job.description()), processed.get(), job.total()), TaskStatus.IN_PROGRESS);
             }
+        }
 
-            notifyBulkCoverUpdate(refreshedIds);
-            notificationService.sendMessage(Topic.LOG, LogNotification.info("Finished generating custom covers for selected books"));
-        } catch (Exception e) {
-            log.error("Error during custom cover generation: {}", e.getMessage(), e);
-            notificationService.sendMessage(Topic.LOG, LogNotification.error("Error occurred during custom cover generation"));
+        void finish() {
+            announceUpdatedCovers();
+            String summary = String.format("%d updated, %d failed", updated.get(), failed.get());
+            if (isCancelled()) {
+                log.info("Cancelled {} after {} of {} book(s) ({})", job.description(), processed.get(), job.total(), summary);
+                sendTaskProgress("Cancelled " + job.description() + " (" + summary + ")", TaskStatus.CANCELLED);
+                notificationService.sendMessage(Topic.LOG, LogNotification.warn("Cancelled " + job.description() + " (" + summary + ")"));
+                return;
+            }
+            log.info("Finished {} for {} book(s) ({})", job.description(), processed.get(), summary);
+            sendTaskProgress("Finished " + job.description() + " (" + summary + ")", TaskStatus.COMPLETED);
+            notificationService.sendMessage(Topic.LOG, LogNotification.info("Finished " + job.description() + " (" + summary + ")"));
+        }
+
+        private synchronized void announceUpdatedCovers() {
+            List<Long> ids = new ArrayList<>();
+            Long id;
+            while ((id = unannouncedIds.poll()) != null) {
+                ids.add(id);
+            }
+            notifyBulkCoverUpdate(ids);
+        }
+
+        private void sendTaskProgress(String message, TaskStatus status) {
+            if (taskId == null) {
+                return;
+            }
+            int percent = job.total() == 0 ? 100 : (int) Math.min(100, processed.get() * 100L / job.total());
+            notificationService.sendMessage(Topic.TASK_PROGRESS, TaskProgressPayload.builder()
+                    .taskId(taskId)
+                    .taskType(TaskType.REGENERATE_COVERS)
+                    .message(message)
+                    .progress(status == TaskStatus.COMPLETED ? 100 : percent)
+                    .taskStatus(status)
+                    .build());
+        }
+
+        private static String capitalize(String text) {
+            return Character.toUpperCase(text.charAt(0)) + text.substring(1);
         }
     }
 
@@ -372,20 +449,6 @@ public class BookCoverService {
         }
     }
 
-    private List<BookCoverInfo> getUnlockedBookCoverInfos(Set<Long> bookIds) {
-        return bookQueryService.findAllWithMetadataByIds(bookIds).stream()
-                .filter(book -> !isCoverLocked(book))
-                .map(book -> new BookCoverInfo(book.getId(), book.getMetadata().getTitle()))
-                .toList();
-    }
-
-    private List<BookRegenerationInfo> getUnlockedBookRegenerationInfos(Set<Long> bookIds) {
-        return bookQueryService.findAllWithMetadataByIds(bookIds).stream()
-                .filter(book -> !isCoverLocked(book))
-                .map(book -> new BookRegenerationInfo(book.getId(), book.getMetadata().getTitle(), book.getPrimaryBookFile().getBookType(), false))
-                .toList();
-    }
-
     private boolean isCoverLocked(BookEntity book) {
         return book.getMetadata().getCoverLocked() != null && book.getMetadata().getCoverLocked();
     }
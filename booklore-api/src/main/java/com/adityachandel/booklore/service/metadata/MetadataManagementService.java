@@ -1,48 +1,51 @@
 package com.adityachandel.booklore.service.metadata;
 
-import com.adityachandel.booklore.model.dto.FileMoveResult;
 import com.adityachandel.booklore.model.dto.settings.MetadataPersistenceSettings;
 import com.adityachandel.booklore.model.entity.*;
-import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.model.enums.MergeMetadataType;
 import com.adityachandel.booklore.repository.*;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
-import com.adityachandel.booklore.service.file.FileFingerprint;
-import com.adityachandel.booklore.service.file.FileMoveService;
-import com.adityachandel.booklore.service.metadata.writer.MetadataWriter;
-import com.adityachandel.booklore.service.metadata.writer.MetadataWriterFactory;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.File;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
 
+/**
+ * Merges and deletes metadata values across the whole library. Authors, categories, moods and tags are rewritten with
+ * set-based statements on their join tables, {@link #MAPPING_CHUNK_SIZE} books at a time, so the cost does not depend
+ * on loading every affected book. Each operation returns the ids of the books it changed.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MetadataManagementService {
 
+    static final int MAPPING_CHUNK_SIZE = 1000;
+    static final int SEARCH_TEXT_CHUNK_SIZE = 500;
+
     private final AuthorRepository authorRepository;
     private final CategoryRepository categoryRepository;
     private final MoodRepository moodRepository;
     private final TagRepository tagRepository;
     private final BookMetadataRepository bookMetadataRepository;
-    private final AppSettingService appSettingService;
-    private final MetadataWriterFactory metadataWriterFactory;
-    private final FileMoveService fileMoveService;
     private final BookRepository bookRepository;
+    private final AppSettingService appSettingService;
+    private final MetadataWriteBackService metadataWriteBackService;
+    private final EntityManager entityManager;
 
 
     @Transactional
-    public void consolidateMetadata(MergeMetadataType metadataType, List<String> targetValues, List<String> valuesToMerge) {
+    public Set<Long> consolidateMetadata(MergeMetadataType metadataType, List<String> targetValues, List<String> valuesToMerge) {
 
         MetadataPersistenceSettings settings = appSettingService.getAppSettings().getMetadataPersistenceSettings();
         boolean moveFile = settings.isMoveFilesToLibraryPattern();
 
-        switch (metadataType) {
+        return switch (metadataType) {
             case authors -> consolidateAuthors(targetValues, valuesToMerge, moveFile);
             case categories -> consolidateCategories(targetValues, valuesToMerge, moveFile);
             case moods -> consolidateMoods(targetValues, valuesToMerge, moveFile);
@@ -50,43 +53,77 @@ public class MetadataManagementService {
             case series -> consolidateSeries(targetValues, valuesToMerge, moveFile);
             case publishers -> consolidatePublishers(targetValues, valuesToMerge, moveFile);
             case languages -> consolidateLanguages(targetValues, valuesToMerge, moveFile);
-        }
+        };
     }
 
-    private void writeMetadataToFile(List<BookMetadataEntity> metadataList, boolean moveFile) {
+    private void writeMetadataToFile(Collection<Long> bookIds, boolean moveFile) {
+        metadataWriteBackService.enqueue(bookIds, moveFile);
+    }
+
+    private static Set<Long> bookIds(List<BookMetadataEntity> metadataList) {
+        Set<Long> bookIds = new LinkedHashSet<>();
         for (BookMetadataEntity metadata : metadataList) {
             if (metadata.getBook() != null) {
-                BookEntity book = metadata.getBook();
-                boolean bookModified = false;
-
-                var primaryFile = book.getPrimaryBookFile();
-                BookFileType bookType = primaryFile.getBookType();
-                Optional<MetadataWriter> writerOpt = metadataWriterFactory.getWriter(bookType);
-                if (writerOpt.isPresent()) {
-                    File file = book.getFullFilePath().toFile();
-                    writerOpt.get().saveMetadataToFile(file, metadata, null, null);
-                    String newHash = FileFingerprint.generateHash(book.getFullFilePath());
-                    primaryFile.setCurrentHash(newHash);
-                    bookModified = true;
-                }
+                bookIds.add(metadata.getBook().getId());
+            }
+        }
+        return bookIds;
+    }
 
-                if (moveFile) {
-                    FileMoveResult result = fileMoveService.moveSingleFile(book);
-                    if (result.isMoved()) {
-                        primaryFile.setFileName(result.getNewFileName());
-                        primaryFile.setFileSubPath(result.getNewFileSubPath());
-                        bookModified = true;
-                    }
-                }
+    private static <T> Set<Long> ids(List<T> entities, Function<T, Long> id) {
+        Set<Long> ids = new LinkedHashSet<>();
+        entities.forEach(entity -> ids.add(id.apply(entity)));
+        return ids;
+    }
 
-                if (bookModified) {
-                    bookRepository.saveAndFlush(book);
+    /**
+     * Moves every book mapped to one of {@code sourceIds} onto all of {@code targetIds} (or just unmaps it when there
+     * are no targets), one range of book ids at a time, and returns the books that were changed.
+     */
+    private Set<Long> remapBooks(MetadataValueMappingRepository mappings, Set<Long> sourceIds, Set<Long> targetIds) {
+        Set<Long> bookIds = new LinkedHashSet<>();
+        if (sourceIds.isEmpty()) {
+            return bookIds;
+        }
+        long afterBookId = 0;
+        while (true) {
+            List<Long> chunk = mappings.findMappedBookIdsAfter(sourceIds, afterBookId, PageRequest.of(0, MAPPING_CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            long fromBookId = chunk.getFirst();
+            long toBookId = chunk.getLast();
+            if (!targetIds.isEmpty()) {
+                mappings.copyMappings(sourceIds, targetIds, fromBookId, toBookId);
+            }
+            mappings.deleteMappings(sourceIds, fromBookId, toBookId);
+            bookIds.addAll(chunk);
+            afterBookId = toBookId;
+        }
+        return bookIds;
+    }
+
+    /**
+     * The search text includes author names, so it is rebuilt after authors change. The join tables were changed
+     * behind Hibernate's back, so each chunk is loaded fresh and detached again once written.
+     */
+    private void refreshSearchText(Set<Long> bookIds) {
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> ids = new ArrayList<>(bookIds);
+        for (int from = 0; from < ids.size(); from += SEARCH_TEXT_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + SEARCH_TEXT_CHUNK_SIZE, ids.size()));
+            for (BookEntity book : bookRepository.findBooksWithMetadataAndAuthors(chunk)) {
+                if (book.getMetadata() != null) {
+                    book.getMetadata().updateSearchText();
                 }
             }
+            entityManager.flush();
+            entityManager.clear();
         }
     }
 
-    private void consolidateAuthors(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
+    private Set<Long> consolidateAuthors(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
         List<AuthorEntity> targetAuthors = targetValues.stream()
                 .map(name -> authorRepository.findByNameIgnoreCase(name)
                         .map(existing -> {
@@ -99,32 +136,26 @@ public class MetadataManagementService {
                             return authorRepository.save(author);
                         }))
                 .toList();
+        Set<Long> targetIds = ids(targetAuthors, AuthorEntity::getId);
 
         List<AuthorEntity> authorsToMerge = valuesToMerge.stream()
                 .map(authorRepository::findByNameIgnoreCase)
                 .filter(java.util.Optional::isPresent)
                 .map(java.util.Optional::get)
+                .filter(author -> !targetIds.contains(author.getId()))
                 .toList();
+        Set<Long> mergeIds = ids(authorsToMerge, AuthorEntity::getId);
 
-        for (AuthorEntity oldAuthor : authorsToMerge) {
-            List<BookMetadataEntity> booksWithOldAuthor = bookMetadataRepository.findAllByAuthorsContaining(oldAuthor);
+        Set<Long> bookIds = remapBooks(authorRepository, mergeIds, targetIds);
+        refreshSearchText(bookIds);
+        authorRepository.deleteAllByIdInBatch(mergeIds);
+        writeMetadataToFile(bookIds, moveFile);
 
-            for (BookMetadataEntity metadata : booksWithOldAuthor) {
-                metadata.getAuthors().remove(oldAuthor);
-                metadata.getAuthors().addAll(targetAuthors);
-                metadata.updateSearchText();
-            }
-
-            bookMetadataRepository.saveAll(booksWithOldAuthor);
-            bookMetadataRepository.flush();
-            writeMetadataToFile(booksWithOldAuthor, moveFile);
-            authorRepository.delete(oldAuthor);
-        }
-
-        log.info("Consolidated {} authors into {}: {}", authorsToMerge.size(), targetValues, valuesToMerge);
+        log.info("Consolidated {} authors into {} across {} books: {}", authorsToMerge.size(), targetValues, bookIds.size(), valuesToMerge);
+        return bookIds;
     }
 
-    private void consolidateCategories(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
+    private Set<Long> consolidateCategories(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
         List<CategoryEntity> targetCategories = targetValues.stream()
                 .map(name -> categoryRepository.findByNameIgnoreCase(name)
                         .map(existing -> {
@@ -137,31 +168,25 @@ public class MetadataManagementService {
                             return categoryRepository.save(category);
                         }))
                 .toList();
+        Set<Long> targetIds = ids(targetCategories, CategoryEntity::getId);
 
         List<CategoryEntity> categoriesToMerge = valuesToMerge.stream()
                 .map(categoryRepository::findByNameIgnoreCase)
                 .filter(java.util.Optional::isPresent)
                 .map(java.util.Optional::get)
+                .filter(category -> !targetIds.contains(category.getId()))
                 .toList();
+        Set<Long> mergeIds = ids(categoriesToMerge, CategoryEntity::getId);
 
-        for (CategoryEntity oldCategory : categoriesToMerge) {
-            List<BookMetadataEntity> booksWithOldCategory = bookMetadataRepository.findAllByCategoriesContaining(oldCategory);
-
-            for (BookMetadataEntity metadata : booksWithOldCategory) {
-                metadata.getCategories().remove(oldCategory);
-                metadata.getCategories().addAll(targetCategories);
-            }
-
-            bookMetadataRepository.saveAll(booksWithOldCategory);
-            bookMetadataRepository.flush();
-            writeMetadataToFile(booksWithOldCategory, moveFile);
-            categoryRepository.delete(oldCategory);
-        }
+        Set<Long> bookIds = remapBooks(categoryRepository, mergeIds, targetIds);
+        categoryRepository.deleteAllByIdInBatch(mergeIds);
+        writeMetadataToFile(bookIds, moveFile);
 
-        log.info("Consolidated {} categories into {}: {}", categoriesToMerge.size(), targetValues, valuesToMerge);
+        log.info("Consolidated {} categories into {} across {} books: {}", categoriesToMerge.size(), targetValues, bookIds.size(), valuesToMerge);
+        return bookIds;
     }
 
-    private void consolidateMoods(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
+    private Set<Long> consolidateMoods(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
         List<MoodEntity> targetMoods = targetValues.stream()
                 .map(name -> moodRepository.findByNameIgnoreCase(name)
                         .map(existing -> {
@@ -174,32 +199,25 @@ public class MetadataManagementService {
                             return moodRepository.save(mood);
                         }))
                 .toList();
+        Set<Long> targetIds = ids(targetMoods, MoodEntity::getId);
 
         List<MoodEntity> moodsToMerge = valuesToMerge.stream()
                 .map(moodRepository::findByNameIgnoreCase)
                 .filter(java.util.Optional::isPresent)
                 .map(java.util.Optional::get)
+                .filter(mood -> !targetIds.contains(mood.getId()))
                 .toList();
+        Set<Long> mergeIds = ids(moodsToMerge, MoodEntity::getId);
 
-        for (MoodEntity oldMood : moodsToMerge) {
-            List<BookMetadataEntity> booksWithOldMood = bookMetadataRepository.findAllByMoodsContaining(oldMood);
+        Set<Long> bookIds = remapBooks(moodRepository, mergeIds, targetIds);
+        moodRepository.deleteAllByIdInBatch(mergeIds);
+        writeMetadataToFile(bookIds, moveFile);
 
-            for (BookMetadataEntity metadata : booksWithOldMood) {
-                metadata.getMoods().remove(oldMood);
-                metadata.getMoods().addAll(targetMoods);
-            }
-
-            bookMetadataRepository.saveAll(booksWithOldMood);
-            bookMetadataRepository.flush();
-
-            writeMetadataToFile(booksWithOldMood, moveFile);
-            moodRepository.delete(oldMood);
-        }
-
-        log.info("Consolidated {} moods into {}: {}", moodsToMerge.size(), targetValues, valuesToMerge);
+        log.info("Consolidated {} moods into {} across {} books: {}", moodsToMerge.size(), targetValues, bookIds.size(), valuesToMerge);
+        return bookIds;
     }
 
-    private void consolidateTags(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
+    private Set<Long> consolidateTags(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
         List<TagEntity> targetTags = targetValues.stream()
                 .map(name -> tagRepository.findByNameIgnoreCase(name)
                         .map(existing -> {
@@ -212,37 +230,31 @@ public class MetadataManagementService {
                             return tagRepository.save(tag);
                         }))
                 .toList();
+        Set<Long> targetIds = ids(targetTags, TagEntity::getId);
 
         List<TagEntity> tagsToMerge = valuesToMerge.stream()
                 .map(tagRepository::findByNameIgnoreCase)
                 .filter(java.util.Optional::isPresent)
                 .map(java.util.Optional::get)
+                .filter(tag -> !targetIds.contains(tag.getId()))
                 .toList();
+        Set<Long> mergeIds = ids(tagsToMerge, TagEntity::getId);
 
-        for (TagEntity oldTag : tagsToMerge) {
-            List<BookMetadataEntity> booksWithOldTag = bookMetadataRepository.findAllByTagsContaining(oldTag);
-
-            for (BookMetadataEntity metadata : booksWithOldTag) {
-                metadata.getTags().remove(oldTag);
-                metadata.getTags().addAll(targetTags);
-            }
-
-            bookMetadataRepository.saveAll(booksWithOldTag);
-            bookMetadataRepository.flush();
+        Set<Long> bookIds = remapBooks(tagRepository, mergeIds, targetIds);
+        tagRepository.deleteAllByIdInBatch(mergeIds);
+        writeMetadataToFile(bookIds, moveFile);
 
-            writeMetadataToFile(booksWithOldTag, moveFile);
-            tagRepository.delete(oldTag);
-        }
-
-        log.info("Consolidated {} tags into {}: {}", tagsToMerge.size(), targetValues, valuesToMerge);
+        log.info("Consolidated {} tags into {} across {} books: {}", tagsToMerge.size(), targetValues, bookIds.size(), valuesToMerge);
+        return bookIds;
     }
 
-    private void consolidateSeries(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
+    private Set<Long> consolidateSeries(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
         if (targetValues.size() != 1) {
             throw new IllegalArgumentException("Series merge requires exactly one target value");
         }
         String targetSeriesName = targetValues.getFirst();
 
+        Set<Long> bookIds = new LinkedHashSet<>();
         for (String oldSeriesName : valuesToMerge) {
             List<BookMetadataEntity> booksWithOldSeries = bookMetadataRepository.findAllBySeriesNameIgnoreCase(oldSeriesName);
 
@@ -251,18 +263,21 @@ public class MetadataManagementService {
             }
 
             bookMetadataRepository.saveAll(booksWithOldSeries);
-            writeMetadataToFile(booksWithOldSeries, moveFile);
+            bookIds.addAll(bookIds(booksWithOldSeries));
         }
+        writeMetadataToFile(bookIds, moveFile);
 
         log.info("Consolidated {} series into '{}': {}", valuesToMerge.size(), targetSeriesName, valuesToMerge);
+        return bookIds;
     }
 
-    private void consolidatePublishers(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
+    private Set<Long> consolidatePublishers(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
         if (targetValues.size() != 1) {
             throw new IllegalArgumentException("Publisher merge requires exactly one target value");
         }
         String targetPublisher = targetValues.getFirst();
 
+        Set<Long> bookIds = new LinkedHashSet<>();
         for (String oldPublisher : valuesToMerge) {
             List<BookMetadataEntity> booksWithOldPublisher = bookMetadataRepository.findAllByPublisherIgnoreCase(oldPublisher);
 
@@ -271,18 +286,21 @@ public class MetadataManagementService {
             }
 
             bookMetadataRepository.saveAll(booksWithOldPublisher);
-            writeMetadataToFile(booksWithOldPublisher, moveFile);
+            bookIds.addAll(bookIds(booksWithOldPublisher));
         }
+        writeMetadataToFile(bookIds, moveFile);
 
         log.info("Consolidated {} publishers into '{}': {}", valuesToMerge.size(), targetPublisher, valuesToMerge);
+        return bookIds;
     }
 
-    private void consolidateLanguages(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
+    private Set<Long> consolidateLanguages(List<String> targetValues, List<String> valuesToMerge, boolean moveFile) {
         if (targetValues.size() != 1) {
             throw new IllegalArgumentException("Language merge requires exactly one target value");
         }
         String targetLanguage = targetValues.getFirst();
 
+        Set<Long> bookIds = new LinkedHashSet<>();
         for (String oldLanguage : valuesToMerge) {
             List<BookMetadataEntity> booksWithOldLanguage = bookMetadataRepository.findAllByLanguageIgnoreCase(oldLanguage);
 
@@ -291,18 +309,20 @@ public class MetadataManagementService {
             }
 
             bookMetadataRepository.saveAll(booksWithOldLanguage);
-            writeMetadataToFile(booksWithOldLanguage, moveFile);
+            bookIds.addAll(bookIds(booksWithOldLanguage));
         }
+        writeMetadataToFile(bookIds, moveFile);
 
         log.info("Consolidated {} languages into '{}': {}", valuesToMerge.size(), targetLanguage, valuesToMerge);
+        return bookIds;
     }
 
     @Transactional
-    public void deleteMetadata(MergeMetadataType metadataType, List<String> valuesToDelete) {
+    public Set<Long> deleteMetadata(MergeMetadataType metadataType, List<String> valuesToDelete) {
         MetadataPersistenceSettings settings = appSettingService.getAppSettings().getMetadataPersistenceSettings();
         boolean moveFile = settings.isMoveFilesToLibraryPattern();
 
-        switch (metadataType) {
+        return switch (metadataType) {
             case authors -> deleteAuthors(valuesToDelete, moveFile);
             case categories -> deleteCategories(valuesToDelete, moveFile);
             case moods -> deleteMoods(valuesToDelete, moveFile);
@@ -310,102 +330,76 @@ public class MetadataManagementService {
             case series -> deleteSeries(valuesToDelete, moveFile);
             case publishers -> deletePublishers(valuesToDelete, moveFile);
             case languages -> deleteLanguages(valuesToDelete, moveFile);
-        }
+        };
     }
 
-    private void deleteAuthors(List<String> valuesToDelete, boolean moveFile) {
+    private Set<Long> deleteAuthors(List<String> valuesToDelete, boolean moveFile) {
         List<AuthorEntity> authorsToDelete = valuesToDelete.stream()
                 .map(authorRepository::findByName)
                 .filter(java.util.Optional::isPresent)
                 .map(java.util.Optional::get)
                 .toList();
+        Set<Long> deleteIds = ids(authorsToDelete, AuthorEntity::getId);
 
-        for (AuthorEntity author : authorsToDelete) {
-            List<BookMetadataEntity> booksWithAuthor = bookMetadataRepository.findAllByAuthorsContaining(author);
-
-            for (BookMetadataEntity metadata : booksWithAuthor) {
-                metadata.getAuthors().remove(author);
-            }
-
-            bookMetadataRepository.saveAll(booksWithAuthor);
-            bookMetadataRepository.flush();
-            writeMetadataToFile(booksWithAuthor, moveFile);
-            authorRepository.delete(author);
-        }
+        Set<Long> bookIds = remapBooks(authorRepository, deleteIds, Set.of());
+        refreshSearchText(bookIds);
+        authorRepository.deleteAllByIdInBatch(deleteIds);
+        writeMetadataToFile(bookIds, moveFile);
 
-        log.info("Deleted {} authors: {}", authorsToDelete.size(), valuesToDelete);
+        log.info("Deleted {} authors from {} books: {}", authorsToDelete.size(), bookIds.size(), valuesToDelete);
+        return bookIds;
     }
 
-    private void deleteCategories(List<String> valuesToDelete, boolean moveFile) {
+    private Set<Long> deleteCategories(List<String> valuesToDelete, boolean moveFile) {
         List<CategoryEntity> categoriesToDelete = valuesToDelete.stream()
                 .map(categoryRepository::findByNameIgnoreCase)
                 .filter(java.util.Optional::isPresent)
                 .map(java.util.Optional::get)
                 .toList();
+        Set<Long> deleteIds = ids(categoriesToDelete, CategoryEntity::getId);
 
-        for (CategoryEntity category : categoriesToDelete) {
-            List<BookMetadataEntity> booksWithCategory = bookMetadataRepository.findAllByCategoriesContaining(category);
-
-            for (BookMetadataEntity metadata : booksWithCategory) {
-                metadata.getCategories().remove(category);
-            }
+        Set<Long> bookIds = remapBooks(categoryRepository, deleteIds, Set.of());
+        categoryRepository.deleteAllByIdInBatch(deleteIds);
+        writeMetadataToFile(bookIds, moveFile);
 
-            bookMetadataRepository.saveAll(booksWithCategory);
-            bookMetadataRepository.flush();
-            writeMetadataToFile(booksWithCategory, moveFile);
-            categoryRepository.delete(category);
-        }
-
-        log.info("Deleted {} categories: {}", categoriesToDelete.size(), valuesToDelete);
+        log.info("Deleted {} categories from {} books: {}", categoriesToDelete.size(), bookIds.size(), valuesToDelete);
+        return bookIds;
     }
 
-    private void deleteMoods(List<String> valuesToDelete, boolean moveFile) {
+    private Set<Long> deleteMoods(List<String> valuesToDelete, boolean moveFile) {
         List<MoodEntity> moodsToDelete = valuesToDelete.stream()
                 .map(moodRepository::findByNameIgnoreCase)
                 .filter(java.util.Optional::isPresent)
                 .map(java.util.Optional::get)
                 .toList();
+        Set<Long> deleteIds = ids(moodsToDelete, MoodEntity::getId);
 
-        for (MoodEntity mood : moodsToDelete) {
-            List<BookMetadataEntity> booksWithMood = bookMetadataRepository.findAllByMoodsContaining(mood);
-
-            for (BookMetadataEntity metadata : booksWithMood) {
-                metadata.getMoods().remove(mood);
-            }
+        Set<Long> bookIds = remapBooks(moodRepository, deleteIds, Set.of());
+        moodRepository.deleteAllByIdInBatch(deleteIds);
+        writeMetadataToFile(bookIds, moveFile);
 
-            bookMetadataRepository.saveAll(booksWithMood);
-            bookMetadataRepository.flush();
-            writeMetadataToFile(booksWithMood, moveFile);
-            moodRepository.delete(mood);
-        }
-
-        log.info("Deleted {} moods: {}", moodsToDelete.size(), valuesToDelete);
+        log.info("Deleted {} moods from {} books: {}", moodsToDelete.size(), bookIds.size(), valuesToDelete);
+        return bookIds;
     }
 
-    private void deleteTags(List<String> valuesToDelete, boolean moveFile) {
+    private Set<Long> deleteTags(List<String> valuesToDelete, boolean moveFile) {
         List<TagEntity> tagsToDelete = valuesToDelete.stream()
                 .map(tagRepository::findByNameIgnoreCase)
                 .filter(java.util.Optional::isPresent)
                 .map(java.util.Optional::get)
                 .toList();
+        Set<Long> deleteIds = ids(tagsToDelete, TagEntity::getId);
 
-        for (TagEntity tag : tagsToDelete) {
-            List<BookMetadataEntity> booksWithTag = bookMetadataRepository.findAllByTagsContaining(tag);
-
-            for (BookMetadataEntity metadata : booksWithTag) {
-                metadata.getTags().remove(tag);
-            }
-
-            bookMetadataRepository.saveAll(booksWithTag);
-            bookMetadataRepository.flush();
-            writeMetadataToFile(booksWithTag, moveFile);
-            tagRepository.delete(tag);
-        }
+        Set<Long> bookIds = remapBooks(tagRepository, deleteIds, Set.of());
+        tagRepository.deleteAllByIdInBatch(deleteIds);
+        writeMetadataToFile(bookIds, moveFile);
 
-        log.info("Deleted {} tags: {}", tagsToDelete.size(), valuesToDelete);
+        log.info("Deleted {} tags from {} books: {}", tagsToDelete.size(), bookIds.size(), valuesToDelete);
+        return bookIds;
     }
 
-    private void deleteSeries(List<String> valuesToDelete, boolean moveFile) {
+    private Set<Long> deleteSeries(List<String> valuesToDelete, boolean moveFile) {
+        Set<Long> bookIds = new LinkedHashSet<>();
         for (String seriesName : valuesToDelete) {
             List<BookMetadataEntity> booksWithSeries = bookMetadataRepository.findAllBySeriesNameIgnoreCase(seriesName);
 
@@ -417,14 +411,17 @@ public class MetadataManagementService {
 
             if (!booksWithSeries.isEmpty()) {
                 bookMetadataRepository.saveAll(booksWithSeries);
-                writeMetadataToFile(booksWithSeries, moveFile);
+                bookIds.addAll(bookIds(booksWithSeries));
             }
         }
+        writeMetadataToFile(bookIds, moveFile);
 
         log.info("Deleted {} series: {}", valuesToDelete.size(), valuesToDelete);
+        return bookIds;
     }
 
-    private void deletePublishers(List<String> valuesToDelete, boolean moveFile) {
+    private Set<Long> deletePublishers(List<String> valuesToDelete, boolean moveFile) {
+        Set<Long> bookIds = new LinkedHashSet<>();
         for (String publisher : valuesToDelete) {
             List<BookMetadataEntity> booksWithPublisher = bookMetadataRepository.findAllByPublisherIgnoreCase(publisher);
 
@@ -434,14 +431,17 @@ public class MetadataManagementService {
 
             if (!booksWithPublisher.isEmpty()) {
                 bookMetadataRepository.saveAll(booksWithPublisher);
-                writeMetadataToFile(booksWithPublisher, moveFile);
+                bookIds.addAll(bookIds(booksWithPublisher));
             }
         }
+        writeMetadataToFile(bookIds, moveFile);
 
         log.info("Deleted {} publishers: {}", valuesToDelete.size(), valuesToDelete);
+        return bookIds;
     }
 
-    private void deleteLanguages(List<String> valuesToDelete, boolean moveFile) {
+    private Set<Long> deleteLanguages(List<String> valuesToDelete, boolean moveFile) {
+        Set<Long> bookIds = new LinkedHashSet<>();
         for (String language : valuesToDelete) {
             List<BookMetadataEntity> booksWithLanguage = bookMetadataRepository.findAllByLanguageIgnoreCase(language);
 
@@ -451,10 +451,12 @@ public class MetadataManagementService {
 
             if (!booksWithLanguage.isEmpty()) {
                 bookMetadataRepository.saveAll(booksWithLanguage);
-                writeMetadataToFile(booksWithLanguage, moveFile);
+                bookIds.addAll(bookIds(booksWithLanguage));
             }
         }
+        writeMetadataToFile(bookIds, moveFile);
 
         log.info("Deleted {} languages: {}", valuesToDelete.size(), valuesToDelete);
+        return bookIds;
     }
 }
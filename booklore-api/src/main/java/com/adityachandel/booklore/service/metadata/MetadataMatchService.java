@@ -4,9 +4,12 @@ import com.adityachandel.booklore.model.dto.settings.AppSettings;
 import com.adityachandel.booklore.model.dto.settings.MetadataMatchWeights;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
-import com.adityachandel.booklore.service.book.BookQueryService;
+import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.batch.BatchJob;
+import com.adityachandel.booklore.service.batch.BatchJobRunner;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,15 +19,26 @@ import java.util.List;
 public class MetadataMatchService {
 
     private final AppSettingService appSettingsService;
-    private final BookQueryService bookQueryService;
+    private final BookRepository bookRepository;
+    private final BatchJobRunner batchJobRunner;
 
     public void recalculateAllMatchScores() {
-        List<BookEntity> allBooks = bookQueryService.getAllFullBookEntities();
-        for (BookEntity book : allBooks) {
-            Float score = calculateMatchScore(book);
-            book.setMetadataMatchScore(score);
+        batchJobRunner.run(BatchJob.builder()
+                .name("recalculateMatchScores")
+                .idSource((afterId, limit) -> bookRepository.findBookIdsAfter(afterId, PageRequest.of(0, limit)))
+                .processor(this::recalculateMatchScores)
+                .build());
+    }
+
+    /**
+     * Recalculates and stores the scores of the given books; call within a transaction so the changes are flushed.
+     */
+    public int recalculateMatchScores(List<Long> bookIds) {
+        List<BookEntity> books = bookRepository.findAllForMatchScoreByIds(bookIds);
+        for (BookEntity book : books) {
+            book.setMetadataMatchScore(calculateMatchScore(book));
         }
-        bookQueryService.saveAll(allBooks);
+        return books.size();
     }
 
     public Float calculateMatchScore(BookEntity book) {
@@ -6,7 +6,6 @@ import com.adityachandel.booklore.mapper.BookMapper;
 import com.adityachandel.booklore.model.MetadataUpdateContext;
 import com.adityachandel.booklore.model.MetadataUpdateWrapper;
 import com.adityachandel.booklore.model.dto.*;
-import com.adityachandel.booklore.model.dto.request.FetchMetadataRequest;
 import com.adityachandel.booklore.model.dto.request.MetadataRefreshOptions;
 import com.adityachandel.booklore.model.dto.request.MetadataRefreshRequest;
 import com.adityachandel.booklore.model.dto.settings.AppSettings;
@@ -24,7 +23,7 @@ import com.adityachandel.booklore.repository.LibraryRepository;
 import com.adityachandel.booklore.repository.MetadataFetchJobRepository;
 import com.adityachandel.booklore.service.NotificationService;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
-import com.adityachandel.booklore.service.metadata.parser.BookParser;
+import com.adityachandel.booklore.service.metadata.fetch.MetadataFetchEngine;
 import com.adityachandel.booklore.task.TaskCancellationManager;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -36,7 +35,10 @@ import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -48,13 +50,15 @@ import static com.adityachandel.booklore.model.enums.MetadataProvider.*;
 @Service
 public class MetadataRefreshService {
 
+    private static final int MAX_BOOKS_IN_FLIGHT = 16;
+
     private final LibraryRepository libraryRepository;
     private final MetadataFetchJobRepository metadataFetchJobRepository;
     private final BookMapper bookMapper;
     private final BookMetadataUpdater bookMetadataUpdater;
     private final NotificationService notificationService;
     private final AppSettingService appSettingService;
-    private final Map<MetadataProvider, BookParser> parserMap;
+    private final MetadataFetchEngine metadataFetchEngine;
     private final ObjectMapper objectMapper;
     private final BookRepository bookRepository;
     private final PlatformTransactionManager transactionManager;
@@ -98,22 +102,33 @@ public class MetadataRefreshService {
             metadataFetchJobRepository.save(task);
 
             TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+            TransactionTemplate readTemplate = new TransactionTemplate(transactionManager);
+            readTemplate.setReadOnly(true);
+
+            // Fetches run concurrently on the engine while this thread prepares the next books and applies finished
+            // ones, so each transaction only covers DB work and never spans a provider round trip.
+            BlockingQueue<FetchOutcome> finished = new LinkedBlockingQueue<>();
+            AtomicBoolean cancelled = new AtomicBoolean();
+            Iterator<Long> pendingIds = actualBookIds.iterator();
+            int inFlightCount = 0;
             int completedCount = 0;
 
-            for (Long bookId : actualBookIds) {
+            while (pendingIds.hasNext() || inFlightCount > 0) {
                 if (cancellationManager.isTaskCancelled(jobId)) {
                     log.info("RefreshMetadataTask {} was cancelled, stopping execution", jobId);
+                    cancelled.set(true);
                     cancelTask(task);
                     cancellationManager.clearCancellation(jobId);
                     return;
                 }
 
-                int finalCompletedCount = completedCount;
-                txTemplate.execute(status -> {
-                    BookEntity book = bookRepository.findAllWithMetadataByIds(Collections.singleton(bookId))
-                            .stream().findFirst()
-                            .orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
-                    try {
+                if (pendingIds.hasNext() && inFlightCount < MAX_BOOKS_IN_FLIGHT) {
+                    Long bookId = pendingIds.next();
+                    int finalCompletedCount = completedCount;
+                    PendingFetch pending = readTemplate.execute(status -> {
+                        BookEntity book = bookRepository.findAllWithMetadataByIds(Collections.singleton(bookId))
+                                .stream().findFirst()
+                                .orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
                         if (book.getMetadata().areAllFieldsLocked()) {
                             log.info("Skipping locked book: {}", book.getPrimaryBookFile().getFileName());
                             sendBatchProgressNotification(jobId, finalCompletedCount, totalBooks, "Skipped locked book: " + book.getMetadata().getTitle(), MetadataFetchTaskStatus.IN_PROGRESS, isReviewMode);
@@ -134,47 +149,26 @@ public class MetadataRefreshService {
                             providers = prepareProviders(refreshOptions);
                         }
 
-                        reportProgressIfNeeded(task, jobId, finalCompletedCount, totalBooks, book, isReviewMode);
-                        Map<MetadataProvider, BookMetadata> metadataMap = fetchMetadataForBook(providers, book);
-                        if (providers.contains(GoodReads)) {
-                            try {
-                                Thread.sleep(ThreadLocalRandom.current().nextLong(500, 1500));
-                            } catch (InterruptedException e) {
-                                Thread.currentThread().interrupt();
-                                status.setRollbackOnly();
-                                return null;
-                            }
-                        }
-                        BookMetadata fetched = null;
-                        boolean bookReviewMode = false;
-                        if (refreshOptions != null) {
-                            fetched = buildFetchMetadata(book.getId(), refreshOptions, metadataMap);
-                            bookReviewMode = Boolean.TRUE.equals(refreshOptions.getReviewBeforeApply());
-                        }
+                        return new PendingFetch(bookId, book.getMetadata().getTitle(), book.getPrimaryBookFile().getFileName(), bookMapper.toBook(book), refreshOptions, providers);
+                    });
+                    if (pending == null) {
+                        completedCount++;
+                        continue;
+                    }
+                    reportProgressIfNeeded(task, jobId, completedCount, totalBooks, pending.title(), isReviewMode);
 
-                        if (bookReviewMode) {
-                            saveProposal(task, book.getId(), fetched);
-                        } else {
-                            // Use the replaceMode from options - allows user to control whether to replace existing or only fill missing
-                            MetadataReplaceMode replaceMode = refreshOptions.getReplaceMode() != null 
-                                    ? refreshOptions.getReplaceMode() 
-                                    : MetadataReplaceMode.REPLACE_MISSING;
-                            updateBookMetadata(book, fetched, refreshOptions.isRefreshCovers(), refreshOptions.isMergeCategories(), replaceMode);
-                        }
+                    metadataFetchEngine.fetchAsync(pending.providers(), pending.book(), cancelled::get)
+                            .whenComplete((metadataMap, error) -> finished.add(new FetchOutcome(pending, metadataMap, error)));
+                    inFlightCount++;
+                    continue;
+                }
 
-                        sendBatchProgressNotification(jobId, finalCompletedCount + 1, totalBooks, "Processed: " + book.getMetadata().getTitle(), MetadataFetchTaskStatus.IN_PROGRESS, bookReviewMode);
-                    } catch (Exception e) {
-                        if (Thread.currentThread().isInterrupted()) {
-                            log.info("Processing interrupted for book: {}", book.getPrimaryBookFile().getFileName());
-                            status.setRollbackOnly();
-                            return null;
-                        }
-                        log.error("Metadata update failed for book: {}", book.getPrimaryBookFile().getFileName(), e);
-                        sendBatchProgressNotification(jobId, finalCompletedCount, totalBooks, String.format("Failed to process: %s - %s", book.getMetadata().getTitle(), e.getMessage()), MetadataFetchTaskStatus.ERROR, isReviewMode);
-                    }
-                    bookRepository.saveAndFlush(book);
-                    return null;
-                });
+                FetchOutcome outcome = finished.poll(1, TimeUnit.SECONDS);
+                if (outcome == null) {
+                    continue;
+                }
+                inFlightCount--;
+                applyFetchOutcome(txTemplate, task, jobId, outcome, completedCount, totalBooks, isReviewMode);
                 completedCount++;
             }
 
@@ -182,6 +176,10 @@ public class MetadataRefreshService {
             cancellationManager.clearCancellation(jobId);
             log.info("Metadata refresh task {} completed successfully", jobId);
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancellationManager.clearCancellation(jobId);
+            log.info("Metadata refresh task {} cancelled successfully", jobId);
         } catch (RuntimeException e) {
             cancellationManager.clearCancellation(jobId);
             if (e.getCause() instanceof InterruptedException) {
@@ -201,6 +199,52 @@ public class MetadataRefreshService {
         }
     }
 
+    private void applyFetchOutcome(TransactionTemplate txTemplate, MetadataFetchJobEntity task, String jobId, FetchOutcome outcome, int completedCount, int totalBooks, boolean isReviewMode) {
+        PendingFetch pending = outcome.pending();
+        if (outcome.error() != null) {
+            log.error("Metadata fetch failed for book: {}", pending.fileName(), outcome.error());
+            sendBatchProgressNotification(jobId, completedCount, totalBooks, String.format("Failed to process: %s - %s", pending.title(), outcome.error().getMessage()), MetadataFetchTaskStatus.ERROR, isReviewMode);
+            return;
+        }
+        txTemplate.execute(status -> {
+            BookEntity book = bookRepository.findAllWithMetadataByIds(Collections.singleton(pending.bookId()))
+                    .stream().findFirst()
+                    .orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(pending.bookId()));
+            try {
+                MetadataRefreshOptions refreshOptions = pending.refreshOptions();
+                BookMetadata fetched = null;
+                boolean bookReviewMode = false;
+                if (refreshOptions != null) {
+                    fetched = buildFetchMetadata(book.getId(), refreshOptions, outcome.metadataMap());
+                    bookReviewMode = Boolean.TRUE.equals(refreshOptions.getReviewBeforeApply());
+                }
+
+                if (bookReviewMode) {
+                    saveProposal(task, book.getId(), fetched);
+                } else {
+                    // Use the replaceMode from options - allows user to control whether to replace existing or only fill missing
+                    MetadataReplaceMode replaceMode = refreshOptions.getReplaceMode() != null
+                            ? refreshOptions.getReplaceMode()
+                            : MetadataReplaceMode.REPLACE_MISSING;
+                    updateBookMetadata(book, fetched, refreshOptions.isRefreshCovers(), refreshOptions.isMergeCategories(), replaceMode);
+                }
+
+                sendBatchProgressNotification(jobId, completedCount + 1, totalBooks, "Processed: " + book.getMetadata().getTitle(), MetadataFetchTaskStatus.IN_PROGRESS, bookReviewMode);
+            } catch (Exception e) {
+                log.error("Metadata update failed for book: {}", book.getPrimaryBookFile().getFileName(), e);
+                sendBatchProgressNotification(jobId, completedCount, totalBooks, String.format("Failed to process: %s - %s", book.getMetadata().getTitle(), e.getMessage()), MetadataFetchTaskStatus.ERROR, isReviewMode);
+            }
+            bookRepository.saveAndFlush(book);
+            return null;
+        });
+    }
+
+    private record PendingFetch(Long bookId, String title, String fileName, Book book, MetadataRefreshOptions refreshOptions, List<MetadataProvider> providers) {
+    }
+
+    private record FetchOutcome(PendingFetch pending, Map<MetadataProvider, BookMetadata> metadataMap, Throwable error) {
+    }
+
     MetadataRefreshOptions resolveMetadataRefreshOptions(Long libraryId, AppSettings appSettings) {
         MetadataRefreshOptions defaultOptions = appSettings.getDefaultMetadataRefreshOptions();
         List<MetadataRefreshOptions> libraryOptions = appSettings.getLibraryMetadataRefreshOptions();
@@ -216,33 +260,18 @@ public class MetadataRefreshService {
     }
 
     public Map<MetadataProvider, BookMetadata> fetchMetadataForBook(List<MetadataProvider> providers, Book book) {
-        return providers.stream()
-                .map(provider -> fetchTopMetadataFromAProvider(provider, book))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(
-                        BookMetadata::getProvider,
-                        metadata -> metadata,
-                        (existing, replacement) -> existing
-                ));
+        return metadataFetchEngine.fetch(providers, book);
     }
 
     public Map<MetadataProvider, BookMetadata> fetchMetadataForBook(List<MetadataProvider> providers, BookEntity bookEntity) {
-        Book book = bookMapper.toBook(bookEntity);
-        return providers.stream()
-                .map(provider -> fetchTopMetadataFromAProvider(provider, book))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(
-                        BookMetadata::getProvider,
-                        metadata -> metadata,
-                        (existing, replacement) -> existing
-                ));
+        return metadataFetchEngine.fetch(providers, bookMapper.toBook(bookEntity));
     }
 
-    private void reportProgressIfNeeded(MetadataFetchJobEntity task, String taskId, int completedCount, int total, BookEntity book, boolean isReviewMode) {
+    private void reportProgressIfNeeded(MetadataFetchJobEntity task, String taskId, int completedCount, int total, String title, boolean isReviewMode) {
         if (task == null) return;
         task.setCompletedBooks(completedCount);
         metadataFetchJobRepository.save(task);
-        String message = String.format("Processing '%s'", book.getMetadata().getTitle());
+        String message = String.format("Processing '%s'", title);
         sendBatchProgressNotification(taskId, completedCount, total, message, MetadataFetchTaskStatus.IN_PROGRESS, isReviewMode);
     }
 
@@ -384,26 +413,7 @@ public class MetadataRefreshService {
     }
 
     public BookMetadata fetchTopMetadataFromAProvider(MetadataProvider provider, Book book) {
-        return getParser(provider).fetchTopMetadata(book, buildFetchMetadataRequestFromBook(book));
-    }
-
-    private BookParser getParser(MetadataProvider provider) {
-        BookParser parser = parserMap.get(provider);
-        if (parser == null) {
-            throw ApiError.METADATA_SOURCE_NOT_IMPLEMENT_OR_DOES_NOT_EXIST.createException();
-        }
-        return parser;
-    }
-
-    private FetchMetadataRequest buildFetchMetadataRequestFromBook(Book book) {
-        BookMetadata metadata = book.getMetadata();
-        return FetchMetadataRequest.builder()
-                .isbn(metadata.getIsbn10())
-                .asin(metadata.getAsin())
-                .author(metadata.getAuthors() != null ? String.join(", ", metadata.getAuthors()) : null)
-                .title(metadata.getTitle())
-                .bookId(book.getId())
-                .build();
+        return metadataFetchEngine.fetchTopMetadata(provider, book);
     }
 
     public BookMetadata buildFetchMetadata(Long bookId, MetadataRefreshOptions refreshOptions, Map<MetadataProvider, BookMetadata> metadataMap) {
@@ -0,0 +1,307 @@
+package com.adityachandel.booklore.service.metadata;
+
+import com.adityachandel.booklore.model.dto.FileMoveResult;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookFileEntity;
+import com.adityachandel.booklore.model.entity.BookMetadataEntity;
+import com.adityachandel.booklore.model.entity.MetadataWriteBackEntity;
+import com.adityachandel.booklore.model.enums.PermissionType;
+import com.adityachandel.booklore.model.websocket.LogNotification;
+import com.adityachandel.booklore.model.websocket.Topic;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.MetadataWriteBackRepository;
+import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.service.file.FileFingerprint;
+import com.adityachandel.booklore.service.file.FileMoveService;
+import com.adityachandel.booklore.service.metadata.writer.MetadataWriter;
+import com.adityachandel.booklore.service.metadata.writer.MetadataWriterFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Journaled queue of metadata file writes. Bulk metadata edits record the affected books in
+ * {@code metadata_write_back_queue} inside their own transaction and return; the files are rewritten afterwards in the
+ * background. Because the journal is a table, pending writes survive a restart, and a book edited again before its
+ * file was written has its entry refreshed rather than duplicated, so it is written once with the latest metadata.
+ * <p>
+ * Each batch writes and hashes files on {@link #WORKERS} threads, then records every new hash in one transaction.
+ * Moves to the library naming pattern run one at a time afterwards, since a move pauses monitoring of its library.
+ * Books are loaded in a short read-only transaction and their files are written outside of it, so no connection is
+ * held during file I/O. A failed entry stays queued and is retried by the next run, up to {@link #MAX_ATTEMPTS} times;
+ * after that it is removed from the queue and reported to the users who can edit metadata.
+ */
+@Slf4j
+@Service
+public class MetadataWriteBackService {
+
+    static final int BATCH_SIZE = 100;
+    static final int WORKERS = 4;
+    static final int MAX_ATTEMPTS = 3;
+    private static final long PROGRESS_INTERVAL_MS = 5000;
+    private static final Set<PermissionType> PROGRESS_RECIPIENTS = Set.of(PermissionType.ADMIN, PermissionType.EDIT_METADATA);
+
+    private final MetadataWriteBackRepository writeBackRepository;
+    private final BookRepository bookRepository;
+    private final MetadataWriterFactory metadataWriterFactory;
+    private final FileMoveService fileMoveService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ExecutorService drainExecutor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("metadata-write-back").factory());
+    private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS, Thread.ofPlatform().name("metadata-write-back-worker-", 0).factory());
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    public MetadataWriteBackService(MetadataWriteBackRepository writeBackRepository, BookRepository bookRepository,
+                                    MetadataWriterFactory metadataWriterFactory, FileMoveService fileMoveService,
+                                    NotificationService notificationService, PlatformTransactionManager transactionManager) {
+        this.writeBackRepository = writeBackRepository;
+        this.bookRepository = bookRepository;
+        this.metadataWriterFactory = metadataWriterFactory;
+        this.fileMoveService = fileMoveService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    record WriteResult(MetadataWriteBackEntity entry, String newHash, boolean written, Exception error) {
+    }
+
+    /**
+     * Records that the books' files must be rewritten. Joins the caller's transaction, so the entries commit or roll
+     * back with the metadata change itself; processing starts once it has committed.
+     */
+    public void enqueue(Collection<Long> bookIds, boolean moveFile) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        writeBackRepository.enqueue(bookIds, moveFile, Instant.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestDrain();
+                }
+            });
+        } else {
+            requestDrain();
+        }
+    }
+
+    /**
+     * Also runs at startup, to pick up entries left by a previous run, and periodically, to retry failed ones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void requestDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                drainExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        drainExecutor.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    void drain() {
+        drainScheduled.set(false);
+        long total = writeBackRepository.countByAttemptsLessThan(MAX_ATTEMPTS);
+        if (total == 0) {
+            purgeExhausted();
+            return;
+        }
+        log.info("Writing metadata to {} file(s)", total);
+        int done = 0;
+        int failed = 0;
+        long lastProgress = System.currentTimeMillis();
+        Instant afterRequestedAt = Instant.EPOCH;
+        long afterBookId = 0L;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<MetadataWriteBackEntity> batch = writeBackRepository.findPendingAfter(MAX_ATTEMPTS, afterRequestedAt, afterBookId, PageRequest.of(0, BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            afterRequestedAt = batch.getLast().getRequestedAt();
+            afterBookId = batch.getLast().getBookId();
+            for (WriteResult result : processBatch(batch)) {
+                if (result.error() == null) {
+                    done++;
+                } else {
+                    failed++;
+                }
+            }
+            if (System.currentTimeMillis() - lastProgress >= PROGRESS_INTERVAL_MS) {
+                notifyProgress(LogNotification.info("Writing metadata to files: " + (done + failed) + " of " + total));
+                lastProgress = System.currentTimeMillis();
+            }
+        }
+        String summary = done + " file(s) updated" + (failed > 0 ? ", " + failed + " failed" : "");
+        log.info("Finished writing metadata to files: {}", summary);
+        notifyProgress(failed > 0
+                ? LogNotification.warn("Finished writing metadata to files: " + summary)
+                : LogNotification.info("Finished writing metadata to files: " + summary));
+        purgeExhausted();
+    }
+
+    /**
+     * Drops entries that failed {@link #MAX_ATTEMPTS} times, so they neither stay in the queue forever nor go unnoticed.
+     */
+    void purgeExhausted() {
+        List<Long> bookIds = transactionTemplate.execute(status -> {
+            List<Long> exhausted = writeBackRepository.findBookIdsByAttemptsAtLeast(MAX_ATTEMPTS);
+            if (!exhausted.isEmpty()) {
+                writeBackRepository.deleteByAttemptsAtLeast(MAX_ATTEMPTS);
+            }
+            return exhausted;
+        });
+        if (bookIds == null || bookIds.isEmpty()) {
+            return;
+        }
+        log.error("Gave up writing metadata to the files of books {} after {} attempts", bookIds, MAX_ATTEMPTS);
+        notifyProgress(LogNotification.error("Metadata could not be written to " + bookIds.size() + " file(s) after "
+                + MAX_ATTEMPTS + " attempts. Book IDs: " + bookIds));
+    }
+
+    List<WriteResult> processBatch(List<MetadataWriteBackEntity> batch) {
+        List<Future<WriteResult>> futures = batch.stream()
+                .map(entry -> workers.submit(() -> writeFile(entry)))
+                .toList();
+        List<WriteResult> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return results;
+            } catch (ExecutionException e) {
+                results.add(new WriteResult(batch.get(i), null, false, e));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> applyResults(results));
+
+        for (int i = 0; i < results.size(); i++) {
+            WriteResult result = results.get(i);
+            if (result.error() == null && result.entry().isMoveFile()) {
+                results.set(i, move(result));
+            }
+        }
+        return results;
+    }
+
+    private WriteResult writeFile(MetadataWriteBackEntity entry) {
+        try {
+            BookEntity book = readOnlyTransactionTemplate.execute(status -> loadForWrite(entry.getBookId()));
+            if (book == null) {
+                return new WriteResult(entry, null, false, null);
+            }
+            Optional<MetadataWriter> writer = metadataWriterFactory.getWriter(book.getPrimaryBookFile().getBookType());
+            if (writer.isEmpty()) {
+                return new WriteResult(entry, null, false, null);
+            }
+            writer.get().saveMetadataToFile(book.getFullFilePath().toFile(), book.getMetadata(), null, null);
+            return new WriteResult(entry, FileFingerprint.generateHash(book.getFullFilePath()), true, null);
+        } catch (Exception e) {
+            return new WriteResult(entry, null, false, e);
+        }
+    }
+
+    /**
+     * Loads the book together with the metadata collections the writers read, so it can be used once the transaction
+     * has ended.
+     */
+    private BookEntity loadForWrite(Long bookId) {
+        BookEntity book = bookRepository.findByIdWithBookFiles(bookId).orElse(null);
+        if (book == null || book.getMetadata() == null) {
+            return null;
+        }
+        BookMetadataEntity metadata = book.getMetadata();
+        Hibernate.initialize(metadata.getAuthors());
+        Hibernate.initialize(metadata.getCategories());
+        Hibernate.initialize(metadata.getMoods());
+        Hibernate.initialize(metadata.getTags());
+        return book;
+    }
+
+    private void applyResults(List<WriteResult> results) {
+        Map<Long, WriteResult> written = new HashMap<>();
+        for (WriteResult result : results) {
+            MetadataWriteBackEntity entry = result.entry();
+            if (result.error() != null) {
+                log.warn("Failed to write metadata to file of book {}: {}", entry.getBookId(), result.error().getMessage());
+                writeBackRepository.recordFailedAttempt(entry.getBookId(), entry.getRequestedAt());
+                continue;
+            }
+            if (result.written()) {
+                written.put(entry.getBookId(), result);
+            }
+            if (!entry.isMoveFile()) {
+                writeBackRepository.deleteIfUnchanged(entry.getBookId(), entry.getRequestedAt());
+            }
+        }
+        if (!written.isEmpty()) {
+            List<BookEntity> books = bookRepository.findAllWithFilesByIds(written.keySet());
+            for (BookEntity book : books) {
+                book.getPrimaryBookFile().setCurrentHash(written.get(book.getId()).newHash());
+            }
+            bookRepository.saveAll(books);
+        }
+    }
+
+    private WriteResult move(WriteResult result) {
+        MetadataWriteBackEntity entry = result.entry();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bookRepository.findByIdWithBookFiles(entry.getBookId()).ifPresent(book -> {
+                    FileMoveResult moveResult = fileMoveService.moveSingleFile(book);
+                    if (moveResult.isMoved()) {
+                        BookFileEntity primaryFile = book.getPrimaryBookFile();
+                        primaryFile.setFileName(moveResult.getNewFileName());
+                        primaryFile.setFileSubPath(moveResult.getNewFileSubPath());
+                        bookRepository.save(book);
+                    }
+                });
+                writeBackRepository.deleteIfUnchanged(entry.getBookId(), entry.getRequestedAt());
+            });
+            return result;
+        } catch (Exception e) {
+            log.warn("Failed to move file of book {}: {}", entry.getBookId(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status ->
+                    writeBackRepository.recordFailedAttempt(entry.getBookId(), entry.getRequestedAt()));
+            return new WriteResult(entry, result.newHash(), result.written(), e);
+        }
+    }
+
+    private void notifyProgress(LogNotification notification) {
+        try {
+            notificationService.sendMessageToPermissions(Topic.LOG, notification, PROGRESS_RECIPIENTS);
+        } catch (Exception e) {
+            log.debug("Could not send metadata write-back progress: {}", e.getMessage());
+        }
+    }
+}
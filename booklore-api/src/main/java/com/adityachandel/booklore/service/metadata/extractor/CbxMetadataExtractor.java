@@ -2,6 +2,7 @@ package com.adityachandel.booklore.service.metadata.extractor;
 
 import com.adityachandel.booklore.model.dto.BookMetadata;
 import com.adityachandel.booklore.util.ArchiveUtils;
+import com.adityachandel.booklore.util.ImageProbeUtils;
 import com.github.junrar.Archive;
 import com.github.junrar.rarfile.FileHeader;
 import lombok.extern.slf4j.Slf4j;
@@ -497,14 +498,11 @@ public class CbxMetadataExtractor implements FileMetadataExtractor {
         return generatePlaceholderCover(250, 350);
     }
 
+    /**
+     * Checks from the image header alone; the chosen page is decoded once, when the cover is saved.
+     */
     private boolean canDecode(byte[] bytes) {
-        if (bytes == null || bytes.length == 0) return false;
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(bytes)) {
-            BufferedImage img = ImageIO.read(bais);
-            return img != null;
-        } catch (IOException e) {
-            return false;
-        }
+        return ImageProbeUtils.probe(bytes).isPresent();
     }
 
     private ZipEntry findFrontCoverEntry(ZipFile zipFile) {
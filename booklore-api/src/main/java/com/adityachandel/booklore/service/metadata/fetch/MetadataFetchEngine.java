@@ -0,0 +1,112 @@
+package com.adityachandel.booklore.service.metadata.fetch;
+
+import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.BookMetadata;
+import com.adityachandel.booklore.model.dto.request.FetchMetadataRequest;
+import com.adityachandel.booklore.model.enums.MetadataProvider;
+import com.adityachandel.booklore.service.metadata.parser.BookParser;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Queries metadata providers on virtual threads. All providers of a book run concurrently, and any number of books
+ * may be in flight at once; the per-provider {@link ProviderRateLimiter}s inside the parsers are what bound the
+ * request rate, so a batch runs at the pace of its slowest provider instead of the sum of all latencies.
+ */
+@Slf4j
+@Component
+public class MetadataFetchEngine {
+
+    private final Map<MetadataProvider, BookParser> parserMap;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public MetadataFetchEngine(Map<MetadataProvider, BookParser> parserMap) {
+        this.parserMap = parserMap;
+    }
+
+    public Map<MetadataProvider, BookMetadata> fetch(List<MetadataProvider> providers, Book book) {
+        try {
+            return fetchAsync(providers, book).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+        }
+    }
+
+    /**
+     * Fetches the top match from every provider without blocking the caller. A failing provider is logged and left
+     * out of the result rather than failing the whole book.
+     */
+    public CompletableFuture<Map<MetadataProvider, BookMetadata>> fetchAsync(List<MetadataProvider> providers, Book book) {
+        return fetchAsync(providers, book, () -> false);
+    }
+
+    /**
+     * Like {@link #fetchAsync(List, Book)}, but a provider query that has not started yet once {@code cancelled} is
+     * true is skipped, so a cancelled batch stops issuing requests instead of draining every book already in flight.
+     */
+    public CompletableFuture<Map<MetadataProvider, BookMetadata>> fetchAsync(List<MetadataProvider> providers, Book book, BooleanSupplier cancelled) {
+        FetchMetadataRequest request = buildFetchMetadataRequestFromBook(book);
+        List<CompletableFuture<BookMetadata>> futures = new ArrayList<>(providers.size());
+        for (MetadataProvider provider : providers) {
+            BookParser parser = getParser(provider);
+            futures.add(CompletableFuture.supplyAsync(() -> cancelled.getAsBoolean() ? null : fetchTopMetadata(provider, parser, book, request), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<MetadataProvider, BookMetadata> result = new EnumMap<>(MetadataProvider.class);
+                    for (CompletableFuture<BookMetadata> future : futures) {
+                        BookMetadata metadata = future.join();
+                        if (metadata != null && metadata.getProvider() != null) {
+                            result.putIfAbsent(metadata.getProvider(), metadata);
+                        }
+                    }
+                    return result;
+                });
+    }
+
+    public BookMetadata fetchTopMetadata(MetadataProvider provider, Book book) {
+        return getParser(provider).fetchTopMetadata(book, buildFetchMetadataRequestFromBook(book));
+    }
+
+    private BookMetadata fetchTopMetadata(MetadataProvider provider, BookParser parser, Book book, FetchMetadataRequest request) {
+        try {
+            return parser.fetchTopMetadata(book, request);
+        } catch (Exception e) {
+            log.warn("{} metadata fetch failed for book {}: {}", provider, book.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private BookParser getParser(MetadataProvider provider) {
+        BookParser parser = parserMap.get(provider);
+        if (parser == null) {
+            throw ApiError.METADATA_SOURCE_NOT_IMPLEMENT_OR_DOES_NOT_EXIST.createException();
+        }
+        return parser;
+    }
+
+    private FetchMetadataRequest buildFetchMetadataRequestFromBook(Book book) {
+        BookMetadata metadata = book.getMetadata();
+        return FetchMetadataRequest.builder()
+                .isbn(metadata.getIsbn10())
+                .asin(metadata.getAsin())
+                .author(metadata.getAuthors() != null ? String.join(", ", metadata.getAuthors()) : null)
+                .title(metadata.getTitle())
+                .bookId(book.getId())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
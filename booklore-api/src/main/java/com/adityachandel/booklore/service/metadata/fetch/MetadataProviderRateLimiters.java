@@ -0,0 +1,72 @@
+package com.adityachandel.booklore.service.metadata.fetch;
+
+import com.adityachandel.booklore.model.enums.MetadataProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One {@link ProviderRateLimiter} per metadata provider, shared by every parser call regardless of which
+ * task or request issued it.
+ */
+@Component
+public class MetadataProviderRateLimiters {
+
+    private static final Duration DEFAULT_INTERVAL = Duration.ofMillis(500);
+    private static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(2);
+    private static final Duration DEFAULT_MAX_BACKOFF = Duration.ofMinutes(2);
+
+    private final Map<MetadataProvider, ProviderRateLimiter> limiters = new EnumMap<>(MetadataProvider.class);
+
+    public MetadataProviderRateLimiters() {
+        limiters.put(MetadataProvider.Google, limiter(MetadataProvider.Google, Duration.ofMillis(1500), 2, DEFAULT_MAX_BACKOFF));
+        limiters.put(MetadataProvider.Hardcover, limiter(MetadataProvider.Hardcover, Duration.ofMillis(1200), 2, Duration.ofSeconds(15)));
+        limiters.put(MetadataProvider.Comicvine, limiter(MetadataProvider.Comicvine, Duration.ofSeconds(2), 1, Duration.ofHours(1)));
+        limiters.put(MetadataProvider.GoodReads, limiter(MetadataProvider.GoodReads, Duration.ofMillis(1500), 1, DEFAULT_MAX_BACKOFF));
+        for (MetadataProvider provider : MetadataProvider.values()) {
+            limiters.computeIfAbsent(provider, p -> limiter(p, DEFAULT_INTERVAL, 2, DEFAULT_MAX_BACKOFF));
+        }
+    }
+
+    public ProviderRateLimiter get(MetadataProvider provider) {
+        return limiters.get(provider);
+    }
+
+    public boolean acquire(MetadataProvider provider) {
+        return limiters.get(provider).acquire();
+    }
+
+    /**
+     * Parses a Retry-After header given either as delta-seconds or as an HTTP date. Returns {@code null} when absent or unparseable.
+     */
+    public static Duration parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return null;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Duration.ofSeconds(Long.parseLong(value));
+        } catch (NumberFormatException ignored) {
+            // fall through to date formats
+        }
+        try {
+            return Duration.between(Instant.now(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+        } catch (Exception ignored) {
+            // fall through to ISO instant
+        }
+        try {
+            return Duration.between(Instant.now(), Instant.parse(value));
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    private static ProviderRateLimiter limiter(MetadataProvider provider, Duration interval, int burst, Duration maxBackoff) {
+        return new ProviderRateLimiter(provider.name(), interval, burst, DEFAULT_INITIAL_BACKOFF, maxBackoff);
+    }
+}
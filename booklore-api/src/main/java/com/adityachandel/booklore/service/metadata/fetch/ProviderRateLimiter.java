@@ -0,0 +1,121 @@
+package com.adityachandel.booklore.service.metadata.fetch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by every caller of one metadata provider. Tokens refill continuously at the
+ * provider's sustained rate up to {@code burst}; a throttled response pauses the whole bucket with
+ * exponential backoff (or the server's Retry-After) so concurrent callers stop hammering the provider together.
+ */
+@Slf4j
+public class ProviderRateLimiter {
+
+    private final String name;
+    private final int burst;
+    private final long nanosPerToken;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private double tokens;
+    // Point in time the token count refers to; lies in the future while the bucket is paused.
+    private long lastRefillNanos;
+    private int consecutiveThrottles;
+    private long throttleEpoch;
+
+    public ProviderRateLimiter(String name, Duration interval, int burst, Duration initialBackoff, Duration maxBackoff) {
+        this.name = name;
+        this.burst = Math.max(1, burst);
+        this.nanosPerToken = interval.toNanos();
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Blocks until a request may be sent. Returns {@code false} if the thread was interrupted while waiting,
+     * leaving the interrupt flag set.
+     */
+    public boolean acquire() {
+        while (true) {
+            long epoch;
+            long waitNanos;
+            synchronized (this) {
+                epoch = throttleEpoch;
+                waitNanos = reserve();
+            }
+            if (waitNanos <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            synchronized (this) {
+                // A throttle while we slept invalidates the reservation; queue up again behind the pause.
+                if (epoch == throttleEpoch) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a throttled response (HTTP 429 or equivalent). {@code retryAfter} wins over the computed backoff when present.
+     */
+    public synchronized Duration onThrottled(Duration retryAfter) {
+        consecutiveThrottles++;
+        throttleEpoch++;
+        Duration backoff = retryAfter != null && !retryAfter.isNegative() && !retryAfter.isZero()
+                ? retryAfter
+                : exponentialBackoff();
+        long until = System.nanoTime() + backoff.toNanos();
+        if (until > lastRefillNanos) {
+            lastRefillNanos = until;
+            tokens = 1;
+        }
+        log.warn("{} throttled ({} in a row), pausing requests for {} ms", name, consecutiveThrottles, backoff.toMillis());
+        return backoff;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveThrottles = 0;
+    }
+
+    public synchronized boolean isPaused() {
+        return System.nanoTime() < lastRefillNanos;
+    }
+
+    private long reserve() {
+        long now = System.nanoTime();
+        refill(now);
+        if (tokens >= 1 && lastRefillNanos <= now) {
+            tokens -= 1;
+            return 0;
+        }
+        // Take the token on credit; the debt is paid by the refill that happens while this caller sleeps,
+        // so concurrent waiters line up one interval apart instead of waking together.
+        double missing = Math.max(0, 1 - tokens);
+        tokens -= 1;
+        long readyAt = lastRefillNanos + (long) Math.ceil(missing * nanosPerToken);
+        return Math.max(0, readyAt - now);
+    }
+
+    private void refill(long now) {
+        if (now > lastRefillNanos) {
+            tokens = Math.min(burst, tokens + (double) (now - lastRefillNanos) / nanosPerToken);
+            lastRefillNanos = now;
+        }
+    }
+
+    private Duration exponentialBackoff() {
+        int shift = Math.min(consecutiveThrottles - 1, 16);
+        long millis = initialBackoff.toMillis() << shift;
+        return millis > maxBackoff.toMillis() || millis <= 0 ? maxBackoff : Duration.ofMillis(millis);
+    }
+}
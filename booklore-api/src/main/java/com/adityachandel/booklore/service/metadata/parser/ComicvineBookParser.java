@@ -8,6 +8,7 @@ import com.adityachandel.booklore.model.dto.response.comicvineapi.ComicvineApiRe
 import com.adityachandel.booklore.model.dto.response.comicvineapi.ComicvineIssueResponse;
 import com.adityachandel.booklore.model.enums.MetadataProvider;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metadata.fetch.MetadataProviderRateLimiters;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +20,7 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -37,7 +39,6 @@ public class ComicvineBookParser implements BookParser {
 
     private static final String COMICVINE_URL = "https://comicvine.gamespot.com/api/";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final Pattern DIGIT_PATTERN = Pattern.compile("\\d+");
     private static final Pattern SERIES_ISSUE_PATTERN = Pattern.compile("^(.+?)\\s+#?(\\d+(?:\\.\\d+)?)(?:\\s|$)", Pattern.CASE_INSENSITIVE);
     private static final Pattern DIGITAL_PATTERN = Pattern.compile("\\(digital\\)", Pattern.CASE_INSENSITIVE);
     private static final Pattern PARENTHETICAL_PATTERN = Pattern.compile("\\([^)]*\\)");
@@ -46,7 +47,6 @@ public class ComicvineBookParser implements BookParser {
     private static final Pattern SPECIAL_ISSUE_PATTERN = Pattern.compile("(annual|special|one-?shot)\\s+(\\d+)", Pattern.CASE_INSENSITIVE);
     private static final Pattern YEAR_PATTERN = Pattern.compile("\\(?(\\d{4})\\)?");
     private static final Pattern COMICVINE_ID_PATTERN = Pattern.compile("/(\\d+)/?$");
-    private static final long MIN_REQUEST_INTERVAL_MS = 2000;
 
     // Field lists to minimize API calls by getting all useful data in one request
     private static final String VOLUME_FIELDS = "id,name,publisher,start_year,count_of_issues,description,deck,image,site_detail_url,aliases,first_issue,last_issue";
@@ -60,11 +60,11 @@ public class ComicvineBookParser implements BookParser {
 
     private final ObjectMapper objectMapper;
     private final AppSettingService appSettingService;
+    private final MetadataProviderRateLimiters rateLimiters;
     private final HttpClient httpClient = HttpClient.newHttpClient();
 
     private final AtomicBoolean rateLimited = new AtomicBoolean(false);
     private final AtomicLong rateLimitResetTime = new AtomicLong(0);
-    private final AtomicLong lastRequestTime = new AtomicLong(0);
     private final AtomicLong apiCallCounter = new AtomicLong(0);
     private final Map<String, CachedVolumes> volumeCache = new java.util.concurrent.ConcurrentHashMap<>();
 
@@ -442,19 +442,11 @@ public class ComicvineBookParser implements BookParser {
             }
         }
 
-        long now = System.currentTimeMillis();
-        long timeSinceLastRequest = now - lastRequestTime.get();
-        if (timeSinceLastRequest < MIN_REQUEST_INTERVAL_MS) {
-            long sleepTime = MIN_REQUEST_INTERVAL_MS - timeSinceLastRequest;
-            log.debug("Rate limiting: sleeping {}ms before next request", sleepTime);
-            try {
-                Thread.sleep(sleepTime);
-            } catch (InterruptedException ignored) {
-                Thread.currentThread().interrupt();
-            }
+        if (!rateLimiters.acquire(MetadataProvider.Comicvine)) {
+            log.warn("ComicVine request interrupted while waiting for rate limit");
+            return null;
         }
-        lastRequestTime.set(System.currentTimeMillis());
-        
+
         long callNumber = apiCallCounter.incrementAndGet();
         String endpoint = extractEndpointFromUri(uri);
 
@@ -471,6 +463,7 @@ public class ComicvineBookParser implements BookParser {
                     callNumber, response.statusCode(), response.body() != null ? response.body().length() : 0);
 
             if (response.statusCode() == 200) {
+                rateLimiters.get(MetadataProvider.Comicvine).onSuccess();
                 return objectMapper.readValue(response.body(), responseType);
             } else if (response.statusCode() == 420 || response.statusCode() == 429) {
                 handleRateLimit(response);
@@ -478,9 +471,10 @@ public class ComicvineBookParser implements BookParser {
             } else if (response.statusCode() >= 500 && retriesLeft > 0) {
                 log.warn("ComicVine API returned status {}. Retrying... ({} retries left)", 
                          response.statusCode(), retriesLeft);
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException ignored) {}
+                Duration retryAfter = MetadataProviderRateLimiters.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null));
+                if (response.statusCode() == 503 && retryAfter != null) {
+                    rateLimiters.get(MetadataProvider.Comicvine).onThrottled(retryAfter);
+                }
                 return sendRequestWithRetry(uri, responseType, retriesLeft - 1);
             } else {
                 log.error("Comicvine API returned status code {}. Body: {}", response.statusCode(), response.body());
@@ -488,9 +482,6 @@ public class ComicvineBookParser implements BookParser {
         } catch (IOException e) {
             if (retriesLeft > 0) {
                 log.warn("IOException during ComicVine request. Retrying... ({} retries left)", retriesLeft, e);
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException ignored) {}
                 return sendRequestWithRetry(uri, responseType, retriesLeft - 1);
             } else {
                 log.error("Error fetching data from Comicvine API after retries", e);
@@ -506,22 +497,13 @@ public class ComicvineBookParser implements BookParser {
         log.error("ComicVine API rate limit exceeded (Error {}). Setting rate limit flag.", response.statusCode());
 
         long resetDelayMs = 3600000;
-        List<String> retryAfterHeaders = response.headers().allValues("Retry-After");
-        if (!retryAfterHeaders.isEmpty()) {
-            try {
-                String retryAfter = retryAfterHeaders.getFirst();
-                if (DIGIT_PATTERN.matcher(retryAfter).matches()) {
-                    resetDelayMs = Long.parseLong(retryAfter) * 1000;
-                } else {
-                    Instant instant = Instant.parse(retryAfter);
-                    resetDelayMs = instant.toEpochMilli() - System.currentTimeMillis();
-                    if (resetDelayMs <= 0) {
-                        resetDelayMs = 3600000;
-                    }
-                }
-            } catch (Exception e) {
-                log.warn("Could not parse Retry-After header '{}', using default 1 hour delay", retryAfterHeaders.getFirst());
-            }
+        String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+        Duration parsed = MetadataProviderRateLimiters.parseRetryAfter(retryAfter);
+        rateLimiters.get(MetadataProvider.Comicvine).onThrottled(parsed);
+        if (parsed != null && parsed.toMillis() > 0) {
+            resetDelayMs = parsed.toMillis();
+        } else if (retryAfter != null) {
+            log.warn("Could not parse Retry-After header '{}', using default 1 hour delay", retryAfter);
         }
 
         if (rateLimited.compareAndSet(false, true)) {
@@ -6,11 +6,14 @@ import com.adityachandel.booklore.model.dto.BookReview;
 import com.adityachandel.booklore.model.dto.request.FetchMetadataRequest;
 import com.adityachandel.booklore.model.enums.MetadataProvider;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metadata.fetch.MetadataProviderRateLimiters;
+import com.adityachandel.booklore.service.metadata.fetch.ProviderRateLimiter;
 import com.adityachandel.booklore.util.BookUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.text.similarity.FuzzyScore;
 import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -22,7 +25,6 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -42,8 +44,10 @@ public class GoodReadsParser implements BookParser {
     private static final int COUNT_DETAILED_METADATA_TO_GET = 3;
     private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
     private static final Pattern BOOK_SHOW_ID_PATTERN = Pattern.compile("/book/show/(\\d+)");
+    private static final int MAX_THROTTLE_RETRIES = 2;
 
     private final AppSettingService appSettingService;
+    private final MetadataProviderRateLimiters rateLimiters;
 
     private record TitleInfo(String title, String subtitle) {}
 
@@ -127,7 +131,6 @@ public class GoodReadsParser implements BookParser {
                 if (detailedMetadata != null) {
                     fetchedMetadata.add(detailedMetadata);
                 }
-                Thread.sleep(Duration.ofSeconds(2));
             } catch (Exception e) {
                 log.error("Error fetching metadata for book: {}", preview.getGoodreadsId(), e);
             }
@@ -485,7 +488,6 @@ public class GoodReadsParser implements BookParser {
                 metadataPreviews.add(previewMetadata);
             }
 
-            Thread.sleep(Duration.ofSeconds(1));
             return metadataPreviews;
 
         } catch (Exception e) {
@@ -544,37 +546,56 @@ public class GoodReadsParser implements BookParser {
     }
 
     private Document fetchDoc(String url) {
-        try {
-            Connection.Response response = Jsoup.connect(url)
-                    .header("accept", "text/html, application/json")
-                    .header("accept-language", "en-US,en;q=0.9")
-                    .header("content-type", "application/json")
-                    .header("device-memory", "8")
-                    .header("downlink", "10")
-                    .header("dpr", "2")
-                    .header("ect", "4g")
-                    .header("origin", "https://www.amazon.com")
-                    .header("priority", "u=1, i")
-                    .header("rtt", "50")
-                    .header("sec-ch-device-memory", "8")
-                    .header("sec-ch-dpr", "2")
-                    .header("sec-ch-ua", "\"Google Chrome\";v=\"131\", \"Chromium\";v=\"131\", \"Not_A Brand\";v=\"24\"")
-                    .header("sec-ch-ua-mobile", "?0")
-                    .header("sec-ch-ua-platform", "\"macOS\"")
-                    .header("sec-ch-viewport-width", "1170")
-                    .header("sec-fetch-dest", "empty")
-                    .header("sec-fetch-mode", "cors")
-                    .header("sec-fetch-site", "same-origin")
-                    .header("user-agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36")
-                    .header("viewport-width", "1170")
-                    .header("x-amz-amabot-click-attributes", "disable")
-                    .header("x-requested-with", "XMLHttpRequest")
-                    .method(Connection.Method.GET)
-                    .execute();
-            return response.parse();
-        } catch (IOException e) {
-            log.error("Error parsing url: {}", url, e);
-            throw new RuntimeException(e);
+        ProviderRateLimiter rateLimiter = rateLimiters.get(MetadataProvider.GoodReads);
+        for (int attempt = 0; ; attempt++) {
+            if (!rateLimiter.acquire()) {
+                throw new RuntimeException("Interrupted while waiting to fetch " + url);
+            }
+            try {
+                Document document = executeFetch(url);
+                rateLimiter.onSuccess();
+                return document;
+            } catch (HttpStatusException e) {
+                if ((e.getStatusCode() == 429 || e.getStatusCode() == 503) && attempt < MAX_THROTTLE_RETRIES) {
+                    rateLimiter.onThrottled(null);
+                    continue;
+                }
+                log.error("Error parsing url: {}", url, e);
+                throw new RuntimeException(e);
+            } catch (IOException e) {
+                log.error("Error parsing url: {}", url, e);
+                throw new RuntimeException(e);
+            }
         }
     }
-}
\ No newline at end of file
+
+    private Document executeFetch(String url) throws IOException {
+        Connection.Response response = Jsoup.connect(url)
+                .header("accept", "text/html, application/json")
+                .header("accept-language", "en-US,en;q=0.9")
+                .header("content-type", "application/json")
+                .header("device-memory", "8")
+                .header("downlink", "10")
+                .header("dpr", "2")
+                .header("ect", "4g")
+                .header("origin", "https://www.amazon.com")
+                .header("priority", "u=1, i")
+                .header("rtt", "50")
+                .header("sec-ch-device-memory", "8")
+                .header("sec-ch-dpr", "2")
+                .header("sec-ch-ua", "\"Google Chrome\";v=\"131\", \"Chromium\";v=\"131\", \"Not_A Brand\";v=\"24\"")
+                .header("sec-ch-ua-mobile", "?0")
+                .header("sec-ch-ua-platform", "\"macOS\"")
+                .header("sec-ch-viewport-width", "1170")
+                .header("sec-fetch-dest", "empty")
+                .header("sec-fetch-mode", "cors")
+                .header("sec-fetch-site", "same-origin")
+                .header("user-agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36")
+                .header("viewport-width", "1170")
+                .header("x-amz-amabot-click-attributes", "disable")
+                .header("x-requested-with", "XMLHttpRequest")
+                .method(Connection.Method.GET)
+                .execute();
+        return response.parse();
+    }
+}
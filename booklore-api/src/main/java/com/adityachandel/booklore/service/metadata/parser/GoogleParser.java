@@ -6,6 +6,8 @@ import com.adityachandel.booklore.model.dto.request.FetchMetadataRequest;
 import com.adityachandel.booklore.model.dto.response.GoogleBooksApiResponse;
 import com.adityachandel.booklore.model.enums.MetadataProvider;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metadata.fetch.MetadataProviderRateLimiters;
+import com.adityachandel.booklore.service.metadata.fetch.ProviderRateLimiter;
 import com.adityachandel.booklore.util.BookUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -23,7 +25,6 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -38,15 +39,15 @@ public class GoogleParser implements BookParser {
     private static final Pattern YEAR_MONTH_PATTERN = Pattern.compile("^(\\d{4})-(\\d{2})$");
     private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
     private static final Pattern SPECIAL_CHARACTERS_PATTERN = Pattern.compile("[.,\\-\\[\\]{}()!@#$%^&*_=+|~`<>?/\";:]");
-    private static final long MIN_REQUEST_INTERVAL_MS = 1500;
+    private static final int MAX_THROTTLE_RETRIES = 2;
     private static final int MAX_SEARCH_TERM_LENGTH = 60;
     private static final int MAX_RESULTS = 20;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private final ObjectMapper objectMapper;
     private final AppSettingService appSettingService;
+    private final MetadataProviderRateLimiters rateLimiters;
     private final HttpClient httpClient = HttpClient.newHttpClient();
     private static final String GOOGLE_BOOKS_API_URL = "https://www.googleapis.com/books/v1/volumes";
-    private final AtomicLong lastRequestTime = new AtomicLong(0);
 
     @Override
     public BookMetadata fetchTopMetadata(Book book, FetchMetadataRequest fetchMetadataRequest) {
@@ -87,8 +88,6 @@ public class GoogleParser implements BookParser {
 
     private List<BookMetadata> fetchFromApi(String query, boolean isIsbnSearch) {
         try {
-            waitForRateLimit();
-
             // Use smaller maxResults for ISBN searches (typically return 1-3 results)
             // Use larger maxResults for title/author searches to find best match
             int maxResults = isIsbnSearch ? 5 : MAX_RESULTS;
@@ -106,9 +105,21 @@ public class GoogleParser implements BookParser {
                     .GET()
                     .build();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            return handleApiResponse(response);
+            ProviderRateLimiter rateLimiter = rateLimiters.get(MetadataProvider.Google);
+            for (int attempt = 0; ; attempt++) {
+                if (!rateLimiter.acquire()) {
+                    throw new InterruptedException();
+                }
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 429) {
+                    rateLimiter.onSuccess();
+                    return handleApiResponse(response);
+                }
+                rateLimiter.onThrottled(MetadataProviderRateLimiters.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null)));
+                if (attempt >= MAX_THROTTLE_RETRIES) {
+                    return handleApiResponse(response);
+                }
+            }
         } catch (IOException e) {
             log.error("IO error while fetching metadata from Google Books API: {}", e.getMessage());
             return List.of();
@@ -129,7 +140,7 @@ public class GoogleParser implements BookParser {
         }
         
         if (statusCode == 429) {
-            log.warn("Google Books API rate limit exceeded. Consider increasing request interval.");
+            log.warn("Google Books API rate limit still exceeded after {} retries", MAX_THROTTLE_RETRIES);
             return List.of();
         }
         
@@ -543,19 +554,6 @@ public class GoogleParser implements BookParser {
             .toString();
     }
 
-    private void waitForRateLimit() {
-        long now = System.currentTimeMillis();
-        long timeSinceLastRequest = now - lastRequestTime.get();
-        if (timeSinceLastRequest < MIN_REQUEST_INTERVAL_MS) {
-            try {
-                Thread.sleep(MIN_REQUEST_INTERVAL_MS - timeSinceLastRequest);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-        lastRequestTime.set(System.currentTimeMillis());
-    }
-
     /**
      * Sort results by metadata completeness.
      * Items with more populated fields come first.
@@ -1,6 +1,9 @@
 package com.adityachandel.booklore.service.metadata.parser.hardcover;
 
+import com.adityachandel.booklore.model.enums.MetadataProvider;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metadata.fetch.MetadataProviderRateLimiters;
+import com.adityachandel.booklore.service.metadata.fetch.ProviderRateLimiter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
@@ -11,25 +14,22 @@ import org.springframework.web.client.RestClientResponseException;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
 public class HardcoverBookSearchService {
 
     public static final int DEFAULT_PER_PAGE = 10;
-    private static final long INITIAL_DELAY_MS = 1200;
-    private static final long MAX_DELAY_MS = 15000;
+    private static final int MAX_THROTTLE_RETRIES = 2;
 
     private final RestClient restClient;
     private final AppSettingService appSettingService;
-    private final AtomicLong requestDelayMs = new AtomicLong(INITIAL_DELAY_MS);
-    private final AtomicLong lastRequestTime = new AtomicLong(0);
-    private final AtomicLong successCount = new AtomicLong(0);
+    private final ProviderRateLimiter rateLimiter;
 
     @Autowired
-    public HardcoverBookSearchService(AppSettingService appSettingService) {
+    public HardcoverBookSearchService(AppSettingService appSettingService, MetadataProviderRateLimiters rateLimiters) {
         this.appSettingService = appSettingService;
+        this.rateLimiter = rateLimiters.get(MetadataProvider.Hardcover);
         this.restClient = RestClient.builder()
                 .baseUrl("https://api.hardcover.app/v1/graphql")
                 .build();
@@ -80,63 +80,40 @@ public class HardcoverBookSearchService {
     }
 
     private <T> T executeRequest(GraphQLRequest body, Class<T> responseType, String apiToken) {
-        enforceRateLimit();
-
-        try {
-            T response = restClient.post()
-                    .uri("")
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiToken)
-                    .body(body)
-                    .retrieve()
-                    .body(responseType);
-
-            successCount.incrementAndGet();
-            if (successCount.get() % 5 == 0) {
-                reduceDelay();
+        for (int attempt = 0; ; attempt++) {
+            if (!rateLimiter.acquire()) {
+                log.warn("Hardcover API request interrupted");
+                return null;
             }
-            return response;
-
-        } catch (RestClientResponseException e) {
-            successCount.set(0);
-            if (e.getStatusCode().value() == 429 || e.getResponseBodyAsString().contains("Throttled")) {
-                increaseDelay();
-                log.warn("Hardcover API throttled, increased delay to {}ms", requestDelayMs.get());
-            } else {
-                log.error("Hardcover API error: {}", e.getMessage());
-            }
-            return null;
-        } catch (Exception e) {
-            log.error("Hardcover API request failed: {}", e.getMessage());
-            return null;
-        } finally {
-            lastRequestTime.set(System.currentTimeMillis());
-        }
-    }
-
-    private void enforceRateLimit() {
-        long now = System.currentTimeMillis();
-        long last = lastRequestTime.get();
-        long delay = requestDelayMs.get();
-        long elapsed = now - last;
-
-        if (elapsed < delay) {
             try {
-                Thread.sleep(delay - elapsed);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                T response = restClient.post()
+                        .uri("")
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiToken)
+                        .body(body)
+                        .retrieve()
+                        .body(responseType);
+                rateLimiter.onSuccess();
+                return response;
+            } catch (RestClientResponseException e) {
+                if (e.getStatusCode().value() == 429 || e.getResponseBodyAsString().contains("Throttled")) {
+                    String retryAfter = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null;
+                    rateLimiter.onThrottled(MetadataProviderRateLimiters.parseRetryAfter(retryAfter));
+                    if (attempt < MAX_THROTTLE_RETRIES) {
+                        continue;
+                    }
+                    log.warn("Hardcover API still throttled after {} retries", MAX_THROTTLE_RETRIES);
+                } else {
+                    log.error("Hardcover API error: {}", e.getMessage());
+                }
+                return null;
+            } catch (Exception e) {
+                log.error("Hardcover API request failed: {}", e.getMessage());
+                return null;
             }
         }
     }
 
-    private void increaseDelay() {
-        requestDelayMs.updateAndGet(current -> Math.min(current * 2, MAX_DELAY_MS));
-    }
-
-    private void reduceDelay() {
-        requestDelayMs.updateAndGet(current -> Math.max(current - 100, INITIAL_DELAY_MS));
-    }
-
     private String getApiToken() {
         String apiToken = appSettingService.getAppSettings().getMetadataProviderSettings().getHardcover().getApiKey();
         if (apiToken == null || apiToken.isEmpty()) {
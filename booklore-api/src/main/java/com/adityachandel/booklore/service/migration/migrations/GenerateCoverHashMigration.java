@@ -2,10 +2,13 @@ package com.adityachandel.booklore.service.migration.migrations;
 
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.batch.BatchJob;
+import com.adityachandel.booklore.service.batch.BatchJobRunner;
 import com.adityachandel.booklore.service.migration.Migration;
 import com.adityachandel.booklore.util.BookCoverUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -16,6 +19,7 @@ import java.util.List;
 public class GenerateCoverHashMigration implements Migration {
 
     private final BookRepository bookRepository;
+    private final BatchJobRunner batchJobRunner;
 
     @Override
     public String getKey() {
@@ -31,30 +35,26 @@ public class GenerateCoverHashMigration implements Migration {
     public void execute() {
         log.info("Starting migration: {}", getKey());
 
-        int batchSize = 1000;
-        int processedCount = 0;
-        int offset = 0;
+        int updated = batchJobRunner.run(BatchJob.builder()
+                .name(getKey())
+                .idSource((afterId, limit) -> bookRepository.findBookIdsAfter(afterId, PageRequest.of(0, limit)))
+                .processor(this::generateHashes)
+                .chunkSize(1000)
+                .resumable(true)
+                .build());
 
-        while (true) {
-            List<BookEntity> bookBatch = bookRepository.findBooksForMigrationBatch(offset, batchSize);
-            if (bookBatch.isEmpty()) break;
+        log.info("Completed migration '{}'. Total books updated: {}", getKey(), updated);
+    }
 
-            for (BookEntity book : bookBatch) {
-                if (book.getBookCoverHash() == null) {
-                    book.setBookCoverHash(BookCoverUtils.generateCoverHash());
-                }
+    private int generateHashes(List<Long> bookIds) {
+        int updated = 0;
+        for (BookEntity book : bookRepository.findAllById(bookIds)) {
+            if (book.getBookCoverHash() == null) {
+                book.setBookCoverHash(BookCoverUtils.generateCoverHash());
+                updated++;
             }
-
-            bookRepository.saveAll(bookBatch);
-            processedCount += bookBatch.size();
-            offset += batchSize;
-
-            log.info("Migration progress: {} books processed", processedCount);
-
-            if (bookBatch.size() < batchSize) break;
         }
-
-        log.info("Completed migration '{}'. Total books processed: {}", getKey(), processedCount);
+        return updated;
     }
 }
 
@@ -1,6 +1,8 @@
 package com.adityachandel.booklore.service.migration.migrations;
 
 import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.service.batch.BatchJob;
+import com.adityachandel.booklore.service.batch.BatchJobRunner;
 import com.adityachandel.booklore.service.migration.Migration;
 import com.adityachandel.booklore.util.FileService;
 import lombok.RequiredArgsConstructor;
@@ -16,13 +18,19 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class PopulateCoversAndResizeThumbnailsMigration implements Migration {
 
+    private static final int MAX_WORKERS = 4;
+
     private final AppProperties appProperties;
+    private final BatchJobRunner batchJobRunner;
 
     @Override
     public String getKey() {
@@ -45,50 +53,30 @@ public class PopulateCoversAndResizeThumbnailsMigration implements Migration {
 
         try {
             if (Files.exists(thumbsDir)) {
-                try (var stream = Files.walk(thumbsDir)) {
-                    stream.filter(Files::isRegularFile)
-                            .forEach(path -> {
-                                BufferedImage originalImage = null;
-                                BufferedImage resized = null;
-                                try {
-                                    // Load original image
-                                    originalImage = ImageIO.read(path.toFile());
-                                    if (originalImage == null) {
-                                        log.warn("Skipping non-image file: {}", path);
-                                        return;
-                                    }
-
-                                    // Extract bookId from folder structure
-                                    Path relative = thumbsDir.relativize(path);       // e.g., "11/f.jpg"
-                                    String bookId = relative.getParent().toString();  // "11"
-
-                                    Path bookDir = imagesDir.resolve(bookId);
-                                    Files.createDirectories(bookDir);
-
-                                    // Copy original to cover.jpg
-                                    Path coverFile = bookDir.resolve("cover.jpg");
-                                    ImageIO.write(originalImage, "jpg", coverFile.toFile());
-
-                                    // Resize and save thumbnail.jpg
-                                    resized = FileService.resizeImage(originalImage, 250, 350);
-                                    Path thumbnailFile = bookDir.resolve("thumbnail.jpg");
-                                    ImageIO.write(resized, "jpg", thumbnailFile.toFile());
-
-                                    log.debug("Processed book {}: cover={} thumbnail={}", bookId, coverFile, thumbnailFile);
-                                } catch (IOException e) {
-                                    log.error("Error processing file {}", path, e);
-                                    throw new UncheckedIOException(e);
-                                } finally {
-                                    if (originalImage != null) {
-                                        originalImage.flush();
-                                    }
-                                    if (resized != null) {
-                                        resized.flush();
-                                    }
-                                }
-                            });
+                // One folder per book under thumbs/; decoding dominates, so books are spread over a few workers.
+                NavigableSet<Long> bookIds = new TreeSet<>();
+                try (Stream<Path> folders = Files.list(thumbsDir)) {
+                    folders.filter(Files::isDirectory).forEach(folder -> {
+                        try {
+                            bookIds.add(Long.parseLong(folder.getFileName().toString()));
+                        } catch (NumberFormatException e) {
+                            log.warn("Skipping unexpected folder in thumbs directory: {}", folder);
+                        }
+                    });
                 }
 
+                batchJobRunner.run(BatchJob.builder()
+                        .name(getKey())
+                        .idSource((afterId, limit) -> bookIds.tailSet(afterId, false).stream().limit(limit).toList())
+                        .processor(ids -> {
+                            ids.forEach(bookId -> migrateBook(thumbsDir.resolve(String.valueOf(bookId)), imagesDir.resolve(String.valueOf(bookId))));
+                            return ids.size();
+                        })
+                        .chunkSize(50)
+                        .workers(Math.clamp(Runtime.getRuntime().availableProcessors(), 1, MAX_WORKERS))
+                        .transactional(false)
+                        .build());
+
                 // Delete old thumbs directory
                 log.info("Deleting old thumbs directory: {}", thumbsDir);
                 try (var stream = Files.walk(thumbsDir)) {
@@ -105,5 +93,50 @@ public class PopulateCoversAndResizeThumbnailsMigration implements Migration {
         long elapsedMs = (System.nanoTime() - start) / 1_000_000;
         log.info("Completed migration: {} in {} ms", getKey(), elapsedMs);
     }
+
+    private void migrateBook(Path bookThumbsDir, Path bookDir) {
+        try (Stream<Path> files = Files.walk(bookThumbsDir)) {
+            files.filter(Files::isRegularFile).forEach(path -> migrateImage(path, bookDir));
+        } catch (IOException e) {
+            log.error("Error reading thumbnails in {}", bookThumbsDir, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void migrateImage(Path path, Path bookDir) {
+        BufferedImage originalImage = null;
+        BufferedImage resized = null;
+        try {
+            // Load original image
+            originalImage = ImageIO.read(path.toFile());
+            if (originalImage == null) {
+                log.warn("Skipping non-image file: {}", path);
+                return;
+            }
+
+            Files.createDirectories(bookDir);
+
+            // Copy original to cover.jpg
+            Path coverFile = bookDir.resolve("cover.jpg");
+            ImageIO.write(originalImage, "jpg", coverFile.toFile());
+
+            // Resize and save thumbnail.jpg
+            resized = FileService.resizeImage(originalImage, 250, 350);
+            Path thumbnailFile = bookDir.resolve("thumbnail.jpg");
+            ImageIO.write(resized, "jpg", thumbnailFile.toFile());
+
+            log.debug("Processed {}: cover={} thumbnail={}", path, coverFile, thumbnailFile);
+        } catch (IOException e) {
+            log.error("Error processing file {}", path, e);
+            throw new UncheckedIOException(e);
+        } finally {
+            if (originalImage != null) {
+                originalImage.flush();
+            }
+            if (resized != null) {
+                resized.flush();
+            }
+        }
+    }
 }
 
@@ -2,10 +2,13 @@ package com.adityachandel.booklore.service.migration.migrations;
 
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.batch.BatchJob;
+import com.adityachandel.booklore.service.batch.BatchJobRunner;
 import com.adityachandel.booklore.service.file.FileFingerprint;
 import com.adityachandel.booklore.service.migration.Migration;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Files;
@@ -17,7 +20,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PopulateFileHashesMigration implements Migration {
 
+    // Hashing is disk bound; a few readers keep the disk busy without starving the connection pool.
+    private static final int WORKERS = 4;
+
     private final BookRepository bookRepository;
+    private final BatchJobRunner batchJobRunner;
 
     @Override
     public String getKey() {
@@ -33,12 +40,29 @@ public class PopulateFileHashesMigration implements Migration {
     public void execute() {
         log.info("Starting migration: {}", getKey());
 
-        List<BookEntity> books = bookRepository.findAll();
-        int updated = 0;
+        int updated = batchJobRunner.run(BatchJob.builder()
+                .name(getKey())
+                .idSource((afterId, limit) -> bookRepository.findBookIdsAfter(afterId, PageRequest.of(0, limit)))
+                .processor(this::populateHashes)
+                .chunkSize(100)
+                .workers(WORKERS)
+                .resumable(true)
+                .build());
 
-        for (BookEntity book : books) {
-            Path path = book.getFullFilePath();
-            if (path == null || !Files.exists(path)) {
+        log.info("Migration '{}' applied to {} books.", getKey(), updated);
+    }
+
+    private int populateHashes(List<Long> bookIds) {
+        int updated = 0;
+        for (BookEntity book : bookRepository.findAllWithFilesByIds(bookIds)) {
+            Path path;
+            try {
+                path = book.getFullFilePath();
+            } catch (IllegalStateException e) {
+                log.warn("Skipping hashing for book ID {} — {}", book.getId(), e.getMessage());
+                continue;
+            }
+            if (!Files.exists(path)) {
                 log.warn("Skipping hashing for book ID {} — file not found at path: {}", book.getId(), path);
                 continue;
             }
@@ -54,10 +78,6 @@ public class PopulateFileHashesMigration implements Migration {
                 log.error("Failed to compute hash for file: {}", path, e);
             }
         }
-
-        bookRepository.saveAll(books);
-
-        log.info("Migration '{}' applied to {} books.", getKey(), updated);
+        return updated;
     }
 }
-
@@ -1,24 +1,23 @@
 package com.adityachandel.booklore.service.migration.migrations;
 
-import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.repository.BookRepository;
-import com.adityachandel.booklore.service.book.BookQueryService;
+import com.adityachandel.booklore.service.batch.BatchJob;
+import com.adityachandel.booklore.service.batch.BatchJobRunner;
 import com.adityachandel.booklore.service.metadata.MetadataMatchService;
 import com.adityachandel.booklore.service.migration.Migration;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class PopulateMetadataScoresMigration implements Migration {
 
     private final BookRepository bookRepository;
-    private final BookQueryService bookQueryService;
     private final MetadataMatchService metadataMatchService;
+    private final BatchJobRunner batchJobRunner;
 
     @Override
     public String getKey() {
@@ -34,15 +33,13 @@ public class PopulateMetadataScoresMigration implements Migration {
     public void execute() {
         log.info("Starting migration: {}", getKey());
 
-        List<BookEntity> books = bookQueryService.getAllFullBookEntities();
-
-        for (BookEntity book : books) {
-            Float score = metadataMatchService.calculateMatchScore(book);
-            book.setMetadataMatchScore(score);
-        }
-
-        bookRepository.saveAll(books);
+        int updated = batchJobRunner.run(BatchJob.builder()
+                .name(getKey())
+                .idSource((afterId, limit) -> bookRepository.findBookIdsAfter(afterId, PageRequest.of(0, limit)))
+                .processor(metadataMatchService::recalculateMatchScores)
+                .resumable(true)
+                .build());
 
-        log.info("Migration '{}' applied to {} books.", getKey(), books.size());
+        log.info("Migration '{}' applied to {} books.", getKey(), updated);
     }
 }
@@ -2,10 +2,13 @@ package com.adityachandel.booklore.service.migration.migrations;
 
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.batch.BatchJob;
+import com.adityachandel.booklore.service.batch.BatchJobRunner;
 import com.adityachandel.booklore.service.migration.Migration;
 import com.adityachandel.booklore.util.FileUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -16,6 +19,7 @@ import java.util.List;
 public class PopulateMissingFileSizesMigration implements Migration {
 
     private final BookRepository bookRepository;
+    private final BatchJobRunner batchJobRunner;
 
     @Override
     public String getKey() {
@@ -31,18 +35,26 @@ public class PopulateMissingFileSizesMigration implements Migration {
     public void execute() {
         log.info("Starting migration: {} for books.", getKey());
 
-        List<BookEntity> books = bookRepository.findAllWithMetadataByFileSizeKbIsNull();
+        int updated = batchJobRunner.run(BatchJob.builder()
+                .name(getKey())
+                .idSource((afterId, limit) -> bookRepository.findBookIdsWithMissingFileSizeAfter(afterId, PageRequest.of(0, limit)))
+                .processor(this::populateFileSizes)
+                .workers(2)
+                .resumable(true)
+                .build());
 
-        for (BookEntity book : books) {
+        log.info("Migration '{}' executed successfully for {} books.", getKey(), updated);
+    }
+
+    private int populateFileSizes(List<Long> bookIds) {
+        int updated = 0;
+        for (BookEntity book : bookRepository.findAllWithFilesByIds(bookIds)) {
             Long sizeInKb = FileUtils.getFileSizeInKb(book);
             if (sizeInKb != null) {
                 book.getPrimaryBookFile().setFileSizeKb(sizeInKb);
+                updated++;
             }
         }
-
-        bookRepository.saveAll(books);
-
-        log.info("Migration '{}' executed successfully for {} books.", getKey(), books.size());
+        return updated;
     }
 }
-
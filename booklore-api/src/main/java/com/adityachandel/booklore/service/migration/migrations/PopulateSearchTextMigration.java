@@ -3,10 +3,13 @@ package com.adityachandel.booklore.service.migration.migrations;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
 import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.batch.BatchJob;
+import com.adityachandel.booklore.service.batch.BatchJobRunner;
 import com.adityachandel.booklore.service.migration.Migration;
 import com.adityachandel.booklore.util.BookUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -17,6 +20,7 @@ import java.util.List;
 public class PopulateSearchTextMigration implements Migration {
 
     private final BookRepository bookRepository;
+    private final BatchJobRunner batchJobRunner;
 
     @Override
     public String getKey() {
@@ -32,38 +36,32 @@ public class PopulateSearchTextMigration implements Migration {
     public void execute() {
         log.info("Starting migration: {}", getKey());
 
-        int batchSize = 1000;
-        int processedCount = 0;
-        int offset = 0;
+        int processedCount = batchJobRunner.run(BatchJob.builder()
+                .name(getKey())
+                .idSource((afterId, limit) -> bookRepository.findBookIdsAfter(afterId, PageRequest.of(0, limit)))
+                .processor(this::populateSearchText)
+                .chunkSize(1000)
+                .resumable(true)
+                .build());
 
-        while (true) {
-            List<BookEntity> bookBatch = bookRepository.findBooksForMigrationBatch(offset, batchSize);
-            if (bookBatch.isEmpty()) break;
-
-            List<Long> bookIds = bookBatch.stream().map(BookEntity::getId).toList();
-            List<BookEntity> books = bookRepository.findBooksWithMetadataAndAuthors(bookIds);
+        log.info("Completed migration '{}'. Total books processed: {}", getKey(), processedCount);
+    }
 
-            for (BookEntity book : books) {
-                BookMetadataEntity m = book.getMetadata();
-                if (m != null) {
-                    try {
-                        m.setSearchText(BookUtils.buildSearchText(m));
-                    } catch (Exception ex) {
-                        log.warn("Failed to build search text for book {}: {}", book.getId(), ex.getMessage());
-                    }
+    private int populateSearchText(List<Long> bookIds) {
+        List<BookEntity> books = bookRepository.findBooksWithMetadataAndAuthors(bookIds);
+        int updated = 0;
+        for (BookEntity book : books) {
+            BookMetadataEntity m = book.getMetadata();
+            if (m != null) {
+                try {
+                    m.setSearchText(BookUtils.buildSearchText(m));
+                    updated++;
+                } catch (Exception ex) {
+                    log.warn("Failed to build search text for book {}: {}", book.getId(), ex.getMessage());
                 }
             }
-
-            bookRepository.saveAll(books);
-            processedCount += books.size();
-            offset += batchSize;
-
-            log.info("Migration progress: {} books processed", processedCount);
-
-            if (bookBatch.size() < batchSize) break;
         }
-
-        log.info("Completed migration '{}'. Total books processed: {}", getKey(), processedCount);
+        return updated;
     }
 }
 
@@ -0,0 +1,239 @@
+package com.adityachandel.booklore.service.monitoring;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.model.dto.Library;
+import com.adityachandel.booklore.model.dto.LibraryPath;
+import com.adityachandel.booklore.model.enums.BookFileExtension;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Change detection for libraries on network filesystems, where {@link WatchService} misses events or registering a
+ * watch key per directory is expensive. Each library keeps a tree of its directories with their last modified time;
+ * a poll stats every known directory but only lists those whose mtime changed, and reports the difference as the same
+ * {@link FileChangeEvent}s the watcher would have published.
+ * <p>
+ * The tree is recorded right after registration; later polls run every {@code app.monitoring.poll-interval} plus a
+ * random delay of up to {@code poll-jitter}, on at most {@code poll-threads} threads, so many libraries on one NAS do
+ * not hit it in lockstep.
+ */
+@Slf4j
+@Component
+public class LibraryPollingMonitor {
+
+    /**
+     * A directory modified this close to being listed may change again within the same mtime tick; such directories
+     * are listed again on the next poll instead of trusting the timestamp.
+     */
+    static final long RACY_MTIME_WINDOW_MS = 2000;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final AppProperties.Monitoring settings;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Long, PolledLibrary> libraries = new ConcurrentHashMap<>();
+
+    public LibraryPollingMonitor(ApplicationEventPublisher eventPublisher, AppProperties appProperties) {
+        this.eventPublisher = eventPublisher;
+        this.settings = appProperties.getMonitoring();
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, settings.getPollThreads()),
+                Thread.ofPlatform().name("library-poller-", 0).daemon().factory());
+    }
+
+    record DirectoryState(FileTime modified, Set<Path> subdirectories, Set<Path> bookFiles) {
+    }
+
+    static final class PolledLibrary {
+        private final long libraryId;
+        private final String name;
+        private final List<Path> roots;
+        private final Map<Path, DirectoryState> tree = new ConcurrentHashMap<>();
+        private volatile boolean baselined;
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> next;
+
+        PolledLibrary(long libraryId, String name, List<Path> roots) {
+            this.libraryId = libraryId;
+            this.name = name;
+            this.roots = roots;
+        }
+    }
+
+    public void register(Library library) {
+        List<Path> roots = library.getPaths().stream()
+                .map(LibraryPath::getPath)
+                .map(path -> Paths.get(path).toAbsolutePath().normalize())
+                .toList();
+        PolledLibrary polled = new PolledLibrary(library.getId(), library.getName(), roots);
+        cancel(libraries.put(library.getId(), polled));
+        schedule(polled, 0);
+        log.info("Polling {} folder(s) of library '{}' every {}", roots.size(), library.getName(), settings.getPollInterval());
+    }
+
+    public void unregister(long libraryId) {
+        cancel(libraries.remove(libraryId));
+    }
+
+    public boolean isPolled(long libraryId) {
+        return libraries.containsKey(libraryId);
+    }
+
+    /**
+     * Library whose polled folders contain {@code folder}, or {@code null} if none does.
+     */
+    public Long findLibraryId(Path folder) {
+        for (PolledLibrary polled : libraries.values()) {
+            if (polled.roots.stream().anyMatch(folder::startsWith)) {
+                return polled.libraryId;
+            }
+        }
+        return null;
+    }
+
+    public Set<Path> getRoots(Set<Long> libraryIds) {
+        Set<Path> roots = new HashSet<>();
+        libraryIds.forEach(id -> Optional.ofNullable(libraries.get(id)).ifPresent(polled -> roots.addAll(polled.roots)));
+        return roots;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void cancel(PolledLibrary polled) {
+        if (polled != null) {
+            polled.cancelled = true;
+            ScheduledFuture<?> next = polled.next;
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+    }
+
+    private void schedule(PolledLibrary polled, long delayMs) {
+        if (polled.cancelled || scheduler.isShutdown()) {
+            return;
+        }
+        try {
+            polled.next = scheduler.schedule(() -> runPoll(polled), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Poller stopped, not scheduling library {}", polled.libraryId);
+        }
+    }
+
+    private void runPoll(PolledLibrary polled) {
+        try {
+            poll(polled);
+        } catch (Exception e) {
+            log.error("Error polling library '{}'", polled.name, e);
+        } finally {
+            long jitterMs = settings.getPollJitter().toMillis();
+            long delay = settings.getPollInterval().toMillis() + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs) : 0);
+            schedule(polled, delay);
+        }
+    }
+
+    void poll(PolledLibrary polled) {
+        boolean emit = polled.baselined;
+        for (Path root : polled.roots) {
+            if (polled.cancelled) {
+                return;
+            }
+            if (!Files.isDirectory(root)) {
+                // An unmounted share looks like an empty one; keep the last known tree instead of deleting every book.
+                log.warn("Library folder '{}' is not available, skipping poll", root);
+                continue;
+            }
+            scan(polled, root, emit);
+        }
+        polled.baselined = true;
+    }
+
+    private void scan(PolledLibrary polled, Path dir, boolean emit) {
+        FileTime modified;
+        try {
+            modified = Files.readAttributes(dir, BasicFileAttributes.class).lastModifiedTime();
+        } catch (IOException e) {
+            log.debug("Cannot stat '{}': {}", dir, e.getMessage());
+            return;
+        }
+
+        DirectoryState previous = polled.tree.get(dir);
+        DirectoryState current = previous;
+        Set<Path> created = Set.of();
+        if (previous == null || !modified.equals(previous.modified())) {
+            current = list(dir, modified);
+            if (current == null) {
+                return;
+            }
+            polled.tree.put(dir, current);
+            if (previous != null && emit) {
+                created = publishDifferences(polled, dir, previous, current);
+            }
+        }
+
+        for (Path subdirectory : current.subdirectories()) {
+            // New folders are reported as a whole; only their state is recorded so later changes inside are noticed.
+            scan(polled, subdirectory, emit && !created.contains(subdirectory));
+        }
+    }
+
+    private DirectoryState list(Path dir, FileTime modified) {
+        Set<Path> subdirectories = new HashSet<>();
+        Set<Path> bookFiles = new HashSet<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                    subdirectories.add(entry);
+                } else if (BookFileExtension.fromFileName(entry.getFileName().toString()).isPresent()) {
+                    bookFiles.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Cannot list '{}': {}", dir, e.getMessage());
+            return null;
+        }
+        boolean racy = System.currentTimeMillis() - modified.toMillis() < RACY_MTIME_WINDOW_MS;
+        return new DirectoryState(racy ? FileTime.fromMillis(0) : modified, subdirectories, bookFiles);
+    }
+
+    private Set<Path> publishDifferences(PolledLibrary polled, Path dir, DirectoryState previous, DirectoryState current) {
+        Set<Path> created = new HashSet<>();
+        for (Path subdirectory : previous.subdirectories()) {
+            if (!current.subdirectories().contains(subdirectory)) {
+                publish(subdirectory, StandardWatchEventKinds.ENTRY_DELETE, dir);
+                polled.tree.keySet().removeIf(path -> path.startsWith(subdirectory));
+            }
+        }
+        for (Path file : previous.bookFiles()) {
+            if (!current.bookFiles().contains(file)) {
+                publish(file, StandardWatchEventKinds.ENTRY_DELETE, dir);
+            }
+        }
+        for (Path subdirectory : current.subdirectories()) {
+            if (!previous.subdirectories().contains(subdirectory)) {
+                publish(subdirectory, StandardWatchEventKinds.ENTRY_CREATE, dir);
+                created.add(subdirectory);
+            }
+        }
+        for (Path file : current.bookFiles()) {
+            if (!previous.bookFiles().contains(file)) {
+                publish(file, StandardWatchEventKinds.ENTRY_CREATE, dir);
+            }
+        }
+        return created;
+    }
+
+    private void publish(Path path, WatchEvent.Kind<?> kind, Path dir) {
+        eventPublisher.publishEvent(new FileChangeEvent(this, path, kind, dir));
+    }
+}
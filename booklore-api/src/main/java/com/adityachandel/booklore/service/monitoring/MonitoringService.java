@@ -2,6 +2,7 @@ package com.adityachandel.booklore.service.monitoring;
 
 import com.adityachandel.booklore.model.dto.Library;
 import com.adityachandel.booklore.model.enums.BookFileExtension;
+import com.adityachandel.booklore.model.enums.LibraryMonitorMode;
 import com.adityachandel.booklore.service.watcher.LibraryFileEventProcessor;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -21,11 +22,15 @@ import java.util.stream.Stream;
 @Service
 public class MonitoringService {
 
+    static final int EVENT_QUEUE_CAPACITY = 10_000;
+    private static final long QUEUE_OFFER_TIMEOUT_MS = 1000;
+
     private final LibraryFileEventProcessor libraryFileEventProcessor;
     private final WatchService watchService;
     private final MonitoringTask monitoringTask;
+    private final LibraryPollingMonitor libraryPollingMonitor;
 
-    private final BlockingQueue<FileChangeEvent> eventQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<FileChangeEvent> eventQueue = new ArrayBlockingQueue<>(EVENT_QUEUE_CAPACITY);
     private final ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
 
     private final Set<Path> monitoredPaths = ConcurrentHashMap.newKeySet();
@@ -33,10 +38,12 @@ public class MonitoringService {
     private final Map<Path, Long> pathToLibraryIdMap = new ConcurrentHashMap<>();
     private final Map<Long, Boolean> libraryWatchStatusMap = new ConcurrentHashMap<>();
 
-    public MonitoringService(LibraryFileEventProcessor libraryFileEventProcessor, WatchService watchService, MonitoringTask monitoringTask) {
+    public MonitoringService(LibraryFileEventProcessor libraryFileEventProcessor, WatchService watchService, MonitoringTask monitoringTask,
+                             LibraryPollingMonitor libraryPollingMonitor) {
         this.libraryFileEventProcessor = libraryFileEventProcessor;
         this.watchService = watchService;
         this.monitoringTask = monitoringTask;
+        this.libraryPollingMonitor = libraryPollingMonitor;
     }
 
     @PostConstruct
@@ -66,6 +73,13 @@ public class MonitoringService {
         libraryWatchStatusMap.put(library.getId(), library.isWatch());
         if (!library.isWatch()) return;
 
+        if (library.getMonitorMode() == LibraryMonitorMode.POLL) {
+            unregisterWatchedPaths(library.getId());
+            libraryPollingMonitor.register(library);
+            return;
+        }
+        libraryPollingMonitor.unregister(library.getId());
+
         int[] registeredCount = {0};
 
         library.getPaths().forEach(libraryPath -> {
@@ -87,6 +101,15 @@ public class MonitoringService {
     }
 
     public void unregisterLibrary(Long libraryId) {
+        unregisterWatchedPaths(libraryId);
+        libraryPollingMonitor.unregister(libraryId);
+
+        libraryWatchStatusMap.put(libraryId, false);
+        libraryFileEventProcessor.discardPending(libraryId);
+        log.debug("Unregistered library {} from monitoring", libraryId);
+    }
+
+    private void unregisterWatchedPaths(Long libraryId) {
         Set<Path> pathsToRemove = pathToLibraryIdMap.entrySet().stream()
                 .filter(entry -> entry.getValue().equals(libraryId))
                 .map(Map.Entry::getKey)
@@ -95,9 +118,6 @@ public class MonitoringService {
         for (Path path : pathsToRemove) {
             unregisterPath(path);
         }
-
-        libraryWatchStatusMap.put(libraryId, false);
-        log.debug("Unregistered library {} from monitoring", libraryId);
     }
 
     public synchronized boolean registerPath(Path path, Long libraryId) {
@@ -158,6 +178,16 @@ public class MonitoringService {
         Path fullPath = event.getFilePath();
         WatchEvent.Kind<?> kind = event.getEventKind();
 
+        if (event.getSource() instanceof LibraryPollingMonitor) {
+            // The poller only reports book files and folders and has no watch keys to maintain.
+            queueEvent(event, fullPath, kind);
+            return;
+        }
+        if (kind == StandardWatchEventKinds.OVERFLOW) {
+            registerSubdirectories(event.getWatchedFolder());
+            queueEvent(event, fullPath, kind);
+            return;
+        }
         if (kind != StandardWatchEventKinds.ENTRY_CREATE && kind != StandardWatchEventKinds.ENTRY_DELETE) return;
 
         boolean isDir = kind == StandardWatchEventKinds.ENTRY_CREATE
@@ -202,7 +232,7 @@ public class MonitoringService {
     private void processFileChangeEvent(FileChangeEvent event) {
         Path filePath = event.getFilePath();
         Path watchedFolder = event.getWatchedFolder();
-        Long libraryId = pathToLibraryIdMap.get(watchedFolder);
+        Long libraryId = resolveLibraryId(watchedFolder);
 
         if (libraryId != null) {
             try {
@@ -219,11 +249,7 @@ public class MonitoringService {
         if (isDir && kind == StandardWatchEventKinds.ENTRY_CREATE) {
             Long parentLibraryId = pathToLibraryIdMap.get(event.getWatchedFolder());
             if (parentLibraryId != null) {
-                try (Stream<Path> stream = Files.walk(fullPath)) {
-                    stream.filter(Files::isDirectory).forEach(path -> registerPath(path, parentLibraryId));
-                } catch (IOException e) {
-                    log.warn("Failed to register nested paths: {}", fullPath, e);
-                }
+                registerTree(fullPath, parentLibraryId);
             }
         }
 
@@ -232,14 +258,52 @@ public class MonitoringService {
         }
     }
 
+    /**
+     * Directories created while events were being lost never got a watch key of their own.
+     */
+    private void registerSubdirectories(Path watchedFolder) {
+        Long libraryId = pathToLibraryIdMap.get(watchedFolder);
+        if (libraryId != null) {
+            registerTree(watchedFolder, libraryId);
+        }
+    }
+
+    private void registerTree(Path root, Long libraryId) {
+        try (Stream<Path> stream = Files.walk(root)) {
+            stream.filter(Files::isDirectory).forEach(path -> registerPath(path, libraryId));
+        } catch (IOException e) {
+            log.warn("Failed to register nested paths: {}", root, e);
+        }
+    }
+
+    /**
+     * Blocks the watcher briefly when the queue is full. If it is still full, the single event is replaced by a rescan
+     * of its folder, handed straight to the processor, rather than being lost.
+     */
     private void queueEvent(FileChangeEvent event, Path fullPath, WatchEvent.Kind<?> kind) {
-        if (!eventQueue.offer(event)) {
-            log.warn("Event queue full, dropping: {}", fullPath);
+        try {
+            if (eventQueue.offer(event, QUEUE_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                log.debug("Queued: {} [{}]", fullPath, kind.name());
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Path watchedFolder = event.getWatchedFolder();
+        Long libraryId = resolveLibraryId(watchedFolder);
+        if (libraryId != null) {
+            log.warn("Event queue full, scheduling rescan of {} instead of queuing {}", watchedFolder, fullPath);
+            libraryFileEventProcessor.processFile(StandardWatchEventKinds.OVERFLOW, libraryId, watchedFolder.toString(), watchedFolder.toString());
         } else {
-            log.debug("Queued: {} [{}]", fullPath, kind.name());
+            log.warn("Event queue full, dropping: {}", fullPath);
         }
     }
 
+    private Long resolveLibraryId(Path watchedFolder) {
+        Long libraryId = pathToLibraryIdMap.get(watchedFolder);
+        return libraryId != null ? libraryId : libraryPollingMonitor.findLibraryId(watchedFolder);
+    }
+
     public boolean isRelevantBookFile(Path path) {
         return BookFileExtension.fromFileName(path.getFileName().toString()).isPresent();
     }
@@ -253,10 +317,11 @@ public class MonitoringService {
     }
 
     public Set<Path> getPathsForLibraries(Set<Long> libraryIds) {
-        return pathToLibraryIdMap.entrySet().stream()
+        Set<Path> paths = pathToLibraryIdMap.entrySet().stream()
                 .filter(entry -> libraryIds.contains(entry.getValue()))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
+                .collect(Collectors.mapping(Map.Entry::getKey, Collectors.toCollection(HashSet::new)));
+        paths.addAll(libraryPollingMonitor.getRoots(libraryIds));
+        return paths;
     }
 
     public boolean waitForEventsDrained(Set<Long> libraryIds, long timeoutMs) {
@@ -34,7 +34,12 @@ public class MonitoringTask {
 
                 for (WatchEvent<?> event : key.pollEvents()) {
                     WatchEvent.Kind<?> kind = event.kind();
-                    if (kind == StandardWatchEventKinds.OVERFLOW) continue;
+                    if (kind == StandardWatchEventKinds.OVERFLOW) {
+                        // Events for this directory were lost; report the directory itself so it gets rescanned.
+                        log.warn("Watch events overflowed for {}", directory);
+                        eventPublisher.publishEvent(new FileChangeEvent(this, directory, kind, directory));
+                        continue;
+                    }
 
                     Path fileName = (Path) event.context();
                     Path fullPath = directory.resolve(fileName);
@@ -2,9 +2,11 @@ package com.adityachandel.booklore.service.reader;
 
 import com.adityachandel.booklore.exception.ApiError;
 import com.adityachandel.booklore.model.dto.response.CbxPageInfo;
+import com.adityachandel.booklore.model.dto.response.PageImageInfo;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.util.FileUtils;
+import com.adityachandel.booklore.util.ImageProbeUtils;
 import com.github.junrar.Archive;
 import com.github.junrar.rarfile.FileHeader;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +17,7 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.pdfbox.io.IOUtils;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -60,6 +63,7 @@ public class CbxReaderService {
         final long lastModified;
         final Charset successfulEncoding;
         volatile long lastAccessed;
+        volatile List<PageImageInfo> pageImageInfo;
 
         CachedArchiveMetadata(List<String> imageEntries, long lastModified, Charset successfulEncoding) {
             this.imageEntries = List.copyOf(imageEntries);
@@ -102,6 +106,26 @@ public class CbxReaderService {
         }
     }
 
+    /**
+     * Returns media type, dimensions and size of every page, read from the image headers once per
+     * archive version and kept with the cached archive metadata.
+     */
+    public List<PageImageInfo> getPageImageInfo(Long bookId) {
+        Path cbxPath = getBookPath(bookId);
+        try {
+            CachedArchiveMetadata metadata = getCachedMetadata(cbxPath);
+            List<PageImageInfo> pageImageInfo = metadata.pageImageInfo;
+            if (pageImageInfo == null) {
+                pageImageInfo = scanPageImageInfo(cbxPath, metadata);
+                metadata.pageImageInfo = pageImageInfo;
+            }
+            return pageImageInfo;
+        } catch (IOException e) {
+            log.error("Failed to read archive for book {}", bookId, e);
+            throw ApiError.FILE_READ_ERROR.createException("Failed to read archive: " + e.getMessage());
+        }
+    }
+
     private String extractDisplayName(String entryPath) {
         String fileName = baseName(entryPath);
         int lastDotIndex = fileName.lastIndexOf('.');
@@ -112,17 +136,52 @@ public class CbxReaderService {
     }
 
     public void streamPageImage(Long bookId, int page, OutputStream outputStream) throws IOException {
-        Path cbxPath = getBookPath(bookId);
+        streamPageImage(findBook(bookId), page, outputStream);
+    }
+
+    public void streamPageImage(BookEntity book, int page, OutputStream outputStream) throws IOException {
+        Path cbxPath = Path.of(FileUtils.getBookFullPath(book));
         CachedArchiveMetadata metadata = getCachedMetadata(cbxPath);
-        validatePageRequest(bookId, page, metadata.imageEntries);
+        validatePageRequest(book.getId(), page, metadata.imageEntries);
         String entryName = metadata.imageEntries.get(page - 1);
         streamEntryFromArchive(cbxPath, entryName, outputStream, metadata.successfulEncoding);
     }
 
+    /**
+     * Returns the media type of a single page without building the page index. An index that was already
+     * built is used as is; otherwise only the requested CBZ entry is probed, and CBR/CB7 pages fall back to
+     * the entry name since reaching one entry of those archives can mean decompressing everything before it.
+     */
+    public String getPageMediaType(BookEntity book, int page) throws IOException {
+        Path cbxPath = Path.of(FileUtils.getBookFullPath(book));
+        CachedArchiveMetadata metadata = getCachedMetadata(cbxPath);
+        validatePageRequest(book.getId(), page, metadata.imageEntries);
+        List<PageImageInfo> pageImageInfo = metadata.pageImageInfo;
+        if (pageImageInfo != null) {
+            return pageImageInfo.get(page - 1).getMediaType();
+        }
+        String entryName = metadata.imageEntries.get(page - 1);
+        if (cbxPath.getFileName().toString().toLowerCase().endsWith(CBZ_EXTENSION)) {
+            try (org.apache.commons.compress.archivers.zip.ZipFile zipFile = openZip(cbxPath, metadata.successfulEncoding)) {
+                ZipArchiveEntry entry = zipFile.getEntry(entryName);
+                if (entry != null) {
+                    try (InputStream in = zipFile.getInputStream(entry)) {
+                        return ImageProbeUtils.probe(in)
+                                .map(ImageProbeUtils.ImageProbe::mediaType)
+                                .orElseGet(() -> mediaTypeFromName(entryName));
+                    }
+                }
+            }
+        }
+        return mediaTypeFromName(entryName);
+    }
+
     private Path getBookPath(Long bookId) {
-        BookEntity bookEntity = bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
-        String bookFullPath = FileUtils.getBookFullPath(bookEntity);
-        return Path.of(bookFullPath);
+        return Path.of(FileUtils.getBookFullPath(findBook(bookId)));
+    }
+
+    private BookEntity findBook(Long bookId) {
+        return bookRepository.findById(bookId).orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
     }
 
     private void validatePageRequest(Long bookId, int page, List<String> imageEntries) throws FileNotFoundException {
@@ -295,6 +354,86 @@ public class CbxReaderService {
         return false;
     }
 
+    private List<PageImageInfo> scanPageImageInfo(Path cbxPath, CachedArchiveMetadata metadata) throws IOException {
+        Set<String> wanted = new HashSet<>(metadata.imageEntries);
+        Map<String, PageImageInfo> infoByEntry = new HashMap<>();
+        String filename = cbxPath.getFileName().toString().toLowerCase();
+
+        if (filename.endsWith(CBZ_EXTENSION)) {
+            try (org.apache.commons.compress.archivers.zip.ZipFile zipFile = openZip(cbxPath, metadata.successfulEncoding)) {
+                for (String entryName : metadata.imageEntries) {
+                    ZipArchiveEntry entry = zipFile.getEntry(entryName);
+                    if (entry != null) {
+                        try (InputStream in = zipFile.getInputStream(entry)) {
+                            infoByEntry.put(entryName, toPageImageInfo(entryName, ImageProbeUtils.probe(in), entry.getSize()));
+                        }
+                    }
+                }
+            }
+        } else if (filename.endsWith(CB7_EXTENSION)) {
+            try (SevenZFile sevenZFile = SevenZFile.builder().setPath(cbxPath).get()) {
+                SevenZArchiveEntry entry;
+                while ((entry = sevenZFile.getNextEntry()) != null) {
+                    if (wanted.contains(entry.getName())) {
+                        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                        copySevenZEntry(sevenZFile, buffer, entry.getSize());
+                        infoByEntry.put(entry.getName(), toPageImageInfo(entry.getName(), ImageProbeUtils.probe(buffer.toByteArray()), entry.getSize()));
+                    }
+                }
+            }
+        } else if (filename.endsWith(CBR_EXTENSION)) {
+            try (Archive archive = new Archive(cbxPath.toFile())) {
+                for (FileHeader header : archive.getFileHeaders()) {
+                    if (wanted.contains(header.getFileName())) {
+                        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                        archive.extractFile(header, buffer);
+                        infoByEntry.put(header.getFileName(), toPageImageInfo(header.getFileName(), ImageProbeUtils.probe(buffer.toByteArray()), header.getFullUnpackSize()));
+                    }
+                }
+            } catch (Exception e) {
+                throw new IOException("Failed to read RAR archive: " + e.getMessage(), e);
+            }
+        } else {
+            throw new IOException("Unsupported archive format: " + cbxPath.getFileName());
+        }
+
+        List<PageImageInfo> pages = new ArrayList<>(metadata.imageEntries.size());
+        for (int i = 0; i < metadata.imageEntries.size(); i++) {
+            String entryName = metadata.imageEntries.get(i);
+            PageImageInfo info = infoByEntry.getOrDefault(entryName, toPageImageInfo(entryName, Optional.empty(), -1));
+            info.setPageNumber(i + 1);
+            pages.add(info);
+        }
+        return List.copyOf(pages);
+    }
+
+    private org.apache.commons.compress.archivers.zip.ZipFile openZip(Path cbxPath, Charset encoding) throws IOException {
+        return org.apache.commons.compress.archivers.zip.ZipFile.builder()
+                .setPath(cbxPath)
+                .setCharset(encoding != null ? encoding : StandardCharsets.UTF_8)
+                .setUseUnicodeExtraFields(true)
+                .get();
+    }
+
+    private PageImageInfo toPageImageInfo(String entryName, Optional<ImageProbeUtils.ImageProbe> probe, long size) {
+        return PageImageInfo.builder()
+                .fileName(baseName(entryName))
+                .mediaType(probe.map(ImageProbeUtils.ImageProbe::mediaType).orElseGet(() -> mediaTypeFromName(entryName)))
+                .width(probe.map(ImageProbeUtils.ImageProbe::width).orElse(null))
+                .height(probe.map(ImageProbeUtils.ImageProbe::height).orElse(null))
+                .fileSize(size >= 0 ? size : null)
+                .build();
+    }
+
+    private String mediaTypeFromName(String entryName) {
+        String lower = entryName.toLowerCase();
+        if (lower.endsWith(".png")) return "image/png";
+        if (lower.endsWith(".webp")) return "image/webp";
+        if (lower.endsWith(".avif")) return "image/avif";
+        if (lower.endsWith(".heic")) return "image/heic";
+        return "image/jpeg";
+    }
+
     private List<String> getImageEntriesFrom7z(Path cbxPath) throws IOException {
         List<String> entries = new ArrayList<>();
         try (SevenZFile sevenZFile = SevenZFile.builder().setPath(cbxPath).get()) {
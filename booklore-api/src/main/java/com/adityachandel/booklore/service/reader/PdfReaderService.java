@@ -1,6 +1,7 @@
 package com.adityachandel.booklore.service.reader;
 
 import com.adityachandel.booklore.exception.ApiError;
+import com.adityachandel.booklore.model.dto.response.PageImageInfo;
 import com.adityachandel.booklore.model.dto.response.PdfBookInfo;
 import com.adityachandel.booklore.model.dto.response.PdfOutlineItem;
 import com.adityachandel.booklore.model.entity.BookEntity;
@@ -12,6 +13,7 @@ import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
 import org.apache.pdfbox.rendering.ImageType;
@@ -37,6 +39,7 @@ public class PdfReaderService {
 
     private static final int MAX_CACHE_ENTRIES = 50;
     private static final float DEFAULT_DPI = 200f;
+    private static final String PAGE_MEDIA_TYPE = "image/jpeg";
 
     private final BookRepository bookRepository;
     private final Map<String, CachedPdfMetadata> metadataCache = new ConcurrentHashMap<>();
@@ -45,12 +48,14 @@ public class PdfReaderService {
         final int pageCount;
         final long lastModified;
         final List<PdfOutlineItem> outline;
+        final List<PageImageInfo> pageImageInfo;
         volatile long lastAccessed;
 
-        CachedPdfMetadata(int pageCount, long lastModified, List<PdfOutlineItem> outline) {
+        CachedPdfMetadata(int pageCount, long lastModified, List<PdfOutlineItem> outline, List<PageImageInfo> pageImageInfo) {
             this.pageCount = pageCount;
             this.lastModified = lastModified;
             this.outline = outline;
+            this.pageImageInfo = pageImageInfo;
             this.lastAccessed = System.currentTimeMillis();
         }
     }
@@ -82,13 +87,40 @@ public class PdfReaderService {
         }
     }
 
-    public void streamPageImage(Long bookId, int page, OutputStream outputStream) throws IOException {
+    /**
+     * Returns the size each page will have once rendered by {@link #streamPageImage}, derived from the
+     * page boxes so callers can lay out pages without rendering them.
+     */
+    public List<PageImageInfo> getPageImageInfo(Long bookId) {
         Path pdfPath = getBookPath(bookId);
+        try {
+            return getCachedMetadata(pdfPath).pageImageInfo;
+        } catch (IOException e) {
+            log.error("Failed to read PDF for book {}", bookId, e);
+            throw ApiError.FILE_READ_ERROR.createException("Failed to read PDF: " + e.getMessage());
+        }
+    }
+
+    public void streamPageImage(Long bookId, int page, OutputStream outputStream) throws IOException {
+        BookEntity bookEntity = bookRepository.findById(bookId)
+                .orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
+        streamPageImage(bookEntity, page, outputStream);
+    }
+
+    public void streamPageImage(BookEntity book, int page, OutputStream outputStream) throws IOException {
+        Path pdfPath = Path.of(FileUtils.getBookFullPath(book));
         CachedPdfMetadata metadata = getCachedMetadata(pdfPath);
-        validatePageRequest(bookId, page, metadata.pageCount);
+        validatePageRequest(book.getId(), page, metadata.pageCount);
         renderPageToStream(pdfPath, page, outputStream);
     }
 
+    /**
+     * Media type of the images {@link #streamPageImage} renders, which is the same for every page.
+     */
+    public String getPageMediaType() {
+        return PAGE_MEDIA_TYPE;
+    }
+
     private Path getBookPath(Long bookId) {
         BookEntity bookEntity = bookRepository.findById(bookId)
                 .orElseThrow(() -> ApiError.BOOK_NOT_FOUND.createException(bookId));
@@ -130,8 +162,27 @@ public class PdfReaderService {
              PDDocument document = Loader.loadPDF(randomAccessRead)) {
             int pageCount = document.getNumberOfPages();
             List<PdfOutlineItem> outline = extractOutline(document);
-            return new CachedPdfMetadata(pageCount, lastModified, outline);
+            return new CachedPdfMetadata(pageCount, lastModified, outline, extractPageImageInfo(document));
+        }
+    }
+
+    private List<PageImageInfo> extractPageImageInfo(PDDocument document) {
+        float scale = DEFAULT_DPI / 72f;
+        List<PageImageInfo> pages = new ArrayList<>(document.getNumberOfPages());
+        int pageNumber = 1;
+        for (PDPage page : document.getPages()) {
+            PDRectangle cropBox = page.getCropBox();
+            int width = (int) Math.max(1, Math.floor(cropBox.getWidth() * scale));
+            int height = (int) Math.max(1, Math.floor(cropBox.getHeight() * scale));
+            boolean rotated = page.getRotation() % 180 != 0;
+            pages.add(PageImageInfo.builder()
+                    .pageNumber(pageNumber++)
+                    .mediaType(PAGE_MEDIA_TYPE)
+                    .width(rotated ? height : width)
+                    .height(rotated ? width : height)
+                    .build());
         }
+        return List.copyOf(pages);
     }
 
     private List<PdfOutlineItem> extractOutline(PDDocument document) {
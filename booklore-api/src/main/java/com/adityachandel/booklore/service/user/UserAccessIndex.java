@@ -0,0 +1,104 @@
+package com.adityachandel.booklore.service.user;
+
+import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
+import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.entity.UserPermissionsEntity;
+import com.adityachandel.booklore.model.enums.PermissionType;
+import com.adityachandel.booklore.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+import static com.adityachandel.booklore.util.UserPermissionUtils.hasPermission;
+
+/**
+ * In-memory snapshot of who can see which library and who holds which permission, used to fan out websocket
+ * events without loading the whole user table per message. The snapshot is rebuilt on first use after
+ * {@link #invalidate()} or once it is older than {@link #MAX_AGE}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserAccessIndex {
+
+    private static final Duration MAX_AGE = Duration.ofSeconds(30);
+
+    private final UserRepository userRepository;
+
+    private volatile Snapshot snapshot;
+
+    public record UserAccess(Long userId, String username, boolean admin, Set<Long> libraryIds, Set<PermissionType> permissions) {
+
+        public boolean canAccessLibrary(Long libraryId) {
+            return admin || libraryIds.contains(libraryId);
+        }
+
+        public boolean hasAnyPermission(Set<PermissionType> permissionTypes) {
+            return permissionTypes.stream().anyMatch(permissions::contains);
+        }
+    }
+
+    private record Snapshot(List<UserAccess> users, long loadedAtNanos) {
+        boolean isStale() {
+            return System.nanoTime() - loadedAtNanos > MAX_AGE.toNanos();
+        }
+    }
+
+    public List<UserAccess> getUsers() {
+        Snapshot current = snapshot;
+        if (current == null || current.isStale()) {
+            current = reload();
+        }
+        return current.users();
+    }
+
+    public List<UserAccess> getUsersWithAnyPermission(Set<PermissionType> permissionTypes) {
+        return getUsers().stream()
+                .filter(user -> user.hasAnyPermission(permissionTypes))
+                .toList();
+    }
+
+    /**
+     * Drops the snapshot; call after users, permissions or library assignments change.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private synchronized Snapshot reload() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isStale()) {
+            return current;
+        }
+        List<UserAccess> users = userRepository.findAll().stream()
+                .map(this::toUserAccess)
+                .toList();
+        current = new Snapshot(users, System.nanoTime());
+        snapshot = current;
+        log.debug("Rebuilt user access index with {} user(s)", users.size());
+        return current;
+    }
+
+    private UserAccess toUserAccess(BookLoreUserEntity user) {
+        UserPermissionsEntity perms = user.getPermissions();
+        Set<PermissionType> permissions = EnumSet.noneOf(PermissionType.class);
+        if (perms != null) {
+            for (PermissionType type : PermissionType.values()) {
+                if (hasPermission(perms, type)) {
+                    permissions.add(type);
+                }
+            }
+        }
+        Set<Long> libraryIds = new HashSet<>();
+        if (user.getLibraries() != null) {
+            for (LibraryEntity library : user.getLibraries()) {
+                libraryIds.add(library.getId());
+            }
+        }
+        return new UserAccess(user.getId(), user.getUsername(), permissions.contains(PermissionType.ADMIN),
+                Set.copyOf(libraryIds), Collections.unmodifiableSet(permissions));
+    }
+}
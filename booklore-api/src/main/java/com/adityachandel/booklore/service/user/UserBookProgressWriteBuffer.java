@@ -0,0 +1,213 @@
+package com.adityachandel.booklore.service.user;
+
+import com.adityachandel.booklore.model.entity.UserBookProgressEntity;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.UserBookProgressRepository;
+import com.adityachandel.booklore.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for reading progress. Readers report their position every few pages; instead of rewriting the
+ * {@code user_book_progress} row each time, updates are merged per (user, book) with the latest value winning per
+ * field and written in one batched transaction every {@link #FLUSH_INTERVAL_MS} ms, or as soon as
+ * {@link #FLUSH_THRESHOLD} rows are pending.
+ * <p>
+ * Code that reads or bulk-modifies progress calls {@link #flush(Long, Collection)} first so it sees, and is not later
+ * overwritten by, anything still buffered.
+ */
+@Slf4j
+@Component
+public class UserBookProgressWriteBuffer {
+
+    static final long FLUSH_INTERVAL_MS = 2000;
+    static final int FLUSH_THRESHOLD = 500;
+
+    private final UserBookProgressRepository progressRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<ProgressKey, ProgressPatch> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public UserBookProgressWriteBuffer(UserBookProgressRepository progressRepository, BookRepository bookRepository,
+                                       UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.progressRepository = progressRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    record ProgressKey(Long userId, Long bookId) {
+    }
+
+    /**
+     * Field-level changes for one progress row. Setting the same field twice keeps only the last value.
+     */
+    public static class ProgressPatch {
+        private final Map<String, Consumer<UserBookProgressEntity>> changes = new LinkedHashMap<>();
+
+        public <T> ProgressPatch set(String field, BiConsumer<UserBookProgressEntity, T> setter, T value) {
+            changes.remove(field);
+            changes.put(field, entity -> setter.accept(entity, value));
+            return this;
+        }
+
+        /**
+         * Registers a change computed from the row's state at write time, for values that depend on what is stored.
+         */
+        public ProgressPatch apply(String field, Consumer<UserBookProgressEntity> change) {
+            changes.remove(field);
+            changes.put(field, change);
+            return this;
+        }
+
+        public void applyTo(UserBookProgressEntity entity) {
+            changes.values().forEach(change -> change.accept(entity));
+        }
+
+        ProgressPatch mergeNewer(ProgressPatch newer) {
+            newer.changes.forEach((field, change) -> {
+                changes.remove(field);
+                changes.put(field, change);
+            });
+            return this;
+        }
+
+        boolean isEmpty() {
+            return changes.isEmpty();
+        }
+    }
+
+    public void update(Long userId, Long bookId, Consumer<ProgressPatch> changes) {
+        ProgressPatch patch = new ProgressPatch();
+        changes.accept(patch);
+        if (patch.isEmpty()) {
+            return;
+        }
+        pending.merge(new ProgressKey(userId, bookId), patch, ProgressPatch::mergeNewer);
+        if (pending.size() >= FLUSH_THRESHOLD && !flushLock.isLocked()) {
+            Thread.ofVirtual().start(this::flushAll);
+        }
+    }
+
+    public boolean hasPending(Long userId, Long bookId) {
+        return pending.containsKey(new ProgressKey(userId, bookId));
+    }
+
+    public void flush(Long userId, Long bookId) {
+        flush(userId, List.of(bookId));
+    }
+
+    public void flush(Long userId, Collection<Long> bookIds) {
+        // An in-flight write has already left the map but may not be committed; wait for it through the lock.
+        if (pending.isEmpty() && !flushLock.isLocked()) {
+            return;
+        }
+        write(bookIds.stream()
+                .map(bookId -> new ProgressKey(userId, bookId))
+                .toList());
+    }
+
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS, timeUnit = TimeUnit.MILLISECONDS)
+    public void flushAll() {
+        if (!pending.isEmpty()) {
+            write(new ArrayList<>(pending.keySet()));
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        log.info("Flushing {} buffered reading progress update(s) before shutdown", pending.size());
+        flushAll();
+    }
+
+    private void write(Collection<ProgressKey> keys) {
+        flushLock.lock();
+        try {
+            Map<ProgressKey, ProgressPatch> batch = new LinkedHashMap<>();
+            for (ProgressKey key : keys) {
+                ProgressPatch patch = pending.remove(key);
+                if (patch != null) {
+                    batch.put(key, patch);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(batch));
+            } catch (RuntimeException e) {
+                log.warn("Batched progress write of {} row(s) failed, retrying row by row: {}", batch.size(), e.getMessage());
+                batch.forEach(this::writeSingle);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeSingle(ProgressKey key, ProgressPatch patch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(Map.of(key, patch)));
+        } catch (DataIntegrityViolationException | EntityNotFoundException e) {
+            if (!bookRepository.existsById(key.bookId()) || !userRepository.existsById(key.userId())) {
+                // Book or user deleted since the update was buffered; the progress has nowhere to go.
+                log.warn("Dropping buffered progress for user {} book {}: {}", key.userId(), key.bookId(), e.getMessage());
+                return;
+            }
+            // Another writer inserted the (user, book) row first; apply the patch on top of the row it created.
+            log.debug("Progress row for user {} book {} was created concurrently, reapplying: {}", key.userId(), key.bookId(), e.getMessage());
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(Map.of(key, patch)));
+            } catch (RuntimeException retryFailure) {
+                keepBuffered(key, patch, retryFailure);
+            }
+        } catch (RuntimeException e) {
+            keepBuffered(key, patch, e);
+        }
+    }
+
+    private void keepBuffered(ProgressKey key, ProgressPatch patch, RuntimeException e) {
+        log.warn("Progress write for user {} book {} failed, keeping it buffered: {}", key.userId(), key.bookId(), e.getMessage());
+        pending.merge(key, patch, (newer, failed) -> failed.mergeNewer(newer));
+    }
+
+    private void persist(Map<ProgressKey, ProgressPatch> batch) {
+        Map<Long, Set<Long>> bookIdsByUser = batch.keySet().stream()
+                .collect(Collectors.groupingBy(ProgressKey::userId, Collectors.mapping(ProgressKey::bookId, Collectors.toSet())));
+
+        Map<ProgressKey, UserBookProgressEntity> rows = new HashMap<>();
+        bookIdsByUser.forEach((userId, bookIds) ->
+                progressRepository.findByUserIdAndBookIdIn(userId, bookIds)
+                        .forEach(row -> rows.put(new ProgressKey(userId, row.getBook().getId()), row)));
+
+        List<UserBookProgressEntity> toSave = new ArrayList<>(batch.size());
+        batch.forEach((key, patch) -> {
+            UserBookProgressEntity row = rows.get(key);
+            if (row == null) {
+                row = new UserBookProgressEntity();
+                row.setUser(userRepository.getReferenceById(key.userId()));
+                row.setBook(bookRepository.getReferenceById(key.bookId()));
+            }
+            patch.applyTo(row);
+            toSave.add(row);
+        });
+        progressRepository.saveAll(toSave);
+    }
+}
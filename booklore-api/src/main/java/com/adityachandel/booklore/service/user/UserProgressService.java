@@ -14,8 +14,10 @@ import java.util.stream.Collectors;
 public class UserProgressService {
 
     private final UserBookProgressRepository userBookProgressRepository;
+    private final UserBookProgressWriteBuffer progressWriteBuffer;
 
     public Map<Long, UserBookProgressEntity> fetchUserProgress(Long userId, Set<Long> bookIds) {
+        progressWriteBuffer.flush(userId, bookIds);
         return userBookProgressRepository.findByUserIdAndBookIdIn(userId, bookIds).stream()
                 .collect(Collectors.toMap(p -> p.getBook().getId(), p -> p));
     }
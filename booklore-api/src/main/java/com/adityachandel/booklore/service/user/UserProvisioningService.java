@@ -31,6 +31,7 @@ public class UserProvisioningService {
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     private final UserDefaultsService userDefaultsService;
     private final AppSettingService appSettingService;
+    private final UserAccessIndex userAccessIndex;
 
     public boolean isInitialUserAlreadyProvisioned() {
         return userRepository.count() > 0;
@@ -264,6 +265,7 @@ public class UserProvisioningService {
         BookLoreUserEntity save = userRepository.save(user);
         userDefaultsService.addDefaultShelves(save);
         userDefaultsService.addDefaultSettings(save);
+        userAccessIndex.invalidate();
         return save;
     }
 }
@@ -33,6 +33,7 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final ObjectMapper objectMapper;
     private final BookLoreUserTransformer bookLoreUserTransformer;
+    private final UserAccessIndex userAccessIndex;
 
     public List<BookLoreUser> getBookLoreUsers() {
         return userRepository.findAll()
@@ -57,6 +58,7 @@ public class UserService {
         }
 
         userRepository.save(user);
+        userAccessIndex.invalidate();
         return bookLoreUserTransformer.toDTO(user);
     }
 
@@ -71,6 +73,7 @@ public class UserService {
             throw ApiError.SELF_DELETION_NOT_ALLOWED.createException();
         }
         userRepository.delete(userToDelete);
+        userAccessIndex.invalidate();
     }
 
     public BookLoreUser getBookLoreUser(Long id) {
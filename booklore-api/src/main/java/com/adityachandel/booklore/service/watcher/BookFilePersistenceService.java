@@ -91,6 +91,27 @@ public class BookFilePersistenceService {
         return books.size();
     }
 
+    /**
+     * Paths of all files of live books stored at or below {@code folder}, used to tell new files from known ones when a
+     * folder is rescanned.
+     */
+    @Transactional(readOnly = true)
+    public Set<Path> findKnownFilePathsUnder(LibraryPathEntity libraryPath, Path folder) {
+        Path root = Paths.get(libraryPath.getPath()).toAbsolutePath().normalize();
+        Path normalizedFolder = folder.toAbsolutePath().normalize();
+        String prefix = root.relativize(normalizedFolder).toString().replace("\\", "/");
+        Set<Path> paths = new HashSet<>();
+        for (BookEntity book : bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(libraryPath.getId(), prefix)) {
+            for (Path path : book.getFullFilePaths()) {
+                Path normalized = path.toAbsolutePath().normalize();
+                if (normalized.startsWith(normalizedFolder)) {
+                    paths.add(normalized);
+                }
+            }
+        }
+        return paths;
+    }
+
     @Transactional(readOnly = true)
     public Optional<BookEntity> findByLibraryPathSubPathAndFileName(long libraryPathId, String fileSubPath, String fileName) {
         return bookRepository.findByLibraryPath_IdAndFileSubPathAndFileName(libraryPathId, fileSubPath, fileName);
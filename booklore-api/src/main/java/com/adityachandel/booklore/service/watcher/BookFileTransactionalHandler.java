@@ -12,26 +12,42 @@ import com.adityachandel.booklore.service.NotificationService;
 import com.adityachandel.booklore.service.library.LibraryProcessingService;
 import com.adityachandel.booklore.util.FileUtils;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.adityachandel.booklore.model.enums.PermissionType.ADMIN;
 import static com.adityachandel.booklore.model.enums.PermissionType.MANAGE_LIBRARY;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class BookFileTransactionalHandler {
 
     private final BookFilePersistenceService bookFilePersistenceService;
     private final LibraryProcessingService libraryProcessingService;
     private final NotificationService notificationService;
     private final LibraryRepository libraryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookFileTransactionalHandler(BookFilePersistenceService bookFilePersistenceService, LibraryProcessingService libraryProcessingService, NotificationService notificationService, LibraryRepository libraryRepository, PlatformTransactionManager transactionManager) {
+        this.bookFilePersistenceService = bookFilePersistenceService;
+        this.libraryProcessingService = libraryProcessingService;
+        this.notificationService = notificationService;
+        this.libraryRepository = libraryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     @Transactional()
     public void handleNewBookFile(long libraryId, Path path) {
@@ -60,4 +76,84 @@ public class BookFileTransactionalHandler {
         notificationService.sendMessageToPermissions(Topic.LOG, LogNotification.info("Finished processing file: " + filePath), Set.of(ADMIN, MANAGE_LIBRARY));
         log.info("[CREATE] Completed processing for file '{}'", filePath);
     }
+
+    /**
+     * Ingests files that appeared together (e.g. a copied folder). Files are handed to the library's file processor one
+     * folder at a time, so folder-as-book libraries see all files of a folder together, and each folder commits in its
+     * own transaction. A folder that fails is retried one file at a time, so an unreadable file only loses itself.
+     */
+    public void handleNewBookFiles(long libraryId, List<Path> paths) {
+        if (paths.size() == 1) {
+            transactionTemplate.executeWithoutResult(status -> handleNewBookFile(libraryId, paths.getFirst()));
+            return;
+        }
+
+        notificationService.sendMessageToPermissions(Topic.LOG, LogNotification.info("Started processing " + paths.size() + " files"), Set.of(ADMIN, MANAGE_LIBRARY));
+
+        Map<Path, List<Path>> byFolder = paths.stream()
+                .collect(Collectors.groupingBy(Path::getParent, LinkedHashMap::new, Collectors.toList()));
+        int processed = 0;
+        int failed = 0;
+        for (List<Path> folder : byFolder.values()) {
+            if (ingest(libraryId, folder)) {
+                processed += folder.size();
+                continue;
+            }
+            if (folder.size() == 1) {
+                failed++;
+                continue;
+            }
+            log.warn("[CREATE] Retrying {} file(s) in '{}' one at a time", folder.size(), folder.getFirst().getParent());
+            for (Path path : folder) {
+                if (ingest(libraryId, List.of(path))) {
+                    processed++;
+                } else {
+                    failed++;
+                }
+            }
+        }
+
+        String summary = failed == 0
+                ? "Finished processing " + processed + " files"
+                : "Finished processing " + processed + " files, " + failed + " failed";
+        notificationService.sendMessageToPermissions(Topic.LOG, failed == 0 ? LogNotification.info(summary) : LogNotification.warn(summary), Set.of(ADMIN, MANAGE_LIBRARY));
+        log.info("[CREATE] Completed processing for {} file(s) in library {}, {} failed", processed, libraryId, failed);
+    }
+
+    private boolean ingest(long libraryId, List<Path> paths) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> processFiles(libraryId, paths));
+            return true;
+        } catch (Exception e) {
+            log.warn("[ERROR] Processing {} new file(s) starting with '{}': {}", paths.size(), paths.getFirst(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void processFiles(long libraryId, List<Path> paths) {
+        LibraryEntity libraryEntity = libraryRepository.findById(libraryId).orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(libraryId));
+
+        List<LibraryFile> libraryFiles = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            String fileName = path.getFileName().toString();
+            Optional<BookFileExtension> extension = BookFileExtension.fromFileName(fileName);
+            if (extension.isEmpty()) {
+                log.debug("[CREATE] Skipping unsupported file '{}'", path);
+                continue;
+            }
+            String libraryPath = bookFilePersistenceService.findMatchingLibraryPath(libraryEntity, path);
+            LibraryPathEntity libraryPathEntity = bookFilePersistenceService.getLibraryPathEntityForFile(libraryEntity, libraryPath);
+            libraryFiles.add(LibraryFile.builder()
+                    .libraryEntity(libraryEntity)
+                    .libraryPathEntity(libraryPathEntity)
+                    .fileSubPath(FileUtils.getRelativeSubPath(libraryPathEntity.getPath(), path))
+                    .fileName(fileName)
+                    .bookFileType(extension.get().getType())
+                    .build());
+        }
+
+        if (!libraryFiles.isEmpty()) {
+            libraryProcessingService.processLibraryFiles(libraryFiles, libraryEntity);
+        }
+    }
 }
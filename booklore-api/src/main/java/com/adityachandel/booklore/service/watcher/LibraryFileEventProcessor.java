@@ -1,6 +1,5 @@
 package com.adityachandel.booklore.service.watcher;
 
-import com.adityachandel.booklore.exception.ApiError;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
 import com.adityachandel.booklore.model.entity.LibraryPathEntity;
 import com.adityachandel.booklore.model.enums.BookFileExtension;
@@ -17,107 +16,280 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.nio.file.*;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Turns watcher events into library changes. Events are coalesced per library: repeated events for a path collapse
+ * into their net effect, and once a library has been quiet for {@link #QUIET_PERIOD_MS} (or has been collecting for
+ * {@link #MAX_WINDOW_MS}) the surviving changes are handed over as one batch, so copying a folder of 2,000 books
+ * produces one ingest pass instead of 2,000.
+ * <p>
+ * Batches wait in a bounded queue; when it is full the flushing thread blocks and further events keep coalescing in
+ * place. A library collecting more than {@link #MAX_PENDING_PATHS} paths records further changes as rescans of their
+ * folders, which bounds memory for arbitrarily large copies.
+ */
 @Slf4j
 @Service
 @AllArgsConstructor
 public class LibraryFileEventProcessor {
 
-    private static final long DEBOUNCE_MS = 500L;
+    static final long QUIET_PERIOD_MS = 1000L;
+    static final long MAX_WINDOW_MS = 10_000L;
+    static final long FLUSH_CHECK_INTERVAL_MS = 250L;
+    static final int MAX_PENDING_PATHS = 5_000;
+    static final int BATCH_QUEUE_CAPACITY = 16;
+    static final int INGEST_CHUNK_SIZE = 100;
 
-    private final BlockingQueue<FileEvent> eventQueue = new LinkedBlockingQueue<>();
     private final LibraryRepository libraryRepository;
     private final BookFileTransactionalHandler bookFileTransactionalHandler;
     private final BookFilePersistenceService bookFilePersistenceService;
     private final NotificationService notificationService;
 
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    private final ConcurrentMap<Path, ScheduledFuture<?>> pendingDeletes = new ConcurrentHashMap<>();
+    private final Map<Long, PendingChanges> pendingByLibrary = new ConcurrentHashMap<>();
+    private final BlockingQueue<ChangeBatch> batchQueue = new ArrayBlockingQueue<>(BATCH_QUEUE_CAPACITY);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    enum ChangeKind {
+        CREATE, DELETE, RESCAN
+    }
+
+    record ChangeBatch(long libraryId, Map<Path, ChangeKind> changes) {
+    }
+
+    /**
+     * Net changes of one library since its last batch. Only accessed inside {@code pendingByLibrary.compute}, which
+     * serialises access per library.
+     */
+    static final class PendingChanges {
+        private final Map<Path, ChangeKind> changes = new LinkedHashMap<>();
+        private final long firstEventNanos = System.nanoTime();
+        private long lastEventNanos = firstEventNanos;
+
+        void record(Path path, ChangeKind kind) {
+            lastEventNanos = System.nanoTime();
+            ChangeKind previous = changes.get(path);
+            if (previous == null) {
+                if (changes.size() >= MAX_PENDING_PATHS && kind != ChangeKind.RESCAN && path.getParent() != null) {
+                    changes.put(path.getParent(), ChangeKind.RESCAN);
+                } else {
+                    changes.put(path, kind);
+                }
+                return;
+            }
+            if (kind == ChangeKind.RESCAN) {
+                changes.put(path, ChangeKind.RESCAN);
+            } else if (previous == ChangeKind.DELETE && kind == ChangeKind.CREATE) {
+                // Deleted and recreated within the window, e.g. an editor saving in place: nothing to do.
+                changes.remove(path);
+            } else if (kind == ChangeKind.DELETE) {
+                changes.put(path, ChangeKind.DELETE);
+            }
+        }
+
+        boolean isDue(long nowNanos) {
+            return nowNanos - lastEventNanos >= TimeUnit.MILLISECONDS.toNanos(QUIET_PERIOD_MS)
+                    || nowNanos - firstEventNanos >= TimeUnit.MILLISECONDS.toNanos(MAX_WINDOW_MS);
+        }
+
+        Map<Path, ChangeKind> changes() {
+            return changes;
+        }
+    }
 
     @PostConstruct
     public void init() {
+        scheduler.scheduleWithFixedDelay(this::flushDueLibraries, FLUSH_CHECK_INTERVAL_MS, FLUSH_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
         Thread.ofVirtual().start(() -> {
             log.info("LibraryFileEventProcessor virtual thread started.");
             while (!Thread.currentThread().isInterrupted()) {
                 try {
-                    handleEvent(eventQueue.take());
+                    handleBatch(batchQueue.take());
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     log.warn("LibraryFileEventProcessor virtual thread interrupted.");
                 } catch (Exception e) {
-                    log.error("Error while processing file event", e);
+                    log.error("Error while processing file events", e);
                 }
             }
         });
     }
 
     public void processFile(WatchEvent.Kind<?> eventKind, long libraryId, String libraryPath, String filePath) {
+        ChangeKind kind;
+        if (eventKind == StandardWatchEventKinds.ENTRY_CREATE) {
+            kind = ChangeKind.CREATE;
+        } else if (eventKind == StandardWatchEventKinds.ENTRY_DELETE) {
+            kind = ChangeKind.DELETE;
+        } else if (eventKind == StandardWatchEventKinds.OVERFLOW) {
+            kind = ChangeKind.RESCAN;
+        } else {
+            log.debug("[SKIP] '{}' event ignored for '{}'", eventKind.name(), filePath);
+            return;
+        }
         Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        pendingByLibrary.compute(libraryId, (id, pending) -> {
+            PendingChanges changes = pending != null ? pending : new PendingChanges();
+            changes.record(path, kind);
+            return changes;
+        });
+    }
 
-        if (eventKind == StandardWatchEventKinds.ENTRY_DELETE) {
-            // Schedule DELETE after debounce
-            ScheduledFuture<?> existing = pendingDeletes.put(path, scheduler.schedule(() -> {
-                eventQueue.offer(new FileEvent(eventKind, libraryId, libraryPath, filePath));
-                pendingDeletes.remove(path);
-            }, DEBOUNCE_MS, TimeUnit.MILLISECONDS));
-
-            if (existing != null) existing.cancel(false);
-        } else if (eventKind == StandardWatchEventKinds.ENTRY_CREATE) {
-            // If a DELETE is pending for this path, cancel both DELETE and CREATE
-            ScheduledFuture<?> pendingDelete = pendingDeletes.remove(path);
-            if (pendingDelete != null) {
-                pendingDelete.cancel(false);
-                log.debug("[DEBOUNCE] CREATE ignored because pending DELETE exists for '{}'", path);
-                return;
+    /**
+     * Drops changes not yet handed over for a library, e.g. when it stops being watched before files are moved.
+     */
+    public void discardPending(long libraryId) {
+        pendingByLibrary.remove(libraryId);
+        batchQueue.removeIf(batch -> batch.libraryId() == libraryId);
+    }
+
+    void flushDueLibraries() {
+        long now = System.nanoTime();
+        for (Long libraryId : pendingByLibrary.keySet()) {
+            AtomicReference<Map<Path, ChangeKind>> due = new AtomicReference<>();
+            pendingByLibrary.computeIfPresent(libraryId, (id, pending) -> {
+                if (!pending.isDue(now)) {
+                    return pending;
+                }
+                due.set(pending.changes());
+                return null;
+            });
+            if (due.get() != null && !due.get().isEmpty()) {
+                try {
+                    batchQueue.put(new ChangeBatch(libraryId, due.get()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
-            // Otherwise process CREATE immediately
-            eventQueue.offer(new FileEvent(eventKind, libraryId, libraryPath, filePath));
-        } else {
-            // Other events
-            eventQueue.offer(new FileEvent(eventKind, libraryId, libraryPath, filePath));
         }
     }
 
-    private void handleEvent(FileEvent event) {
-        Path path = Paths.get(event.filePath()).toAbsolutePath().normalize();
-        String fileName = path.getFileName().toString();
-        log.info("[PROCESS] '{}' event for '{}'", event.eventKind().name(), fileName);
+    void handleBatch(ChangeBatch batch) {
+        LibraryEntity library = libraryRepository.findById(batch.libraryId()).orElse(null);
+        if (library == null) {
+            log.warn("[SKIP] {} change(s) for missing library {}", batch.changes().size(), batch.libraryId());
+            return;
+        }
+        log.info("[PROCESS] {} change(s) for library '{}'", batch.changes().size(), library.getName());
 
-        LibraryEntity library = libraryRepository.findById(event.libraryId())
-                .orElseThrow(() -> ApiError.LIBRARY_NOT_FOUND.createException(event.libraryId()));
+        Set<Path> rescanned = batch.changes().entrySet().stream()
+                .filter(entry -> entry.getValue() == ChangeKind.RESCAN)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
 
-        if (library.getLibraryPaths().stream().noneMatch(lp -> path.startsWith(lp.getPath()))) {
-            log.warn("[SKIP] Path outside of library: '{}'", path);
-            return;
+        Set<Path> created = new LinkedHashSet<>();
+        List<Path> deleted = new ArrayList<>();
+        for (Map.Entry<Path, ChangeKind> entry : batch.changes().entrySet()) {
+            Path path = entry.getKey();
+            if (library.getLibraryPaths().stream().noneMatch(lp -> path.startsWith(lp.getPath()))) {
+                log.warn("[SKIP] Path outside of library: '{}'", path);
+                continue;
+            }
+            switch (entry.getValue()) {
+                case CREATE -> {
+                    if (isCoveredByRescan(path, rescanned)) {
+                        continue;
+                    }
+                    if (Files.isDirectory(path)) {
+                        collectBookFiles(path, created);
+                    } else if (isBookFile(path.getFileName().toString())) {
+                        created.add(path);
+                    }
+                }
+                case DELETE -> deleted.add(path);
+                case RESCAN -> handleRescan(library, path, created, deleted);
+            }
         }
 
-        if (isFolder(path)) {
-            switch (event.eventKind().name()) {
-                case "ENTRY_CREATE" -> handleFolderCreate(library, path);
-                case "ENTRY_DELETE" -> handleFolderDelete(library, path);
-                default -> log.warn("[SKIP] Folder event '{}' ignored for '{}'", event.eventKind().name(), fileName);
+        // Creates first: a moved file is matched by hash and relocated before its old path is reported as gone.
+        ingest(library, created);
+        for (Path path : deleted) {
+            if (isFolder(path)) {
+                handleFolderDelete(library, path);
+            } else if (isBookFile(path.getFileName().toString())) {
+                handleFileDelete(library, path);
             }
+        }
+    }
+
+    private boolean isCoveredByRescan(Path path, Set<Path> rescanned) {
+        for (Path folder = path.getParent(); folder != null; folder = folder.getParent()) {
+            if (rescanned.contains(folder)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reconciles a folder whose events were lost: files on disk without a book are ingested, books whose file is gone
+     * are marked deleted.
+     */
+    private void handleRescan(LibraryEntity library, Path folder, Set<Path> created, List<Path> deleted) {
+        log.info("[RESCAN] '{}'", folder);
+        if (!Files.isDirectory(folder)) {
+            deleted.add(folder);
             return;
         }
+        try {
+            String libPath = bookFilePersistenceService.findMatchingLibraryPath(library, folder);
+            LibraryPathEntity libPathEntity = bookFilePersistenceService.getLibraryPathEntityForFile(library, libPath);
+            Set<Path> known = bookFilePersistenceService.findKnownFilePathsUnder(libPathEntity, folder);
+
+            Set<Path> onDisk = new LinkedHashSet<>();
+            collectBookFiles(folder, onDisk);
+            onDisk.stream().filter(path -> !known.contains(path)).forEach(created::add);
+            known.stream().filter(path -> !onDisk.contains(path)).forEach(deleted::add);
+        } catch (Exception e) {
+            log.warn("[ERROR] Rescanning folder '{}': {}", folder, e.getMessage());
+        }
+    }
+
+    private void collectBookFiles(Path folder, Set<Path> files) {
+        try (Stream<Path> stream = Files.walk(folder)) {
+            stream.filter(Files::isRegularFile)
+                    .filter(p -> isBookFile(p.getFileName().toString()))
+                    .map(p -> p.toAbsolutePath().normalize())
+                    .forEach(files::add);
+        } catch (IOException e) {
+            log.warn("[ERROR] Walking folder '{}': {}", folder, e.getMessage());
+        }
+    }
 
-        if (!isBookFile(fileName)) {
-            log.debug("[SKIP] Ignored non-book file '{}'", fileName);
+    /**
+     * Ingests new files in chunks of whole folders, so a folder-as-book library never sees a book split across chunks.
+     */
+    private void ingest(LibraryEntity library, Set<Path> files) {
+        if (files.isEmpty()) {
             return;
         }
+        log.info("[FILE_CREATE] {} file(s) in library '{}'", files.size(), library.getName());
+        Map<Path, List<Path>> byFolder = files.stream()
+                .collect(Collectors.groupingBy(Path::getParent, TreeMap::new, Collectors.toList()));
 
-        switch (event.eventKind().name()) {
-            case "ENTRY_CREATE" -> handleFileCreate(library, path);
-            case "ENTRY_DELETE" -> handleFileDelete(library, path);
-            default -> log.debug("[SKIP] File event '{}' ignored for '{}'", event.eventKind().name(), fileName);
+        List<Path> chunk = new ArrayList<>();
+        for (List<Path> folderFiles : byFolder.values()) {
+            if (!chunk.isEmpty() && chunk.size() + folderFiles.size() > INGEST_CHUNK_SIZE) {
+                ingestChunk(library, chunk);
+                chunk = new ArrayList<>();
+            }
+            chunk.addAll(folderFiles);
+        }
+        if (!chunk.isEmpty()) {
+            ingestChunk(library, chunk);
         }
     }
 
-    private void handleFileCreate(LibraryEntity library, Path path) {
-        log.info("[FILE_CREATE] '{}'", path);
-        bookFileTransactionalHandler.handleNewBookFile(library.getId(), path);
+    private void ingestChunk(LibraryEntity library, List<Path> paths) {
+        try {
+            bookFileTransactionalHandler.handleNewBookFiles(library.getId(), paths);
+        } catch (Exception e) {
+            log.warn("[ERROR] Processing {} new file(s) in library '{}': {}", paths.size(), library.getName(), e.getMessage());
+        }
     }
 
     private void handleFileDelete(LibraryEntity library, Path path) {
@@ -144,23 +316,6 @@ public class LibraryFileEventProcessor {
         }
     }
 
-    private void handleFolderCreate(LibraryEntity library, Path folderPath) {
-        log.info("[FOLDER_CREATE] '{}'", folderPath);
-        try (var stream = Files.walk(folderPath)) {
-            stream.filter(Files::isRegularFile)
-                    .filter(p -> isBookFile(p.getFileName().toString()))
-                    .forEach(p -> {
-                        try {
-                            bookFileTransactionalHandler.handleNewBookFile(library.getId(), p);
-                        } catch (Exception e) {
-                            log.warn("[ERROR] Processing file '{}': {}", p, e.getMessage());
-                        }
-                    });
-        } catch (IOException e) {
-            log.warn("[ERROR] Walking folder '{}': {}", folderPath, e.getMessage());
-        }
-    }
-
     private void handleFolderDelete(LibraryEntity library, Path folderPath) {
         log.info("[FOLDER_DELETE] '{}'", folderPath);
         try {
@@ -188,7 +343,4 @@ public class LibraryFileEventProcessor {
         scheduler.shutdownNow();
         log.info("Shutting down LibraryFileEventProcessor...");
     }
-
-    public record FileEvent(WatchEvent.Kind<?> eventKind, long libraryId, String libraryPath, String filePath) {
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.adityachandel.booklore.task.options;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoverRegenerationOptions {
+
+    private Mode mode;
+    /**
+     * Books to process; {@code null} means every book whose cover is not locked.
+     */
+    private Set<Long> bookIds;
+
+    public enum Mode {
+        REGENERATE, CUSTOM
+    }
+}
@@ -10,4 +10,5 @@ public class LibraryRescanOptions {
 
     private boolean updateMetadataFromFiles;
     private MetadataReplaceMode metadataReplaceMode;
+    private boolean forceRescan;
 }
\ No newline at end of file
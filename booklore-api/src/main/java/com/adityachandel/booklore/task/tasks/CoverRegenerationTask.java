@@ -0,0 +1,61 @@
+package com.adityachandel.booklore.task.tasks;
+
+import com.adityachandel.booklore.model.dto.BookLoreUser;
+import com.adityachandel.booklore.model.dto.request.TaskCreateRequest;
+import com.adityachandel.booklore.model.dto.response.TaskCreateResponse;
+import com.adityachandel.booklore.model.enums.TaskType;
+import com.adityachandel.booklore.service.metadata.BookCoverService;
+import com.adityachandel.booklore.task.TaskStatus;
+import com.adityachandel.booklore.task.options.CoverRegenerationOptions;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import static com.adityachandel.booklore.exception.ApiError.PERMISSION_DENIED;
+import static com.adityachandel.booklore.model.enums.UserPermission.CAN_BULK_REGENERATE_COVER;
+import static com.adityachandel.booklore.model.enums.UserPermission.IS_ADMIN;
+
+@AllArgsConstructor
+@Component
+@Slf4j
+public class CoverRegenerationTask implements Task {
+
+    private final BookCoverService bookCoverService;
+
+    @Override
+    public void validatePermissions(BookLoreUser user, TaskCreateRequest request) {
+        if (!CAN_BULK_REGENERATE_COVER.isGranted(user.getPermissions()) && !IS_ADMIN.isGranted(user.getPermissions())) {
+            throw PERMISSION_DENIED.createException(CAN_BULK_REGENERATE_COVER);
+        }
+    }
+
+    @Override
+    public TaskCreateResponse execute(TaskCreateRequest request) {
+        CoverRegenerationOptions options = request.getOptions(CoverRegenerationOptions.class);
+        String taskId = request.getTaskId();
+
+        long startTime = System.currentTimeMillis();
+        log.info("{}: Task started. TaskId: {}, Options: {}", getTaskType(), taskId, options);
+
+        if (options != null && options.getMode() == CoverRegenerationOptions.Mode.CUSTOM) {
+            bookCoverService.generateCustomCovers(options.getBookIds(), taskId);
+        } else {
+            bookCoverService.regenerateCovers(options != null ? options.getBookIds() : null, taskId);
+        }
+
+        long endTime = System.currentTimeMillis();
+        log.info("{}: Task completed. Duration: {} ms", getTaskType(), endTime - startTime);
+
+        return TaskCreateResponse
+                .builder()
+                .taskType(TaskType.REGENERATE_COVERS)
+                .taskId(taskId)
+                .status(TaskStatus.COMPLETED)
+                .build();
+    }
+
+    @Override
+    public TaskType getTaskType() {
+        return TaskType.REGENERATE_COVERS;
+    }
+}
@@ -16,7 +16,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
@@ -26,8 +30,16 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -60,8 +72,20 @@ public class FileService {
     private static final int    MAX_ORIGINAL_WIDTH  = 1000;
     private static final int    MAX_ORIGINAL_HEIGHT = 1500;
     private static final String IMAGE_FORMAT        = "JPEG";
+    private static final float  THUMBNAIL_QUALITY   = 0.8f;
+    private static final String KOBO_THUMBNAIL_DIR  = "kobo";
+    private static final int    MAX_KOBO_DIMENSION  = 2000;
+    private static final int    MAX_KOBO_VARIANTS   = 6;
     // @formatter:on
 
+    private static final Duration KOBO_VARIANT_TOUCH_INTERVAL = Duration.ofHours(1);
+
+    /**
+     * Widths a thumbnail can be requested at. The default width is written with every cover as {@code thumbnail.jpg};
+     * the others are rendered from {@code cover.jpg} on first request and kept next to it.
+     */
+    public static final List<Integer> THUMBNAIL_WIDTHS = List.of(120, THUMBNAIL_WIDTH, 500);
+
     // ========================================
     // PATH UTILITIES
     // ========================================
@@ -74,6 +98,26 @@ public class FileService {
         return Paths.get(appProperties.getPathConfig(), IMAGES_DIR, String.valueOf(bookId), THUMBNAIL_FILENAME).toString();
     }
 
+    public String getThumbnailFile(long bookId, int width) {
+        if (width == THUMBNAIL_WIDTH) {
+            return getThumbnailFile(bookId);
+        }
+        return Paths.get(appProperties.getPathConfig(), IMAGES_DIR, String.valueOf(bookId), "thumbnail-" + width + ".jpg").toString();
+    }
+
+    /**
+     * Variants are named after the cover hash and the version (modification time) of {@code cover.jpg} they were
+     * rendered from, so a variant never outlives the cover it shows even if the hash is not rotated.
+     */
+    public String getKoboThumbnailFile(long bookId, String coverHash, long coverVersion, int width, int height, int quality, boolean greyscale) {
+        String fileName = koboVariantPrefix(coverHash, coverVersion) + width + "x" + height + "-q" + quality + (greyscale ? "-grey" : "") + ".jpg";
+        return Paths.get(appProperties.getPathConfig(), IMAGES_DIR, String.valueOf(bookId), KOBO_THUMBNAIL_DIR, fileName).toString();
+    }
+
+    private static String koboVariantPrefix(String coverHash, long coverVersion) {
+        return coverHash + "-" + Long.toHexString(coverVersion) + "-";
+    }
+
     public String getCoverFile(long bookId) {
         return Paths.get(appProperties.getPathConfig(), IMAGES_DIR, String.valueOf(bookId), COVER_FILENAME).toString();
     }
@@ -159,15 +203,83 @@ public class FileService {
         return null;
     }
 
+    /**
+     * Decodes an image that is only needed as a cover, subsampling at decode time so nothing larger than the stored
+     * cover is ever materialised. Falls back to a full decode for formats whose reader cannot subsample.
+     */
+    public static BufferedImage readCoverImage(byte[] imageData) throws IOException {
+        if (imageData == null || imageData.length == 0) {
+            throw new IOException("Image data is null or empty");
+        }
+        try {
+            BufferedImage image = ImageProbeUtils.decodeSubsampled(imageData, MAX_ORIGINAL_WIDTH, MAX_ORIGINAL_HEIGHT);
+            if (image != null) {
+                return image;
+            }
+        } catch (Exception e) {
+            log.debug("Subsampled decode failed, decoding in full: {}", e.getMessage());
+        }
+        return readImage(imageData);
+    }
+
+    /**
+     * Scales in halving steps until within 2x of the target, then finishes with one bicubic pass. A single interpolated
+     * step from far above the target samples only a few source pixels per output pixel and aliases badly, while
+     * {@link Image#getScaledInstance} averages correctly but is several times slower.
+     */
     public static BufferedImage resizeImage(BufferedImage originalImage, int width, int height) {
-        Image tmp = originalImage.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-        BufferedImage resizedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = resizedImage.createGraphics();
-        g2d.drawImage(tmp, 0, 0, null);
-        g2d.dispose();
+        BufferedImage current = originalImage;
+        int stepWidth = originalImage.getWidth();
+        int stepHeight = originalImage.getHeight();
+        while (stepWidth / 2 >= width && stepHeight / 2 >= height) {
+            stepWidth /= 2;
+            stepHeight /= 2;
+            BufferedImage step = drawScaled(current, stepWidth, stepHeight, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            if (current != originalImage) {
+                current.flush();
+            }
+            current = step;
+        }
+        BufferedImage resizedImage = drawScaled(current, width, height, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        if (current != originalImage) {
+            current.flush();
+        }
         return resizedImage;
     }
 
+    private static BufferedImage drawScaled(BufferedImage source, int width, int height, Object interpolation) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = target.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(source, 0, 0, width, height, null);
+        g2d.dispose();
+        return target;
+    }
+
+    /**
+     * Writes a progressive JPEG at the given quality; ImageIO's plain {@code write} always uses baseline encoding at
+     * quality 0.75.
+     */
+    static boolean writeJpeg(BufferedImage image, File file, float quality) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(IMAGE_FORMAT);
+        if (!writers.hasNext()) {
+            return false;
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+            return true;
+        } finally {
+            writer.dispose();
+        }
+    }
+
     public static void saveImage(byte[] imageData, String filePath) throws IOException {
         BufferedImage originalImage = null;
         try {
@@ -246,7 +358,7 @@ public class FileService {
 
     public void createThumbnailFromBytes(long bookId, byte[] imageBytes) {
         try {
-            BufferedImage originalImage = readImage(imageBytes);
+            BufferedImage originalImage = readCoverImage(imageBytes);
             if (originalImage == null) {
                 log.warn("Skipping thumbnail creation for book {}: image decode failed", bookId);
                 return;
@@ -326,7 +438,8 @@ public class FileService {
 
             thumb = resizeImage(rgbImage, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
             File thumbnailFile = new File(folder, THUMBNAIL_FILENAME);
-            boolean thumbnailSaved = ImageIO.write(thumb, IMAGE_FORMAT, thumbnailFile);
+            boolean thumbnailSaved = writeJpeg(thumb, thumbnailFile, THUMBNAIL_QUALITY);
+            deleteThumbnailVariants(bookId);
 
             if (originalSaved && thumbnailSaved) {
                 bookMetadataRepository.updateCoverTimestamp(bookId, Instant.now());
@@ -350,6 +463,195 @@ public class FileService {
         }
     }
 
+    /**
+     * Snaps a requested width to the smallest stored width that covers it, so any {@code w} maps to one of a few
+     * files instead of rendering arbitrary sizes.
+     */
+    public static int snapThumbnailWidth(Integer requestedWidth) {
+        if (requestedWidth == null) {
+            return THUMBNAIL_WIDTH;
+        }
+        return THUMBNAIL_WIDTHS.stream()
+                .filter(width -> width >= requestedWidth)
+                .findFirst()
+                .orElse(THUMBNAIL_WIDTHS.getLast());
+    }
+
+    /**
+     * Returns the thumbnail of the given width, rendering it from the stored cover when it does not exist yet or is
+     * older than the cover. Falls back to the default thumbnail when there is no cover to render from.
+     */
+    public Path getOrCreateThumbnail(long bookId, int width) {
+        Path defaultThumbnail = Paths.get(getThumbnailFile(bookId));
+        if (width == THUMBNAIL_WIDTH) {
+            return defaultThumbnail;
+        }
+        Path variant = Paths.get(getThumbnailFile(bookId, width));
+        Path cover = Paths.get(getCoverFile(bookId));
+        try {
+            if (!Files.exists(cover)) {
+                return defaultThumbnail;
+            }
+            if (Files.exists(variant) && Files.getLastModifiedTime(variant).compareTo(Files.getLastModifiedTime(cover)) >= 0) {
+                return variant;
+            }
+            BufferedImage coverImage = ImageIO.read(cover.toFile());
+            if (coverImage == null) {
+                return defaultThumbnail;
+            }
+            int height = Math.round(width * ((float) THUMBNAIL_HEIGHT / THUMBNAIL_WIDTH));
+            BufferedImage resized = resizeImage(coverImage, width, height);
+            coverImage.flush();
+            try {
+                return writeJpegAtomically(resized, variant, THUMBNAIL_QUALITY) ? variant : defaultThumbnail;
+            } finally {
+                resized.flush();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to render {}px thumbnail for book {}: {}", width, bookId, e.getMessage());
+            return defaultThumbnail;
+        }
+    }
+
+    /**
+     * Returns the cover scaled to fit a reader's requested box, rendering and caching it on first request. The cover
+     * is never upscaled, and greyscale variants are stored as single-channel JPEGs, which e-ink readers decode faster
+     * and which are about a third smaller. A book keeps at most {@link #MAX_KOBO_VARIANTS} variants of its current
+     * cover, least recently served first out, and variants of older covers are dropped as soon as a new one is
+     * rendered. Returns {@code null} when there is no cover to render from.
+     */
+    public Path getOrCreateKoboThumbnail(long bookId, String coverHash, int width, int height, int quality, boolean greyscale) {
+        Path cover = Paths.get(getCoverFile(bookId));
+        try {
+            if (!Files.exists(cover)) {
+                return null;
+            }
+            int boxWidth = Math.clamp(width, 1, MAX_KOBO_DIMENSION);
+            int boxHeight = Math.clamp(height, 1, MAX_KOBO_DIMENSION);
+            long coverVersion = Files.getLastModifiedTime(cover).toMillis();
+            Path variant = Paths.get(getKoboThumbnailFile(bookId, coverHash, coverVersion, boxWidth, boxHeight, quality, greyscale));
+            if (Files.exists(variant)) {
+                touchKoboVariant(variant);
+                return variant;
+            }
+            BufferedImage coverImage = ImageIO.read(cover.toFile());
+            if (coverImage == null) {
+                return null;
+            }
+            double scale = Math.min(1.0, Math.min((double) boxWidth / coverImage.getWidth(), (double) boxHeight / coverImage.getHeight()));
+            int targetWidth = Math.max(1, (int) Math.round(coverImage.getWidth() * scale));
+            int targetHeight = Math.max(1, (int) Math.round(coverImage.getHeight() * scale));
+            BufferedImage rendered = scale < 1.0 ? resizeImage(coverImage, targetWidth, targetHeight) : coverImage;
+            if (greyscale) {
+                BufferedImage grey = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_BYTE_GRAY);
+                Graphics2D g2d = grey.createGraphics();
+                g2d.drawImage(rendered, 0, 0, null);
+                g2d.dispose();
+                if (rendered != coverImage) {
+                    rendered.flush();
+                }
+                rendered = grey;
+            }
+            try {
+                Files.createDirectories(variant.getParent());
+                if (!writeJpegAtomically(rendered, variant, quality / 100f)) {
+                    return null;
+                }
+                pruneKoboVariants(variant.getParent(), koboVariantPrefix(coverHash, coverVersion));
+                return variant;
+            } finally {
+                rendered.flush();
+                coverImage.flush();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to render {}x{} Kobo thumbnail for book {}: {}", width, height, bookId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Modification time doubles as last use for the LRU bound; refreshed at most hourly to avoid a write per request.
+     */
+    private static void touchKoboVariant(Path variant) {
+        try {
+            Instant now = Instant.now();
+            if (Files.getLastModifiedTime(variant).toInstant().isBefore(now.minus(KOBO_VARIANT_TOUCH_INTERVAL))) {
+                Files.setLastModifiedTime(variant, FileTime.from(now));
+            }
+        } catch (IOException e) {
+            log.debug("Could not touch Kobo thumbnail {}: {}", variant, e.getMessage());
+        }
+    }
+
+    private static void pruneKoboVariants(Path folder, String currentPrefix) {
+        List<Path> current = new ArrayList<>();
+        try (Stream<Path> variants = Files.list(folder)) {
+            for (Path variant : variants.filter(path -> path.getFileName().toString().endsWith(".jpg")).toList()) {
+                if (variant.getFileName().toString().startsWith(currentPrefix)) {
+                    current.add(variant);
+                } else {
+                    Files.deleteIfExists(variant);
+                }
+            }
+            if (current.size() <= MAX_KOBO_VARIANTS) {
+                return;
+            }
+            Map<Path, FileTime> lastUsed = new HashMap<>();
+            for (Path variant : current) {
+                lastUsed.put(variant, Files.getLastModifiedTime(variant));
+            }
+            current.sort(Comparator.comparing(lastUsed::get, Comparator.reverseOrder()));
+            for (Path variant : current.subList(MAX_KOBO_VARIANTS, current.size())) {
+                Files.deleteIfExists(variant);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to prune Kobo thumbnails in {}: {}", folder, e.getMessage());
+        }
+    }
+
+    /**
+     * Renders beside the target and moves into place, so concurrent requests never serve a half-written file.
+     */
+    private static boolean writeJpegAtomically(BufferedImage image, Path target, float quality) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            if (!writeJpeg(image, temp.toFile(), quality)) {
+                return false;
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void deleteThumbnailVariants(long bookId) {
+        for (int width : THUMBNAIL_WIDTHS) {
+            if (width != THUMBNAIL_WIDTH) {
+                try {
+                    Files.deleteIfExists(Paths.get(getThumbnailFile(bookId, width)));
+                } catch (IOException e) {
+                    log.warn("Failed to delete {}px thumbnail for book {}: {}", width, bookId, e.getMessage());
+                }
+            }
+        }
+        // Kobo variants are keyed by the old cover and would never be served again.
+        Path koboFolder = Paths.get(getImagesFolder(bookId), KOBO_THUMBNAIL_DIR);
+        if (Files.isDirectory(koboFolder)) {
+            try (Stream<Path> variants = Files.list(koboFolder)) {
+                variants.forEach(variant -> {
+                    try {
+                        Files.deleteIfExists(variant);
+                    } catch (IOException e) {
+                        log.warn("Failed to delete Kobo thumbnail {}: {}", variant, e.getMessage());
+                    }
+                });
+            } catch (IOException e) {
+                log.warn("Failed to clear Kobo thumbnails for book {}: {}", bookId, e.getMessage());
+            }
+        }
+    }
+
     private BufferedImage applyCoverCropping(BufferedImage image) {
         CoverCroppingSettings settings = appSettingService.getAppSettings().getCoverCroppingSettings();
         if (settings == null) {
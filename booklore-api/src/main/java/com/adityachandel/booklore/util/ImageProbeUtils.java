@@ -0,0 +1,103 @@
+package com.adityachandel.booklore.util;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Reads image format and dimensions from the image header through {@link ImageReader}
+ * without decoding any pixel data, and decodes large images straight to the size they are needed at.
+ */
+@Slf4j
+@UtilityClass
+public class ImageProbeUtils {
+
+    public record ImageProbe(String formatName, String mediaType, int width, int height) {
+    }
+
+    public static Optional<ImageProbe> probe(byte[] imageData) {
+        if (imageData == null || imageData.length == 0) {
+            return Optional.empty();
+        }
+        return probe(new ByteArrayInputStream(imageData));
+    }
+
+    public static Optional<ImageProbe> probe(InputStream inputStream) {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(inputStream)) {
+            if (iis == null) {
+                return Optional.empty();
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                ImageReaderSpi provider = reader.getOriginatingProvider();
+                String mediaType = provider != null && provider.getMIMETypes() != null && provider.getMIMETypes().length > 0
+                        ? provider.getMIMETypes()[0]
+                        : null;
+                return Optional.of(new ImageProbe(reader.getFormatName(), mediaType, width, height));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to probe image header: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Decodes an image reading only every n-th pixel of every n-th row, with n the largest factor that keeps the
+     * result at least {@code minWidth} x {@code minHeight}. A 4000 x 6000 comic scan needed as a 1000 x 1500 cover
+     * is decoded to 1000 x 1500 directly instead of to 24 MP first. Returns {@code null} when no reader accepts the
+     * data.
+     */
+    public static BufferedImage decodeSubsampled(byte[] imageData, int minWidth, int minHeight) throws IOException {
+        if (imageData == null || imageData.length == 0) {
+            return null;
+        }
+        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(imageData))) {
+            if (iis == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int factor = subsamplingFactor(reader.getWidth(0), reader.getHeight(0), minWidth, minHeight);
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (factor > 1) {
+                    param.setSourceSubsampling(factor, factor, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static int subsamplingFactor(int width, int height, int minWidth, int minHeight) {
+        if (minWidth <= 0 || minHeight <= 0) {
+            return 1;
+        }
+        return Math.max(1, Math.min(width / minWidth, height / minHeight));
+    }
+}
@@ -0,0 +1,2 @@
+ALTER TABLE kobo_user_settings
+    ADD COLUMN IF NOT EXISTS sync_batch_size INT NOT NULL DEFAULT 100;
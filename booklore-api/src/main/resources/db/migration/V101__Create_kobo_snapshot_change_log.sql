@@ -0,0 +1,16 @@
+ALTER TABLE kobo_library_snapshot
+    ADD COLUMN IF NOT EXISTS base_snapshot_id VARCHAR(36) NULL;
+
+CREATE INDEX IF NOT EXISTS idx_kobo_library_snapshot_base ON kobo_library_snapshot (base_snapshot_id);
+
+CREATE TABLE IF NOT EXISTS kobo_library_snapshot_change
+(
+    id                  BIGINT AUTO_INCREMENT PRIMARY KEY,
+    snapshot_id         VARCHAR(36)  NOT NULL,
+    book_id             BIGINT       NOT NULL,
+    file_hash           VARCHAR(255) NULL,
+    metadata_updated_at TIMESTAMP    NULL,
+    removed             BOOLEAN      NOT NULL DEFAULT FALSE,
+    CONSTRAINT fk_snapshot_change FOREIGN KEY (snapshot_id) REFERENCES kobo_library_snapshot (id) ON DELETE CASCADE,
+    CONSTRAINT uq_snapshot_change_book UNIQUE (snapshot_id, book_id)
+);
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS batch_job_checkpoint
+(
+    job_name   VARCHAR(100) PRIMARY KEY COMMENT 'Name of the batch job',
+    last_id    BIGINT    NOT NULL COMMENT 'Highest id whose chunk has been committed',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+) COMMENT = 'Resume points for interrupted maintenance batch jobs';
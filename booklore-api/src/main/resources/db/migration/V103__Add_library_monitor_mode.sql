@@ -0,0 +1,2 @@
+ALTER TABLE library
+    ADD COLUMN IF NOT EXISTS monitor_mode VARCHAR(20) NOT NULL DEFAULT 'WATCH';
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS metadata_write_back_queue
+(
+    book_id      BIGINT       PRIMARY KEY COMMENT 'Book whose file must be rewritten from its database metadata',
+    move_file    BOOLEAN      NOT NULL DEFAULT FALSE COMMENT 'Also move the file to match the library naming pattern',
+    requested_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT 'Latest request; a newer one keeps the row queued',
+    attempts     INT          NOT NULL DEFAULT 0,
+    CONSTRAINT fk_metadata_write_back_book FOREIGN KEY (book_id) REFERENCES book (id) ON DELETE CASCADE
+) COMMENT = 'Pending metadata file writes, coalesced per book';
+
+CREATE INDEX IF NOT EXISTS idx_metadata_write_back_requested_at ON metadata_write_back_queue (requested_at);
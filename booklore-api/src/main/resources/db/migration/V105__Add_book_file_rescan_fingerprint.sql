@@ -0,0 +1,4 @@
+ALTER TABLE book_file
+    ADD COLUMN IF NOT EXISTS rescan_file_size   BIGINT       NULL,
+    ADD COLUMN IF NOT EXISTS rescan_modified_ms BIGINT       NULL,
+    ADD COLUMN IF NOT EXISTS rescan_hash        VARCHAR(128) NULL;
@@ -0,0 +1,2 @@
+ALTER TABLE shelf
+    ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3);
@@ -0,0 +1,19 @@
+CREATE TABLE IF NOT EXISTS email_outbox
+(
+    id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id         BIGINT        NOT NULL COMMENT 'User who requested the send',
+    username        VARCHAR(255)  NOT NULL COMMENT 'Receives the delivery status notifications',
+    provider_id     BIGINT        NOT NULL,
+    book_id         BIGINT        NOT NULL,
+    recipient_email VARCHAR(255)  NOT NULL,
+    status          VARCHAR(20)   NOT NULL DEFAULT 'PENDING',
+    attempts        INT           NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP(6)  NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT 'Earliest time of the next delivery attempt',
+    last_error      VARCHAR(1000) NULL,
+    created_at      TIMESTAMP(6)  NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    CONSTRAINT fk_email_outbox_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT fk_email_outbox_provider FOREIGN KEY (provider_id) REFERENCES email_provider_v2 (id) ON DELETE CASCADE,
+    CONSTRAINT fk_email_outbox_book FOREIGN KEY (book_id) REFERENCES book (id) ON DELETE CASCADE
+) COMMENT = 'Book emails waiting to be delivered or retried';
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
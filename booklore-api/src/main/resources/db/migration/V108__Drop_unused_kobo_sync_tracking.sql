@@ -0,0 +1,3 @@
+DROP TABLE IF EXISTS kobo_removed_books_tracking;
+
+ALTER TABLE kobo_library_snapshot_book DROP COLUMN IF EXISTS synced;
@@ -8,6 +8,7 @@ import com.adityachandel.booklore.service.book.BookQueryService;
 import com.adityachandel.booklore.service.book.BookService;
 import com.adityachandel.booklore.service.book.BookUpdateService;
 import com.adityachandel.booklore.service.user.UserProgressService;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer;
 import com.adityachandel.booklore.service.monitoring.MonitoringRegistrationService;
 import com.adityachandel.booklore.util.FileService;
 import org.junit.jupiter.api.BeforeEach;
@@ -50,6 +51,8 @@ class BookServiceDeleteTests {
         BookDownloadService bookDownloadService = Mockito.mock(BookDownloadService.class);
         MonitoringRegistrationService monitoringRegistrationService = Mockito.mock(MonitoringRegistrationService.class);
         BookUpdateService bookUpdateService = Mockito.mock(BookUpdateService.class);
+        UserBookProgressWriteBuffer progressWriteBuffer = Mockito.mock(UserBookProgressWriteBuffer.class);
+        ShelfRepository shelfRepository = Mockito.mock(ShelfRepository.class);
 
         bookService = new BookService(
                 bookRepository,
@@ -65,7 +68,9 @@ class BookServiceDeleteTests {
                 bookDownloadService,
                 monitoringRegistrationService,
                 bookUpdateService,
-                ebookViewerPreferenceRepository
+                ebookViewerPreferenceRepository,
+                progressWriteBuffer,
+                shelfRepository
         );
     }
 
@@ -0,0 +1,61 @@
+package com.adityachandel.booklore.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WebSocketConfigTest {
+
+    @Test
+    void decorateSession_shouldDropOldestMessagesInsteadOfClosingSlowSession() throws Exception {
+        WebSocketConfig.DroppingSubProtocolWebSocketHandler handler =
+                new WebSocketConfig.DroppingSubProtocolWebSocketHandler(mock(MessageChannel.class), mock(SubscribableChannel.class));
+        handler.setSendBufferSizeLimit(20);
+        handler.setSendTimeLimit(10_000);
+
+        WebSocketSession session = mock(WebSocketSession.class);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(session).sendMessage(any());
+
+        ConcurrentWebSocketSessionDecorator decorated = (ConcurrentWebSocketSessionDecorator) handler.decorateSession(session);
+        Thread slowSend = new Thread(() -> {
+            try {
+                decorated.sendMessage(new TextMessage("first"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        slowSend.start();
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            for (int i = 0; i < 5; i++) {
+                decorated.sendMessage(new TextMessage("message-" + i));
+            }
+
+            assertThat(decorated.getBufferSize()).isLessThanOrEqualTo(20);
+            verify(session, never()).close(any(CloseStatus.class));
+        } finally {
+            release.countDown();
+            slowSend.join(5_000);
+        }
+    }
+}
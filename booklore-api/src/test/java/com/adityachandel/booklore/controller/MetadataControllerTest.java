@@ -5,9 +5,12 @@ import com.adityachandel.booklore.mapper.BookMetadataMapper;
 import com.adityachandel.booklore.model.MetadataUpdateContext;
 import com.adityachandel.booklore.model.MetadataUpdateWrapper;
 import com.adityachandel.booklore.model.dto.BookMetadata;
+import com.adityachandel.booklore.model.dto.request.MergeMetadataRequest;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
+import com.adityachandel.booklore.model.enums.MergeMetadataType;
 import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.event.BookEventBroadcaster;
 import com.adityachandel.booklore.service.metadata.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -38,6 +41,8 @@ class MetadataControllerTest {
     private BookRepository bookRepository;
     @Mock
     private MetadataManagementService metadataManagementService;
+    @Mock
+    private BookEventBroadcaster bookEventBroadcaster;
 
     @InjectMocks
     private MetadataController metadataController;
@@ -66,4 +71,18 @@ class MetadataControllerTest {
         assertFalse(context.isMergeTags(), "mergeTags should be false to allow deletion of tags");
         assertFalse(context.isMergeMoods(), "mergeMoods should be false to allow deletion of moods");
     }
+
+    @Test
+    void mergeMetadata_shouldPushAffectedBooksToClients() {
+        MergeMetadataRequest request = new MergeMetadataRequest();
+        request.setMetadataType(MergeMetadataType.authors);
+        request.setTargetValues(java.util.List.of("Ursula K. Le Guin"));
+        request.setValuesToMerge(java.util.List.of("Ursula Le Guin"));
+        when(metadataManagementService.consolidateMetadata(MergeMetadataType.authors, request.getTargetValues(), request.getValuesToMerge()))
+                .thenReturn(java.util.Set.of(4L, 9L));
+
+        metadataController.mergeMetadata(request);
+
+        verify(bookEventBroadcaster).broadcastBooksUpdated(java.util.Set.of(4L, 9L));
+    }
 }
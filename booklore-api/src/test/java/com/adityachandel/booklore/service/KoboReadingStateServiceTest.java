@@ -19,6 +19,7 @@ import com.adityachandel.booklore.service.hardcover.HardcoverSyncService;
 import com.adityachandel.booklore.service.kobo.KoboReadingStateBuilder;
 import com.adityachandel.booklore.service.kobo.KoboReadingStateService;
 import com.adityachandel.booklore.service.kobo.KoboSettingsService;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -68,6 +69,9 @@ class KoboReadingStateServiceTest {
     @Mock
     private HardcoverSyncService hardcoverSyncService;
 
+    @Mock
+    private UserBookProgressWriteBuffer progressWriteBuffer;
+
     @InjectMocks
     private KoboReadingStateService service;
 
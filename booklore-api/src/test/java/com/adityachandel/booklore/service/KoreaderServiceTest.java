@@ -7,7 +7,6 @@ import com.adityachandel.booklore.config.security.userdetails.KoreaderUserDetail
 import com.adityachandel.booklore.exception.APIException;
 import com.adityachandel.booklore.model.dto.progress.KoreaderProgress;
 import com.adityachandel.booklore.model.entity.BookEntity;
-import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
 import com.adityachandel.booklore.model.entity.UserBookProgressEntity;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.UserBookProgressRepository;
@@ -15,6 +14,7 @@ import com.adityachandel.booklore.repository.UserRepository;
 import com.adityachandel.booklore.repository.KoreaderUserRepository;
 import com.adityachandel.booklore.service.hardcover.HardcoverSyncService;
 import com.adityachandel.booklore.service.koreader.KoreaderService;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -29,6 +29,7 @@ import java.lang.reflect.Method;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -44,6 +45,8 @@ class KoreaderServiceTest {
     KoreaderUserRepository koreaderUserRepo;
     @Mock
     HardcoverSyncService hardcoverSyncService;
+    @Mock
+    UserBookProgressWriteBuffer progressWriteBuffer;
 
     @InjectMocks
     KoreaderService service;
@@ -188,19 +191,14 @@ class KoreaderServiceTest {
         var book = new BookEntity();
         book.setId(7L);
         when(bookRepo.findByCurrentHash("h")).thenReturn(Optional.of(book));
-        var user = new BookLoreUserEntity();
-        user.setId(42L);
-        when(userRepo.findById(42L)).thenReturn(Optional.of(user));
-        when(progressRepo.findByUserIdAndBookId(42L, 7L))
-                .thenReturn(Optional.empty());
 
         var dto = KoreaderProgress.builder()
                 .document("h").progress("x").percentage(0.6F).device("d").device_id("id").build();
         service.saveProgress("h", dto);
 
-        ArgumentCaptor<UserBookProgressEntity> cap = ArgumentCaptor.forClass(UserBookProgressEntity.class);
-        verify(progressRepo).save(cap.capture());
-        var saved = cap.getValue();
+        var saved = new UserBookProgressEntity();
+        applyBufferedProgress(7L, saved);
+        verify(progressRepo, never()).save(any());
         assertEquals("x", saved.getKoreaderProgress());
         assertEquals(0.6F, saved.getKoreaderProgressPercent());
         assertEquals("d", saved.getKoreaderDevice());
@@ -214,18 +212,13 @@ class KoreaderServiceTest {
         var book = new BookEntity();
         book.setId(8L);
         when(bookRepo.findByCurrentHash("h")).thenReturn(Optional.of(book));
-        var user = new BookLoreUserEntity();
-        user.setId(42L);
-        when(userRepo.findById(42L)).thenReturn(Optional.of(user));
         var existing = new UserBookProgressEntity();
-        when(progressRepo.findByUserIdAndBookId(42L, 8L))
-                .thenReturn(Optional.of(existing));
 
         var dto = KoreaderProgress.builder()
                 .document("h").progress("y").percentage(0.4F).device("d").device_id("id").build();
         service.saveProgress("h", dto);
 
-        verify(progressRepo).save(existing);
+        applyBufferedProgress(8L, existing);
         assertEquals("y", existing.getKoreaderProgress());
         assertEquals(0.4F, existing.getKoreaderProgressPercent());
     }
@@ -247,4 +240,13 @@ class KoreaderServiceTest {
         assertEquals(100.0f, (Float) method.invoke(service, 1.0f));
         assertEquals(42.0f, (Float) method.invoke(service, 42.0f));
     }
+
+    @SuppressWarnings("unchecked")
+    private void applyBufferedProgress(Long bookId, UserBookProgressEntity entity) {
+        ArgumentCaptor<Consumer<UserBookProgressWriteBuffer.ProgressPatch>> cap = ArgumentCaptor.forClass(Consumer.class);
+        verify(progressWriteBuffer).update(eq(42L), eq(bookId), cap.capture());
+        var patch = new UserBookProgressWriteBuffer.ProgressPatch();
+        cap.getValue().accept(patch);
+        patch.applyTo(entity);
+    }
 }
@@ -0,0 +1,170 @@
+package com.adityachandel.booklore.service;
+
+import com.adityachandel.booklore.config.security.service.AuthenticationService;
+import com.adityachandel.booklore.exception.APIException;
+import com.adityachandel.booklore.mapper.BookMapper;
+import com.adityachandel.booklore.mapper.ShelfMapper;
+import com.adityachandel.booklore.model.dto.BookLoreUser;
+import com.adityachandel.booklore.model.dto.Shelf;
+import com.adityachandel.booklore.model.dto.ShelfBook;
+import com.adityachandel.booklore.model.entity.ShelfEntity;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.ShelfRepository;
+import com.adityachandel.booklore.repository.UserRepository;
+import com.adityachandel.booklore.repository.projection.ShelfBookCountProjection;
+import com.adityachandel.booklore.repository.projection.ShelfBookProjection;
+import com.adityachandel.booklore.repository.projection.ShelfBooksVersionProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShelfServiceTest {
+
+    @Mock
+    private ShelfRepository shelfRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private ShelfMapper shelfMapper;
+    @Mock
+    private BookMapper bookMapper;
+    @Mock
+    private AuthenticationService authenticationService;
+    @Mock
+    private UserRepository userRepository;
+
+    private ShelfService shelfService;
+
+    @BeforeEach
+    void setUp() {
+        shelfService = new ShelfService(shelfRepository, bookRepository, shelfMapper, bookMapper, authenticationService, userRepository);
+    }
+
+    private static ShelfBookCountProjection count(long shelfId, long bookCount) {
+        return new ShelfBookCountProjection() {
+            @Override
+            public Long getShelfId() {
+                return shelfId;
+            }
+
+            @Override
+            public long getBookCount() {
+                return bookCount;
+            }
+        };
+    }
+
+    private static ShelfBooksVersionProjection version(long bookCount, Instant metadataUpdatedAt, Instant coverUpdatedOn) {
+        return new ShelfBooksVersionProjection() {
+            @Override
+            public long getBookCount() {
+                return bookCount;
+            }
+
+            @Override
+            public Instant getMetadataUpdatedAt() {
+                return metadataUpdatedAt;
+            }
+
+            @Override
+            public Instant getCoverUpdatedOn() {
+                return coverUpdatedOn;
+            }
+        };
+    }
+
+    @Test
+    void getShelves_shouldFillBookCountsFromOneAggregateQuery() {
+        ShelfEntity first = ShelfEntity.builder().id(1L).name("Favorites").build();
+        ShelfEntity second = ShelfEntity.builder().id(2L).name("Empty").build();
+        when(authenticationService.getAuthenticatedUser()).thenReturn(BookLoreUser.builder().id(7L).build());
+        when(shelfRepository.findByUserIdOrPublicShelfTrue(7L)).thenReturn(List.of(first, second));
+        when(shelfRepository.countBooksByShelfIds(List.of(1L, 2L))).thenReturn(List.of(count(1L, 1234L)));
+        when(shelfMapper.toShelf(first)).thenReturn(Shelf.builder().id(1L).build());
+        when(shelfMapper.toShelf(second)).thenReturn(Shelf.builder().id(2L).build());
+
+        List<Shelf> shelves = shelfService.getShelves();
+
+        assertThat(shelves).extracting(Shelf::getBookCount).containsExactly(1234, 0);
+        verify(shelfRepository, times(1)).countBooksByShelfIds(any());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void getShelfBooksPage_shouldTranslateSortAndCapPageSize() {
+        ShelfBookProjection projection = mock(ShelfBookProjection.class);
+        when(projection.getId()).thenReturn(3L);
+        when(projection.getTitle()).thenReturn("Dune");
+        when(bookRepository.findShelfBooksByShelfId(eq(5L), any())).thenAnswer(invocation -> new PageImpl<>(List.of(projection), invocation.getArgument(1), 1));
+
+        Page<ShelfBook> page = shelfService.getShelfBooksPage(5L, PageRequest.of(2, 10_000, Sort.by(Sort.Direction.DESC, "title")));
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(bookRepository).findShelfBooksByShelfId(eq(5L), pageable.capture());
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(2);
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(ShelfService.MAX_PAGE_SIZE);
+        assertThat(pageable.getValue().getSort()).extracting(Sort.Order::getProperty).containsExactly("m.title", "b.id");
+        assertThat(page.getContent()).extracting(ShelfBook::getId, ShelfBook::getTitle).containsExactly(tuple(3L, "Dune"));
+    }
+
+    @Test
+    void getShelfBooksPage_shouldRejectUnknownSortProperty() {
+        assertThatThrownBy(() -> shelfService.getShelfBooksPage(5L, PageRequest.of(0, 20, Sort.by("fileName"))))
+                .isInstanceOf(APIException.class);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void getShelfBooksETag_shouldChangeWithShelfModification() {
+        ShelfEntity shelf = ShelfEntity.builder().id(5L).updatedAt(Instant.ofEpochMilli(1_000)).build();
+        when(shelfRepository.findById(5L)).thenReturn(Optional.of(shelf));
+        when(bookRepository.findShelfBooksVersionByShelfId(5L)).thenReturn(version(2, null, null));
+
+        String before = shelfService.getShelfBooksETag(5L);
+        shelf.setUpdatedAt(Instant.ofEpochMilli(2_000));
+        String after = shelfService.getShelfBooksETag(5L);
+
+        assertThat(before).isEqualTo("5-1000-2-0-0");
+        assertThat(after).isNotEqualTo(before);
+        verify(bookRepository, never()).findShelfBooksByShelfId(anyLong(), any());
+    }
+
+    @Test
+    void getShelfBooksETag_shouldChangeWhenBooksOnShelfChange() {
+        ShelfEntity shelf = ShelfEntity.builder().id(5L).updatedAt(Instant.ofEpochMilli(1_000)).build();
+        when(shelfRepository.findById(5L)).thenReturn(Optional.of(shelf));
+        when(bookRepository.findShelfBooksVersionByShelfId(5L)).thenReturn(
+                version(2, Instant.ofEpochMilli(3_000), Instant.ofEpochMilli(4_000)),
+                version(2, Instant.ofEpochMilli(5_000), Instant.ofEpochMilli(4_000)),
+                version(2, Instant.ofEpochMilli(5_000), Instant.ofEpochMilli(6_000)),
+                version(1, Instant.ofEpochMilli(5_000), Instant.ofEpochMilli(6_000)));
+
+        String initial = shelfService.getShelfBooksETag(5L);
+        String metadataEdited = shelfService.getShelfBooksETag(5L);
+        String coverReplaced = shelfService.getShelfBooksETag(5L);
+        String bookSoftDeleted = shelfService.getShelfBooksETag(5L);
+
+        assertThat(List.of(initial, metadataEdited, coverReplaced, bookSoftDeleted)).doesNotHaveDuplicates();
+    }
+}
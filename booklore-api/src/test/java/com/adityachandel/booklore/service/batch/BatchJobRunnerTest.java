@@ -0,0 +1,137 @@
+package com.adityachandel.booklore.service.batch;
+
+import com.adityachandel.booklore.model.entity.BatchJobCheckpointEntity;
+import com.adityachandel.booklore.repository.BatchJobCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchJobRunnerTest {
+
+    @Mock
+    private BatchJobCheckpointRepository checkpointRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BatchJobRunner runner;
+
+    private final List<Long> ids = LongStream.rangeClosed(1, 25).boxed().toList();
+
+    @BeforeEach
+    void setUp() {
+        runner = new BatchJobRunner(checkpointRepository, transactionManager);
+    }
+
+    private BatchJob.IdSource keyset(List<Long> afterIds) {
+        return (afterId, limit) -> {
+            afterIds.add(afterId);
+            return ids.stream().filter(id -> id > afterId).limit(limit).toList();
+        };
+    }
+
+    @Test
+    void run_pagesWithKeysetCursorAndCommitsEachChunk() {
+        List<Long> afterIds = new ArrayList<>();
+        List<List<Long>> chunks = new ArrayList<>();
+
+        int changed = runner.run(BatchJob.builder()
+                .name("test")
+                .idSource(keyset(afterIds))
+                .processor(chunk -> {
+                    chunks.add(chunk);
+                    return chunk.size();
+                })
+                .chunkSize(10)
+                .build());
+
+        assertThat(changed).isEqualTo(25);
+        assertThat(afterIds).containsExactly(0L, 10L, 20L);
+        assertThat(chunks).extracting(List::size).containsExactly(10, 10, 5);
+        verify(transactionManager, times(3)).commit(any());
+        verifyNoInteractions(checkpointRepository);
+    }
+
+    @Test
+    void run_resumableJobStartsFromCheckpointAndClearsItWhenDone() {
+        when(checkpointRepository.findById("test")).thenReturn(Optional.of(new BatchJobCheckpointEntity("test", 20L, Instant.now())));
+        List<Long> afterIds = new ArrayList<>();
+
+        int changed = runner.run(BatchJob.builder()
+                .name("test")
+                .idSource(keyset(afterIds))
+                .processor(List::size)
+                .chunkSize(10)
+                .resumable(true)
+                .build());
+
+        assertThat(changed).isEqualTo(5);
+        assertThat(afterIds).containsExactly(20L);
+        ArgumentCaptor<BatchJobCheckpointEntity> checkpoint = ArgumentCaptor.forClass(BatchJobCheckpointEntity.class);
+        verify(checkpointRepository).save(checkpoint.capture());
+        assertThat(checkpoint.getValue().getLastId()).isEqualTo(25L);
+        verify(checkpointRepository).deleteById("test");
+    }
+
+    @Test
+    void run_failedChunkKeepsCheckpointAtLastCompletedWave() {
+        assertThatThrownBy(() -> runner.run(BatchJob.builder()
+                .name("test")
+                .idSource(keyset(new ArrayList<>()))
+                .processor(chunk -> {
+                    if (chunk.contains(15L)) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return chunk.size();
+                })
+                .chunkSize(10)
+                .resumable(true)
+                .build()))
+                .isInstanceOf(IllegalStateException.class);
+
+        ArgumentCaptor<BatchJobCheckpointEntity> checkpoint = ArgumentCaptor.forClass(BatchJobCheckpointEntity.class);
+        verify(checkpointRepository).save(checkpoint.capture());
+        assertThat(checkpoint.getValue().getLastId()).isEqualTo(10L);
+        verify(checkpointRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void run_parallelWorkersProcessEveryIdOnce() {
+        List<Long> processed = new CopyOnWriteArrayList<>();
+
+        int changed = runner.run(BatchJob.builder()
+                .name("test")
+                .idSource(keyset(new ArrayList<>()))
+                .processor(chunk -> {
+                    processed.addAll(chunk);
+                    return chunk.size();
+                })
+                .chunkSize(3)
+                .workers(4)
+                .transactional(false)
+                .build());
+
+        assertThat(changed).isEqualTo(25);
+        List<Long> sorted = new ArrayList<>(processed);
+        Collections.sort(sorted);
+        assertThat(sorted).isEqualTo(ids);
+        verifyNoInteractions(transactionManager);
+    }
+}
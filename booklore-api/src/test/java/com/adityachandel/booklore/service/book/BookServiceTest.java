@@ -12,6 +12,7 @@ import com.adityachandel.booklore.model.enums.BookFileType;
 import com.adityachandel.booklore.repository.*;
 import com.adityachandel.booklore.service.monitoring.MonitoringRegistrationService;
 import com.adityachandel.booklore.service.user.UserProgressService;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -70,6 +71,10 @@ class BookServiceTest {
     private MonitoringRegistrationService monitoringRegistrationService;
     @Mock
     private BookUpdateService bookUpdateService;
+    @Mock
+    private UserBookProgressWriteBuffer progressWriteBuffer;
+    @Mock
+    private ShelfRepository shelfRepository;
 
     @InjectMocks
     private BookService bookService;
@@ -305,6 +310,42 @@ class BookServiceTest {
         assertThrows(RuntimeException.class, () -> bookService.getBookCover(123L));
     }
 
+    @Test
+    void getBookThumbnailResponse_versioned_isImmutableWithStrongEtag() throws Exception {
+        Path path = Files.createTempFile("thumbnail", ".jpg");
+        when(fileService.getThumbnailFile(1L)).thenReturn(path.toString());
+        try {
+            ResponseEntity<Resource> response = bookService.getBookThumbnailResponse(1L, "BL-ABC");
+            String cacheControl = response.getHeaders().getCacheControl();
+            assertTrue(cacheControl.contains("max-age=31536000") && cacheControl.contains("immutable"));
+            assertNotNull(response.getHeaders().getETag());
+            assertFalse(response.getHeaders().getETag().startsWith("W/"));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void getBookCoverResponse_unversioned_isRevalidatedHourly() throws Exception {
+        Path path = Files.createTempFile("cover", ".jpg");
+        when(fileService.getCoverFile(1L)).thenReturn(path.toString());
+        try {
+            ResponseEntity<Resource> response = bookService.getBookCoverResponse(1L, null);
+            String cacheControl = response.getHeaders().getCacheControl();
+            assertTrue(cacheControl.contains("max-age=3600") && !cacheControl.contains("immutable"));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void getBookThumbnailResponse_fileMissing_returnsPlaceholderWithoutLongCaching() {
+        when(fileService.getThumbnailFile(1L)).thenReturn("/tmp/nonexistent-thumbnail.jpg");
+        ResponseEntity<Resource> response = bookService.getBookThumbnailResponse(1L, "BL-ABC");
+        assertTrue(response.getBody() instanceof ClassPathResource);
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+    }
+
     @Test
     void downloadBook_delegatesToDownloadService() {
         ResponseEntity<Resource> response = ResponseEntity.ok(mock(Resource.class));
@@ -379,6 +420,7 @@ class BookServiceTest {
         assertNotNull(response);
         assertTrue(response.getFailedFileDeletions().isEmpty());
         assertEquals(Set.of(11L), response.getDeleted());
+        verify(shelfRepository).touchShelvesOfBooks(eq(Set.of(11L)), any());
         Files.deleteIfExists(filePath);
     }
 
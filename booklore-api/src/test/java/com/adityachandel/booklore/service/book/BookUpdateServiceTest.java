@@ -15,14 +15,18 @@ import com.adityachandel.booklore.model.enums.ReadStatus;
 import com.adityachandel.booklore.model.enums.ResetProgressType;
 import com.adityachandel.booklore.repository.*;
 import com.adityachandel.booklore.service.kobo.KoboReadingStateService;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer;
+import com.adityachandel.booklore.service.user.UserBookProgressWriteBuffer.ProgressPatch;
 import com.adityachandel.booklore.service.user.UserProgressService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -55,6 +59,8 @@ class BookUpdateServiceTest {
     private KoboReadingStateService koboReadingStateService;
     @Mock
     private EbookViewerPreferenceRepository ebookViewerPreferenceRepository;
+    @Mock
+    private UserBookProgressWriteBuffer progressWriteBuffer;
 
     @InjectMocks
     private BookUpdateService bookUpdateService;
@@ -75,7 +81,8 @@ class BookUpdateServiceTest {
                 bookQueryService,
                 userProgressService,
                 koboReadingStateService,
-                ebookViewerPreferenceRepository
+                ebookViewerPreferenceRepository,
+                progressWriteBuffer
         );
     }
 
@@ -189,10 +196,6 @@ class BookUpdateServiceTest {
         when(authenticationService.getAuthenticatedUser()).thenReturn(user);
         when(user.getId()).thenReturn(2L);
 
-        UserBookProgressEntity progress = new UserBookProgressEntity();
-        when(userBookProgressRepository.findByUserIdAndBookId(2L, bookId)).thenReturn(Optional.of(progress));
-        BookLoreUserEntity userEntity = new BookLoreUserEntity();
-        when(userRepository.findById(2L)).thenReturn(Optional.of(userEntity));
 
         ReadProgressRequest req = new ReadProgressRequest();
         req.setBookId(bookId);
@@ -201,7 +204,8 @@ class BookUpdateServiceTest {
 
         bookUpdateService.updateReadProgress(req);
 
-        verify(userBookProgressRepository).save(progress);
+        UserBookProgressEntity progress = applyBufferedProgress(2L, bookId);
+        verify(userBookProgressRepository, never()).save(any());
         assertEquals("cfi", progress.getEpubProgress());
         assertEquals(ReadStatus.READ, progress.getReadStatus());
         assertEquals(100f, progress.getEpubProgressPercent());
@@ -221,10 +225,6 @@ class BookUpdateServiceTest {
         when(authenticationService.getAuthenticatedUser()).thenReturn(user);
         when(user.getId()).thenReturn(2L);
 
-        UserBookProgressEntity progress = new UserBookProgressEntity();
-        when(userBookProgressRepository.findByUserIdAndBookId(2L, bookId)).thenReturn(Optional.of(progress));
-        BookLoreUserEntity userEntity = new BookLoreUserEntity();
-        when(userRepository.findById(2L)).thenReturn(Optional.of(userEntity));
 
         ReadProgressRequest req = new ReadProgressRequest();
         req.setBookId(bookId);
@@ -233,7 +233,8 @@ class BookUpdateServiceTest {
 
         bookUpdateService.updateReadProgress(req);
 
-        verify(userBookProgressRepository).save(progress);
+        UserBookProgressEntity progress = applyBufferedProgress(2L, bookId);
+        verify(userBookProgressRepository, never()).save(any());
         assertEquals(5, progress.getPdfProgress());
         assertEquals(ReadStatus.READING, progress.getReadStatus());
         assertEquals(50f, progress.getPdfProgressPercent());
@@ -467,4 +468,15 @@ class BookUpdateServiceTest {
 
         assertThrows(APIException.class, () -> bookUpdateService.assignShelvesToBooks(bookIds, assignIds, unassignIds));
     }
+
+    @SuppressWarnings("unchecked")
+    private UserBookProgressEntity applyBufferedProgress(Long userId, Long bookId) {
+        ArgumentCaptor<Consumer<ProgressPatch>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(progressWriteBuffer).update(eq(userId), eq(bookId), captor.capture());
+        ProgressPatch patch = new ProgressPatch();
+        captor.getValue().accept(patch);
+        UserBookProgressEntity progress = new UserBookProgressEntity();
+        patch.applyTo(progress);
+        return progress;
+    }
 }
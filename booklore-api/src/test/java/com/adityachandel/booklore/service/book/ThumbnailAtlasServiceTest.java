@@ -0,0 +1,152 @@
+package com.adityachandel.booklore.service.book;
+
+import com.adityachandel.booklore.exception.APIException;
+import com.adityachandel.booklore.model.dto.response.ThumbnailAtlasManifest;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.projection.BookCoverUpdateProjection;
+import com.adityachandel.booklore.util.FileService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ThumbnailAtlasServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private FileService fileService;
+
+    @InjectMocks
+    private ThumbnailAtlasService thumbnailAtlasService;
+
+    private static BookCoverUpdateProjection cover(long id, String hash) {
+        BookCoverUpdateProjection projection = mock(BookCoverUpdateProjection.class);
+        lenient().when(projection.getId()).thenReturn(id);
+        lenient().when(projection.getBookCoverHash()).thenReturn(hash);
+        return projection;
+    }
+
+    @TempDir
+    Path tempDir;
+
+    private Path thumbnail(long bookId) throws IOException {
+        return thumbnail(bookId, ThumbnailAtlasService.CELL_WIDTH, ThumbnailAtlasService.CELL_HEIGHT);
+    }
+
+    private Path thumbnail(long bookId, int width, int height) throws IOException {
+        Path thumbnail = tempDir.resolve("thumbnail-" + bookId + ".jpg");
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "JPEG", thumbnail.toFile());
+        lenient().when(fileService.getThumbnailFile(bookId)).thenReturn(thumbnail.toString());
+        return thumbnail;
+    }
+
+    @Test
+    void getManifest_placesEachBookInTheCellOfItsId() throws IOException {
+        thumbnail(61L);
+        thumbnail(72L);
+        when(bookRepository.findCoverUpdateInfoByIdRange(60L, 119L)).thenReturn(List.of(cover(72L, "BL-C"), cover(61L, "BL-A")));
+
+        ThumbnailAtlasManifest manifest = thumbnailAtlasService.getManifest(1L);
+
+        assertThat(manifest.getEntries()).extracting(ThumbnailAtlasManifest.Entry::getBookId).containsExactly(61L, 72L);
+        assertThat(manifest.getEntries().get(0).getX()).isEqualTo(ThumbnailAtlasService.CELL_WIDTH);
+        assertThat(manifest.getEntries().get(0).getY()).isZero();
+        assertThat(manifest.getEntries().get(1).getX()).isEqualTo(2 * ThumbnailAtlasService.CELL_WIDTH);
+        assertThat(manifest.getEntries().get(1).getY()).isEqualTo(ThumbnailAtlasService.CELL_HEIGHT);
+        assertThat(manifest.getWidth()).isEqualTo(ThumbnailAtlasService.COLUMNS * ThumbnailAtlasService.CELL_WIDTH);
+        assertThat(manifest.getHeight()).isEqualTo(2 * ThumbnailAtlasService.CELL_HEIGHT);
+    }
+
+    @Test
+    void getManifest_letterboxesThumbnailsThatAreNotCellShaped() throws IOException {
+        thumbnail(1L, 500, 500);
+        when(bookRepository.findCoverUpdateInfoByIdRange(0L, 59L)).thenReturn(List.of(cover(1L, "BL-A")));
+
+        ThumbnailAtlasManifest.Entry entry = thumbnailAtlasService.getManifest(0L).getEntries().getFirst();
+
+        assertThat(entry.getWidth()).isEqualTo(ThumbnailAtlasService.CELL_WIDTH);
+        assertThat(entry.getHeight()).isEqualTo(ThumbnailAtlasService.CELL_WIDTH);
+        assertThat(entry.getX()).isEqualTo(ThumbnailAtlasService.CELL_WIDTH);
+        assertThat(entry.getY()).isEqualTo((ThumbnailAtlasService.CELL_HEIGHT - ThumbnailAtlasService.CELL_WIDTH) / 2);
+    }
+
+    @Test
+    void getManifest_versionChangesWhenACoverChanges() throws IOException {
+        thumbnail(1L);
+        when(bookRepository.findCoverUpdateInfoByIdRange(0L, 59L))
+                .thenReturn(List.of(cover(1L, "BL-A")))
+                .thenReturn(List.of(cover(1L, "BL-A")))
+                .thenReturn(List.of(cover(1L, "BL-B")));
+
+        String first = thumbnailAtlasService.getManifest(0L).getVersion();
+        String same = thumbnailAtlasService.getManifest(0L).getVersion();
+        String changed = thumbnailAtlasService.getManifest(0L).getVersion();
+
+        assertThat(same).isEqualTo(first);
+        assertThat(changed).isNotEqualTo(first);
+    }
+
+    @Test
+    void getManifest_negativeAtlas_throws() {
+        assertThatThrownBy(() -> thumbnailAtlasService.getManifest(-1L)).isInstanceOf(APIException.class);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void getManifest_skipsBooksWithoutThumbnailFile() throws IOException {
+        thumbnail(1L);
+        when(fileService.getThumbnailFile(2L)).thenReturn(tempDir.resolve("missing.jpg").toString());
+        when(bookRepository.findCoverUpdateInfoByIdRange(0L, 59L)).thenReturn(List.of(cover(1L, "BL-A"), cover(2L, "BL-B")));
+
+        ThumbnailAtlasManifest manifest = thumbnailAtlasService.getManifest(0L);
+
+        assertThat(manifest.getEntries()).extracting(ThumbnailAtlasManifest.Entry::getBookId).containsExactly(1L);
+    }
+
+    @Test
+    void getManifest_leavesUnreadableThumbnailOut() throws IOException {
+        thumbnail(1L);
+        Path corrupt = tempDir.resolve("corrupt.jpg");
+        Files.writeString(corrupt, "not an image");
+        when(fileService.getThumbnailFile(2L)).thenReturn(corrupt.toString());
+        when(bookRepository.findCoverUpdateInfoByIdRange(0L, 59L)).thenReturn(List.of(cover(1L, "BL-A"), cover(2L, "BL-B")));
+
+        ThumbnailAtlasManifest manifest = thumbnailAtlasService.getManifest(0L);
+
+        assertThat(manifest.getEntries()).extracting(ThumbnailAtlasManifest.Entry::getBookId).containsExactly(1L);
+    }
+
+    @Test
+    void getAtlas_rendersTheRangeAndCachesByVersion() throws Exception {
+        thumbnail(1L);
+        thumbnail(2L);
+        when(bookRepository.findCoverUpdateInfoByIdRange(0L, 59L)).thenReturn(List.of(cover(1L, "BL-A"), cover(2L, "BL-B")));
+
+        ThumbnailAtlasService.ThumbnailAtlas atlas = thumbnailAtlasService.getAtlas(0L);
+        ThumbnailAtlasService.ThumbnailAtlas cached = thumbnailAtlasService.getAtlas(0L);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(atlas.image()));
+        assertThat(image.getWidth()).isEqualTo(ThumbnailAtlasService.COLUMNS * ThumbnailAtlasService.CELL_WIDTH);
+        assertThat(image.getHeight()).isEqualTo(ThumbnailAtlasService.CELL_HEIGHT);
+        assertThat(cached.image()).isSameAs(atlas.image());
+        // Sizes are read once per thumbnail; only the first request decodes the thumbnails into the atlas.
+        verify(fileService, times(8)).getThumbnailFile(anyLong());
+    }
+}
@@ -0,0 +1,228 @@
+package com.adityachandel.booklore.service.email;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.model.entity.*;
+import com.adityachandel.booklore.model.enums.EmailOutboxStatus;
+import com.adityachandel.booklore.model.websocket.LogNotification;
+import com.adityachandel.booklore.model.websocket.Topic;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.EmailOutboxRepository;
+import com.adityachandel.booklore.repository.EmailProviderV2Repository;
+import com.adityachandel.booklore.service.NotificationService;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxServiceTest {
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+    @Mock
+    private EmailProviderV2Repository emailProviderRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private JavaMailSenderImpl mailSender;
+
+    private final AppProperties appProperties = new AppProperties();
+    private final List<EmailProviderV2Entity> createdSenders = new ArrayList<>();
+    private EmailOutboxService service;
+    private EmailProviderV2Entity provider;
+
+    @BeforeEach
+    void setUp() {
+        appProperties.getEmail().setMaxAttempts(3);
+        appProperties.getEmail().setRetryDelay(Duration.ofSeconds(30));
+        service = new EmailOutboxService(outboxRepository, emailProviderRepository, bookRepository, notificationService,
+                appProperties, transactionManager) {
+            @Override
+            JavaMailSenderImpl createMailSender(EmailProviderV2Entity emailProvider) {
+                createdSenders.add(emailProvider);
+                return mailSender;
+            }
+        };
+        provider = EmailProviderV2Entity.builder()
+                .id(100L)
+                .host("smtp.test.com")
+                .port(587)
+                .username("user@test.com")
+                .password("password")
+                .auth(true)
+                .startTls(true)
+                .build();
+        lenient().when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+        lenient().when(emailProviderRepository.findById(100L)).thenReturn(Optional.of(provider));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private EmailOutboxEntity job(long id, long bookId, int attempts) {
+        BookEntity book = new BookEntity();
+        book.setId(bookId);
+        book.setMetadata(BookMetadataEntity.builder().title("Book " + bookId).build());
+        LibraryPathEntity libraryPath = new LibraryPathEntity();
+        libraryPath.setPath("/library");
+        book.setLibraryPath(libraryPath);
+        BookFileEntity bookFile = new BookFileEntity();
+        bookFile.setBook(book);
+        bookFile.setFileName("book-" + bookId + ".epub");
+        bookFile.setFileSubPath("");
+        bookFile.setBookFormat(true);
+        book.setBookFiles(List.of(bookFile));
+        lenient().when(bookRepository.findByIdWithBookFiles(bookId)).thenReturn(Optional.of(book));
+
+        EmailOutboxEntity job = EmailOutboxEntity.builder()
+                .id(id)
+                .userId(1L)
+                .username("reader")
+                .providerId(100L)
+                .bookId(bookId)
+                .recipientEmail("kindle@test.com")
+                .attempts(attempts)
+                .nextAttemptAt(Instant.now())
+                .build();
+        lenient().when(outboxRepository.findById(id)).thenReturn(Optional.of(job));
+        return job;
+    }
+
+    @Test
+    void sendChunk_shouldSendEachChunkOverOneConnectionAndRemoveJobs() {
+        List<EmailOutboxEntity> jobs = List.of(job(1L, 10L, 0), job(2L, 11L, 0));
+
+        service.sendChunk(100L, jobs);
+        service.sendChunk(100L, List.of(job(3L, 12L, 0)));
+
+        ArgumentCaptor<MimeMessage[]> sent = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailSender, times(2)).send(sent.capture());
+        assertThat(sent.getAllValues().getFirst()).hasSize(2);
+        assertThat(createdSenders).hasSize(2);
+        verify(outboxRepository).deleteById(1L);
+        verify(outboxRepository).deleteById(2L);
+        verify(outboxRepository).deleteById(3L);
+        verify(notificationService, times(3)).sendMessageToUser(eq("reader"), eq(Topic.LOG), any(LogNotification.class));
+    }
+
+    @Test
+    void sendChunk_shouldScheduleRetryForFailedMessageOnly() {
+        EmailOutboxEntity delivered = job(1L, 10L, 0);
+        EmailOutboxEntity rejected = job(2L, 11L, 1);
+        doAnswer(invocation -> {
+            MimeMessage[] messages = invocation.getArgument(0);
+            throw new MailSendException("Rate limited", null, Map.of(messages[1], new IllegalStateException("421 Too many messages")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        Instant before = Instant.now();
+        service.sendChunk(100L, List.of(delivered, rejected));
+
+        verify(outboxRepository).deleteById(1L);
+        verify(outboxRepository, never()).deleteById(2L);
+        verify(outboxRepository).save(rejected);
+        assertThat(rejected.getAttempts()).isEqualTo(2);
+        assertThat(rejected.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+        assertThat(rejected.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(60));
+        assertThat(rejected.getLastError()).contains("421");
+    }
+
+    @Test
+    void sendChunk_shouldMarkJobFailedAfterLastAttempt() {
+        EmailOutboxEntity job = job(1L, 10L, 2);
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+        service.sendChunk(100L, List.of(job));
+
+        assertThat(job.getStatus()).isEqualTo(EmailOutboxStatus.FAILED);
+        assertThat(job.getAttempts()).isEqualTo(3);
+        ArgumentCaptor<LogNotification> notification = ArgumentCaptor.forClass(LogNotification.class);
+        verify(notificationService).sendMessageToUser(eq("reader"), eq(Topic.LOG), notification.capture());
+        assertThat(notification.getValue().getMessage()).contains("Connection refused");
+    }
+
+    @Test
+    void sendChunk_shouldFailJobsWithoutRetryWhenProviderWasDeleted() {
+        EmailOutboxEntity job = job(1L, 10L, 0);
+        when(emailProviderRepository.findById(100L)).thenReturn(Optional.empty());
+
+        service.sendChunk(100L, List.of(job));
+
+        assertThat(job.getStatus()).isEqualTo(EmailOutboxStatus.FAILED);
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    void sendChunk_shouldSkipJobsDeliveredOrRescheduledSinceTheyWereRead() {
+        EmailOutboxEntity delivered = job(1L, 10L, 0);
+        EmailOutboxEntity rescheduled = job(2L, 11L, 0);
+        when(outboxRepository.findById(1L)).thenReturn(Optional.empty());
+        when(outboxRepository.findById(2L)).thenReturn(Optional.of(EmailOutboxEntity.builder()
+                .id(2L)
+                .providerId(100L)
+                .bookId(11L)
+                .attempts(1)
+                .nextAttemptAt(Instant.now().plusSeconds(30))
+                .build()));
+
+        service.sendChunk(100L, List.of(delivered, rescheduled));
+
+        verifyNoInteractions(mailSender, notificationService);
+        verify(outboxRepository, never()).save(any());
+    }
+
+    @Test
+    void sendChunk_shouldCountFailedAttemptOnCurrentRow() {
+        EmailOutboxEntity stale = job(1L, 10L, 0);
+        EmailOutboxEntity current = EmailOutboxEntity.builder()
+                .id(1L)
+                .username("reader")
+                .providerId(100L)
+                .bookId(10L)
+                .recipientEmail("kindle@test.com")
+                .attempts(2)
+                .nextAttemptAt(Instant.now())
+                .build();
+        when(outboxRepository.findById(1L)).thenReturn(Optional.of(current));
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+        service.sendChunk(100L, List.of(stale));
+
+        assertThat(current.getAttempts()).isEqualTo(3);
+        assertThat(current.getStatus()).isEqualTo(EmailOutboxStatus.FAILED);
+        assertThat(stale.getAttempts()).isZero();
+    }
+
+    @Test
+    void retryDelay_shouldDoubleWithEachAttempt() {
+        assertThat(service.retryDelay(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(service.retryDelay(2)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(service.retryDelay(4)).isEqualTo(Duration.ofSeconds(240));
+    }
+}
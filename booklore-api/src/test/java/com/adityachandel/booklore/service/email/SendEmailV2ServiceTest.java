@@ -5,25 +5,25 @@ import com.adityachandel.booklore.exception.APIException;
 import com.adityachandel.booklore.model.dto.BookLoreUser;
 import com.adityachandel.booklore.model.dto.request.SendBookByEmailRequest;
 import com.adityachandel.booklore.model.entity.*;
+import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.EmailProviderV2Repository;
 import com.adityachandel.booklore.repository.EmailRecipientV2Repository;
 import com.adityachandel.booklore.repository.UserEmailProviderPreferenceRepository;
 import com.adityachandel.booklore.service.NotificationService;
-import com.adityachandel.booklore.util.FileUtils;
-import com.adityachandel.booklore.util.SecurityContextVirtualThread;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +47,9 @@ class SendEmailV2ServiceTest {
     @Mock
     private AuthenticationService authenticationService;
 
+    @Mock
+    private EmailOutboxService emailOutboxService;
+
     @InjectMocks
     private SendEmailV2Service sendEmailV2Service;
 
@@ -113,23 +116,10 @@ class SendEmailV2ServiceTest {
         when(emailProviderRepository.findAccessibleProvider(100L, 1L)).thenReturn(Optional.of(emailProvider));
         when(emailRecipientRepository.findDefaultEmailRecipientByUserId(1L)).thenReturn(Optional.of(emailRecipient));
 
-        try (MockedStatic<SecurityContextVirtualThread> securityMock = mockStatic(SecurityContextVirtualThread.class)) {
-            securityMock.when(() -> SecurityContextVirtualThread.runWithSecurityContext(any(Runnable.class)))
-                    .thenAnswer(invocation -> {
-                        Runnable task = invocation.getArgument(0);
-                        task.run();
-                        return null;
-                    });
-
-            try (MockedStatic<FileUtils> fileUtilsMock = mockStatic(FileUtils.class)) {
-                fileUtilsMock.when(() -> FileUtils.getBookFullPath(book)).thenReturn("/library/books/test-book.epub");
+        sendEmailV2Service.emailBookQuick(10L);
 
-                sendEmailV2Service.emailBookQuick(10L);
-
-                securityMock.verify(() -> SecurityContextVirtualThread.runWithSecurityContext(any(Runnable.class)));
-                verify(notificationService, atLeastOnce()).sendMessage(any(), any());
-            }
-        }
+        verify(emailOutboxService).enqueue(user, emailProvider, "recipient@test.com", book);
+        verify(notificationService).sendMessage(eq(Topic.LOG), any());
     }
 
     @Test
@@ -183,23 +173,10 @@ class SendEmailV2ServiceTest {
         when(bookRepository.findByIdWithBookFiles(10L)).thenReturn(Optional.of(book));
         when(emailRecipientRepository.findByIdAndUserId(200L, 1L)).thenReturn(Optional.of(emailRecipient));
 
-        try (MockedStatic<SecurityContextVirtualThread> securityMock = mockStatic(SecurityContextVirtualThread.class)) {
-            securityMock.when(() -> SecurityContextVirtualThread.runWithSecurityContext(any(Runnable.class)))
-                    .thenAnswer(invocation -> {
-                        Runnable task = invocation.getArgument(0);
-                        task.run();
-                        return null;
-                    });
-
-            try (MockedStatic<FileUtils> fileUtilsMock = mockStatic(FileUtils.class)) {
-                fileUtilsMock.when(() -> FileUtils.getBookFullPath(book)).thenReturn("/library/books/test-book.epub");
-
-                sendEmailV2Service.emailBook(request);
+        sendEmailV2Service.emailBook(request);
 
-                securityMock.verify(() -> SecurityContextVirtualThread.runWithSecurityContext(any(Runnable.class)));
-                verify(notificationService, atLeastOnce()).sendMessage(any(), any());
-            }
-        }
+        verify(emailOutboxService).enqueue(user, emailProvider, "recipient@test.com", book);
+        verify(notificationService).sendMessage(eq(Topic.LOG), any());
     }
 
     @Test
@@ -216,23 +193,9 @@ class SendEmailV2ServiceTest {
         when(bookRepository.findByIdWithBookFiles(10L)).thenReturn(Optional.of(book));
         when(emailRecipientRepository.findByIdAndUserId(200L, 1L)).thenReturn(Optional.of(emailRecipient));
 
-        try (MockedStatic<SecurityContextVirtualThread> securityMock = mockStatic(SecurityContextVirtualThread.class)) {
-            securityMock.when(() -> SecurityContextVirtualThread.runWithSecurityContext(any(Runnable.class)))
-                    .thenAnswer(invocation -> {
-                        Runnable task = invocation.getArgument(0);
-                        task.run();
-                        return null;
-                    });
+        sendEmailV2Service.emailBook(request);
 
-            try (MockedStatic<FileUtils> fileUtilsMock = mockStatic(FileUtils.class)) {
-                fileUtilsMock.when(() -> FileUtils.getBookFullPath(book)).thenReturn("/library/books/test-book.epub");
-
-                sendEmailV2Service.emailBook(request);
-
-                securityMock.verify(() -> SecurityContextVirtualThread.runWithSecurityContext(any(Runnable.class)));
-                verify(notificationService, atLeastOnce()).sendMessage(any(), any());
-            }
-        }
+        verify(emailOutboxService).enqueue(user, emailProvider, "recipient@test.com", book);
     }
 
     @Test
@@ -282,35 +245,7 @@ class SendEmailV2ServiceTest {
     }
 
     @Test
-    void emailBookQuick_sendEmailFailure_logsError() {
-        when(authenticationService.getAuthenticatedUser()).thenReturn(user);
-        when(bookRepository.findByIdWithBookFiles(10L)).thenReturn(Optional.of(book));
-        when(preferenceRepository.findByUserId(1L)).thenReturn(Optional.of(preference));
-        when(emailProviderRepository.findAccessibleProvider(100L, 1L)).thenReturn(Optional.of(emailProvider));
-        when(emailRecipientRepository.findDefaultEmailRecipientByUserId(1L)).thenReturn(Optional.of(emailRecipient));
-
-        try (MockedStatic<SecurityContextVirtualThread> securityMock = mockStatic(SecurityContextVirtualThread.class)) {
-            securityMock.when(() -> SecurityContextVirtualThread.runWithSecurityContext(any(Runnable.class)))
-                    .thenAnswer(invocation -> {
-                        Runnable task = invocation.getArgument(0);
-                        task.run();
-                        return null;
-                    });
-
-            try (MockedStatic<FileUtils> fileUtilsMock = mockStatic(FileUtils.class)) {
-                fileUtilsMock.when(() -> FileUtils.getBookFullPath(book))
-                        .thenThrow(new IllegalStateException("Book file not found"));
-
-                sendEmailV2Service.emailBookQuick(10L);
-
-                // Error is caught and logged, not rethrown
-                verify(notificationService, atLeastOnce()).sendMessage(any(), any());
-            }
-        }
-    }
-
-    @Test
-    void emailBook_notificationSentBeforeVirtualThread() {
+    void emailBook_doesNotSendWithinRequest() {
         SendBookByEmailRequest request = SendBookByEmailRequest.builder()
                 .bookId(10L)
                 .providerId(100L)
@@ -322,16 +257,9 @@ class SendEmailV2ServiceTest {
         when(bookRepository.findByIdWithBookFiles(10L)).thenReturn(Optional.of(book));
         when(emailRecipientRepository.findByIdAndUserId(200L, 1L)).thenReturn(Optional.of(emailRecipient));
 
-        try (MockedStatic<SecurityContextVirtualThread> securityMock = mockStatic(SecurityContextVirtualThread.class)) {
-            // Don't execute the runnable - just capture it
-            securityMock.when(() -> SecurityContextVirtualThread.runWithSecurityContext(any(Runnable.class)))
-                    .thenAnswer(invocation -> null);
-
-            sendEmailV2Service.emailBook(request);
+        sendEmailV2Service.emailBook(request);
 
-            // Log notification is sent before the virtual thread starts
-            verify(notificationService).sendMessage(any(), any());
-            securityMock.verify(() -> SecurityContextVirtualThread.runWithSecurityContext(any(Runnable.class)));
-        }
+        verify(emailOutboxService).enqueue(any(), any(), any(), any());
+        verifyNoMoreInteractions(emailOutboxService);
     }
 }
@@ -0,0 +1,132 @@
+package com.adityachandel.booklore.service.event;
+
+import com.adityachandel.booklore.mapper.BookMapper;
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.enums.PermissionType;
+import com.adityachandel.booklore.model.websocket.LogNotification;
+import com.adityachandel.booklore.model.websocket.Topic;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.user.UserAccessIndex;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookEventBroadcasterTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+    @Mock
+    private UserAccessIndex userAccessIndex;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private BookMapper bookMapper;
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private BookEventBroadcaster broadcaster;
+
+    private static UserAccessIndex.UserAccess user(String username, boolean admin, Set<Long> libraryIds) {
+        return new UserAccessIndex.UserAccess(1L, username, admin, libraryIds,
+                admin ? Set.of(PermissionType.ADMIN) : Set.of());
+    }
+
+    private static Book book(long id, long libraryId) {
+        return Book.builder().id(id).libraryId(libraryId).fileName("book-" + id + ".epub").build();
+    }
+
+    @Test
+    void flush_sendsOneListPerUserWithOnlyVisibleBooks() {
+        when(userAccessIndex.getUsers()).thenReturn(List.of(
+                user("admin", true, Set.of()),
+                user("reader", false, Set.of(2L)),
+                user("other", false, Set.of(3L))));
+
+        broadcaster.broadcastBookAddEvent(book(1, 1));
+        broadcaster.broadcastBookAddEvent(book(2, 2));
+        broadcaster.broadcastBookAddEvent(book(3, 2));
+        verifyNoInteractions(messagingTemplate);
+
+        broadcaster.flush();
+
+        ArgumentCaptor<Object> adminBooks = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("admin"), eq(Topic.BOOKS_ADD.getPath()), adminBooks.capture());
+        assertThat((List<?>) adminBooks.getValue()).hasSize(3);
+
+        ArgumentCaptor<Object> readerBooks = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("reader"), eq(Topic.BOOKS_ADD.getPath()), readerBooks.capture());
+        assertThat((List<?>) readerBooks.getValue()).extracting("id").containsExactly(2L, 3L);
+
+        ArgumentCaptor<Object> readerLog = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("reader"), eq(Topic.LOG.getPath()), readerLog.capture());
+        assertThat(((LogNotification) readerLog.getValue()).getMessage()).isEqualTo("2 books added");
+
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("other"), anyString(), any());
+    }
+
+    @Test
+    void flush_splitsLargeBatchesAndDoesNothingWhenIdle() {
+        when(userAccessIndex.getUsers()).thenReturn(List.of(user("admin", true, Set.of())));
+
+        IntStream.range(0, BookEventBroadcaster.MAX_BOOKS_PER_MESSAGE + 1)
+                .forEach(i -> broadcaster.broadcastBookAddEvent(book(i, 1)));
+        broadcaster.flush();
+        broadcaster.flush();
+
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq("admin"), eq(Topic.BOOKS_ADD.getPath()), any());
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("admin"), eq(Topic.LOG.getPath()), any());
+        verify(userAccessIndex, times(1)).getUsers();
+    }
+
+    @Test
+    void broadcastBooksUpdated_sendsChunksOfVisibleBooksToEachUser() {
+        when(userAccessIndex.getUsers()).thenReturn(List.of(
+                user("admin", true, Set.of()),
+                user("reader", false, Set.of(2L))));
+        when(bookRepository.findAllWithMetadataByIds(anySet())).thenAnswer(invocation -> {
+            Set<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> {
+                BookEntity entity = new BookEntity();
+                entity.setId(id);
+                return entity;
+            }).toList();
+        });
+        when(bookMapper.toBook(any(BookEntity.class))).thenAnswer(invocation -> {
+            long id = ((BookEntity) invocation.getArgument(0)).getId();
+            return book(id, id == 1 ? 2 : 1);
+        });
+
+        List<Long> ids = LongStream.rangeClosed(1, BookEventBroadcaster.MAX_BOOKS_PER_MESSAGE + 1).boxed().toList();
+        broadcaster.broadcastBooksUpdated(ids);
+
+        verify(bookRepository, times(2)).findAllWithMetadataByIds(anySet());
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq("admin"), eq(Topic.BOOK_METADATA_BATCH_UPDATE.getPath()), any());
+        ArgumentCaptor<Object> readerBooks = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("reader"), eq(Topic.BOOK_METADATA_BATCH_UPDATE.getPath()), readerBooks.capture());
+        assertThat((List<?>) readerBooks.getValue()).extracting("id").containsExactly(1L);
+    }
+
+    @Test
+    void broadcastBooksUpdated_doesNothingForNoBooks() {
+        broadcaster.broadcastBooksUpdated(Set.of());
+
+        verifyNoInteractions(userAccessIndex, bookRepository, messagingTemplate);
+    }
+}
@@ -4,6 +4,8 @@ import com.adityachandel.booklore.model.dto.HardcoverSyncSettings;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
 import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.metadata.parser.hardcover.GraphQLRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.client.RestClient;
 import org.mockito.ArgumentMatchers;
 
@@ -59,7 +62,8 @@ class HardcoverSyncServiceTest {
     @BeforeEach
     void setUp() throws Exception {
         // Create service with mocked dependencies
-        service = new HardcoverSyncService(hardcoverSyncSettingsService, bookRepository);
+        service = new HardcoverSyncService(hardcoverSyncSettingsService, bookRepository,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
         
         // Inject our mocked restClient using reflection
         Field restClientField = HardcoverSyncService.class.getDeclaredField("restClient");
@@ -97,7 +101,7 @@ class HardcoverSyncServiceTest {
     void syncProgressToHardcover_whenHardcoverDisabled_shouldSkip() {
         hardcoverSyncSettings.setHardcoverSyncEnabled(false);
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, never()).post();
     }
@@ -107,7 +111,7 @@ class HardcoverSyncServiceTest {
     void syncProgressToHardcover_whenApiKeyMissing_shouldSkip() {
         hardcoverSyncSettings.setHardcoverApiKey(null);
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, never()).post();
     }
@@ -117,7 +121,7 @@ class HardcoverSyncServiceTest {
     void syncProgressToHardcover_whenApiKeyBlank_shouldSkip() {
         hardcoverSyncSettings.setHardcoverApiKey("   ");
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, never()).post();
     }
@@ -125,7 +129,7 @@ class HardcoverSyncServiceTest {
     @Test
     @DisplayName("Should skip sync when progress is null")
     void syncProgressToHardcover_whenProgressNull_shouldSkip() {
-        service.syncProgressToHardcover(TEST_BOOK_ID, null, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, null, TEST_USER_ID);
 
         verify(restClient, never()).post();
     }
@@ -135,7 +139,7 @@ class HardcoverSyncServiceTest {
     void syncProgressToHardcover_whenBookNotFound_shouldSkip() {
         when(bookRepository.findById(TEST_BOOK_ID)).thenReturn(Optional.empty());
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, never()).post();
     }
@@ -145,7 +149,7 @@ class HardcoverSyncServiceTest {
     void syncProgressToHardcover_whenNoMetadata_shouldSkip() {
         testBook.setMetadata(null);
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, never()).post();
     }
@@ -156,7 +160,7 @@ class HardcoverSyncServiceTest {
         testMetadata.setIsbn13(null);
         testMetadata.setIsbn10(null);
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, never()).post();
     }
@@ -175,7 +179,7 @@ class HardcoverSyncServiceTest {
                 .thenReturn(createEmptyUserBookReadsResponse())
                 .thenReturn(createInsertUserBookReadResponse());
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         // Verify API was called at least once (using stored ID, no search needed)
         verify(restClient, atLeastOnce()).post();
@@ -191,7 +195,7 @@ class HardcoverSyncServiceTest {
                 .thenReturn(createEmptyUserBookReadsResponse())
                 .thenReturn(createInsertUserBookReadResponse());
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         // Verify API was called at least once
         verify(restClient, atLeastOnce()).post();
@@ -203,7 +207,7 @@ class HardcoverSyncServiceTest {
         // Mock: search returns empty results
         when(responseSpec.body(Map.class)).thenReturn(createEmptySearchResponse());
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         // Should call search only
         verify(restClient, times(1)).post();
@@ -220,7 +224,7 @@ class HardcoverSyncServiceTest {
                 .thenReturn(createEmptyUserBookReadsResponse())
                 .thenReturn(createInsertUserBookReadResponse());
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 99.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 99.0f, TEST_USER_ID);
 
         verify(restClient, atLeastOnce()).post();
     }
@@ -236,7 +240,7 @@ class HardcoverSyncServiceTest {
                 .thenReturn(createEmptyUserBookReadsResponse())
                 .thenReturn(createInsertUserBookReadResponse());
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, atLeastOnce()).post();
     }
@@ -254,7 +258,7 @@ class HardcoverSyncServiceTest {
                 .thenReturn(createEmptyUserBookReadsResponse())
                 .thenReturn(createInsertUserBookReadResponse());
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, atLeastOnce()).post();
     }
@@ -271,7 +275,7 @@ class HardcoverSyncServiceTest {
                 .thenReturn(createFindUserBookReadResponse(6001))
                 .thenReturn(createUpdateUserBookReadResponse());
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, atLeastOnce()).post();
     }
@@ -288,7 +292,7 @@ class HardcoverSyncServiceTest {
                 .thenReturn(createEmptyUserBookReadsResponse())
                 .thenReturn(createInsertUserBookReadResponse());
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, atLeastOnce()).post();
     }
@@ -303,7 +307,7 @@ class HardcoverSyncServiceTest {
 
         when(responseSpec.body(Map.class)).thenReturn(Map.of("errors", List.of(Map.of("message", "Unauthorized"))));
 
-        assertDoesNotThrow(() -> service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID));
+        assertDoesNotThrow(() -> syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID));
     }
 
     @Test
@@ -314,7 +318,7 @@ class HardcoverSyncServiceTest {
 
         when(responseSpec.body(Map.class)).thenReturn(null);
 
-        assertDoesNotThrow(() -> service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID));
+        assertDoesNotThrow(() -> syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID));
     }
 
     @Test
@@ -322,13 +326,81 @@ class HardcoverSyncServiceTest {
     void syncProgressToHardcover_whenUserSettingsNotFound_shouldSkip() {
         when(hardcoverSyncSettingsService.getSettingsForUserId(TEST_USER_ID)).thenReturn(null);
 
-        service.syncProgressToHardcover(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 50.0f, TEST_USER_ID);
 
         verify(restClient, never()).post();
     }
 
+    // === Tests for debouncing and caching ===
+
+    @Test
+    @DisplayName("Should send only the latest progress when pushes arrive in a burst")
+    void syncProgressToHardcover_burst_shouldCoalesceToLatest() {
+        testMetadata.setHardcoverBookId(12345);
+
+        when(responseSpec.body(Map.class))
+                .thenReturn(createFindBookResponse(88))
+                .thenReturn(createEditionResponse(88, 300))
+                .thenReturn(createInsertUserBookResponse(5001, null))
+                .thenReturn(createEmptyUserBookReadsResponse())
+                .thenReturn(createInsertUserBookReadResponse());
+
+        service.syncProgressToHardcover(TEST_BOOK_ID, 10.0f, TEST_USER_ID);
+        service.syncProgressToHardcover(TEST_BOOK_ID, 20.0f, TEST_USER_ID);
+        service.syncProgressToHardcover(TEST_BOOK_ID, 30.0f, TEST_USER_ID);
+
+        service.dispatchDueSyncs();
+        verify(restClient, never()).post();
+
+        service.flushPendingSyncs();
+
+        verify(restClient, times(5)).post();
+        verify(requestBodySpec).body(argThat((Object body) -> body instanceof GraphQLRequest request
+                && request.getVariables().get("object") instanceof Map<?, ?> object
+                && Integer.valueOf(90).equals(object.get("progress_pages"))));
+    }
+
+    @Test
+    @DisplayName("Should reuse cached edition and read ids on the next sync")
+    void syncProgressToHardcover_secondSync_shouldUseCachedLookupsAndBatchedUpdate() {
+        testMetadata.setHardcoverBookId(12345);
+
+        when(responseSpec.body(Map.class))
+                .thenReturn(createFindBookResponse(88))
+                .thenReturn(createEditionResponse(88, 300))
+                .thenReturn(createInsertUserBookResponse(5001, null))
+                .thenReturn(createEmptyUserBookReadsResponse())
+                .thenReturn(createInsertUserBookReadResponse())
+                .thenReturn(Map.of("data", Map.of("u0", Map.of("user_book_read", Map.of("id", 6001)))));
+
+        syncNow(TEST_BOOK_ID, 30.0f, TEST_USER_ID);
+        syncNow(TEST_BOOK_ID, 60.0f, TEST_USER_ID);
+
+        verify(restClient, times(6)).post();
+        verify(requestBodySpec).body(argThat((Object body) -> body instanceof GraphQLRequest request
+                && request.getQuery().contains("u0: update_user_book_read(id: 6001")));
+    }
+
+    private void syncNow(Long bookId, Float progressPercent, Long userId) {
+        service.syncProgressToHardcover(bookId, progressPercent, userId);
+        service.flushPendingSyncs();
+    }
+
     // === Helper methods to create mock responses ===
 
+    private Map<String, Object> createFindBookResponse(Integer defaultEditionId) {
+        Map<String, Object> book = new HashMap<>();
+        book.put("default_physical_edition_id", defaultEditionId);
+        return Map.of("data", Map.of("books", List.of(book)));
+    }
+
+    private Map<String, Object> createEditionResponse(Integer editionId, Integer pages) {
+        Map<String, Object> edition = new HashMap<>();
+        edition.put("id", editionId);
+        edition.put("pages", pages);
+        return Map.of("data", Map.of("editions", List.of(edition)));
+    }
+
     private Map<String, Object> createSearchResponse(Integer bookId, Integer pages) {
         Map<String, Object> response = new HashMap<>();
         Map<String, Object> data = new HashMap<>();
@@ -452,10 +524,10 @@ class HardcoverSyncServiceTest {
     void findEditionById_nullResponse_shouldReturnNull() throws Exception {
         when(responseSpec.body(ArgumentMatchers.<Class<Map>>eq(Map.class))).thenReturn(null);
 
-        Method method = HardcoverSyncService.class.getDeclaredMethod("findEditionById", Integer.class);
+        Method method = HardcoverSyncService.class.getDeclaredMethod("findEditionById", String.class, Integer.class);
         method.setAccessible(true);
 
-        Object result = method.invoke(service, 123);
+        Object result = method.invoke(service, "test-api-key", 123);
         assertNull(result);
     }
 
@@ -472,10 +544,10 @@ class HardcoverSyncServiceTest {
 
         when(responseSpec.body(ArgumentMatchers.<Class<Map>>eq(Map.class))).thenReturn(response);
 
-        Method method = HardcoverSyncService.class.getDeclaredMethod("findEditionById", Integer.class);
+        Method method = HardcoverSyncService.class.getDeclaredMethod("findEditionById", String.class, Integer.class);
         method.setAccessible(true);
 
-        Object result = method.invoke(service, 77);
+        Object result = method.invoke(service, "test-api-key", 77);
         assertNotNull(result);
         assertEquals(77, readPrivateField(result, "id"));
         assertEquals(250, readPrivateField(result, "pages"));
@@ -487,10 +559,10 @@ class HardcoverSyncServiceTest {
         when(responseSpec.body(ArgumentMatchers.<Class<Map>>eq(Map.class)))
                 .thenReturn(Map.of("data", Map.of("books", List.of())));
 
-        Method method = HardcoverSyncService.class.getDeclaredMethod("findHardcoverBookById", Integer.class);
+        Method method = HardcoverSyncService.class.getDeclaredMethod("findHardcoverBookById", String.class, Integer.class);
         method.setAccessible(true);
 
-        Object result = method.invoke(service, 123);
+        Object result = method.invoke(service, "test-api-key", 123);
         assertNull(result);
     }
 
@@ -516,10 +588,10 @@ class HardcoverSyncServiceTest {
                 .thenReturn(bookResponse)
                 .thenReturn(editionResponse);
 
-        Method method = HardcoverSyncService.class.getDeclaredMethod("findHardcoverBookById", Integer.class);
+        Method method = HardcoverSyncService.class.getDeclaredMethod("findHardcoverBookById", String.class, Integer.class);
         method.setAccessible(true);
 
-        Object result = method.invoke(service, 123);
+        Object result = method.invoke(service, "test-api-key", 123);
         assertNotNull(result);
         assertEquals(123, readPrivateField(result, "bookId"));
         assertEquals(88, readPrivateField(result, "editionId"));
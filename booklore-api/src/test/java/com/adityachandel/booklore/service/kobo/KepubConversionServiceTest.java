@@ -0,0 +1,145 @@
+package com.adityachandel.booklore.service.kobo;
+
+import com.adityachandel.booklore.config.AppProperties;
+import com.adityachandel.booklore.util.FileService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class KepubConversionServiceTest {
+
+    @Mock
+    private FileService fileService;
+
+    @TempDir
+    Path tempDir;
+
+    private AppProperties appProperties;
+    private KepubConversionService service;
+    private Path invocations;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        appProperties.getKepubify().setMaxConcurrent(2);
+        appProperties.getKepubify().setTimeout(Duration.ofSeconds(10));
+        invocations = tempDir.resolve("invocations.log");
+        lenient().when(fileService.getToolsKepubifyPath()).thenReturn(tempDir.resolve("tools").toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private void installFakeKepubify(String body) throws IOException {
+        service = new KepubConversionService(fileService, appProperties);
+        Path tools = Files.createDirectories(tempDir.resolve("tools"));
+        Path binary = tools.resolve(service.getKepubifyBinaryName());
+        Files.writeString(binary, "#!/bin/sh\n" + body);
+        assertThat(binary.toFile().setExecutable(true)).isTrue();
+    }
+
+    private File epub(String name) throws IOException {
+        Path epub = tempDir.resolve(name);
+        Files.writeString(epub, "epub content");
+        return epub.toFile();
+    }
+
+    @Test
+    void deviceQueue_shouldHandOutItemsRoundRobinAcrossDevices() throws InterruptedException {
+        KepubConversionService.DeviceQueue<String> queue = new KepubConversionService.DeviceQueue<>();
+        queue.add("a", "a1");
+        queue.add("a", "a2");
+        queue.add("a", "a3");
+        queue.add("b", "b1");
+        queue.add("c", "c1");
+        queue.add("c", "c2");
+
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            order.add(queue.take());
+        }
+
+        assertThat(order).containsExactly("a1", "b1", "c1", "a2", "c2", "a3");
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void convertEpubToKepub_shouldShareOneConversionBetweenConcurrentRequests() throws Exception {
+        installFakeKepubify("""
+                echo run >> "%s"
+                sleep 1
+                for last; do :; done
+                name=$(basename "$last" .epub)
+                cp "$last" "$2/$name.kepub.epub"
+                """.formatted(invocations));
+        File epub = epub("book.epub");
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+
+        try {
+            List<Future<File>> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Path out = Files.createDirectories(tempDir.resolve("out-" + i));
+                results.add(callers.submit(() -> service.convertEpubToKepub(epub, out.toFile(), false, "device")));
+            }
+            for (Future<File> result : results) {
+                File converted = result.get(10, TimeUnit.SECONDS);
+                assertThat(converted).exists().hasName("book.kepub.epub");
+                assertThat(Files.readString(converted.toPath())).isEqualTo("epub content");
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(Files.readAllLines(invocations)).hasSize(1);
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void convertEpubToKepub_shouldReportOutputTailOnFailure() throws Exception {
+        installFakeKepubify("""
+                echo "first line"
+                echo "broken epub" >&2
+                exit 3
+                """);
+
+        assertThatThrownBy(() -> service.convertEpubToKepub(epub("bad.epub"), tempDir.toFile(), false, null))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("exit code: 3")
+                .hasMessageContaining("broken epub");
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void convertEpubToKepub_shouldKillConversionAfterTimeout() throws Exception {
+        appProperties.getKepubify().setTimeout(Duration.ofMillis(200));
+        installFakeKepubify("sleep 30\n");
+
+        assertThatThrownBy(() -> service.convertEpubToKepub(epub("slow.epub"), tempDir.toFile(), true, "device"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("timed out");
+    }
+}
@@ -4,17 +4,20 @@ import com.adityachandel.booklore.config.security.service.AuthenticationService;
 import com.adityachandel.booklore.mapper.BookEntityToKoboSnapshotBookMapper;
 import com.adityachandel.booklore.model.dto.BookLoreUser;
 import com.adityachandel.booklore.model.dto.BookLoreUser.UserPermissions;
+import com.adityachandel.booklore.model.dto.kobo.KoboSnapshotDiff;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookFileEntity;
 import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
 import com.adityachandel.booklore.model.entity.KoboLibrarySnapshotEntity;
 import com.adityachandel.booklore.model.entity.KoboSnapshotBookEntity;
+import com.adityachandel.booklore.model.entity.KoboSnapshotChangeEntity;
 import com.adityachandel.booklore.model.entity.LibraryEntity;
 import com.adityachandel.booklore.model.entity.ShelfEntity;
+import com.adityachandel.booklore.model.enums.KoboSnapshotChangeType;
 import com.adityachandel.booklore.model.enums.ShelfType;
-import com.adityachandel.booklore.repository.KoboDeletedBookProgressRepository;
 import com.adityachandel.booklore.repository.KoboLibrarySnapshotRepository;
 import com.adityachandel.booklore.repository.KoboSnapshotBookRepository;
+import com.adityachandel.booklore.repository.KoboSnapshotChangeRepository;
 import com.adityachandel.booklore.repository.ShelfRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,9 +32,12 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,7 +56,7 @@ class KoboLibrarySnapshotServiceTest {
     private BookEntityToKoboSnapshotBookMapper mapper;
 
     @Mock
-    private KoboDeletedBookProgressRepository koboDeletedBookProgressRepository;
+    private KoboSnapshotChangeRepository koboSnapshotChangeRepository;
 
     @Mock
     private KoboCompatibilityService koboCompatibilityService;
@@ -159,4 +165,85 @@ class KoboLibrarySnapshotServiceTest {
 
         assertThat(created.getBooks()).isEmpty();
     }
+
+    @Test
+    void create_withPreviousSnapshot_shouldOnlyLogChangesAgainstBase() {
+        ownersBook.getPrimaryBookFile().setCurrentHash("new-hash");
+
+        BookEntity unchangedBook = BookEntity.builder()
+                .id(303L)
+                .library(ownersBook.getLibrary())
+                .build();
+        BookFileEntity unchangedFile = new BookFileEntity();
+        unchangedFile.setBook(unchangedBook);
+        unchangedFile.setCurrentHash("same-hash");
+        unchangedBook.setBookFiles(List.of(unchangedFile));
+
+        ShelfEntity shelf = ShelfEntity.builder()
+                .name(ShelfType.KOBO.getName())
+                .bookEntities(Set.of(ownersBook, unchangedBook))
+                .build();
+
+        when(shelfRepository.findByUserIdAndName(eq(owner.getId()), eq(ShelfType.KOBO.getName())))
+                .thenReturn(Optional.of(shelf));
+        when(koboCompatibilityService.isBookSupportedForKobo(any())).thenReturn(true);
+        doAnswer(invocation -> {
+            BookEntity book = invocation.getArgument(0);
+            return KoboSnapshotBookEntity.builder().bookId(book.getId()).build();
+        }).when(mapper).toKoboSnapshotBook(any(BookEntity.class));
+
+        KoboLibrarySnapshotEntity previous = KoboLibrarySnapshotEntity.builder()
+                .id("base")
+                .userId(owner.getId())
+                .build();
+        when(koboSnapshotBookRepository.findBySnapshot_Id("base")).thenReturn(List.of(
+                KoboSnapshotBookEntity.builder().bookId(ownersBook.getId()).fileHash("old-hash").build(),
+                KoboSnapshotBookEntity.builder().bookId(unchangedBook.getId()).fileHash("same-hash").build(),
+                KoboSnapshotBookEntity.builder().bookId(404L).fileHash("gone").build()
+        ));
+        when(koboLibrarySnapshotRepository.save(any(KoboLibrarySnapshotEntity.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        KoboLibrarySnapshotEntity created = service.create(owner.getId(), previous);
+
+        assertThat(created.getBaseSnapshotId()).isEqualTo("base");
+        assertThat(created.getBooks()).isEmpty();
+        assertThat(created.getChanges())
+                .extracting(KoboSnapshotChangeEntity::getBookId, KoboSnapshotChangeEntity::isRemoved)
+                .containsExactlyInAnyOrder(
+                        tuple(ownersBook.getId(), false),
+                        tuple(404L, true));
+    }
+
+    @Test
+    void getSnapshotDiff_acrossRebase_shouldComputeDiffOncePerSync() {
+        KoboLibrarySnapshotEntity previous = KoboLibrarySnapshotEntity.builder()
+                .id("previous")
+                .baseSnapshotId("old-base")
+                .userId(owner.getId())
+                .build();
+        KoboLibrarySnapshotEntity current = KoboLibrarySnapshotEntity.builder()
+                .id("current")
+                .userId(owner.getId())
+                .build();
+        when(koboSnapshotBookRepository.findBySnapshot_Id("old-base")).thenReturn(List.of(
+                KoboSnapshotBookEntity.builder().bookId(1L).fileHash("a").build(),
+                KoboSnapshotBookEntity.builder().bookId(2L).fileHash("b").build()));
+        when(koboSnapshotChangeRepository.findBySnapshot_Id("previous")).thenReturn(List.of(
+                KoboSnapshotChangeEntity.builder().bookId(3L).fileHash("c").build()));
+        when(koboSnapshotBookRepository.findBySnapshot_Id("current")).thenReturn(List.of(
+                KoboSnapshotBookEntity.builder().bookId(2L).fileHash("b2").build(),
+                KoboSnapshotBookEntity.builder().bookId(3L).fileHash("c").build(),
+                KoboSnapshotBookEntity.builder().bookId(4L).fileHash("d").build()));
+
+        List<KoboSnapshotDiff> firstPage = service.getSnapshotDiff(previous, current, null, 2);
+        List<KoboSnapshotDiff> secondPage = service.getSnapshotDiff(previous, current, firstPage.getLast().bookId(), 2);
+
+        assertThat(firstPage).containsExactly(
+                new KoboSnapshotDiff(1L, KoboSnapshotChangeType.REMOVED),
+                new KoboSnapshotDiff(2L, KoboSnapshotChangeType.CHANGED));
+        assertThat(secondPage).containsExactly(new KoboSnapshotDiff(4L, KoboSnapshotChangeType.ADDED));
+        verify(koboSnapshotBookRepository, times(1)).findBySnapshot_Id("old-base");
+        verify(koboSnapshotBookRepository, times(1)).findBySnapshot_Id("current");
+    }
 }
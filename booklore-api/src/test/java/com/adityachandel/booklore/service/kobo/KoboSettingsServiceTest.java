@@ -193,6 +193,28 @@ class KoboSettingsServiceTest {
         assertEquals(originalFinished, dto.getProgressMarkAsFinishedThreshold());
     }
 
+    @Test
+    void updateSettings_syncBatchSize_isClampedToKoboLimit() {
+        when(authenticationService.getAuthenticatedUser()).thenReturn(user);
+        when(repository.findByUserId(1L)).thenReturn(Optional.of(settingsEntity));
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        KoboSyncSettings update = new KoboSyncSettings();
+        update.setSyncEnabled(true);
+        update.setSyncBatchSize(5000);
+
+        KoboSyncSettings dto = service.updateSettings(update);
+
+        assertEquals(KoboSettingsService.MAX_SYNC_BATCH_SIZE, dto.getSyncBatchSize());
+    }
+
+    @Test
+    void getSyncBatchSize_noSettings_returnsDefault() {
+        when(repository.findByUserId(1L)).thenReturn(Optional.empty());
+
+        assertEquals(KoboSettingsService.DEFAULT_SYNC_BATCH_SIZE, service.getSyncBatchSize(1L));
+    }
+
     @Test
     void getCurrentUserSettings_settingsWithNullToken_shouldReturnDtoWithNullToken() {
         settingsEntity.setToken(null);
@@ -5,6 +5,7 @@ import com.adityachandel.booklore.model.dto.komga.KomgaBookDto;
 import com.adityachandel.booklore.model.dto.komga.KomgaPageDto;
 import com.adityachandel.booklore.model.dto.komga.KomgaPageableDto;
 import com.adityachandel.booklore.model.dto.komga.KomgaSeriesDto;
+import com.adityachandel.booklore.model.dto.response.PageImageInfo;
 import com.adityachandel.booklore.model.dto.settings.AppSettings;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookFileEntity;
@@ -22,6 +23,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -208,6 +210,62 @@ class KomgaServiceTest {
         assertThat(pages.get(4).getNumber()).isEqualTo(5);
     }
 
+    @Test
+    void shouldReturnRealPageDimensionsForCbxBooks() {
+        // Given: CBX book whose archive reports per-page image information
+        BookEntity book = new BookEntity();
+        book.setId(100L);
+        book.setMetadata(BookMetadataEntity.builder().title("Comic").pageCount(99).build());
+
+        BookFileEntity cbz = new BookFileEntity();
+        cbz.setBook(book);
+        cbz.setFileName("comic.cbz");
+        cbz.setBookType(BookFileType.CBX);
+        book.setBookFiles(List.of(cbz));
+
+        when(bookRepository.findById(100L)).thenReturn(Optional.of(book));
+        when(cbxReaderService.getPageImageInfo(100L)).thenReturn(List.of(
+                PageImageInfo.builder().pageNumber(1).fileName("001.png").mediaType("image/png").width(1200).height(1800).fileSize(2048L).build(),
+                PageImageInfo.builder().pageNumber(2).fileName("002.jpg").mediaType("image/jpeg").width(2400).height(1800).fileSize(4096L).build()));
+
+        // When: Get book pages
+        List<KomgaPageDto> pages = komgaService.getBookPages(100L);
+
+        // Then: Pages come from the archive rather than the stored page count
+        assertThat(pages).hasSize(2);
+        assertThat(pages.get(0).getMediaType()).isEqualTo("image/png");
+        assertThat(pages.get(0).getWidth()).isEqualTo(1200);
+        assertThat(pages.get(1).getFileName()).isEqualTo("002.jpg");
+        assertThat(pages.get(1).getHeight()).isEqualTo(1800);
+        assertThat(pages.get(1).getFileSize()).isEqualTo(4096L);
+    }
+
+    @Test
+    void shouldStreamCbxPageWithoutBuildingPageIndex() throws Exception {
+        // Given: CBX book whose page index has not been built yet
+        BookEntity book = new BookEntity();
+        book.setId(100L);
+
+        BookFileEntity cbr = new BookFileEntity();
+        cbr.setBook(book);
+        cbr.setFileName("comic.cbr");
+        cbr.setBookType(BookFileType.CBX);
+        book.setBookFiles(List.of(cbr));
+
+        when(bookRepository.findById(100L)).thenReturn(Optional.of(book));
+        when(cbxReaderService.getPageMediaType(book, 2)).thenReturn("image/webp");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When: Stream a single page
+        komgaService.streamBookPageImage(100L, 2, false, response);
+
+        // Then: Only the requested page is inspected and the book is loaded once
+        assertThat(response.getContentType()).isEqualTo("image/webp");
+        verify(cbxReaderService).streamPageImage(eq(book), eq(2), any());
+        verify(cbxReaderService, never()).getPageImageInfo(anyLong());
+        verify(bookRepository, times(1)).findById(100L);
+    }
+
     @Test
     void shouldGetAllSeriesOptimized() {
         // Given: Mock the optimized repository method
@@ -219,10 +277,12 @@ class KomgaServiceTest {
         List<BookEntity> seriesABooks = List.of(seriesBooks.get(0), seriesBooks.get(1));
         List<BookEntity> seriesBBooks = List.of(seriesBooks.get(2), seriesBooks.get(3));
         
-        when(bookRepository.findBooksBySeriesNameGroupedByLibraryId("Series A", 1L, "Unknown Series"))
-                .thenReturn(seriesABooks);
-        when(bookRepository.findBooksBySeriesNameGroupedByLibraryId("Series B", 1L, "Unknown Series"))
-                .thenReturn(seriesBBooks);
+        List<BookEntity> pageBooks = new ArrayList<>(seriesABooks);
+        pageBooks.addAll(seriesBBooks);
+        when(bookRepository.findBooksBySeriesNamesGrouped(List.of("Series A", "Series B"), false, 1L))
+                .thenReturn(pageBooks);
+        when(komgaMapper.getBookSeriesName(any(BookEntity.class)))
+                .thenAnswer(invocation -> seriesABooks.contains(invocation.getArgument(0)) ? "Series A" : "Series B");
         
         when(komgaMapper.getUnknownSeriesName()).thenReturn("Unknown Series");
         when(komgaMapper.toKomgaSeriesDto(eq("Series A"), anyLong(), any()))
@@ -242,8 +302,28 @@ class KomgaServiceTest {
         assertThat(result.getFirst()).isTrue();
         assertThat(result.getLast()).isFalse();
         
-        // Verify that only books for Series A and B were loaded (optimization check)
+        // Verify that only books for Series A and B were loaded, in one query (optimization check)
+        verify(bookRepository, times(1)).findBooksBySeriesNamesGrouped(anyCollection(), anyBoolean(), any());
         verify(bookRepository, never()).findAllWithMetadataByLibraryId(anyLong());
         verify(bookRepository, never()).findAllWithMetadata();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldLoadSeriesForAllLibrariesWithoutFullScan() {
+        when(bookRepository.findDistinctSeriesNamesGrouped(anyString()))
+                .thenReturn(List.of("Test Series"));
+        when(bookRepository.findBooksBySeriesNamesGrouped(List.of("Test Series"), false, null))
+                .thenReturn(seriesBooks);
+        when(komgaMapper.getUnknownSeriesName()).thenReturn("Unknown Series");
+        when(komgaMapper.getBookSeriesName(any(BookEntity.class))).thenReturn("Test Series");
+        when(komgaMapper.toKomgaSeriesDto(eq("Test Series"), eq(1L), any()))
+                .thenReturn(KomgaSeriesDto.builder().id("1-test-series").name("Test Series").booksCount(50).build());
+
+        KomgaPageableDto<KomgaSeriesDto> result = komgaService.getAllSeries(null, 0, 20, false);
+        komgaService.getAllSeries(null, 0, 20, false);
+
+        assertThat(result.getContent()).hasSize(1);
+        verify(bookRepository, never()).findAllWithMetadata();
+        verify(bookRepository, times(1)).findDistinctSeriesNamesGrouped(anyString());
+    }
+}
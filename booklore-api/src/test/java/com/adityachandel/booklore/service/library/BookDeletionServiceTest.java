@@ -0,0 +1,136 @@
+package com.adityachandel.booklore.service.library;
+
+import com.adityachandel.booklore.model.dto.settings.LibraryFile;
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookFileEntity;
+import com.adityachandel.booklore.model.websocket.Topic;
+import com.adityachandel.booklore.repository.BookAdditionalFileRepository;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.util.FileService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookDeletionServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private BookAdditionalFileRepository bookAdditionalFileRepository;
+    @Mock
+    private FileService fileService;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private Query query;
+
+    @TempDir
+    Path dataDir;
+
+    private BookDeletionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BookDeletionService(bookRepository, bookAdditionalFileRepository, fileService,
+                notificationService, entityManager, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private void stubNativeDeletes() {
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(eq("bookIds"), any())).thenReturn(query);
+    }
+
+    private static BookFileEntity bookFile(BookEntity book, String fileName) {
+        BookFileEntity file = BookFileEntity.builder().book(book).fileName(fileName).isBookFormat(true).build();
+        book.getBookFiles().add(file);
+        return file;
+    }
+
+    @Test
+    void deleteRemovedBooks_deletesDependentRowsBeforeBooksChunkByChunk() {
+        stubNativeDeletes();
+        List<Long> ids = LongStream.rangeClosed(1, BookDeletionService.CHUNK_SIZE + 1).boxed().toList();
+
+        service.deleteRemovedBooks(ids);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager, times(2 * (BookDeletionService.DEPENDENT_TABLES.size() + 2))).createNativeQuery(sql.capture());
+        List<String> firstChunk = sql.getAllValues().subList(0, BookDeletionService.DEPENDENT_TABLES.size() + 2);
+        assertThat(firstChunk.getFirst()).startsWith("UPDATE shelf SET updated_at");
+        assertThat(firstChunk.get(1)).isEqualTo("DELETE FROM book_metadata_author_mapping WHERE book_id IN (:bookIds)");
+        assertThat(firstChunk.indexOf("DELETE FROM book_metadata WHERE book_id IN (:bookIds)"))
+                .isGreaterThan(firstChunk.indexOf("DELETE FROM book_metadata_tag_mapping WHERE book_id IN (:bookIds)"));
+        assertThat(firstChunk.getLast()).isEqualTo("DELETE FROM book WHERE id IN (:bookIds)");
+
+        verify(notificationService).sendMessage(Topic.BOOKS_REMOVE, ids.subList(0, BookDeletionService.CHUNK_SIZE));
+        verify(notificationService).sendMessage(Topic.BOOKS_REMOVE, List.of((long) BookDeletionService.CHUNK_SIZE + 1));
+        verify(bookRepository, never()).deleteAll(any());
+    }
+
+    @Test
+    void deleteRemovedBooks_removesCoverAndBackupFoldersInBackground() throws IOException {
+        stubNativeDeletes();
+        Path images = Files.createDirectories(dataDir.resolve("images/7"));
+        Files.writeString(images.resolve("cover.jpg"), "cover");
+        Path backup = Files.createDirectories(dataDir.resolve("metadata_backup/7"));
+        Files.writeString(backup.resolve("metadata.json"), "{}");
+        when(fileService.getImagesFolder(7L)).thenReturn(images.toString());
+        when(fileService.getBookMetadataBackupPath(7L)).thenReturn(backup.toString());
+
+        service.deleteRemovedBooks(List.of(7L));
+        service.shutdown();
+
+        assertThat(images).doesNotExist();
+        assertThat(backup).doesNotExist();
+    }
+
+    @Test
+    void processDeletedLibraryFiles_promotesRemainingFormatAndDeletesTheRest() {
+        stubNativeDeletes();
+        BookEntity promoted = BookEntity.builder().id(1L).bookFiles(new ArrayList<>()).build();
+        BookFileEntity missingEpub = bookFile(promoted, "one.epub");
+        bookFile(promoted, "one.pdf");
+        BookEntity removed = BookEntity.builder().id(2L).bookFiles(new ArrayList<>()).build();
+        bookFile(removed, "two.epub");
+        when(bookRepository.findAllWithFilesByIds(List.of(1L, 2L))).thenReturn(List.of(promoted, removed));
+
+        service.processDeletedLibraryFiles(List.of(1L, 2L), List.of(LibraryFile.builder().fileName("one.pdf").build()));
+
+        verify(bookAdditionalFileRepository).delete(missingEpub);
+        verify(bookRepository).save(promoted);
+        assertThat(promoted.getBookFiles()).extracting(BookFileEntity::getFileName).containsExactly("one.pdf");
+        verify(bookAdditionalFileRepository, never()).delete(argThat(file -> file.getBook() == removed));
+        verify(query, times(BookDeletionService.DEPENDENT_TABLES.size() + 2)).setParameter("bookIds", List.of(2L));
+        verify(notificationService).sendMessage(Topic.BOOKS_REMOVE, List.of(2L));
+    }
+}
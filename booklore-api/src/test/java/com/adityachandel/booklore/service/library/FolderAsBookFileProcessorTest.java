@@ -21,13 +21,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -113,16 +113,12 @@ class FolderAsBookFileProcessorTest {
 
         BookEntity bookEntity = createBookEntity(1L, "book.pdf", "books");
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), anyString()))
-                .thenReturn(new ArrayList<>());
         when(bookFileProcessorRegistry.getProcessorOrThrow(BookFileType.PDF))
                 .thenReturn(mockBookFileProcessor);
         when(mockBookFileProcessor.processFile(any(LibraryFile.class)))
                 .thenReturn(new FileProcessResult(createdBook, FileProcessStatus.NEW));
         when(bookRepository.getReferenceById(createdBook.getId()))
                 .thenReturn(bookEntity);
-        when(bookAdditionalFileRepository.findByLibraryPath_IdAndFileSubPathAndFileName(anyLong(), anyString(), anyString()))
-                .thenReturn(Optional.empty());
 
         // When
         processor.processLibraryFiles(libraryFiles, libraryEntity);
@@ -152,10 +148,8 @@ class FolderAsBookFileProcessorTest {
 
         BookEntity existingBook = createBookEntity(1L, "book.pdf", "books");
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), eq("books")))
+        when(bookRepository.findAllByLibraryPathIdAndFileSubPathIn(eq(1L), argThat(subPaths -> subPaths.contains("books"))))
                 .thenReturn(List.of(existingBook));
-        when(bookAdditionalFileRepository.findByLibraryPath_IdAndFileSubPathAndFileName(anyLong(), anyString(), anyString()))
-                .thenReturn(Optional.empty());
 
         // When
         processor.processLibraryFiles(libraryFiles, libraryEntity);
@@ -183,12 +177,8 @@ class FolderAsBookFileProcessorTest {
 
         BookEntity parentBook = createBookEntity(1L, "book.pdf", "books");
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), eq("books/chapter1")))
-                .thenReturn(new ArrayList<>());
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), eq("books")))
+        when(bookRepository.findAllByLibraryPathIdAndFileSubPathIn(eq(1L), argThat(subPaths -> subPaths.containsAll(List.of("books/chapter1", "books", "")))))
                 .thenReturn(List.of(parentBook));
-        when(bookAdditionalFileRepository.findByLibraryPath_IdAndFileSubPathAndFileName(anyLong(), anyString(), anyString()))
-                .thenReturn(Optional.empty());
 
         // When
         processor.processLibraryFiles(libraryFiles, libraryEntity);
@@ -225,16 +215,12 @@ class FolderAsBookFileProcessorTest {
 
         BookEntity bookEntity = createBookEntity(1L, "book.epub", "books");
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), anyString()))
-                .thenReturn(new ArrayList<>());
         when(bookFileProcessorRegistry.getProcessorOrThrow(BookFileType.EPUB))
                 .thenReturn(mockBookFileProcessor);
         when(mockBookFileProcessor.processFile(argThat(file -> file.getFileName().equals("book.epub"))))
                 .thenReturn(new FileProcessResult(createdBook, FileProcessStatus.NEW));
         when(bookRepository.getReferenceById(createdBook.getId()))
                 .thenReturn(bookEntity);
-        when(bookAdditionalFileRepository.findByLibraryPath_IdAndFileSubPathAndFileName(anyLong(), anyString(), anyString()))
-                .thenReturn(Optional.empty());
 
         // When
         processor.processLibraryFiles(libraryFiles, libraryEntity);
@@ -270,16 +256,12 @@ class FolderAsBookFileProcessorTest {
 
         BookEntity bookEntity = createBookEntity(1L, "book.pdf", "books");
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), anyString()))
-                .thenReturn(new ArrayList<>());
         when(bookFileProcessorRegistry.getProcessorOrThrow(BookFileType.PDF))
                 .thenReturn(mockBookFileProcessor);
         when(mockBookFileProcessor.processFile(argThat(file -> file.getFileName().equals("book.pdf"))))
                 .thenReturn(new FileProcessResult(createdBook, FileProcessStatus.NEW));
         when(bookRepository.getReferenceById(createdBook.getId()))
                 .thenReturn(bookEntity);
-        when(bookAdditionalFileRepository.findByLibraryPath_IdAndFileSubPathAndFileName(anyLong(), anyString(), anyString()))
-                .thenReturn(Optional.empty());
 
         // When
         processor.processLibraryFiles(libraryFiles, libraryEntity);
@@ -309,12 +291,10 @@ class FolderAsBookFileProcessorTest {
                 .bookType(BookFileType.EPUB)
                 .build();
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), eq("books")))
+        when(bookRepository.findAllByLibraryPathIdAndFileSubPathIn(eq(1L), argThat(subPaths -> subPaths.contains("books"))))
                 .thenReturn(List.of(existingBook));
-        when(bookAdditionalFileRepository.findByLibraryPath_IdAndFileSubPathAndFileName(anyLong(), eq("books"), eq("book.epub")))
-                .thenReturn(Optional.of(existingAdditionalFile));
-        when(bookAdditionalFileRepository.findByLibraryPath_IdAndFileSubPathAndFileName(anyLong(), eq("books"), eq("cover.jpg")))
-                .thenReturn(Optional.empty());
+        when(bookAdditionalFileRepository.findFilePathsByLibraryPathIdAndFileSubPathIn(eq(1L), argThat(subPaths -> subPaths.contains("books"))))
+                .thenReturn(List.of(existingAdditionalFile.getFileSubPath() + "/" + existingAdditionalFile.getFileName()));
 
         // When
         processor.processLibraryFiles(libraryFiles, libraryEntity);
@@ -337,8 +317,6 @@ class FolderAsBookFileProcessorTest {
                 createLibraryFile("notes.txt", "docs")
         );
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), anyString()))
-                .thenReturn(new ArrayList<>());
 
         // When
         processor.processLibraryFiles(libraryFiles, libraryEntity);
@@ -358,8 +336,6 @@ class FolderAsBookFileProcessorTest {
                 createLibraryFile("book.pdf", "books", BookFileType.PDF)
         );
 
-        when(bookRepository.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), anyString()))
-                .thenReturn(new ArrayList<>());
         when(bookFileProcessorRegistry.getProcessorOrThrow(BookFileType.PDF))
                 .thenReturn(mockBookFileProcessor);
         when(mockBookFileProcessor.processFile(any(LibraryFile.class)))
@@ -374,6 +350,65 @@ class FolderAsBookFileProcessorTest {
         verify(adminEventBroadcaster).broadcastAdminEvent(anyString());
     }
 
+    @Test
+    void processLibraryFiles_shouldAttachSubdirectoryToBookCreatedForParent() {
+        // Given
+        LibraryEntity libraryEntity = createLibraryEntity();
+        List<LibraryFile> libraryFiles = List.of(
+                createLibraryFile("notes.txt", "series/extras"),
+                createLibraryFile("book.pdf", "series", BookFileType.PDF),
+                createLibraryFile("other.pdf", "other", BookFileType.PDF)
+        );
+
+        Book seriesBook = Book.builder().id(1L).fileName("book.pdf").bookType(BookFileType.PDF).build();
+        Book otherBook = Book.builder().id(2L).fileName("other.pdf").bookType(BookFileType.PDF).build();
+
+        when(bookFileProcessorRegistry.getProcessorOrThrow(BookFileType.PDF))
+                .thenReturn(mockBookFileProcessor);
+        when(mockBookFileProcessor.processFile(argThat(file -> file != null && file.getFileName().equals("book.pdf"))))
+                .thenReturn(new FileProcessResult(seriesBook, FileProcessStatus.NEW));
+        when(mockBookFileProcessor.processFile(argThat(file -> file != null && file.getFileName().equals("other.pdf"))))
+                .thenReturn(new FileProcessResult(otherBook, FileProcessStatus.NEW));
+        when(bookRepository.getReferenceById(1L)).thenReturn(createBookEntity(1L, "book.pdf", "series"));
+        when(bookRepository.getReferenceById(2L)).thenReturn(createBookEntity(2L, "other.pdf", "other"));
+
+        // When
+        processor.processLibraryFiles(libraryFiles, libraryEntity);
+
+        // Then
+        verify(bookRepository, times(1)).findAllByLibraryPathIdAndFileSubPathIn(anyLong(), anyCollection());
+        verify(mockBookFileProcessor, times(2)).processFile(any(LibraryFile.class));
+        verify(bookAdditionalFileRepository).save(additionalFileCaptor.capture());
+        assertThat(additionalFileCaptor.getValue().getFileName()).isEqualTo("notes.txt");
+        assertThat(additionalFileCaptor.getValue().getBook().getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void processLibraryFiles_shouldRetryBookThatLostConcurrentInsert() {
+        // Given
+        LibraryEntity libraryEntity = createLibraryEntity();
+        List<LibraryFile> libraryFiles = List.of(
+                createLibraryFile("book.pdf", "books", BookFileType.PDF)
+        );
+
+        Book createdBook = Book.builder().id(1L).fileName("book.pdf").bookType(BookFileType.PDF).build();
+
+        when(bookFileProcessorRegistry.getProcessorOrThrow(BookFileType.PDF))
+                .thenReturn(mockBookFileProcessor);
+        when(mockBookFileProcessor.processFile(any(LibraryFile.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'name'"))
+                .thenReturn(new FileProcessResult(createdBook, FileProcessStatus.NEW));
+        when(bookRepository.getReferenceById(1L)).thenReturn(createBookEntity(1L, "book.pdf", "books"));
+
+        // When
+        processor.processLibraryFiles(libraryFiles, libraryEntity);
+
+        // Then
+        verify(mockBookFileProcessor, times(2)).processFile(any(LibraryFile.class));
+        verify(bookEventBroadcaster).broadcastBookAddEvent(createdBook);
+        verify(adminEventBroadcaster, never()).broadcastAdminEvent(anyString());
+    }
+
     // Helper methods
     private LibraryEntity createLibraryEntity() {
         LibraryEntity library = new LibraryEntity();
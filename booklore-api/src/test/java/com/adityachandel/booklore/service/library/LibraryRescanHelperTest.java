@@ -23,16 +23,22 @@ import com.adityachandel.booklore.task.options.LibraryRescanOptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -46,11 +52,15 @@ class LibraryRescanHelperTest {
     @Mock private NotificationService notificationService;
     @Mock private TaskCancellationManager cancellationManager;
     @Mock private BookRepository bookRepository;
+    @Mock private PlatformTransactionManager transactionManager;
     @InjectMocks private LibraryRescanHelper libraryRescanHelper;
 
     @Captor private ArgumentCaptor<TaskProgressPayload> payloadCaptor;
     @Captor private ArgumentCaptor<MetadataUpdateContext> metadataContextCaptor;
 
+    @TempDir
+    Path libraryRoot;
+
     private LibraryEntity library;
     private RescanLibraryContext rescanContext;
     private String taskId;
@@ -62,16 +72,38 @@ class LibraryRescanHelperTest {
         library.setName("Test Library");
         library.setBookEntities(new ArrayList<>());
 
+        rescanContext = contextWith(false);
+
+        taskId = "task-123";
+    }
+
+    private static RescanLibraryContext contextWith(boolean forceRescan) {
         LibraryRescanOptions options = LibraryRescanOptions.builder()
                 .metadataReplaceMode(MetadataReplaceMode.REPLACE_ALL)
-                .updateMetadataFromFiles(true).build();
-
-        rescanContext = RescanLibraryContext.builder()
+                .updateMetadataFromFiles(true)
+                .forceRescan(forceRescan)
+                .build();
+        return RescanLibraryContext.builder()
                 .libraryId(1L)
                 .options(options)
                 .build();
+    }
 
-        taskId = "task-123";
+    private void stubLibrary(List<BookEntity> books) {
+        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
+        when(bookRepository.countByLibraryId(1L)).thenReturn((long) books.size());
+        if (books.isEmpty()) {
+            when(bookRepository.findBookIdsByLibraryIdAfter(eq(1L), eq(0L), any())).thenReturn(List.of());
+            return;
+        }
+        List<Long> ids = books.stream().map(BookEntity::getId).toList();
+        when(bookRepository.findBookIdsByLibraryIdAfter(eq(1L), eq(0L), any())).thenReturn(ids);
+        when(bookRepository.findBookIdsByLibraryIdAfter(eq(1L), eq(ids.getLast()), any())).thenReturn(List.of());
+        when(bookRepository.findAllWithFilesByIds(ids)).thenReturn(books);
+    }
+
+    private void stubLoadForUpdate(BookEntity... books) {
+        when(bookRepository.findAllWithMetadataByIds(anySet())).thenReturn(List.of(books));
     }
 
     @Test
@@ -96,8 +128,8 @@ class LibraryRescanHelperTest {
         BookMetadata metadata2 = new BookMetadata();
         metadata2.setTitle("Book 2");
 
-        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(List.of(book1, book2));
+        stubLibrary(List.of(book1, book2));
+        stubLoadForUpdate(book1, book2);
         when(metadataExtractorFactory.extractMetadata(eq(BookFileType.EPUB), any(File.class))).thenReturn(metadata1);
         when(metadataExtractorFactory.extractMetadata(eq(BookFileType.PDF), any(File.class))).thenReturn(metadata2);
         when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
@@ -107,7 +139,7 @@ class LibraryRescanHelperTest {
         verify(libraryRepository).findById(1L);
         verify(metadataExtractorFactory, times(2)).extractMetadata(any(BookFileType.class), any(File.class));
         verify(bookMetadataUpdater, times(2)).setBookMetadata(any(MetadataUpdateContext.class));
-        verify(notificationService, times(4)).sendMessage(eq(Topic.TASK_PROGRESS), any(TaskProgressPayload.class));
+        verify(notificationService, times(2)).sendMessage(eq(Topic.TASK_PROGRESS), any(TaskProgressPayload.class));
     }
 
     @Test
@@ -119,27 +151,8 @@ class LibraryRescanHelperTest {
         BookMetadata metadata = new BookMetadata();
         metadata.setTitle("Book 1");
 
-        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(List.of(book1, book2));
-        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(metadata);
-        when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
-
-        libraryRescanHelper.handleRescanOptions(rescanContext, taskId);
-
-        verify(metadataExtractorFactory, times(1)).extractMetadata(any(BookFileType.class), any(File.class));
-        verify(bookMetadataUpdater, times(1)).setBookMetadata(any(MetadataUpdateContext.class));
-    }
-
-    @Test
-    void handleRescanOptions_shouldSkipNullBooks() {
-        BookEntity book1 = createBookEntity(1L, "book1.epub", BookFileType.EPUB);
-        java.util.List<BookEntity> books = new ArrayList<>();
-        books.add(book1);
-        books.add(null);
-
-        BookMetadata metadata = new BookMetadata();
-        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(books);
+        stubLibrary(List.of(book1, book2));
+        stubLoadForUpdate(book1);
         when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(metadata);
         when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
 
@@ -156,8 +169,8 @@ class LibraryRescanHelperTest {
 
         BookMetadata metadata2 = new BookMetadata();
 
-        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(List.of(book1, book2));
+        stubLibrary(List.of(book1, book2));
+        stubLoadForUpdate(book1, book2);
         when(metadataExtractorFactory.extractMetadata(eq(BookFileType.EPUB), any(File.class))).thenReturn(null);
         when(metadataExtractorFactory.extractMetadata(eq(BookFileType.PDF), any(File.class))).thenReturn(metadata2);
         when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
@@ -173,69 +186,61 @@ class LibraryRescanHelperTest {
         BookEntity book1 = createBookEntity(1L, "book1.epub", BookFileType.EPUB);
         BookEntity book2 = createBookEntity(2L, "book2.pdf", BookFileType.PDF);
 
-        BookMetadata metadata1 = new BookMetadata();
-        BookMetadata metadata2 = new BookMetadata();
-
-        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(List.of(book1, book2));
-        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class)))
-                .thenReturn(metadata1, metadata2);
+        stubLibrary(List.of(book1, book2));
+        when(bookRepository.findAllWithMetadataByIds(anySet())).thenAnswer(invocation -> {
+            Set<Long> ids = invocation.getArgument(0);
+            return List.of(book1, book2).stream().filter(book -> ids.contains(book.getId())).toList();
+        });
+        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(new BookMetadata());
         when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
-        doThrow(new RuntimeException("Update failed")).doNothing()
-                .when(bookMetadataUpdater).setBookMetadata(any(MetadataUpdateContext.class));
+        doThrow(new RuntimeException("Update failed"))
+                .when(bookMetadataUpdater).setBookMetadata(argThat(context -> context.getBookEntity() == book1));
 
-        libraryRescanHelper.handleRescanOptions(rescanContext, taskId);
+        assertDoesNotThrow(() -> libraryRescanHelper.handleRescanOptions(rescanContext, taskId));
 
         verify(metadataExtractorFactory, times(2)).extractMetadata(any(BookFileType.class), any(File.class));
-        verify(bookMetadataUpdater, times(2)).setBookMetadata(any(MetadataUpdateContext.class));
+        verify(bookMetadataUpdater, atLeastOnce()).setBookMetadata(argThat(context -> context.getBookEntity() == book2));
     }
 
     @Test
     void handleRescanOptions_shouldCancel_whenTaskCancellationRequested() {
-        BookEntity book1 = createBookEntity(1L, "book1.epub", BookFileType.EPUB);
-        BookEntity book2 = createBookEntity(2L, "book2.pdf", BookFileType.PDF);
-
         when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(List.of(book1, book2));
-        when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false, true);
+        when(bookRepository.countByLibraryId(1L)).thenReturn(2L);
+        when(cancellationManager.isTaskCancelled(taskId)).thenReturn(true);
 
         libraryRescanHelper.handleRescanOptions(rescanContext, taskId);
 
-        verify(cancellationManager, atLeast(1)).isTaskCancelled(taskId);
         verify(notificationService, atLeastOnce()).sendMessage(eq(Topic.TASK_PROGRESS), payloadCaptor.capture());
-
         List<TaskProgressPayload> payloads = payloadCaptor.getAllValues();
         assertTrue(payloads.stream().anyMatch(p -> p.getTaskStatus() == TaskStatus.CANCELLED));
+        assertTrue(payloads.stream().noneMatch(p -> p.getTaskStatus() == TaskStatus.COMPLETED));
+        verifyNoInteractions(metadataExtractorFactory, bookMetadataUpdater);
     }
 
     @Test
-    void handleRescanOptions_shouldSendProgressNotifications() {
+    void handleRescanOptions_shouldSendStartAndCompletionNotifications() {
         BookEntity book1 = createBookEntity(1L, "book1.epub", BookFileType.EPUB);
 
-        BookMetadata metadata = new BookMetadata();
-        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(List.of(book1));
-        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(metadata);
+        stubLibrary(List.of(book1));
+        stubLoadForUpdate(book1);
+        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(new BookMetadata());
         when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
 
         libraryRescanHelper.handleRescanOptions(rescanContext, taskId);
 
-        verify(notificationService, times(3)).sendMessage(eq(Topic.TASK_PROGRESS), payloadCaptor.capture());
+        verify(notificationService, times(2)).sendMessage(eq(Topic.TASK_PROGRESS), payloadCaptor.capture());
 
         List<TaskProgressPayload> payloads = payloadCaptor.getAllValues();
-        assertEquals(3, payloads.size());
         assertEquals(0, payloads.getFirst().getProgress());
         assertEquals(TaskStatus.IN_PROGRESS, payloads.get(0).getTaskStatus());
         assertEquals(TaskType.REFRESH_LIBRARY_METADATA, payloads.get(0).getTaskType());
-        assertEquals(TaskStatus.IN_PROGRESS, payloads.get(1).getTaskStatus());
-        assertEquals(100, payloads.get(2).getProgress());
-        assertEquals(TaskStatus.COMPLETED, payloads.get(2).getTaskStatus());
+        assertEquals(100, payloads.get(1).getProgress());
+        assertEquals(TaskStatus.COMPLETED, payloads.get(1).getTaskStatus());
     }
 
     @Test
     void handleRescanOptions_shouldHandleEmptyLibrary() {
-        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(new ArrayList<>());
+        stubLibrary(List.of());
         when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
 
         libraryRescanHelper.handleRescanOptions(rescanContext, taskId);
@@ -255,8 +260,8 @@ class LibraryRescanHelperTest {
         BookMetadata metadata = new BookMetadata();
         metadata.setTitle("Test Book");
 
-        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(List.of(book));
+        stubLibrary(List.of(book));
+        stubLoadForUpdate(book);
         when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(metadata);
         when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
 
@@ -276,15 +281,15 @@ class LibraryRescanHelperTest {
     void handleRescanOptions_shouldHandleNullTaskId() {
         BookEntity book = createBookEntity(1L, "book1.epub", BookFileType.EPUB);
 
-        BookMetadata metadata = new BookMetadata();
-        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(List.of(book));
-        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(metadata);
+        stubLibrary(List.of(book));
+        stubLoadForUpdate(book);
+        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(new BookMetadata());
 
         libraryRescanHelper.handleRescanOptions(rescanContext, null);
 
         verify(bookMetadataUpdater).setBookMetadata(any(MetadataUpdateContext.class));
-        verify(notificationService, times(3)).sendMessage(eq(Topic.TASK_PROGRESS), payloadCaptor.capture());
+        verify(notificationService, times(2)).sendMessage(eq(Topic.TASK_PROGRESS), payloadCaptor.capture());
+        verifyNoInteractions(cancellationManager);
 
         List<TaskProgressPayload> payloads = payloadCaptor.getAllValues();
         assertTrue(payloads.stream().allMatch(p -> p.getTaskId() == null));
@@ -294,10 +299,9 @@ class LibraryRescanHelperTest {
     void handleRescanOptions_shouldContinue_whenNotificationFails() {
         BookEntity book = createBookEntity(1L, "book1.epub", BookFileType.EPUB);
 
-        BookMetadata metadata = new BookMetadata();
-        when(libraryRepository.findById(1L)).thenReturn(Optional.of(library));
-        when(bookRepository.findAllWithMetadataByLibraryId(1L)).thenReturn(List.of(book));
-        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(metadata);
+        stubLibrary(List.of(book));
+        stubLoadForUpdate(book);
+        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(new BookMetadata());
         when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
         doThrow(new RuntimeException("Notification failed"))
                 .when(notificationService).sendMessage(any(Topic.class), any(TaskProgressPayload.class));
@@ -306,6 +310,76 @@ class LibraryRescanHelperTest {
         verify(bookMetadataUpdater).setBookMetadata(any(MetadataUpdateContext.class));
     }
 
+    @Test
+    void handleRescanOptions_shouldRecordFingerprintAndSkipUnchangedFileNextTime() throws IOException {
+        BookEntity book = createBookOnDisk(1L, "book1.epub");
+
+        stubLibrary(List.of(book));
+        stubLoadForUpdate(book);
+        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(new BookMetadata());
+        when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
+
+        libraryRescanHelper.handleRescanOptions(rescanContext, taskId);
+
+        BookFileEntity primaryFile = book.getPrimaryBookFile();
+        assertEquals(Files.size(book.getFullFilePath()), primaryFile.getRescanFileSize());
+        assertEquals(Files.getLastModifiedTime(book.getFullFilePath()).toMillis(), primaryFile.getRescanModifiedMs());
+        assertEquals("hash-1", primaryFile.getRescanHash());
+
+        libraryRescanHelper.handleRescanOptions(rescanContext, taskId);
+
+        verify(metadataExtractorFactory, times(1)).extractMetadata(any(BookFileType.class), any(File.class));
+        verify(bookRepository, times(1)).findAllWithMetadataByIds(anySet());
+    }
+
+    @Test
+    void handleRescanOptions_shouldRereadFile_whenHashChangedSinceLastRescan() throws IOException {
+        BookEntity book = createBookOnDisk(1L, "book1.epub");
+        markRescanned(book);
+        book.getPrimaryBookFile().setCurrentHash("hash-2");
+
+        stubLibrary(List.of(book));
+        stubLoadForUpdate(book);
+        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(new BookMetadata());
+        when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
+
+        libraryRescanHelper.handleRescanOptions(rescanContext, taskId);
+
+        verify(metadataExtractorFactory).extractMetadata(eq(BookFileType.EPUB), any(File.class));
+        assertEquals("hash-2", book.getPrimaryBookFile().getRescanHash());
+    }
+
+    @Test
+    void handleRescanOptions_shouldRereadUnchangedFile_whenForced() throws IOException {
+        BookEntity book = createBookOnDisk(1L, "book1.epub");
+        markRescanned(book);
+
+        stubLibrary(List.of(book));
+        stubLoadForUpdate(book);
+        when(metadataExtractorFactory.extractMetadata(any(BookFileType.class), any(File.class))).thenReturn(new BookMetadata());
+        when(cancellationManager.isTaskCancelled(taskId)).thenReturn(false);
+
+        libraryRescanHelper.handleRescanOptions(contextWith(true), taskId);
+
+        verify(metadataExtractorFactory).extractMetadata(eq(BookFileType.EPUB), any(File.class));
+        verify(bookMetadataUpdater).setBookMetadata(any(MetadataUpdateContext.class));
+    }
+
+    private BookEntity createBookOnDisk(Long id, String fileName) throws IOException {
+        Files.writeString(libraryRoot.resolve(fileName), "book " + id);
+        BookEntity book = createBookEntity(id, fileName, BookFileType.EPUB);
+        book.getLibraryPath().setPath(libraryRoot.toString());
+        book.getPrimaryBookFile().setCurrentHash("hash-" + id);
+        return book;
+    }
+
+    private static void markRescanned(BookEntity book) throws IOException {
+        BookFileEntity primaryFile = book.getPrimaryBookFile();
+        primaryFile.setRescanFileSize(Files.size(book.getFullFilePath()));
+        primaryFile.setRescanModifiedMs(Files.getLastModifiedTime(book.getFullFilePath()).toMillis());
+        primaryFile.setRescanHash(primaryFile.getCurrentHash());
+    }
+
     private BookEntity createBookEntity(Long id, String fileName, BookFileType bookType) {
         LibraryPathEntity libraryPath = new LibraryPathEntity();
         libraryPath.setPath("/test/path");
@@ -9,16 +9,19 @@ import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookFileEntity;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
 import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.model.websocket.TaskProgressPayload;
+import com.adityachandel.booklore.model.websocket.Topic;
 import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.repository.projection.BookCoverUpdateProjection;
 import com.adityachandel.booklore.service.NotificationService;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
-import com.adityachandel.booklore.service.book.BookQueryService;
 import com.adityachandel.booklore.service.file.FileFingerprint;
 import com.adityachandel.booklore.service.fileprocessor.BookFileProcessor;
 import com.adityachandel.booklore.service.fileprocessor.BookFileProcessorRegistry;
 import com.adityachandel.booklore.service.metadata.writer.MetadataWriter;
 import com.adityachandel.booklore.service.metadata.writer.MetadataWriterFactory;
+import com.adityachandel.booklore.task.TaskCancellationManager;
+import com.adityachandel.booklore.task.TaskStatus;
 import com.adityachandel.booklore.util.FileService;
 import com.adityachandel.booklore.util.SecurityContextVirtualThread;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,10 +47,10 @@ class BookCoverServiceTest {
     @Mock private AppSettingService appSettingService;
     @Mock private FileService fileService;
     @Mock private BookFileProcessorRegistry processorRegistry;
-    @Mock private BookQueryService bookQueryService;
     @Mock private CoverImageGenerator coverImageGenerator;
     @Mock private MetadataWriterFactory metadataWriterFactory;
     @Mock private TransactionTemplate transactionTemplate;
+    @Mock private TaskCancellationManager cancellationManager;
 
     @InjectMocks private BookCoverService bookCoverService;
 
@@ -138,9 +141,7 @@ class BookCoverServiceTest {
             doReturn(new byte[]{1,2,3}).when(file).getBytes();
             BookEntity book = spy(mockBookEntity(5L, false));
             doReturn(Path.of("/dummy/path")).when(book).getFullFilePath();
-            when(bookQueryService.findAllWithMetadataByIds(any())).thenReturn(List.of(book));
-            when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
-            when(bookRepository.save(any())).thenReturn(book);
+            when(bookRepository.findAllForCoverUpdateByIds(any())).thenReturn(List.of(book));
             when(appSettingService.getAppSettings()).thenReturn(mockAppSettings(true, false));
             doNothing().when(fileService).createThumbnailFromBytes(eq(5L), any());
             doNothing().when(notificationService).sendMessage(any(), any());
@@ -171,7 +172,7 @@ class BookCoverServiceTest {
                 ArgumentCaptor<Long> idCaptor = ArgumentCaptor.forClass(Long.class);
                 verify(fileService).createThumbnailFromBytes(idCaptor.capture(), any());
                 assertThat(idCaptor.getValue()).isEqualTo(5L);
-                verify(bookRepository).save(any(BookEntity.class));
+                verify(bookRepository).saveAll(List.of(book));
                 verify(notificationService, atLeastOnce()).sendMessage(any(), any());
             }
         }
@@ -211,40 +212,82 @@ class BookCoverServiceTest {
     }
 
     @Test
-    void regenerateCoversForBooks_success() {
-        try (MockedStatic<SecurityContextVirtualThread> ignored = mockStatic(SecurityContextVirtualThread.class)) {
-            BookEntity book = mockBookEntity(9L, false);
-            when(bookQueryService.findAllWithMetadataByIds(any())).thenReturn(List.of(book));
-            when(bookRepository.findById(9L)).thenReturn(Optional.of(book));
-            when(bookRepository.save(any())).thenReturn(book);
+    void regenerateCovers_selectedBooks_success() {
+        BookEntity book = mockBookEntity(9L, false);
+        when(bookRepository.findAllForCoverUpdateByIds(List.of(9L))).thenReturn(List.of(book));
 
-            BookFileProcessor processor = mock(BookFileProcessor.class);
-            when(processorRegistry.getProcessorOrThrow(any())).thenReturn(processor);
-            when(processor.generateCover(any())).thenReturn(true);
+        BookFileProcessor processor = mock(BookFileProcessor.class);
+        when(processorRegistry.getProcessorOrThrow(any())).thenReturn(processor);
+        when(processor.generateCover(any())).thenReturn(true);
 
-            BookCoverUpdateProjection projection = mock(BookCoverUpdateProjection.class);
-            when(bookRepository.findCoverUpdateInfoByIds(any())).thenReturn(List.of(projection));
-            doNothing().when(notificationService).sendMessage(any(), any());
+        BookCoverUpdateProjection projection = mock(BookCoverUpdateProjection.class);
+        when(bookRepository.findCoverUpdateInfoByIds(any())).thenReturn(List.of(projection));
+        doNothing().when(notificationService).sendMessage(any(), any());
+        runTransactionsInline();
+
+        bookCoverService.regenerateCovers(Set.of(9L), "task-1");
+
+        ArgumentCaptor<BookEntity> bookCaptor = ArgumentCaptor.forClass(BookEntity.class);
+        verify(processor).generateCover(bookCaptor.capture());
+        assertThat(bookCaptor.getValue().getId()).isEqualTo(9L);
+        assertThat(book.getBookCoverHash()).isNotNull();
+        verify(bookRepository).saveAll(List.of(book));
+        verify(bookRepository).findCoverUpdateInfoByIds(List.of(9L));
+        verify(notificationService).sendMessage(eq(Topic.TASK_PROGRESS), any(TaskProgressPayload.class));
+    }
 
-            when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
-                org.springframework.transaction.support.TransactionCallback<?> callback = invocation.getArgument(0);
-                return callback.doInTransaction(null);
-            });
+    @Test
+    void regenerateCovers_allBooks_pagesThroughIdsAndSkipsLockedCovers() {
+        BookEntity first = mockBookEntity(1L, false);
+        BookEntity locked = mockBookEntity(2L, true);
+        when(bookRepository.countCoverUnlockedBooks()).thenReturn(2L);
+        when(bookRepository.findCoverUnlockedBookIdsAfter(eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(bookRepository.findCoverUnlockedBookIdsAfter(eq(2L), any())).thenReturn(List.of());
+        when(bookRepository.findAllForCoverUpdateByIds(List.of(1L, 2L))).thenReturn(List.of(first, locked));
 
-            ignored.when(() -> SecurityContextVirtualThread.runWithSecurityContext(any(Runnable.class)))
-                    .thenAnswer(invocation -> {
-                        Runnable runnable = invocation.getArgument(0);
-                        runnable.run();
-                        return null;
-                    });
+        BookFileProcessor processor = mock(BookFileProcessor.class);
+        when(processorRegistry.getProcessorOrThrow(any())).thenReturn(processor);
+        when(processor.generateCover(any())).thenReturn(true);
+        runTransactionsInline();
 
-            bookCoverService.regenerateCoversForBooks(Set.of(9L));
+        bookCoverService.regenerateCovers(null, "task-2");
 
-            ArgumentCaptor<BookEntity> bookCaptor = ArgumentCaptor.forClass(BookEntity.class);
-            verify(processor).generateCover(bookCaptor.capture());
-            assertThat(bookCaptor.getValue().getId()).isEqualTo(9L);
-            verify(notificationService, atLeastOnce()).sendMessage(any(), any());
-        }
+        verify(processor).generateCover(first);
+        verify(processor, never()).generateCover(locked);
+        verify(bookRepository).saveAll(List.of(first));
+        verify(bookRepository, never()).findAll();
+    }
+
+    @Test
+    void regenerateCovers_cancelledTask_stopsBeforeProcessingAndReportsCancellation() {
+        when(bookRepository.countCoverUnlockedBooks()).thenReturn(1L);
+        when(bookRepository.findCoverUnlockedBookIdsAfter(eq(0L), any())).thenReturn(List.of(1L));
+        when(cancellationManager.isTaskCancelled("task-3")).thenReturn(true);
+        runTransactionsInline();
+
+        bookCoverService.regenerateCovers(null, "task-3");
+
+        verify(bookRepository, never()).findAllForCoverUpdateByIds(any());
+        ArgumentCaptor<Object> progress = ArgumentCaptor.forClass(Object.class);
+        verify(notificationService).sendMessage(eq(Topic.TASK_PROGRESS), progress.capture());
+        assertThat(progress.getValue()).isInstanceOfSatisfying(TaskProgressPayload.class, payload -> {
+            assertThat(payload.getTaskId()).isEqualTo("task-3");
+            assertThat(payload.getTaskStatus()).isEqualTo(TaskStatus.CANCELLED);
+        });
+    }
+
+    @Test
+    void workerCount_isBoundedByWorkAndPoolSize() {
+        assertThat(BookCoverService.workerCount(0)).isEqualTo(1);
+        assertThat(BookCoverService.workerCount(1)).isEqualTo(1);
+        assertThat(BookCoverService.workerCount(1_000_000)).isBetween(1, 4);
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            org.springframework.transaction.support.TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
     }
 
     @Test
@@ -4,19 +4,16 @@ import com.adityachandel.booklore.model.entity.*;
 import com.adityachandel.booklore.model.enums.MergeMetadataType;
 import com.adityachandel.booklore.repository.*;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
-import com.adityachandel.booklore.service.metadata.writer.MetadataWriterFactory;
 import com.adityachandel.booklore.model.dto.settings.AppSettings;
 import com.adityachandel.booklore.model.dto.settings.MetadataPersistenceSettings;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -38,18 +35,19 @@ class MetadataManagementServiceTest {
     TagRepository tagRepository;
     @Mock
     BookMetadataRepository bookMetadataRepository;
+    @Mock
+    BookRepository bookRepository;
+    @Mock
+    EntityManager entityManager;
 
     @Mock
     AppSettingService appSettingService;
     @Mock
-    MetadataWriterFactory metadataWriterFactory;
+    MetadataWriteBackService metadataWriteBackService;
 
     @InjectMocks
     MetadataManagementService service;
 
-    @Captor
-    ArgumentCaptor<List<BookMetadataEntity>> bookListCaptor;
-
     @BeforeEach
     void setUp() {
         AppSettings appSettings = new AppSettings();
@@ -57,8 +55,15 @@ class MetadataManagementServiceTest {
         when(appSettingService.getAppSettings()).thenReturn(appSettings);
     }
 
+    private static void stubMappedBooks(MetadataValueMappingRepository repository, Set<Long> valueIds, List<Long> bookIds) {
+        when(repository.findMappedBookIdsAfter(eq(valueIds), eq(0L), any())).thenReturn(bookIds);
+        if (!bookIds.isEmpty()) {
+            when(repository.findMappedBookIdsAfter(eq(valueIds), eq(bookIds.getLast()), any())).thenReturn(List.of());
+        }
+    }
+
     @Test
-    void mergeAuthors_createsTargetAndMovesBooksAndDeletesOldAuthor() {
+    void mergeAuthors_createsTargetRemapsBooksAndDeletesOldAuthor() {
         String targetName = "New Author";
         String oldName = "Old Author";
 
@@ -70,33 +75,53 @@ class MetadataManagementServiceTest {
         when(authorRepository.save(any(AuthorEntity.class))).thenAnswer(invocation -> {
             AuthorEntity a = invocation.getArgument(0);
             a.setId(2L);
-            a.setName(a.getName());
             return a;
         });
-
         when(authorRepository.findByNameIgnoreCase(oldName)).thenReturn(Optional.of(oldAuthor));
+        stubMappedBooks(authorRepository, Set.of(1L), List.of(10L, 12L));
 
         BookMetadataEntity metadata = mock(BookMetadataEntity.class);
-        Set<AuthorEntity> authorsSet = new HashSet<>();
-        authorsSet.add(oldAuthor);
-        when(metadata.getAuthors()).thenReturn(authorsSet);
-
-        when(bookMetadataRepository.findAllByAuthorsContaining(oldAuthor)).thenReturn(List.of(metadata));
-
-        service.consolidateMetadata(MergeMetadataType.authors, List.of(targetName), List.of(oldName));
-
-        assertThat(authorsSet).doesNotContain(oldAuthor);
-        assertThat(authorsSet).extracting(AuthorEntity::getName).contains(targetName);
-
-        verify(bookMetadataRepository).saveAll(bookListCaptor.capture());
-        List<BookMetadataEntity> saved = bookListCaptor.getValue();
-        assertThat(saved).containsExactly(metadata);
+        BookEntity book = BookEntity.builder().id(10L).metadata(metadata).build();
+        when(bookRepository.findBooksWithMetadataAndAuthors(List.of(10L, 12L))).thenReturn(List.of(book));
+
+        Set<Long> affected = service.consolidateMetadata(MergeMetadataType.authors, List.of(targetName), List.of(oldName));
+
+        assertThat(affected).containsExactly(10L, 12L);
+        verify(authorRepository).copyMappings(Set.of(1L), Set.of(2L), 10L, 12L);
+        verify(authorRepository).deleteMappings(Set.of(1L), 10L, 12L);
+        verify(metadata).updateSearchText();
+        verify(authorRepository).deleteAllByIdInBatch(Set.of(1L));
+        verify(metadataWriteBackService).enqueue(Set.of(10L, 12L), false);
+        verify(bookMetadataRepository, never()).findAllByAuthorsContaining(any());
+    }
 
-        verify(authorRepository).delete(oldAuthor);
+    @Test
+    void mergeAuthors_walksBooksInChunks() {
+        AuthorEntity target = new AuthorEntity();
+        target.setId(1L);
+        target.setName("Target");
+        AuthorEntity old = new AuthorEntity();
+        old.setId(2L);
+        old.setName("Old");
+
+        when(authorRepository.findByNameIgnoreCase("Target")).thenReturn(Optional.of(target));
+        when(authorRepository.save(target)).thenReturn(target);
+        when(authorRepository.findByNameIgnoreCase("Old")).thenReturn(Optional.of(old));
+        when(authorRepository.findMappedBookIdsAfter(eq(Set.of(2L)), eq(0L), any())).thenReturn(List.of(3L, 5L));
+        when(authorRepository.findMappedBookIdsAfter(eq(Set.of(2L)), eq(5L), any())).thenReturn(List.of(8L));
+        when(authorRepository.findMappedBookIdsAfter(eq(Set.of(2L)), eq(8L), any())).thenReturn(List.of());
+
+        Set<Long> affected = service.consolidateMetadata(MergeMetadataType.authors, List.of("Target"), List.of("Old"));
+
+        assertThat(affected).containsExactly(3L, 5L, 8L);
+        verify(authorRepository).copyMappings(Set.of(2L), Set.of(1L), 3L, 5L);
+        verify(authorRepository).copyMappings(Set.of(2L), Set.of(1L), 8L, 8L);
+        verify(authorRepository).deleteMappings(Set.of(2L), 3L, 5L);
+        verify(authorRepository).deleteMappings(Set.of(2L), 8L, 8L);
     }
 
     @Test
-    void mergeCategories_movesAndDeletesOldCategory() {
+    void mergeCategories_remapsAndDeletesOldCategory() {
         String targetName = "New Category";
         String oldName = "Old Category";
 
@@ -110,48 +135,39 @@ class MetadataManagementServiceTest {
             c.setId(2L);
             return c;
         });
-
         when(categoryRepository.findByNameIgnoreCase(oldName)).thenReturn(Optional.of(oldCategory));
+        stubMappedBooks(categoryRepository, Set.of(1L), List.of(7L));
 
-        BookMetadataEntity metadata = mock(BookMetadataEntity.class);
-        Set<CategoryEntity> categories = new HashSet<>();
-        categories.add(oldCategory);
-        when(metadata.getCategories()).thenReturn(categories);
-
-        when(bookMetadataRepository.findAllByCategoriesContaining(oldCategory)).thenReturn(List.of(metadata));
-
-        service.consolidateMetadata(MergeMetadataType.categories, List.of(targetName), List.of(oldName));
+        Set<Long> affected = service.consolidateMetadata(MergeMetadataType.categories, List.of(targetName), List.of(oldName));
 
-        assertThat(categories).doesNotContain(oldCategory);
-        assertThat(categories).extracting(CategoryEntity::getName).contains(targetName);
-        verify(categoryRepository).delete(oldCategory);
-        verify(bookMetadataRepository).saveAll(bookListCaptor.capture());
+        assertThat(affected).containsExactly(7L);
+        verify(categoryRepository).copyMappings(Set.of(1L), Set.of(2L), 7L, 7L);
+        verify(categoryRepository).deleteMappings(Set.of(1L), 7L, 7L);
+        verify(categoryRepository).deleteAllByIdInBatch(Set.of(1L));
+        verifyNoInteractions(bookRepository);
     }
 
     @Test
-    void deleteCategories_removesAndDeletes() {
+    void deleteCategories_unmapsAndDeletes() {
         String name = "CategoryToDelete";
         CategoryEntity cat = new CategoryEntity();
+        cat.setId(4L);
         cat.setName(name);
 
         when(categoryRepository.findByNameIgnoreCase(name)).thenReturn(Optional.of(cat));
+        stubMappedBooks(categoryRepository, Set.of(4L), List.of(1L, 2L));
 
-        BookMetadataEntity metadata = mock(BookMetadataEntity.class);
-        Set<CategoryEntity> cats = new HashSet<>();
-        cats.add(cat);
-        when(metadata.getCategories()).thenReturn(cats);
-
-        when(bookMetadataRepository.findAllByCategoriesContaining(cat)).thenReturn(List.of(metadata));
-
-        service.deleteMetadata(MergeMetadataType.categories, List.of(name));
+        Set<Long> affected = service.deleteMetadata(MergeMetadataType.categories, List.of(name));
 
-        assertThat(cats).doesNotContain(cat);
-        verify(categoryRepository).delete(cat);
-        verify(bookMetadataRepository).saveAll(bookListCaptor.capture());
+        assertThat(affected).containsExactly(1L, 2L);
+        verify(categoryRepository, never()).copyMappings(any(), any(), anyLong(), anyLong());
+        verify(categoryRepository).deleteMappings(Set.of(4L), 1L, 2L);
+        verify(categoryRepository).deleteAllByIdInBatch(Set.of(4L));
+        verify(metadataWriteBackService).enqueue(Set.of(1L, 2L), false);
     }
 
     @Test
-    void mergeTags_movesAndDeletesOldTag() {
+    void mergeTags_remapsAndDeletesOldTag() {
         String targetName = "New Tag";
         String oldName = "Old Tag";
 
@@ -166,46 +182,33 @@ class MetadataManagementServiceTest {
             return t;
         });
         when(tagRepository.findByNameIgnoreCase(oldName)).thenReturn(Optional.of(oldTag));
-
-        BookMetadataEntity metadata = mock(BookMetadataEntity.class);
-        Set<TagEntity> tags = new HashSet<>();
-        tags.add(oldTag);
-        when(metadata.getTags()).thenReturn(tags);
-
-        when(bookMetadataRepository.findAllByTagsContaining(oldTag)).thenReturn(List.of(metadata));
+        stubMappedBooks(tagRepository, Set.of(1L), List.of(5L));
 
         service.consolidateMetadata(MergeMetadataType.tags, List.of(targetName), List.of(oldName));
 
-        assertThat(tags).doesNotContain(oldTag);
-        assertThat(tags).extracting(TagEntity::getName).contains(targetName);
-        verify(tagRepository).delete(oldTag);
-        verify(bookMetadataRepository).saveAll(bookListCaptor.capture());
+        verify(tagRepository).copyMappings(Set.of(1L), Set.of(2L), 5L, 5L);
+        verify(tagRepository).deleteMappings(Set.of(1L), 5L, 5L);
+        verify(tagRepository).deleteAllByIdInBatch(Set.of(1L));
     }
 
     @Test
-    void deleteTags_removesAndDeletes() {
+    void deleteTags_unmapsAndDeletes() {
         String name = "TagToDelete";
         TagEntity tag = new TagEntity();
+        tag.setId(3L);
         tag.setName(name);
 
         when(tagRepository.findByNameIgnoreCase(name)).thenReturn(Optional.of(tag));
-
-        BookMetadataEntity metadata = mock(BookMetadataEntity.class);
-        Set<TagEntity> tags = new HashSet<>();
-        tags.add(tag);
-        when(metadata.getTags()).thenReturn(tags);
-
-        when(bookMetadataRepository.findAllByTagsContaining(tag)).thenReturn(List.of(metadata));
+        stubMappedBooks(tagRepository, Set.of(3L), List.of(9L));
 
         service.deleteMetadata(MergeMetadataType.tags, List.of(name));
 
-        assertThat(tags).doesNotContain(tag);
-        verify(tagRepository).delete(tag);
-        verify(bookMetadataRepository).saveAll(bookListCaptor.capture());
+        verify(tagRepository).deleteMappings(Set.of(3L), 9L, 9L);
+        verify(tagRepository).deleteAllByIdInBatch(Set.of(3L));
     }
 
     @Test
-    void mergeMoods_movesAndDeletesOldMood() {
+    void mergeMoods_remapsAndDeletesOldMood() {
         String targetName = "New Mood";
         String oldName = "Old Mood";
 
@@ -220,42 +223,29 @@ class MetadataManagementServiceTest {
             return m;
         });
         when(moodRepository.findByNameIgnoreCase(oldName)).thenReturn(Optional.of(oldMood));
-
-        BookMetadataEntity metadata = mock(BookMetadataEntity.class);
-        Set<MoodEntity> moods = new HashSet<>();
-        moods.add(oldMood);
-        when(metadata.getMoods()).thenReturn(moods);
-
-        when(bookMetadataRepository.findAllByMoodsContaining(oldMood)).thenReturn(List.of(metadata));
+        stubMappedBooks(moodRepository, Set.of(1L), List.of(6L));
 
         service.consolidateMetadata(MergeMetadataType.moods, List.of(targetName), List.of(oldName));
 
-        assertThat(moods).doesNotContain(oldMood);
-        assertThat(moods).extracting(MoodEntity::getName).contains(targetName);
-        verify(moodRepository).delete(oldMood);
-        verify(bookMetadataRepository).saveAll(bookListCaptor.capture());
+        verify(moodRepository).copyMappings(Set.of(1L), Set.of(2L), 6L, 6L);
+        verify(moodRepository).deleteMappings(Set.of(1L), 6L, 6L);
+        verify(moodRepository).deleteAllByIdInBatch(Set.of(1L));
     }
 
     @Test
-    void deleteMoods_removesAndDeletes() {
+    void deleteMoods_unmapsAndDeletes() {
         String name = "MoodToDelete";
         MoodEntity mood = new MoodEntity();
+        mood.setId(5L);
         mood.setName(name);
 
         when(moodRepository.findByNameIgnoreCase(name)).thenReturn(Optional.of(mood));
-
-        BookMetadataEntity metadata = mock(BookMetadataEntity.class);
-        Set<MoodEntity> moods = new HashSet<>();
-        moods.add(mood);
-        when(metadata.getMoods()).thenReturn(moods);
-
-        when(bookMetadataRepository.findAllByMoodsContaining(mood)).thenReturn(List.of(metadata));
+        stubMappedBooks(moodRepository, Set.of(5L), List.of(4L));
 
         service.deleteMetadata(MergeMetadataType.moods, List.of(name));
 
-        assertThat(moods).doesNotContain(mood);
-        verify(moodRepository).delete(mood);
-        verify(bookMetadataRepository).saveAll(bookListCaptor.capture());
+        verify(moodRepository).deleteMappings(Set.of(5L), 4L, 4L);
+        verify(moodRepository).deleteAllByIdInBatch(Set.of(5L));
     }
 
     @Test
@@ -315,54 +305,35 @@ class MetadataManagementServiceTest {
         });
         when(tagRepository.findByNameIgnoreCase(old1)).thenReturn(Optional.of(oldTag1));
         when(tagRepository.findByNameIgnoreCase(old2)).thenReturn(Optional.of(oldTag2));
+        stubMappedBooks(tagRepository, Set.of(1L, 2L), List.of(11L));
 
-        BookMetadataEntity metadata = mock(BookMetadataEntity.class);
-        Set<TagEntity> tags = new HashSet<>();
-        tags.add(oldTag1);
-        tags.add(oldTag2);
-        when(metadata.getTags()).thenReturn(tags);
-
-        when(bookMetadataRepository.findAllByTagsContaining(oldTag1)).thenReturn(List.of(metadata));
-        when(bookMetadataRepository.findAllByTagsContaining(oldTag2)).thenReturn(List.of(metadata));
+        Set<Long> affected = service.consolidateMetadata(MergeMetadataType.tags, List.of(targetName), List.of(old1, old2));
 
-        service.consolidateMetadata(MergeMetadataType.tags, List.of(targetName), List.of(old1, old2));
-
-        assertThat(tags).doesNotContain(oldTag1, oldTag2);
-        assertThat(tags).extracting(TagEntity::getName).contains(targetName);
-        verify(tagRepository).delete(oldTag1);
-        verify(tagRepository).delete(oldTag2);
-        verify(bookMetadataRepository, times(2)).saveAll(anyList());
+        assertThat(affected).containsExactly(11L);
+        verify(tagRepository).copyMappings(Set.of(1L, 2L), Set.of(3L), 11L, 11L);
+        verify(tagRepository).deleteMappings(Set.of(1L, 2L), 11L, 11L);
+        verify(tagRepository).deleteAllByIdInBatch(Set.of(1L, 2L));
     }
 
     @Test
-    void mergeCategories_doesNotDuplicateExistingTarget() {
-        String targetName = "CatTarget";
-        String oldName = "OldCat";
-
+    void mergeCategories_neverMergesTargetIntoItself() {
         CategoryEntity target = new CategoryEntity();
         target.setId(1L);
-        target.setName(targetName);
+        target.setName("CatTarget");
         CategoryEntity old = new CategoryEntity();
         old.setId(2L);
-        old.setName(oldName);
+        old.setName("OldCat");
 
-        when(categoryRepository.findByNameIgnoreCase(targetName)).thenReturn(Optional.of(target));
-        when(categoryRepository.findByNameIgnoreCase(oldName)).thenReturn(Optional.of(old));
+        when(categoryRepository.findByNameIgnoreCase("CatTarget")).thenReturn(Optional.of(target));
+        when(categoryRepository.save(target)).thenReturn(target);
+        when(categoryRepository.findByNameIgnoreCase("cattarget")).thenReturn(Optional.of(target));
+        when(categoryRepository.findByNameIgnoreCase("OldCat")).thenReturn(Optional.of(old));
+        stubMappedBooks(categoryRepository, Set.of(2L), List.of(1L));
 
-        BookMetadataEntity metadata = mock(BookMetadataEntity.class);
-        Set<CategoryEntity> cats = new HashSet<>();
-        cats.add(old);
-        cats.add(target);
-        when(metadata.getCategories()).thenReturn(cats);
+        service.consolidateMetadata(MergeMetadataType.categories, List.of("CatTarget"), List.of("cattarget", "OldCat"));
 
-        when(bookMetadataRepository.findAllByCategoriesContaining(old)).thenReturn(List.of(metadata));
-
-        service.consolidateMetadata(MergeMetadataType.categories, List.of(targetName), List.of(oldName));
-
-        assertThat(cats).doesNotContain(old);
-        assertThat(cats).contains(target);
-        verify(categoryRepository).delete(old);
-        verify(bookMetadataRepository).saveAll(anyList());
+        verify(categoryRepository).copyMappings(Set.of(2L), Set.of(1L), 1L, 1L);
+        verify(categoryRepository).deleteAllByIdInBatch(Set.of(2L));
     }
 
     @Test
@@ -381,25 +352,23 @@ class MetadataManagementServiceTest {
 
     @Test
     void mergeTags_noBooks_deletesOldTag() {
-        String targetName = "TargetTag";
-        String oldName = "OldTag";
-
         TagEntity target = new TagEntity();
-        target.setName(targetName);
+        target.setId(1L);
+        target.setName("TargetTag");
         TagEntity old = new TagEntity();
-        old.setName(oldName);
-
-        when(tagRepository.findByNameIgnoreCase(targetName)).thenReturn(Optional.of(target));
-        when(tagRepository.findByNameIgnoreCase(oldName)).thenReturn(Optional.of(old));
+        old.setId(2L);
+        old.setName("OldTag");
 
-        when(bookMetadataRepository.findAllByTagsContaining(old)).thenReturn(List.of());
+        when(tagRepository.findByNameIgnoreCase("TargetTag")).thenReturn(Optional.of(target));
+        when(tagRepository.save(target)).thenReturn(target);
+        when(tagRepository.findByNameIgnoreCase("OldTag")).thenReturn(Optional.of(old));
+        stubMappedBooks(tagRepository, Set.of(2L), List.of());
 
-        service.consolidateMetadata(MergeMetadataType.tags, List.of(targetName), List.of(oldName));
+        Set<Long> affected = service.consolidateMetadata(MergeMetadataType.tags, List.of("TargetTag"), List.of("OldTag"));
 
-        verify(bookMetadataRepository).saveAll(bookListCaptor.capture());
-        List<BookMetadataEntity> saved = bookListCaptor.getValue();
-        assertThat(saved).isEmpty();
-        verify(tagRepository).delete(old);
+        assertThat(affected).isEmpty();
+        verify(tagRepository, never()).copyMappings(any(), any(), anyLong(), anyLong());
+        verify(tagRepository).deleteAllByIdInBatch(Set.of(2L));
     }
 
     @Test
@@ -408,23 +377,16 @@ class MetadataManagementServiceTest {
         String missing = "MissingTag";
 
         TagEntity presentTag = new TagEntity();
+        presentTag.setId(1L);
         presentTag.setName(present);
 
         when(tagRepository.findByNameIgnoreCase(present)).thenReturn(Optional.of(presentTag));
         when(tagRepository.findByNameIgnoreCase(missing)).thenReturn(Optional.empty());
-
-        BookMetadataEntity metadata = mock(BookMetadataEntity.class);
-        Set<TagEntity> tags = new HashSet<>();
-        tags.add(presentTag);
-        when(metadata.getTags()).thenReturn(tags);
-
-        when(bookMetadataRepository.findAllByTagsContaining(presentTag)).thenReturn(List.of(metadata));
+        stubMappedBooks(tagRepository, Set.of(1L), List.of(2L));
 
         service.deleteMetadata(MergeMetadataType.tags, List.of(present, missing));
 
-        assertThat(tags).doesNotContain(presentTag);
-        verify(tagRepository).delete(presentTag);
-        verify(tagRepository, never()).delete(argThat(t -> missing.equals(t.getName())));
-        verify(bookMetadataRepository).saveAll(anyList());
+        verify(tagRepository).deleteMappings(Set.of(1L), 2L, 2L);
+        verify(tagRepository).deleteAllByIdInBatch(Set.of(1L));
     }
 }
@@ -5,8 +5,9 @@ import com.adityachandel.booklore.model.dto.settings.AppSettings;
 import com.adityachandel.booklore.model.dto.settings.MetadataMatchWeights;
 import com.adityachandel.booklore.model.entity.BookEntity;
 import com.adityachandel.booklore.model.entity.BookMetadataEntity;
+import com.adityachandel.booklore.repository.BookRepository;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
-import com.adityachandel.booklore.service.book.BookQueryService;
+import com.adityachandel.booklore.service.batch.BatchJobRunner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,7 +25,10 @@ class MetadataMatchServiceTest {
     private AppSettingService appSettingsService;
 
     @Mock
-    private BookQueryService bookQueryService;
+    private BookRepository bookRepository;
+
+    @Mock
+    private BatchJobRunner batchJobRunner;
 
     @InjectMocks
     private MetadataMatchService metadataMatchService;
@@ -0,0 +1,170 @@
+package com.adityachandel.booklore.service.metadata;
+
+import com.adityachandel.booklore.model.entity.*;
+import com.adityachandel.booklore.model.enums.BookFileType;
+import com.adityachandel.booklore.model.enums.PermissionType;
+import com.adityachandel.booklore.model.websocket.LogNotification;
+import com.adityachandel.booklore.model.websocket.Topic;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.MetadataWriteBackRepository;
+import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.service.file.FileMoveService;
+import com.adityachandel.booklore.service.metadata.writer.MetadataWriter;
+import com.adityachandel.booklore.service.metadata.writer.MetadataWriterFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetadataWriteBackServiceTest {
+
+    @Mock
+    private MetadataWriteBackRepository writeBackRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private MetadataWriterFactory metadataWriterFactory;
+    @Mock
+    private FileMoveService fileMoveService;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private MetadataWriter writer;
+
+    @TempDir
+    Path libraryRoot;
+
+    private MetadataWriteBackService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MetadataWriteBackService(writeBackRepository, bookRepository, metadataWriterFactory,
+                fileMoveService, notificationService, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private BookEntity book(long id) throws IOException {
+        Files.writeString(libraryRoot.resolve("book-" + id + ".epub"), "content " + id);
+        BookEntity book = BookEntity.builder()
+                .id(id)
+                .libraryPath(LibraryPathEntity.builder().path(libraryRoot.toString()).build())
+                .metadata(new BookMetadataEntity())
+                .bookFiles(new ArrayList<>())
+                .build();
+        book.getBookFiles().add(BookFileEntity.builder()
+                .book(book)
+                .fileName("book-" + id + ".epub")
+                .fileSubPath("")
+                .isBookFormat(true)
+                .bookType(BookFileType.EPUB)
+                .currentHash("stale")
+                .build());
+        return book;
+    }
+
+    @Test
+    void processBatch_writesFilesRecordsHashesAndDequeues() throws IOException {
+        Instant requestedAt = Instant.now();
+        BookEntity first = book(1);
+        BookEntity second = book(2);
+        when(bookRepository.findByIdWithBookFiles(1L)).thenReturn(Optional.of(first));
+        when(bookRepository.findByIdWithBookFiles(2L)).thenReturn(Optional.of(second));
+        when(bookRepository.findAllWithFilesByIds(anyCollection())).thenReturn(List.of(first, second));
+        when(metadataWriterFactory.getWriter(BookFileType.EPUB)).thenReturn(Optional.of(writer));
+
+        List<MetadataWriteBackService.WriteResult> results = service.processBatch(List.of(
+                new MetadataWriteBackEntity(1L, false, requestedAt, 0),
+                new MetadataWriteBackEntity(2L, false, requestedAt, 0)));
+
+        assertThat(results).allMatch(result -> result.error() == null && result.written());
+        verify(writer, times(2)).saveMetadataToFile(any(File.class), any(BookMetadataEntity.class), isNull(), isNull());
+        assertThat(first.getPrimaryBookFile().getCurrentHash()).isNotEqualTo("stale");
+        assertThat(second.getPrimaryBookFile().getCurrentHash()).isNotEqualTo("stale");
+        verify(bookRepository).saveAll(List.of(first, second));
+        verify(writeBackRepository).deleteIfUnchanged(1L, requestedAt);
+        verify(writeBackRepository).deleteIfUnchanged(2L, requestedAt);
+        verifyNoInteractions(fileMoveService);
+    }
+
+    @Test
+    void processBatch_keepsFailedEntryQueuedForRetry() throws IOException {
+        Instant requestedAt = Instant.now();
+        BookEntity book = book(1);
+        when(bookRepository.findByIdWithBookFiles(1L)).thenReturn(Optional.of(book));
+        when(metadataWriterFactory.getWriter(BookFileType.EPUB)).thenReturn(Optional.of(writer));
+        doThrow(new RuntimeException("disk full")).when(writer).saveMetadataToFile(any(), any(), any(), any());
+
+        List<MetadataWriteBackService.WriteResult> results = service.processBatch(List.of(
+                new MetadataWriteBackEntity(1L, true, requestedAt, 0)));
+
+        assertThat(results).singleElement().satisfies(result -> assertThat(result.error()).isNotNull());
+        verify(writeBackRepository).recordFailedAttempt(1L, requestedAt);
+        verify(writeBackRepository, never()).deleteIfUnchanged(anyLong(), any());
+        verify(bookRepository, never()).saveAll(any());
+        verifyNoInteractions(fileMoveService);
+    }
+
+    @Test
+    void processBatch_writesFileAfterReadTransactionHasEnded() throws IOException {
+        Instant requestedAt = Instant.now();
+        BookEntity book = book(1);
+        when(bookRepository.findByIdWithBookFiles(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.findAllWithFilesByIds(anyCollection())).thenReturn(List.of(book));
+        when(metadataWriterFactory.getWriter(BookFileType.EPUB)).thenReturn(Optional.of(writer));
+
+        service.processBatch(List.of(new MetadataWriteBackEntity(1L, false, requestedAt, 0)));
+
+        InOrder order = inOrder(transactionManager, writer);
+        order.verify(transactionManager).commit(any());
+        order.verify(writer).saveMetadataToFile(any(File.class), any(BookMetadataEntity.class), isNull(), isNull());
+    }
+
+    @Test
+    void purgeExhausted_removesEntriesOutOfAttemptsAndNotifies() {
+        when(writeBackRepository.findBookIdsByAttemptsAtLeast(MetadataWriteBackService.MAX_ATTEMPTS)).thenReturn(List.of(4L, 9L));
+
+        service.purgeExhausted();
+
+        verify(writeBackRepository).deleteByAttemptsAtLeast(MetadataWriteBackService.MAX_ATTEMPTS);
+        ArgumentCaptor<LogNotification> notification = ArgumentCaptor.forClass(LogNotification.class);
+        verify(notificationService).sendMessageToPermissions(eq(Topic.LOG), notification.capture(), eq(Set.of(PermissionType.ADMIN, PermissionType.EDIT_METADATA)));
+        assertThat(notification.getValue().getMessage()).contains("2 file(s)").contains("[4, 9]");
+    }
+
+    @Test
+    void purgeExhausted_staysQuietWhenNothingIsExhausted() {
+        when(writeBackRepository.findBookIdsByAttemptsAtLeast(MetadataWriteBackService.MAX_ATTEMPTS)).thenReturn(List.of());
+
+        service.purgeExhausted();
+
+        verify(writeBackRepository, never()).deleteByAttemptsAtLeast(anyInt());
+        verifyNoInteractions(notificationService);
+    }
+}
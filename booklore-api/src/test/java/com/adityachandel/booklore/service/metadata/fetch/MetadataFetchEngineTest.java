@@ -0,0 +1,58 @@
+package com.adityachandel.booklore.service.metadata.fetch;
+
+import com.adityachandel.booklore.model.dto.Book;
+import com.adityachandel.booklore.model.dto.BookMetadata;
+import com.adityachandel.booklore.model.enums.MetadataProvider;
+import com.adityachandel.booklore.service.metadata.parser.BookParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetadataFetchEngineTest {
+
+    @Mock
+    private BookParser googleParser;
+
+    private MetadataFetchEngine engine;
+
+    private Book book() {
+        return Book.builder().id(1L).metadata(BookMetadata.builder().title("Dune").build()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void fetchAsync_collectsTopMatchOfEveryProvider() {
+        engine = new MetadataFetchEngine(Map.of(MetadataProvider.Google, googleParser));
+        when(googleParser.fetchTopMetadata(any(), any())).thenReturn(BookMetadata.builder().provider(MetadataProvider.Google).title("Dune").build());
+
+        Map<MetadataProvider, BookMetadata> result = engine.fetchAsync(List.of(MetadataProvider.Google), book()).join();
+
+        assertThat(result).containsOnlyKeys(MetadataProvider.Google);
+    }
+
+    @Test
+    void fetchAsync_skipsProvidersOnceCancelled() {
+        engine = new MetadataFetchEngine(Map.of(MetadataProvider.Google, googleParser));
+
+        Map<MetadataProvider, BookMetadata> result = engine.fetchAsync(List.of(MetadataProvider.Google), book(), () -> true).join();
+
+        assertThat(result).isEmpty();
+        verifyNoInteractions(googleParser);
+    }
+}
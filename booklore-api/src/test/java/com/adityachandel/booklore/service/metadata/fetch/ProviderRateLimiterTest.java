@@ -0,0 +1,69 @@
+package com.adityachandel.booklore.service.metadata.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProviderRateLimiterTest {
+
+    @Test
+    void acquire_withinBurst_doesNotWait() {
+        ProviderRateLimiter limiter = new ProviderRateLimiter("test", Duration.ofSeconds(10), 3, Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        assertThat(limiter.acquire()).isTrue();
+        assertThat(limiter.acquire()).isTrue();
+        assertThat(limiter.acquire()).isTrue();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+    }
+
+    @Test
+    void acquire_beyondBurst_waitsForRefill() {
+        ProviderRateLimiter limiter = new ProviderRateLimiter("test", Duration.ofMillis(100), 1, Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        limiter.acquire();
+        limiter.acquire();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(180));
+    }
+
+    @Test
+    void onThrottled_pausesUntilRetryAfterElapsed() {
+        ProviderRateLimiter limiter = new ProviderRateLimiter("test", Duration.ofMillis(10), 5, Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        limiter.onThrottled(Duration.ofMillis(150));
+        assertThat(limiter.isPaused()).isTrue();
+
+        long start = System.nanoTime();
+        limiter.acquire();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        assertThat(limiter.isPaused()).isFalse();
+    }
+
+    @Test
+    void onThrottled_withoutRetryAfter_backsOffExponentially() {
+        ProviderRateLimiter limiter = new ProviderRateLimiter("test", Duration.ofMillis(10), 1, Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        assertThat(limiter.onThrottled(null)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(limiter.onThrottled(null)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(limiter.onThrottled(null)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(limiter.onThrottled(null)).isEqualTo(Duration.ofSeconds(5));
+
+        limiter.onSuccess();
+        assertThat(limiter.onThrottled(null)).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void parseRetryAfter_supportsSecondsAndHttpDates() {
+        assertThat(MetadataProviderRateLimiters.parseRetryAfter("30")).isEqualTo(Duration.ofSeconds(30));
+        assertThat(MetadataProviderRateLimiters.parseRetryAfter("Wed, 21 Oct 2099 07:28:00 GMT")).isPositive();
+        assertThat(MetadataProviderRateLimiters.parseRetryAfter("not a date")).isNull();
+        assertThat(MetadataProviderRateLimiters.parseRetryAfter(null)).isNull();
+    }
+}
@@ -1,6 +1,7 @@
 package com.adityachandel.booklore.service.metadata.parser;
 
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metadata.fetch.MetadataProviderRateLimiters;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,7 +24,7 @@ class GoogleParserTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        googleParser = new GoogleParser(objectMapper, appSettingService);
+        googleParser = new GoogleParser(objectMapper, appSettingService, new MetadataProviderRateLimiters());
     }
 
     @Test
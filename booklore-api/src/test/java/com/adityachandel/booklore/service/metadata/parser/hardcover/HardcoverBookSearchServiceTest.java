@@ -3,6 +3,7 @@ package com.adityachandel.booklore.service.metadata.parser.hardcover;
 import com.adityachandel.booklore.model.dto.settings.AppSettings;
 import com.adityachandel.booklore.model.dto.settings.MetadataProviderSettings;
 import com.adityachandel.booklore.service.appsettings.AppSettingService;
+import com.adityachandel.booklore.service.metadata.fetch.MetadataProviderRateLimiters;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -25,7 +26,7 @@ class HardcoverBookSearchServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        searchService = new HardcoverBookSearchService(appSettingService);
+        searchService = new HardcoverBookSearchService(appSettingService, new MetadataProviderRateLimiters());
     }
 
     @Nested
@@ -0,0 +1,95 @@
+package com.adityachandel.booklore.service.monitoring;
+
+import com.adityachandel.booklore.config.AppProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class LibraryPollingMonitorTest {
+
+    @TempDir
+    Path tmp;
+
+    private ApplicationEventPublisher eventPublisher;
+    private LibraryPollingMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        monitor = new LibraryPollingMonitor(eventPublisher, new AppProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.shutdown();
+    }
+
+    @Test
+    void poll_firstPollRecordsTreeWithoutEvents() throws Exception {
+        Path root = tmp.resolve("library");
+        Files.createDirectories(root.resolve("series"));
+        Files.writeString(root.resolve("series/one.epub"), "x");
+
+        monitor.poll(new LibraryPollingMonitor.PolledLibrary(1L, "Library", List.of(root)));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void poll_reportsAddedAndRemovedFilesAndFolders() throws Exception {
+        Path root = tmp.resolve("library");
+        Files.createDirectories(root.resolve("old"));
+        Files.writeString(root.resolve("gone.epub"), "x");
+        Files.writeString(root.resolve("kept.pdf"), "x");
+        LibraryPollingMonitor.PolledLibrary polled = new LibraryPollingMonitor.PolledLibrary(1L, "Library", List.of(root));
+        monitor.poll(polled);
+
+        Files.delete(root.resolve("gone.epub"));
+        Files.delete(root.resolve("old"));
+        Files.writeString(root.resolve("new.epub"), "x");
+        Files.writeString(root.resolve("notes.txt"), "x");
+        Files.createDirectories(root.resolve("series"));
+        Files.writeString(root.resolve("series/one.epub"), "x");
+        monitor.poll(polled);
+
+        ArgumentCaptor<FileChangeEvent> events = ArgumentCaptor.forClass(FileChangeEvent.class);
+        verify(eventPublisher, times(4)).publishEvent(events.capture());
+        assertThat(events.getAllValues())
+                .allMatch(event -> event.getWatchedFolder().equals(root))
+                .extracting(event -> event.getEventKind().name() + " " + root.relativize(event.getFilePath()))
+                .containsExactlyInAnyOrder(
+                        StandardWatchEventKinds.ENTRY_DELETE.name() + " gone.epub",
+                        StandardWatchEventKinds.ENTRY_DELETE.name() + " old",
+                        StandardWatchEventKinds.ENTRY_CREATE.name() + " new.epub",
+                        StandardWatchEventKinds.ENTRY_CREATE.name() + " series");
+
+        monitor.poll(polled);
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void poll_keepsTreeWhenLibraryFolderDisappears() throws Exception {
+        Path root = tmp.resolve("library");
+        Files.createDirectories(root);
+        Files.writeString(root.resolve("one.epub"), "x");
+        LibraryPollingMonitor.PolledLibrary polled = new LibraryPollingMonitor.PolledLibrary(1L, "Library", List.of(root));
+        monitor.poll(polled);
+
+        Files.delete(root.resolve("one.epub"));
+        Files.delete(root);
+        monitor.poll(polled);
+
+        verifyNoInteractions(eventPublisher);
+    }
+}
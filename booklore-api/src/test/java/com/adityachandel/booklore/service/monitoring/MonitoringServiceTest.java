@@ -2,6 +2,7 @@ package com.adityachandel.booklore.service.monitoring;
 
 import com.adityachandel.booklore.model.dto.Library;
 import com.adityachandel.booklore.model.dto.LibraryPath;
+import com.adityachandel.booklore.model.enums.LibraryMonitorMode;
 import com.adityachandel.booklore.service.watcher.LibraryFileEventProcessor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,14 +25,16 @@ class MonitoringServiceTest {
     MonitoringService service;
     LibraryFileEventProcessor processor;
     MonitoringTask monitoringTask;
+    LibraryPollingMonitor pollingMonitor;
     WatchService watchService;
 
     @BeforeEach
     void setup() throws Exception {
         processor = mock(LibraryFileEventProcessor.class);
         monitoringTask = mock(MonitoringTask.class);
+        pollingMonitor = mock(LibraryPollingMonitor.class);
         watchService = FileSystems.getDefault().newWatchService();
-        service = Mockito.spy(new MonitoringService(processor, watchService, monitoringTask));
+        service = Mockito.spy(new MonitoringService(processor, watchService, monitoringTask, pollingMonitor));
     }
 
     @AfterEach
@@ -66,6 +69,23 @@ class MonitoringServiceTest {
         );
     }
 
+    @Test
+    void registerLibrary_pollMode_handsLibraryToPollerWithoutWatchKeys() throws Exception {
+        Path root = tmp.resolve("nas");
+        Files.createDirectories(root.resolve("a"));
+
+        Library lib = mock(Library.class);
+        when(lib.getId()).thenReturn(8L);
+        when(lib.isWatch()).thenReturn(true);
+        when(lib.getMonitorMode()).thenReturn(LibraryMonitorMode.POLL);
+
+        service.registerLibrary(lib);
+
+        verify(pollingMonitor).register(lib);
+        verify(service, never()).registerPath(any(Path.class), anyLong());
+        assertTrue(service.isLibraryMonitored(8L));
+    }
+
     @Test
     void unregisterLibrary_removesRegisteredPathsAndUpdatesMaps() throws Exception {
         Path root = tmp.resolve("libroot2");
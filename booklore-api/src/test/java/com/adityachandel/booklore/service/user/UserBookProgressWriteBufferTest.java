@@ -0,0 +1,89 @@
+package com.adityachandel.booklore.service.user;
+
+import com.adityachandel.booklore.model.entity.BookEntity;
+import com.adityachandel.booklore.model.entity.BookLoreUserEntity;
+import com.adityachandel.booklore.model.entity.UserBookProgressEntity;
+import com.adityachandel.booklore.repository.BookRepository;
+import com.adityachandel.booklore.repository.UserBookProgressRepository;
+import com.adityachandel.booklore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserBookProgressWriteBufferTest {
+
+    @Mock
+    private UserBookProgressRepository progressRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserBookProgressWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new UserBookProgressWriteBuffer(progressRepository, bookRepository, userRepository, transactionManager);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    private static UserBookProgressEntity row(long bookId) {
+        BookEntity book = new BookEntity();
+        book.setId(bookId);
+        UserBookProgressEntity row = new UserBookProgressEntity();
+        row.setBook(book);
+        row.setUser(new BookLoreUserEntity());
+        row.setPdfProgress(3);
+        return row;
+    }
+
+    @Test
+    void flush_reappliesPatchWhenConcurrentInsertWinsTheRow() {
+        UserBookProgressEntity insertedConcurrently = row(2L);
+        when(progressRepository.findByUserIdAndBookIdIn(eq(1L), anySet()))
+                .thenReturn(List.of(), List.of(), List.of(insertedConcurrently));
+        when(progressRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'uk_user_book'"))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'uk_user_book'"))
+                .thenReturn(List.of(insertedConcurrently));
+        when(bookRepository.existsById(2L)).thenReturn(true);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        buffer.update(1L, 2L, patch -> patch.set("pdfProgress", UserBookProgressEntity::setPdfProgress, 42));
+        buffer.flush(1L, 2L);
+
+        assertThat(insertedConcurrently.getPdfProgress()).isEqualTo(42);
+        assertThat(buffer.hasPending(1L, 2L)).isFalse();
+        verify(progressRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void flush_dropsPatchWhenBookWasDeleted() {
+        when(progressRepository.findByUserIdAndBookIdIn(eq(1L), anySet())).thenReturn(List.of());
+        when(progressRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("Cannot add or update a child row"));
+        when(bookRepository.existsById(2L)).thenReturn(false);
+
+        buffer.update(1L, 2L, patch -> patch.set("pdfProgress", UserBookProgressEntity::setPdfProgress, 42));
+        buffer.flush(1L, 2L);
+
+        assertThat(buffer.hasPending(1L, 2L)).isFalse();
+        verify(progressRepository, times(2)).saveAll(anyList());
+    }
+}
@@ -0,0 +1,84 @@
+package com.adityachandel.booklore.service.watcher;
+
+import com.adityachandel.booklore.model.dto.settings.LibraryFile;
+import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.repository.LibraryRepository;
+import com.adityachandel.booklore.service.NotificationService;
+import com.adityachandel.booklore.service.library.LibraryProcessingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookFileTransactionalHandlerTest {
+
+    @Mock
+    private BookFilePersistenceService bookFilePersistenceService;
+    @Mock
+    private LibraryProcessingService libraryProcessingService;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private LibraryRepository libraryRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookFileTransactionalHandler handler;
+    private LibraryEntity library;
+
+    @BeforeEach
+    void setUp() {
+        handler = new BookFileTransactionalHandler(bookFilePersistenceService, libraryProcessingService, notificationService, libraryRepository, transactionManager);
+
+        LibraryPathEntity libraryPath = new LibraryPathEntity();
+        libraryPath.setId(1L);
+        libraryPath.setPath("/lib");
+        library = new LibraryEntity();
+        library.setId(7L);
+        library.setLibraryPaths(List.of(libraryPath));
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(libraryRepository.findById(7L)).thenReturn(Optional.of(library));
+        when(bookFilePersistenceService.findMatchingLibraryPath(eq(library), any())).thenReturn("/lib");
+        when(bookFilePersistenceService.getLibraryPathEntityForFile(library, "/lib")).thenReturn(libraryPath);
+    }
+
+    @Test
+    void handleNewBookFiles_unreadableFileDoesNotDropTheOthers() {
+        List<List<String>> committed = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<String> names = invocation.<List<LibraryFile>>getArgument(0).stream().map(LibraryFile::getFileName).toList();
+            if (names.contains("bad.epub")) {
+                throw new IllegalStateException("Corrupt archive");
+            }
+            committed.add(names);
+            return null;
+        }).when(libraryProcessingService).processLibraryFiles(anyList(), eq(library));
+
+        handler.handleNewBookFiles(7L, List.of(
+                Path.of("/lib/a/one.epub"),
+                Path.of("/lib/a/bad.epub"),
+                Path.of("/lib/b/two.epub")));
+
+        assertThat(committed).containsExactly(List.of("one.epub"), List.of("two.epub"));
+        verify(libraryProcessingService, times(4)).processLibraryFiles(anyList(), eq(library));
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+}
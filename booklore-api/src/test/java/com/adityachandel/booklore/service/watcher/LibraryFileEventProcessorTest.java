@@ -0,0 +1,113 @@
+package com.adityachandel.booklore.service.watcher;
+
+import com.adityachandel.booklore.model.entity.LibraryEntity;
+import com.adityachandel.booklore.model.entity.LibraryPathEntity;
+import com.adityachandel.booklore.repository.LibraryRepository;
+import com.adityachandel.booklore.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LibraryFileEventProcessorTest {
+
+    @Mock
+    private LibraryRepository libraryRepository;
+    @Mock
+    private BookFileTransactionalHandler bookFileTransactionalHandler;
+    @Mock
+    private BookFilePersistenceService bookFilePersistenceService;
+    @Mock
+    private NotificationService notificationService;
+
+    @InjectMocks
+    private LibraryFileEventProcessor processor;
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void pendingChanges_collapsesRepeatedEventsToNetEffect() {
+        LibraryFileEventProcessor.PendingChanges pending = new LibraryFileEventProcessor.PendingChanges();
+        Path saved = Path.of("/lib/saved.epub");
+        Path removed = Path.of("/lib/removed.epub");
+        Path folder = Path.of("/lib/folder");
+
+        pending.record(saved, LibraryFileEventProcessor.ChangeKind.DELETE);
+        pending.record(saved, LibraryFileEventProcessor.ChangeKind.CREATE);
+        pending.record(removed, LibraryFileEventProcessor.ChangeKind.CREATE);
+        pending.record(removed, LibraryFileEventProcessor.ChangeKind.DELETE);
+        pending.record(folder, LibraryFileEventProcessor.ChangeKind.CREATE);
+        pending.record(folder, LibraryFileEventProcessor.ChangeKind.RESCAN);
+
+        assertThat(pending.changes()).containsExactly(
+                Map.entry(removed, LibraryFileEventProcessor.ChangeKind.DELETE),
+                Map.entry(folder, LibraryFileEventProcessor.ChangeKind.RESCAN));
+    }
+
+    @Test
+    void pendingChanges_recordsRescanOfParentOnceFull() {
+        LibraryFileEventProcessor.PendingChanges pending = new LibraryFileEventProcessor.PendingChanges();
+        for (int i = 0; i < LibraryFileEventProcessor.MAX_PENDING_PATHS; i++) {
+            pending.record(Path.of("/lib/a/book-" + i + ".epub"), LibraryFileEventProcessor.ChangeKind.CREATE);
+        }
+
+        pending.record(Path.of("/lib/b/one.epub"), LibraryFileEventProcessor.ChangeKind.CREATE);
+        pending.record(Path.of("/lib/b/two.epub"), LibraryFileEventProcessor.ChangeKind.CREATE);
+
+        assertThat(pending.changes()).hasSize(LibraryFileEventProcessor.MAX_PENDING_PATHS + 1);
+        assertThat(pending.changes()).containsEntry(Path.of("/lib/b"), LibraryFileEventProcessor.ChangeKind.RESCAN);
+    }
+
+    @Test
+    void handleBatch_ingestsCreatedFolderInOneCall() throws Exception {
+        Path root = tmp.toAbsolutePath().normalize();
+        Path series = Files.createDirectories(root.resolve("series"));
+        Files.writeString(series.resolve("one.epub"), "x");
+        Files.writeString(series.resolve("two.epub"), "x");
+        Files.writeString(series.resolve("notes.txt"), "x");
+
+        LibraryEntity library = LibraryEntity.builder()
+                .id(7L)
+                .name("Library")
+                .libraryPaths(List.of(LibraryPathEntity.builder().id(1L).path(root.toString()).build()))
+                .build();
+        when(libraryRepository.findById(7L)).thenReturn(Optional.of(library));
+
+        Map<Path, LibraryFileEventProcessor.ChangeKind> changes = new LinkedHashMap<>();
+        changes.put(series, LibraryFileEventProcessor.ChangeKind.CREATE);
+        changes.put(series.resolve("one.epub"), LibraryFileEventProcessor.ChangeKind.CREATE);
+        processor.handleBatch(new LibraryFileEventProcessor.ChangeBatch(7L, changes));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Path>> paths = ArgumentCaptor.forClass(List.class);
+        verify(bookFileTransactionalHandler, times(1)).handleNewBookFiles(eq(7L), paths.capture());
+        assertThat(paths.getValue()).containsExactlyInAnyOrder(series.resolve("one.epub"), series.resolve("two.epub"));
+    }
+
+    @Test
+    void handleBatch_skipsMissingLibrary() {
+        when(libraryRepository.findById(9L)).thenReturn(Optional.empty());
+
+        processor.handleBatch(new LibraryFileEventProcessor.ChangeBatch(9L,
+                Map.of(Path.of("/lib/book.epub"), LibraryFileEventProcessor.ChangeKind.CREATE)));
+
+        verify(bookFileTransactionalHandler, never()).handleNewBookFiles(anyLong(), anyList());
+    }
+}
@@ -29,6 +29,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.time.Instant;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -381,6 +382,35 @@ class FileServiceTest {
             }
         }
 
+        @Nested
+        @DisplayName("readCoverImage")
+        class ReadCoverImageTests {
+            @Test
+            void largeImage_isSubsampledToCoverSize() throws IOException {
+                byte[] imageData = imageToBytes(createTestImage(2100, 3100));
+
+                BufferedImage result = FileService.readCoverImage(imageData);
+
+                assertEquals(1050, result.getWidth());
+                assertEquals(1550, result.getHeight());
+            }
+
+            @Test
+            void smallImage_isDecodedInFull() throws IOException {
+                byte[] imageData = imageToBytes(createTestImage(300, 450));
+
+                BufferedImage result = FileService.readCoverImage(imageData);
+
+                assertEquals(300, result.getWidth());
+                assertEquals(450, result.getHeight());
+            }
+
+            @Test
+            void invalidData_returnsNull() throws IOException {
+                assertNull(FileService.readCoverImage("not an image".getBytes()));
+            }
+        }
+
         @Nested
         @DisplayName("resizeImage")
         class ResizeImageTests {
@@ -1149,6 +1179,139 @@ class FileServiceTest {
                 assertFalse(Files.exists(Path.of(fileService.getImagesFolder(30L))));
             }
         }
+
+        @Nested
+        @DisplayName("getOrCreateThumbnail")
+        class GetOrCreateThumbnailTests {
+
+            @Test
+            void snapThumbnailWidth_roundsUpToStoredWidth() {
+                assertAll(
+                        () -> assertEquals(250, FileService.snapThumbnailWidth(null)),
+                        () -> assertEquals(120, FileService.snapThumbnailWidth(80)),
+                        () -> assertEquals(250, FileService.snapThumbnailWidth(121)),
+                        () -> assertEquals(500, FileService.snapThumbnailWidth(4000))
+                );
+            }
+
+            @Test
+            void smallWidth_rendersVariantFromCover() throws IOException {
+                fileService.saveCoverImages(createTestImage(600, 840), 40L);
+
+                Path variant = fileService.getOrCreateThumbnail(40L, 120);
+
+                BufferedImage thumbnail = ImageIO.read(variant.toFile());
+                assertAll(
+                        () -> assertEquals(Path.of(fileService.getThumbnailFile(40L, 120)), variant),
+                        () -> assertEquals(120, thumbnail.getWidth()),
+                        () -> assertEquals(168, thumbnail.getHeight())
+                );
+            }
+
+            @Test
+            void newCover_replacesRenderedVariant() throws IOException {
+                fileService.saveCoverImages(createTestImage(600, 840), 41L);
+                Path variant = fileService.getOrCreateThumbnail(41L, 500);
+                assertTrue(Files.exists(variant));
+
+                fileService.saveCoverImages(createTestImage(600, 840), 41L);
+
+                assertFalse(Files.exists(variant));
+            }
+
+            @Test
+            void noCover_fallsBackToDefaultThumbnail() {
+                Path result = fileService.getOrCreateThumbnail(42L, 120);
+
+                assertEquals(Path.of(fileService.getThumbnailFile(42L)), result);
+            }
+        }
+
+        @Nested
+        @DisplayName("getOrCreateKoboThumbnail")
+        class GetOrCreateKoboThumbnailTests {
+
+            @Test
+            void fitsCoverIntoRequestedBox() throws IOException {
+                fileService.saveCoverImages(createTestImage(600, 900), 50L);
+
+                Path variant = fileService.getOrCreateKoboThumbnail(50L, "BL-HASH", 200, 200, 70, false);
+
+                long coverVersion = Files.getLastModifiedTime(Path.of(fileService.getCoverFile(50L))).toMillis();
+                BufferedImage thumbnail = ImageIO.read(variant.toFile());
+                assertAll(
+                        () -> assertEquals(Path.of(fileService.getKoboThumbnailFile(50L, "BL-HASH", coverVersion, 200, 200, 70, false)), variant),
+                        () -> assertEquals(133, thumbnail.getWidth()),
+                        () -> assertEquals(200, thumbnail.getHeight())
+                );
+            }
+
+            @Test
+            void neverUpscalesAndRendersGreyscale() throws IOException {
+                fileService.saveCoverImages(createTestImage(400, 600), 51L);
+
+                Path variant = fileService.getOrCreateKoboThumbnail(51L, "BL-HASH", 1072, 1448, 60, true);
+
+                BufferedImage thumbnail = ImageIO.read(variant.toFile());
+                assertAll(
+                        () -> assertEquals(400, thumbnail.getWidth()),
+                        () -> assertEquals(600, thumbnail.getHeight()),
+                        () -> assertEquals(1, thumbnail.getRaster().getNumBands())
+                );
+            }
+
+            @Test
+            void newCover_removesCachedVariants() throws IOException {
+                fileService.saveCoverImages(createTestImage(600, 900), 52L);
+                Path variant = fileService.getOrCreateKoboThumbnail(52L, "BL-OLD", 300, 450, 70, false);
+                assertTrue(Files.exists(variant));
+
+                fileService.saveCoverImages(createTestImage(600, 900), 52L);
+
+                assertFalse(Files.exists(variant));
+            }
+
+            @Test
+            void replacedCoverFile_rendersNewVariantAndDropsOldOne() throws IOException {
+                fileService.saveCoverImages(createTestImage(600, 900), 54L);
+                Path stale = fileService.getOrCreateKoboThumbnail(54L, "BL-HASH", 300, 450, 70, false);
+                Path cover = Path.of(fileService.getCoverFile(54L));
+                Files.setLastModifiedTime(cover, FileTime.from(Files.getLastModifiedTime(cover).toInstant().plusSeconds(60)));
+
+                Path fresh = fileService.getOrCreateKoboThumbnail(54L, "BL-HASH", 300, 450, 70, false);
+
+                assertNotEquals(stale, fresh);
+                assertTrue(Files.exists(fresh));
+                assertFalse(Files.exists(stale));
+            }
+
+            @Test
+            void keepsOnlyMostRecentlyUsedVariants() throws IOException {
+                fileService.saveCoverImages(createTestImage(600, 900), 55L);
+                Instant longAgo = Instant.now().minusSeconds(3600 * 24);
+                Path leastRecentlyUsed = null;
+                for (int i = 0; i < 6; i++) {
+                    Path variant = fileService.getOrCreateKoboThumbnail(55L, "BL-HASH", 100 + i, 150, 70, false);
+                    Files.setLastModifiedTime(variant, FileTime.from(longAgo.plusSeconds(i)));
+                    if (i == 0) {
+                        leastRecentlyUsed = variant;
+                    }
+                }
+
+                Path newest = fileService.getOrCreateKoboThumbnail(55L, "BL-HASH", 200, 300, 70, false);
+
+                try (Stream<Path> variants = Files.list(newest.getParent())) {
+                    assertEquals(6, variants.count());
+                }
+                assertTrue(Files.exists(newest));
+                assertFalse(Files.exists(leastRecentlyUsed));
+            }
+
+            @Test
+            void noCover_returnsNull() {
+                assertNull(fileService.getOrCreateKoboThumbnail(53L, "BL-HASH", 300, 450, 70, false));
+            }
+        }
     }
 
     @Nested
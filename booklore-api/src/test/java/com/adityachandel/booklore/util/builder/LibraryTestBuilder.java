@@ -21,11 +21,14 @@ import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
@@ -49,8 +52,9 @@ public class LibraryTestBuilder {
     // DTO-specific fields
     private final List<LibraryFile> libraryFiles = new ArrayList<>();
     private final Map<Path, String> libraryFileHashes = new HashMap<>();
-    private final Map<Long, BookEntity> bookRepository = new HashMap<>();
-    private final Map<String, BookEntity> bookMap = new HashMap<>();
+    // books are created from the processor's worker threads
+    private final Map<Long, BookEntity> bookRepository = new ConcurrentHashMap<>();
+    private final Map<String, BookEntity> bookMap = new ConcurrentHashMap<>();
     private final Map<Long, BookFileEntity> bookAdditionalFileRepository = new HashMap<>();
 
     public LibraryTestBuilder(MockedStatic<FileUtils> fileUtilsMock,
@@ -78,14 +82,14 @@ public class LibraryTestBuilder {
                     Long bookId = invocation.getArgument(0);
                     return getBookById(bookId);
                 });
-        when(bookRepositoryMock.findAllByLibraryPathIdAndFileSubPathStartingWith(anyLong(), any(String.class)))
+        when(bookRepositoryMock.findAllByLibraryPathIdAndFileSubPathIn(anyLong(), anyCollection()))
                 .thenAnswer(invocation -> {
                     Long libraryPathId = invocation.getArgument(0);
-                    String fileSubPath = invocation.getArgument(1);
+                    Collection<String> fileSubPaths = invocation.getArgument(1);
                     return bookRepository.values()
                             .stream()
                             .filter(book -> book.getLibraryPath().getId().equals(libraryPathId) &&
-                                    book.getPrimaryBookFile().getFileSubPath().startsWith(fileSubPath))
+                                    fileSubPaths.contains(book.getPrimaryBookFile().getFileSubPath()))
                             .toList();
                 });
 
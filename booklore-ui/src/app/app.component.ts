@@ -17,6 +17,7 @@ import {TaskProgressPayload, TaskService} from './features/settings/task-managem
 import {LibraryService} from './features/book/service/library.service';
 import {LibraryLoadingService} from './features/library-creator/library-loading.service';
 import {scan, withLatestFrom} from 'rxjs/operators';
+import {Book} from './features/book/model/book.model';
 
 @Component({
   selector: 'app-root',
@@ -70,23 +71,27 @@ export class AppComponent implements OnInit, OnDestroy {
 
   private setupWebSocketSubscriptions(): void {
     this.subscriptions.push(
-      this.rxStompService.watch('/user/queue/book-add').pipe(
+      this.rxStompService.watch('/user/queue/book-add').subscribe(msg =>
+        this.bookService.handleNewlyCreatedBook(JSON.parse(msg.body))
+      )
+    );
+    this.subscriptions.push(
+      this.rxStompService.watch('/user/queue/books-add').pipe(
         withLatestFrom(this.libraryService.largeLibraryLoading$),
         scan((acc, [msg, loadingState]) => {
-          const book = JSON.parse(msg.body);
-          if (loadingState.isLoading) {
-            const newCount = acc.count + 1;
-            this.libraryLoadingService.showBookLoadingProgress(book.metadata?.title || 'Unknown Book', newCount, loadingState.expectedCount);
-            this.bookService.handleNewlyCreatedBook(book);
+          const books = JSON.parse(msg.body) as Book[];
+          books.forEach(book => this.bookService.handleNewlyCreatedBook(book));
+          if (loadingState.isLoading && books.length > 0) {
+            const newCount = acc.count + books.length;
+            const lastBook = books[books.length - 1];
+            this.libraryLoadingService.showBookLoadingProgress(lastBook.metadata?.title || 'Unknown Book', newCount, loadingState.expectedCount);
             if (newCount >= loadingState.expectedCount) {
               this.libraryService.setLargeLibraryLoading(false, 0);
               return {count: 0};
             }
             return {count: newCount};
-          } else {
-            this.bookService.handleNewlyCreatedBook(book);
-            return {count: 0};
           }
+          return {count: 0};
         }, {count: 0})
       ).subscribe()
     );
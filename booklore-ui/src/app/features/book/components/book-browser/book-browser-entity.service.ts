@@ -3,7 +3,7 @@ import {ActivatedRoute} from '@angular/router';
 import {Observable, of, combineLatest} from 'rxjs';
 import {map, switchMap, take, catchError} from 'rxjs/operators';
 import {Library} from '../../model/library.model';
-import {Shelf} from '../../model/shelf.model';
+import {Shelf, ShelfBook} from '../../model/shelf.model';
 import {Book} from '../../model/book.model';
 import {BookState} from '../../model/state/book-state.model';
 import {SortOption} from '../../model/sort.model';
@@ -144,11 +144,18 @@ export class BookBrowserEntityService {
   }
 
   private fetchShelfBooks(shelfId: number, sortOption: SortOption): Observable<BookState> {
-    return this.shelfService.getBooksOnShelf(shelfId).pipe(
-      map(books => {
-        const sortedBooks = this.sortService.applySort(books, sortOption);
+    return combineLatest([
+      this.shelfService.getShelfBookEntries(shelfId),
+      this.bookService.bookState$
+    ]).pipe(
+      map(([entries, bookState]) => {
+        if (!bookState.loaded || bookState.error) {
+          return bookState;
+        }
+        const booksById = new Map((bookState.books || []).map(book => [book.id, book]));
+        const books = entries.map(entry => booksById.get(entry.id) ?? this.toBook(entry));
         return {
-          books: sortedBooks,
+          books: this.sortService.applySort(books, sortOption),
           loaded: true,
           error: null
         };
@@ -156,6 +163,22 @@ export class BookBrowserEntityService {
     );
   }
 
+  private toBook(entry: ShelfBook): Book {
+    return {
+      id: entry.id,
+      libraryId: entry.libraryId,
+      addedOn: entry.addedOn,
+      bookCoverHash: entry.bookCoverHash,
+      metadata: {
+        bookId: entry.id,
+        title: entry.title,
+        seriesName: entry.seriesName,
+        seriesNumber: entry.seriesNumber,
+        coverUpdatedOn: entry.coverUpdatedOn
+      }
+    } as Book;
+  }
+
   private fetchMagicShelfBooks(magicShelfId: number, sortOption: SortOption): Observable<BookState> {
     return combineLatest([
       this.bookService.bookState$,
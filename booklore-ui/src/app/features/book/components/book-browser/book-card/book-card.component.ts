@@ -9,6 +9,7 @@ import {CheckboxChangeEvent, CheckboxModule} from 'primeng/checkbox';
 import {FormsModule} from '@angular/forms';
 import {MetadataRefreshType} from '../../../../metadata/model/request/metadata-refresh-type.enum';
 import {UrlHelperService} from '../../../../../shared/service/url-helper.service';
+import {ThumbnailAtlasService, thumbnailSpriteStyle} from '../../../../../shared/service/thumbnail-atlas.service';
 import {NgClass} from '@angular/common';
 import {User, UserService} from '../../../../settings/user-management/user.service';
 import {filter, Subject} from 'rxjs';
@@ -62,6 +63,7 @@ export class BookCardComponent implements OnInit, OnChanges, OnDestroy {
   private messageService = inject(MessageService);
   private router = inject(Router);
   protected urlHelper = inject(UrlHelperService);
+  private thumbnailAtlasService = inject(ThumbnailAtlasService);
   private confirmationService = inject(ConfirmationService);
   private bookDialogHelperService = inject(BookDialogHelperService);
   private bookNavigationService = inject(BookNavigationService);
@@ -73,6 +75,8 @@ export class BookCardComponent implements OnInit, OnChanges, OnDestroy {
   protected _displayTitle: string | undefined = undefined;
   protected _isSeriesViewActive: boolean = false;
   protected _coverImageUrl: string = '';
+  protected _coverSpriteStyle: Record<string, string> | null = null;
+  private _coverKey: string | null = null;
   protected _readStatusIcon: string = '';
   protected _readStatusClass: string = '';
   protected _readStatusTooltip: string = '';
@@ -143,7 +147,7 @@ export class BookCardComponent implements OnInit, OnChanges, OnDestroy {
     this._displayTitle = (this.isSeriesCollapsed && this.book.metadata?.seriesName)
       ? this.book.metadata?.seriesName
       : this.book.metadata?.title;
-    this._coverImageUrl = this.urlHelper.getThumbnailUrl(this.book.id, this.book.metadata?.coverUpdatedOn);
+    this.updateCoverImage();
 
     this._readStatusIcon = this.readStatusHelper.getReadStatusIcon(this.book.readStatus);
     this._readStatusClass = this.readStatusHelper.getReadStatusClass(this.book.readStatus);
@@ -154,6 +158,37 @@ export class BookCardComponent implements OnInit, OnChanges, OnDestroy {
     this._titleTooltip = 'Title: ' + this._displayTitle;
   }
 
+  private updateCoverImage(): void {
+    const bookId = this.book.id;
+    const coverUpdatedOn = this.book.metadata?.coverUpdatedOn;
+    const coverHash = this.book.bookCoverHash;
+    if (!coverUpdatedOn) {
+      this._coverKey = null;
+      this._coverSpriteStyle = null;
+      this._coverImageUrl = this.urlHelper.getThumbnailUrl(bookId, coverUpdatedOn, coverHash);
+      return;
+    }
+
+    const coverKey = `${bookId}:${coverHash || coverUpdatedOn}`;
+    if (coverKey === this._coverKey) {
+      return;
+    }
+    this._coverKey = coverKey;
+    this.thumbnailAtlasService.getThumbnail(bookId, coverHash || coverUpdatedOn).then(sprite => {
+      if (this._coverKey !== coverKey) {
+        return;
+      }
+      if (sprite) {
+        this._coverSpriteStyle = thumbnailSpriteStyle(sprite);
+        this.isImageLoaded = true;
+      } else {
+        this._coverSpriteStyle = null;
+        this._coverImageUrl = this.urlHelper.getThumbnailUrl(bookId, coverUpdatedOn, coverHash);
+      }
+      this.cdr.markForCheck();
+    });
+  }
+
   get hasProgress(): boolean {
     return this._hasProgress;
   }
@@ -178,6 +213,10 @@ export class BookCardComponent implements OnInit, OnChanges, OnDestroy {
     return this._coverImageUrl;
   }
 
+  get coverSpriteStyle(): Record<string, string> | null {
+    return this._coverSpriteStyle;
+  }
+
   onImageLoad(): void {
     this.isImageLoaded = true;
     this.cdr.markForCheck();
@@ -34,6 +34,7 @@ export interface Book extends FileInfo {
   shelves?: Shelf[];
   lastReadTime?: string;
   addedOn?: string;
+  bookCoverHash?: string;
   epubProgress?: EpubProgress;
   pdfProgress?: PdfProgress;
   cbxProgress?: CbxProgress;
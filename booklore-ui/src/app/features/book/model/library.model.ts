@@ -1,6 +1,7 @@
 import {SortOption} from './sort.model';
 
 export type LibraryScanMode = 'FILE_AS_BOOK' | 'FOLDER_AS_BOOK';
+export type LibraryMonitorMode = 'WATCH' | 'POLL';
 export type BookFileType = 'PDF' | 'EPUB' | 'CBX' | 'FB2' | 'MOBI' | 'AZW3';
 
 export interface Library {
@@ -9,6 +10,7 @@ export interface Library {
   icon: string;
   iconType?: 'PRIME_NG' | 'CUSTOM_SVG';
   watch: boolean;
+  monitorMode?: LibraryMonitorMode;
   fileNamingPattern?: string;
   sort?: SortOption;
   paths: LibraryPath[];
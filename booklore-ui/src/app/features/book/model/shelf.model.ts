@@ -10,3 +10,14 @@ export interface Shelf {
   userId?: number;
   bookCount?: number;
 }
+
+export interface ShelfBook {
+  id: number;
+  libraryId: number;
+  title?: string;
+  seriesName?: string;
+  seriesNumber?: number | null;
+  addedOn?: string;
+  bookCoverHash?: string;
+  coverUpdatedOn?: string;
+}
@@ -55,7 +55,7 @@ export class BookSocketService {
     this.bookStateService.updateBookState({...currentState, books: updatedBooks});
   }
 
-  handleMultipleBookCoverPatches(patches: { id: number; coverUpdatedOn: string }[]): void {
+  handleMultipleBookCoverPatches(patches: { id: number; coverUpdatedOn: string; bookCoverHash?: string }[]): void {
     if (!patches || patches.length === 0) return;
     const currentState = this.bookStateService.getCurrentBookState();
     const books = currentState.books || [];
@@ -63,6 +63,7 @@ export class BookSocketService {
       const index = books.findIndex(b => b.id === p.id);
       if (index !== -1 && books[index].metadata) {
         books[index].metadata.coverUpdatedOn = p.coverUpdatedOn;
+        books[index].bookCoverHash = p.bookCoverHash;
       }
     });
     this.bookStateService.updateBookState({...currentState, books});
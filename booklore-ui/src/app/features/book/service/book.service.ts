@@ -618,7 +618,7 @@ export class BookService {
     this.bookSocketService.handleBookMetadataUpdate(bookId, updatedMetadata);
   }
 
-  handleMultipleBookCoverPatches(patches: { id: number; coverUpdatedOn: string }[]): void {
+  handleMultipleBookCoverPatches(patches: { id: number; coverUpdatedOn: string; bookCoverHash?: string }[]): void {
     this.bookSocketService.handleMultipleBookCoverPatches(patches);
   }
 }
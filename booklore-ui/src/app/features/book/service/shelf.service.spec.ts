@@ -124,6 +124,19 @@ describe('ShelfService', () => {
     expect(service.getShelfById(999)).toBeUndefined();
   });
 
+  it('should read every page of shelf book entries', async () => {
+    httpClientMock.get
+      .mockReturnValueOnce(of({content: [{id: 1, libraryId: 1}], number: 0, last: false}))
+      .mockReturnValueOnce(of({content: [{id: 2, libraryId: 1}], number: 1, last: true}));
+
+    const entries = await firstValueFrom(service.getShelfBookEntries(7));
+
+    expect(entries.map(entry => entry.id)).toEqual([1, 2]);
+    expect(httpClientMock.get).toHaveBeenCalledTimes(2);
+    expect(httpClientMock.get.mock.calls[1][0]).toContain('/shelves/7/books/page');
+    expect(httpClientMock.get.mock.calls[1][1].params.page).toBe(1);
+  });
+
   it('should get unshelved book count', async () => {
     const count = await firstValueFrom(service.getUnshelvedBookCount());
     expect(count).toBe(2);
@@ -1,17 +1,19 @@
 import {inject, Injectable} from '@angular/core';
 import {HttpClient} from '@angular/common/http';
-import {BehaviorSubject, combineLatest, Observable, of} from 'rxjs';
-import {tap, catchError, map, shareReplay, finalize} from 'rxjs/operators';
+import {BehaviorSubject, combineLatest, EMPTY, Observable, of} from 'rxjs';
+import {tap, catchError, map, shareReplay, finalize, expand, reduce} from 'rxjs/operators';
 
-import {Shelf} from '../model/shelf.model';
+import {Shelf, ShelfBook} from '../model/shelf.model';
 import {ShelfState} from '../model/state/shelf-state.model';
 import {BookService} from './book.service';
 import {API_CONFIG} from '../../../core/config/api-config';
-import {Book} from '../model/book.model';
 import {UserService} from '../../settings/user-management/user.service';
+import {PageableResponse} from '../../../shared/service/reading-session-api.service';
 
 @Injectable({providedIn: 'root'})
 export class ShelfService {
+  private static readonly SHELF_BOOKS_PAGE_SIZE = 500;
+
   private readonly url = `${API_CONFIG.BASE_URL}/api/v1/shelves`;
   private http = inject(HttpClient);
   private bookService = inject(BookService);
@@ -124,8 +126,17 @@ export class ShelfService {
     );
   }
 
-  getBooksOnShelf(shelfId: number): Observable<Book[]> {
-    return this.http.get<Book[]>(`${this.url}/${shelfId}/books`);
+  getShelfBooksPage(shelfId: number, page: number, size = ShelfService.SHELF_BOOKS_PAGE_SIZE): Observable<PageableResponse<ShelfBook>> {
+    return this.http.get<PageableResponse<ShelfBook>>(`${this.url}/${shelfId}/books/page`, {
+      params: {page, size, sort: 'id'}
+    });
+  }
+
+  getShelfBookEntries(shelfId: number): Observable<ShelfBook[]> {
+    return this.getShelfBooksPage(shelfId, 0).pipe(
+      expand(page => page.last ? EMPTY : this.getShelfBooksPage(shelfId, page.number + 1)),
+      reduce((entries, page) => entries.concat(page.content), [] as ShelfBook[])
+    );
   }
 
   getUnshelvedBookCount(): Observable<number> {
@@ -7,7 +7,7 @@ import {TableModule} from 'primeng/table';
 import {Step, StepList, StepPanel, StepPanels, Stepper} from 'primeng/stepper';
 import {FormsModule} from '@angular/forms';
 import {InputText} from 'primeng/inputtext';
-import {BookFileType, Library, LibraryScanMode} from '../book/model/library.model';
+import {BookFileType, Library, LibraryMonitorMode, LibraryScanMode} from '../book/model/library.model';
 import {ToggleSwitch} from 'primeng/toggleswitch';
 import {Tooltip} from 'primeng/tooltip';
 import {IconPickerService, IconSelection} from '../../shared/service/icon-picker.service';
@@ -34,6 +34,7 @@ export class LibraryCreatorComponent implements OnInit {
   library!: Library | undefined;
   editModeLibraryName: string = '';
   watch: boolean = false;
+  monitorMode: LibraryMonitorMode = 'WATCH';
   scanMode: LibraryScanMode = 'FILE_AS_BOOK';
   defaultBookFormat: BookFileType | undefined = undefined;
 
@@ -42,6 +43,11 @@ export class LibraryCreatorComponent implements OnInit {
     {label: 'Each folder is a book with extras (Deprecated)', value: 'FOLDER_AS_BOOK'}
   ];
 
+  readonly monitorModeOptions = [
+    {label: 'File system events (local disks)', value: 'WATCH'},
+    {label: 'Periodic polling (NFS/SMB shares)', value: 'POLL'}
+  ];
+
   readonly bookFormatOptions = [
     {label: 'None', value: undefined},
     {label: 'EPUB', value: 'EPUB'},
@@ -63,7 +69,7 @@ export class LibraryCreatorComponent implements OnInit {
       this.mode = data.mode;
       this.library = this.libraryService.findLibraryById(data.libraryId);
       if (this.library) {
-        const {name, icon, iconType, paths, watch, scanMode, defaultBookFormat} = this.library;
+        const {name, icon, iconType, paths, watch, monitorMode, scanMode, defaultBookFormat} = this.library;
         this.chosenLibraryName = name;
         this.editModeLibraryName = name;
 
@@ -75,6 +81,7 @@ export class LibraryCreatorComponent implements OnInit {
         }
 
         this.watch = watch;
+        this.monitorMode = monitorMode || 'WATCH';
         this.scanMode = scanMode || 'FILE_AS_BOOK';
         this.defaultBookFormat = defaultBookFormat || undefined;
         this.folders = paths.map(path => path.path);
@@ -155,6 +162,7 @@ export class LibraryCreatorComponent implements OnInit {
       iconType: iconType,
       paths: this.folders.map(folder => ({path: folder})),
       watch: this.watch,
+      monitorMode: this.monitorMode,
       scanMode: this.scanMode,
       defaultBookFormat: this.defaultBookFormat
     };
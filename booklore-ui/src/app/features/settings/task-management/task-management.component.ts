@@ -54,6 +54,7 @@ export class TaskManagementComponent implements OnInit, OnDestroy {
     }
   ];
   selectedMetadataReplaceMode: MetadataReplaceMode = MetadataReplaceMode.REPLACE_MISSING;
+  forceRescan = false;
 
   // Cron Editing State
   cronUpdating = false;
@@ -168,7 +169,8 @@ export class TaskManagementComponent implements OnInit, OnDestroy {
 
     if (type === TaskType.REFRESH_LIBRARY_METADATA) {
       options = {
-        metadataReplaceMode: this.selectedMetadataReplaceMode
+        metadataReplaceMode: this.selectedMetadataReplaceMode,
+        forceRescan: this.forceRescan
       };
     }
 
@@ -453,7 +455,8 @@ export class TaskManagementComponent implements OnInit, OnDestroy {
       [TaskType.UPDATE_BOOK_RECOMMENDATIONS]: 'pi-sparkles',
       [TaskType.CLEANUP_DELETED_BOOKS]: 'pi-trash',
       [TaskType.SYNC_LIBRARY_FILES]: 'pi-sync',
-      [TaskType.CLEANUP_TEMP_METADATA]: 'pi-file'
+      [TaskType.CLEANUP_TEMP_METADATA]: 'pi-file',
+      [TaskType.REGENERATE_COVERS]: 'pi-image'
     };
     return icons[taskType] || 'pi-cog';
   }
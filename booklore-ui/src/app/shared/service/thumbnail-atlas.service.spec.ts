@@ -0,0 +1,81 @@
+import {afterEach, beforeEach, describe, expect, it, vi} from 'vitest';
+import {TestBed} from '@angular/core/testing';
+import {HttpClient} from '@angular/common/http';
+import {of, throwError} from 'rxjs';
+import {ThumbnailAtlasService, thumbnailSpriteStyle} from './thumbnail-atlas.service';
+import {UrlHelperService} from './url-helper.service';
+
+describe('ThumbnailAtlasService', () => {
+  let service: ThumbnailAtlasService;
+  let httpClientMock: any;
+  let urlHelperMock: any;
+
+  beforeEach(() => {
+    vi.useFakeTimers();
+    httpClientMock = {
+      get: vi.fn().mockReturnValue(throwError(() => new Error('offline')))
+    };
+    urlHelperMock = {
+      getThumbnailAtlasManifestUrl: vi.fn((atlas: number) => `thumbnail-atlas/${atlas}/manifest`),
+      getThumbnailAtlasUrl: vi.fn()
+    };
+
+    TestBed.configureTestingModule({
+      providers: [
+        {provide: HttpClient, useValue: httpClientMock},
+        {provide: UrlHelperService, useValue: urlHelperMock}
+      ]
+    });
+
+    service = TestBed.inject(ThumbnailAtlasService);
+  });
+
+  afterEach(() => {
+    vi.useRealTimers();
+  });
+
+  it('should request one manifest per atlas for thumbnails requested in the same render pass', async () => {
+    const first = service.getThumbnail(1, 'BL-A');
+    const second = service.getThumbnail(2, 'BL-B');
+    const duplicate = service.getThumbnail(1, 'BL-A');
+
+    expect(httpClientMock.get).not.toHaveBeenCalled();
+    vi.advanceTimersByTime(20);
+
+    expect(httpClientMock.get).toHaveBeenCalledTimes(1);
+    expect(urlHelperMock.getThumbnailAtlasManifestUrl).toHaveBeenCalledWith(0);
+    await expect(first).resolves.toBeNull();
+    await expect(second).resolves.toBeNull();
+    await expect(duplicate).resolves.toBeNull();
+  });
+
+  it('should group thumbnails by the atlas their book id falls in', () => {
+    service.getThumbnail(59, 'v59');
+    service.getThumbnail(60, 'v60');
+    service.getThumbnail(125, 'v125');
+    vi.advanceTimersByTime(20);
+
+    expect(urlHelperMock.getThumbnailAtlasManifestUrl.mock.calls.map((call: number[]) => call[0])).toEqual([0, 1, 2]);
+  });
+
+  it('should resolve to null when no requested book has an atlas entry', async () => {
+    httpClientMock.get.mockReturnValue(of({atlas: 0, version: 'v', width: 2500, height: 0, entries: []}));
+
+    const thumbnail = service.getThumbnail(3, 'BL-C');
+    vi.advanceTimersByTime(20);
+
+    await expect(thumbnail).resolves.toBeNull();
+    expect(urlHelperMock.getThumbnailAtlasUrl).not.toHaveBeenCalled();
+  });
+});
+
+describe('thumbnailSpriteStyle', () => {
+  it('should position the cell as a background and letterbox wide covers', () => {
+    const style = thumbnailSpriteStyle({url: 'atlas', x: 250, y: 50, width: 250, height: 250, atlasWidth: 2500, atlasHeight: 350});
+
+    expect(style['background-size']).toBe('1000% 140%');
+    expect(style['background-position']).toBe(`${250 / 2250 * 100}% 50%`);
+    expect(style['width']).toBe('100%');
+    expect(style['height']).toBe('auto');
+  });
+});
@@ -0,0 +1,164 @@
+import {inject, Injectable} from '@angular/core';
+import {HttpClient} from '@angular/common/http';
+import {firstValueFrom} from 'rxjs';
+import {UrlHelperService} from './url-helper.service';
+
+interface ThumbnailAtlasManifest {
+  atlas: number;
+  version: string;
+  width: number;
+  height: number;
+  entries: { bookId: number; x: number; y: number; width: number; height: number }[];
+}
+
+interface PendingThumbnail {
+  bookId: number;
+  resolvers: ((sprite: ThumbnailSprite | null) => void)[];
+}
+
+/**
+ * Where a book's thumbnail sits inside an atlas image, in atlas pixels.
+ */
+export interface ThumbnailSprite {
+  url: string;
+  x: number;
+  y: number;
+  width: number;
+  height: number;
+  atlasWidth: number;
+  atlasHeight: number;
+}
+
+/**
+ * CSS that shows a sprite's thumbnail as the background of an element, letterboxed inside a 5:7 cover box.
+ */
+export function thumbnailSpriteStyle(sprite: ThumbnailSprite): Record<string, string> {
+  const position = (offset: number, size: number, total: number) => total === size ? 0 : offset / (total - size) * 100;
+  const wide = sprite.width / sprite.height >= 5 / 7;
+  return {
+    'background-image': `url("${sprite.url}")`,
+    'background-size': `${sprite.atlasWidth / sprite.width * 100}% ${sprite.atlasHeight / sprite.height * 100}%`,
+    'background-position': `${position(sprite.x, sprite.width, sprite.atlasWidth)}% ${position(sprite.y, sprite.height, sprite.atlasHeight)}%`,
+    'background-repeat': 'no-repeat',
+    'aspect-ratio': `${sprite.width} / ${sprite.height}`,
+    'width': wide ? '100%' : 'auto',
+    'height': wide ? 'auto' : '100%'
+  };
+}
+
+/**
+ * Loads grid thumbnails through atlases: atlas n holds the covers of book IDs n * {@link BOOKS_PER_ATLAS} up to the
+ * next atlas, so requests made during one render pass are grouped by atlas and every view shares the same atlas URLs.
+ * The manifest is revalidated by ETag and the atlas image is cached under its version, and cards draw their cover as a
+ * CSS sprite of the atlas without decoding or re-encoding cells. Resolves to `null` when a cover could not be loaded
+ * this way; callers fall back to the single thumbnail URL.
+ */
+@Injectable({
+  providedIn: 'root'
+})
+export class ThumbnailAtlasService {
+  private static readonly BOOKS_PER_ATLAS = 60;
+  private static readonly BATCH_WINDOW_MS = 16;
+  private static readonly MAX_CACHED_SPRITES = 5000;
+
+  private http = inject(HttpClient);
+  private urlHelper = inject(UrlHelperService);
+
+  private pending = new Map<number, Map<string, PendingThumbnail>>();
+  private sprites = new Map<string, ThumbnailSprite>();
+  private atlasImages = new Map<string, Promise<void>>();
+  private flushTimer: ReturnType<typeof setTimeout> | null = null;
+
+  getThumbnail(bookId: number, coverVersion: string): Promise<ThumbnailSprite | null> {
+    const key = `${bookId}:${coverVersion}`;
+    const cached = this.sprites.get(key);
+    if (cached) {
+      return Promise.resolve(cached);
+    }
+    return new Promise(resolve => {
+      const atlas = Math.floor(bookId / ThumbnailAtlasService.BOOKS_PER_ATLAS);
+      let batch = this.pending.get(atlas);
+      if (!batch) {
+        batch = new Map();
+        this.pending.set(atlas, batch);
+      }
+      const pending = batch.get(key);
+      if (pending) {
+        pending.resolvers.push(resolve);
+      } else {
+        batch.set(key, {bookId, resolvers: [resolve]});
+      }
+      if (!this.flushTimer) {
+        this.flushTimer = setTimeout(() => this.flush(), ThumbnailAtlasService.BATCH_WINDOW_MS);
+      }
+    });
+  }
+
+  private flush(): void {
+    this.flushTimer = null;
+    const batches = [...this.pending.entries()];
+    this.pending.clear();
+    for (const [atlas, batch] of batches) {
+      this.loadAtlas(atlas, [...batch.entries()]).catch(() => this.resolveAll(batch.values(), null));
+    }
+  }
+
+  private async loadAtlas(atlas: number, batch: [string, PendingThumbnail][]): Promise<void> {
+    const manifest = await firstValueFrom(this.http.get<ThumbnailAtlasManifest>(this.urlHelper.getThumbnailAtlasManifestUrl(atlas)));
+    const entries = new Map(manifest.entries.map(entry => [entry.bookId, entry]));
+    if (!batch.some(([, pending]) => entries.has(pending.bookId))) {
+      this.resolveAll(batch.map(([, pending]) => pending), null);
+      return;
+    }
+
+    const url = this.urlHelper.getThumbnailAtlasUrl(atlas, manifest.version);
+    await this.loadImage(url);
+    for (const [key, pending] of batch) {
+      const entry = entries.get(pending.bookId);
+      let sprite: ThumbnailSprite | null = null;
+      if (entry) {
+        sprite = {
+          url,
+          x: entry.x,
+          y: entry.y,
+          width: entry.width,
+          height: entry.height,
+          atlasWidth: manifest.width,
+          atlasHeight: manifest.height
+        };
+        this.remember(key, sprite);
+      }
+      pending.resolvers.forEach(resolve => resolve(sprite));
+    }
+  }
+
+  /**
+   * Decodes the atlas once before any card uses it, so covers appear together and a failed download falls back to
+   * single thumbnails instead of leaving empty backgrounds.
+   */
+  private loadImage(url: string): Promise<void> {
+    let loading = this.atlasImages.get(url);
+    if (!loading) {
+      const image = new Image();
+      image.src = url;
+      loading = image.decode();
+      loading.catch(() => this.atlasImages.delete(url));
+      this.atlasImages.set(url, loading);
+    }
+    return loading;
+  }
+
+  private remember(key: string, sprite: ThumbnailSprite): void {
+    this.sprites.set(key, sprite);
+    if (this.sprites.size > ThumbnailAtlasService.MAX_CACHED_SPRITES) {
+      const oldestKey = this.sprites.keys().next().value!;
+      this.sprites.delete(oldestKey);
+    }
+  }
+
+  private resolveAll(batch: Iterable<PendingThumbnail>, sprite: ThumbnailSprite | null): void {
+    for (const pending of batch) {
+      pending.resolvers.forEach(resolve => resolve(sprite));
+    }
+  }
+}
@@ -94,7 +94,7 @@ describe('UrlHelperService', () => {
     it('should use API url if coverUpdatedOn present', () => {
       authServiceMock.getOidcAccessToken.mockReturnValue('tok');
       const url = service.getThumbnailUrl(2, 'v123');
-      expect(url).toMatch(/\/api\/v1\/media\/book\/2\/thumbnail\?v123.*token=tok/);
+      expect(url).toMatch(/\/api\/v1\/media\/book\/2\/thumbnail\?v=v123.*token=tok/);
     });
 
     it('should use API url if no book in state', () => {
@@ -122,6 +122,26 @@ describe('UrlHelperService', () => {
       genSpy.mockRestore();
     });
 
+    it('should prefer the cover hash as version', () => {
+      authServiceMock.getOidcAccessToken.mockReturnValue('tok');
+      const url = service.getThumbnailUrl(2, '2024-01-01T00:00:00Z', 'BL-ABC');
+      expect(url).toMatch(/\/api\/v1\/media\/book\/2\/thumbnail\?v=BL-ABC&token=tok/);
+    });
+
+    it('should request a smaller width when given', () => {
+      authServiceMock.getOidcAccessToken.mockReturnValue('tok');
+      const url = service.getThumbnailUrl(2, '2024-01-01T00:00:00Z', 'BL-ABC', 120);
+      expect(url).toMatch(/\/api\/v1\/media\/book\/2\/thumbnail\?v=BL-ABC&w=120&token=tok/);
+    });
+
+    it('should list every stored width in the srcset', () => {
+      authServiceMock.getOidcAccessToken.mockReturnValue(null);
+      authServiceMock.getInternalAccessToken.mockReturnValue(null);
+      const srcset = service.getThumbnailSrcset(2, '2024-01-01T00:00:00Z', 'BL-ABC');
+      expect(srcset).toMatch(/thumbnail\?v=BL-ABC&w=120 120w, .*&w=250 250w, .*&w=500 500w$/);
+      expect(service.getThumbnailSrcset(2, undefined)).toBeUndefined();
+    });
+
     it('should handle coverUpdatedOn with empty string', () => {
       authServiceMock.getOidcAccessToken.mockReturnValue('tok');
       const url = service.getThumbnailUrl(2, '');
@@ -133,7 +153,7 @@ describe('UrlHelperService', () => {
     it('should always use API url and append token', () => {
       authServiceMock.getOidcAccessToken.mockReturnValue('tok');
       const url = service.getThumbnailUrl1(4, 'v456');
-      expect(url).toMatch(/\/api\/v1\/media\/book\/4\/thumbnail\?v456.*token=tok/);
+      expect(url).toMatch(/\/api\/v1\/media\/book\/4\/thumbnail\?v=v456.*token=tok/);
     });
 
     it('should handle undefined coverUpdatedOn', () => {
@@ -157,7 +177,7 @@ describe('UrlHelperService', () => {
     it('should use API url if coverUpdatedOn present', () => {
       authServiceMock.getOidcAccessToken.mockReturnValue('tok');
       const url = service.getCoverUrl(6, 'v789');
-      expect(url).toMatch(/\/api\/v1\/media\/book\/6\/cover\?v789.*token=tok/);
+      expect(url).toMatch(/\/api\/v1\/media\/book\/6\/cover\?v=v789.*token=tok/);
     });
 
     it('should use API url if no book in state', () => {
@@ -335,7 +355,7 @@ describe('UrlHelperService - API Contract Tests', () => {
   it('should generate correct API endpoints for covers and thumbnails', () => {
     authServiceMock.getOidcAccessToken.mockReturnValue('tok');
     expect(service.getThumbnailUrl1(11)).toMatch(/\/api\/v1\/media\/book\/11\/thumbnail\?token=tok/);
-    expect(service.getCoverUrl(12, 'v1')).toMatch(/\/api\/v1\/media\/book\/12\/cover\?v1.*token=tok/);
+    expect(service.getCoverUrl(12, 'v1')).toMatch(/\/api\/v1\/media\/book\/12\/cover\?v=v1.*token=tok/);
     expect(service.getBackupCoverUrl(13)).toMatch(/\/api\/v1\/media\/book\/13\/backup-cover\?token=tok/);
     expect(service.getBookdropCoverUrl(14)).toMatch(/\/api\/v1\/media\/bookdrop\/14\/cover\?token=tok/);
   });
@@ -6,6 +6,8 @@ import {CoverGeneratorComponent} from '../components/cover-generator/cover-gener
 import {Router} from '@angular/router';
 import {Book} from '../../features/book/model/book.model';
 
+export const THUMBNAIL_WIDTHS = [120, 250, 500];
+
 @Injectable({
   providedIn: 'root'
 })
@@ -25,7 +27,19 @@ export class UrlHelperService {
     return token ? `${url}${url.includes('?') ? '&' : '?'}token=${token}` : url;
   }
 
-  getThumbnailUrl(bookId: number, coverUpdatedOn?: string): string {
+  /**
+   * The cover hash (or, failing that, the cover timestamp) goes into the URL as `v`, which lets the server mark the
+   * response immutable: a changed cover gets a new URL instead of being revalidated.
+   */
+  private appendCoverVersion(url: string, version?: string): string {
+    return version ? `${url}?v=${encodeURIComponent(version)}` : url;
+  }
+
+  /**
+   * Thumbnails are stored at a few widths (see `THUMBNAIL_WIDTHS`); pass `width` for small renditions such as table rows
+   * and search results so they do not download the full-size grid thumbnail.
+   */
+  getThumbnailUrl(bookId: number, coverUpdatedOn?: string, coverHash?: string, width?: number): string {
     if (!coverUpdatedOn) {
       const book = this.bookService.getBookByIdFromState(bookId);
       if (book && book.metadata) {
@@ -35,22 +49,29 @@ export class UrlHelperService {
         return coverGenerator.generateCover();
       }
     }
-    let url = `${this.mediaBaseUrl}/book/${bookId}/thumbnail`;
-    if (coverUpdatedOn) {
-      url += `?${coverUpdatedOn}`;
+    const url = this.appendCoverVersion(`${this.mediaBaseUrl}/book/${bookId}/thumbnail`, coverHash || coverUpdatedOn);
+    return this.appendToken(width ? `${url}${url.includes('?') ? '&' : '?'}w=${width}` : url);
+  }
+
+  /**
+   * `srcset` listing every stored thumbnail width, letting the browser pick the smallest one that fills the slot at
+   * the device's pixel ratio. Returns undefined for generated placeholder covers, which have a single size.
+   */
+  getThumbnailSrcset(bookId: number, coverUpdatedOn?: string, coverHash?: string): string | undefined {
+    if (!coverUpdatedOn) {
+      return undefined;
     }
-    return this.appendToken(url);
+    return THUMBNAIL_WIDTHS
+      .map(width => `${this.getThumbnailUrl(bookId, coverUpdatedOn, coverHash, width)} ${width}w`)
+      .join(', ');
   }
 
   getThumbnailUrl1(bookId: number, coverUpdatedOn?: string): string {
-    let url = `${this.mediaBaseUrl}/book/${bookId}/thumbnail`;
-    if (coverUpdatedOn) {
-      url += `?${coverUpdatedOn}`;
-    }
-    return this.appendToken(url);
+    const url = `${this.mediaBaseUrl}/book/${bookId}/thumbnail`;
+    return this.appendToken(this.appendCoverVersion(url, coverUpdatedOn));
   }
 
-  getCoverUrl(bookId: number, coverUpdatedOn?: string): string {
+  getCoverUrl(bookId: number, coverUpdatedOn?: string, coverHash?: string): string {
     if (!coverUpdatedOn) {
       const book = this.bookService.getBookByIdFromState(bookId);
       if (book && book.metadata) {
@@ -60,11 +81,16 @@ export class UrlHelperService {
         return coverGenerator.generateCover();
       }
     }
-    let url = `${this.mediaBaseUrl}/book/${bookId}/cover`;
-    if (coverUpdatedOn) {
-      url += `?${coverUpdatedOn}`;
-    }
-    return this.appendToken(url);
+    const url = `${this.mediaBaseUrl}/book/${bookId}/cover`;
+    return this.appendToken(this.appendCoverVersion(url, coverHash || coverUpdatedOn));
+  }
+
+  getThumbnailAtlasManifestUrl(atlas: number): string {
+    return this.appendToken(`${this.mediaBaseUrl}/thumbnail-atlas/${atlas}/manifest`);
+  }
+
+  getThumbnailAtlasUrl(atlas: number, version: string): string {
+    return this.appendToken(`${this.mediaBaseUrl}/thumbnail-atlas/${atlas}?v=${encodeURIComponent(version)}`);
   }
 
   getBackupCoverUrl(bookId: number): string {